@@ -0,0 +1,97 @@
+package domaine.banc;
+
+import domaine.graphe.Graphe;
+import domaine.meuble.Meuble;
+import domaine.meuble.MeubleFactory;
+import domaine.meuble.TypeMeuble;
+import domaine.piece.Piece;
+import domaine.piece.PieceFactory;
+
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Banc d'essai de la génération du graphe (Graphe.genererGrapheAvecValidation)
+ *
+ * Paramètres : taille de la pièce, espacement, contour rectangulaire ou en escalier,
+ * densité de meubles (part des emplacements occupés) et mode confirmé ou non.
+ * Exemple : java -Dbanc.mesure=500 domaine.banc.BancGraphe 240x180
+ */
+public final class BancGraphe {
+
+    private static final int[][] TAILLES = { {120, 96}, {240, 180}, {480, 360} };
+    private static final int[] ESPACEMENTS = { 2, 3, 6 }; // en pouces
+    private static final double[] DENSITES = { 0, 0.25, 0.5 };
+    private static final int MARCHES = 8; // contour irrégulier : 2 * MARCHES + 3 sommets
+    private static final int EMPLACEMENT = 36; // meuble de 30" et dégagement de 6"
+
+    private BancGraphe() {}
+
+    public static void main(String[] args) {
+        HarnaisBanc harnais = new HarnaisBanc(args);
+        for (int[] taille : TAILLES) {
+            for (boolean irreguliere : new boolean[] { false, true }) {
+                for (double densite : DENSITES) {
+                    Piece piece = creerPiece(taille[0], taille[1], irreguliere, densite);
+                    for (int espacement : ESPACEMENTS) {
+                        for (boolean confirmee : new boolean[] { false, true }) {
+                            String parametres = String.format("%dx%d %s esp=%d meubles=%d %s",
+                                taille[0], taille[1], irreguliere ? "escalier" : "rect", espacement,
+                                piece.getMeubles().size(), confirmee ? "confirmee" : "libre");
+                            if (!harnais.estSelectionne("graphe.generer", parametres)) {
+                                continue;
+                            }
+                            Graphe graphe = new Graphe(piece.getLargeur(), piece.getLongueur());
+                            graphe.setEspacement(espacement * 32);
+                            graphe.setConfirmee(confirmee);
+                            harnais.mesurer("graphe.generer", parametres, () -> {
+                                graphe.genererGrapheAvecValidation(piece);
+                                return graphe;
+                            }).ajouterMetrique("intersections", graphe.getIntersections().size());
+                        }
+                    }
+                }
+            }
+        }
+        harnais.terminer();
+    }
+
+    /**
+     * Crée une pièce rectangulaire ou en escalier (moitié droite en marches d'escalier)
+     * Les meubles occupent une part des emplacements de la moitié gauche, toujours dans la pièce.
+     */
+    static Piece creerPiece(int largeur, int longueur, boolean irreguliere, double densite) {
+        Piece piece;
+        if (irreguliere) {
+            List<Point> points = new ArrayList<>();
+            points.add(new Point(0, 0));
+            points.add(new Point(largeur, 0));
+            int x = largeur;
+            for (int i = 1; i <= MARCHES; i++) {
+                int y = longueur * i / MARCHES;
+                points.add(new Point(x, y));
+                x = largeur - (largeur / 2) * i / MARCHES;
+                points.add(new Point(x, y));
+            }
+            points.add(new Point(0, longueur));
+            piece = PieceFactory.creerIrreguliere(points);
+        } else {
+            piece = PieceFactory.creerRectangulaire(largeur, longueur);
+        }
+
+        int colonnes = (largeur / 2) / EMPLACEMENT;
+        int lignes = longueur / EMPLACEMENT;
+        int nombre = (int) Math.round(colonnes * lignes * densite);
+        TypeMeuble[] types = TypeMeuble.values();
+        for (int i = 0; i < nombre; i++) {
+            int colonne = i % colonnes;
+            int ligne = i / colonnes;
+            Meuble m = MeubleFactory.creerDepuisType(types[i % types.length].getNom(),
+                new Point(3 + colonne * EMPLACEMENT, 3 + ligne * EMPLACEMENT), 30, 30);
+            m.setNom("M" + i);
+            piece.ajouterMeuble(m);
+        }
+        return piece;
+    }
+}
@@ -0,0 +1,127 @@
+package domaine.banc;
+
+import domaine.Controleur;
+import domaine.UndoRedo;
+import domaine.dto.PieceDTO;
+import domaine.dto.PieceMapper;
+import domaine.piece.JournalModifications.TypeModification;
+import domaine.piece.Piece;
+import domaine.sauvegarde.EtatPieceMapper;
+import domaine.sauvegarde.FormatBinaire;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Banc d'essai de l'historique (undo/redo), du mapping et de la sauvegarde
+ *
+ * Pièces synthétiques de taille croissante (meubles et sommets du chemin du fil) :
+ * PieceMapper.toDTO (en cache, après un meuble modifié, complet), UndoRedo.enregistrerEtat, un cycle undo/redo de UndoRedo seul puis
+ * de Controleur (qui restaure la pièce depuis le DTO), sauvegarder et un aller-retour
+ * sauvegarder/charger. Les percentiles de latence et les octets alloués par opération
+ * indiquent le coût d'une étape d'historique et d'une sauvegarde.
+ */
+public final class BancHistorique {
+
+    private static final int[][] TAILLES = { {10, 100}, {100, 1000}, {500, 5000} }; // meubles, sommets
+
+    private BancHistorique() {}
+
+    public static void main(String[] args) throws IOException, ClassNotFoundException {
+        HarnaisBanc harnais = new HarnaisBanc(args);
+        Path fichier = Files.createTempFile("banc-historique", ".glo");
+        fichier.toFile().deleteOnExit();
+
+        for (int[] taille : TAILLES) {
+            String parametres = String.format("meubles=%d sommets=%d", taille[0], taille[1]);
+            Piece piece = BancValidation.pieceMeublee(taille[0]);
+            piece.getFilChauffant().setChemin(BancValidation.cheminSerpentin(taille[1]));
+            PieceDTO dto = PieceMapper.toDTO(piece);
+
+            // DTO en cache (pièce inchangée), après la modification d'un meuble, puis de toute la pièce
+            if (harnais.estSelectionne("mapping.toDTO.cache", parametres)) {
+                harnais.mesurer("mapping.toDTO.cache", parametres, () -> PieceMapper.toDTO(piece));
+            }
+            if (harnais.estSelectionne("mapping.toDTO.meuble", parametres)) {
+                int id = piece.getMeubles().iterator().next().getId();
+                harnais.mesurer("mapping.toDTO.meuble", parametres, () -> {
+                    piece.marquerModifie(Piece.Partie.MEUBLES, id, TypeModification.MODIFICATION);
+                    return PieceMapper.toDTO(piece);
+                });
+            }
+            if (harnais.estSelectionne("mapping.toDTO.complet", parametres)) {
+                harnais.mesurer("mapping.toDTO.complet", parametres, () -> {
+                    piece.marquerToutModifie();
+                    return PieceMapper.toDTO(piece);
+                });
+            }
+
+            if (harnais.estSelectionne("historique.enregistrer", parametres)) {
+                UndoRedo historique = new UndoRedo();
+                harnais.mesurer("historique.enregistrer", parametres, () -> {
+                    historique.enregistrerEtat(dto);
+                    return historique;
+                });
+            }
+
+            if (harnais.estSelectionne("historique.undo+redo", parametres)) {
+                // Mêmes appels que Controleur.Undo puis Redo, sans la restauration de la pièce
+                UndoRedo historique = new UndoRedo();
+                historique.enregistrerEtat(dto);
+                harnais.mesurer("historique.undo+redo", parametres, () -> {
+                    historique.enregistrerPourRedo(dto);
+                    historique.undo();
+                    historique.ajouterAUndoSansViderRedo(dto);
+                    return historique.redo();
+                });
+            }
+
+            // Le contrôleur charge la même pièce depuis un fichier
+            FormatBinaire.ecrire(EtatPieceMapper.versEtat(piece), fichier);
+            Controleur controleur = new Controleur();
+            controleur.charger(fichier.toFile());
+
+            if (harnais.estSelectionne("controleur.undo+redo", parametres)) {
+                controleur.enregistrerEtatPourUndo();
+                harnais.mesurer("controleur.undo+redo", parametres, () -> controleur.Undo() && controleur.Redo());
+            }
+
+            if (harnais.estSelectionne("persistance.sauvegarder", parametres)) {
+                harnais.mesurer("persistance.sauvegarder", parametres, () -> {
+                    sauvegarder(controleur, fichier.toFile());
+                    return fichier;
+                }).ajouterMetrique("octets_fichier", fichier.toFile().length());
+            }
+
+            if (harnais.estSelectionne("persistance.aller-retour", parametres)) {
+                harnais.mesurer("persistance.aller-retour", parametres, () -> {
+                    sauvegarder(controleur, fichier.toFile());
+                    charger(controleur, fichier.toFile());
+                    return controleur;
+                });
+            }
+        }
+        harnais.terminer();
+    }
+
+    private static void sauvegarder(Controleur controleur, File fichier) {
+        try {
+            controleur.sauvegarder(fichier);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void charger(Controleur controleur, File fichier) {
+        try {
+            controleur.charger(fichier);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package domaine.banc;
+
+import domaine.chauffage.CalculateurCheminDijkstra;
+import domaine.chauffage.CalculateurCheminFil;
+import domaine.chauffage.ContraintesRoutage;
+import domaine.chauffage.FilChauffant;
+import domaine.graphe.Graphe;
+import domaine.piece.Piece;
+
+import java.awt.Point;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Banc d'essai des algorithmes de routage du fil sur le corpus de pièces (CorpusPieces)
+ * et sur des pièces synthétiques plus grandes (GenerateurPieceSynthetique)
+ *
+ * Mesure CalculateurCheminFil.calculerChemin et CalculateurCheminDijkstra.recalculerCheminAvecDijkstra
+ * (depuis l'intersection valide la plus proche du thermostat). En plus du temps et des allocations
+ * par routage, chaque mesure rapporte le nombre de points, la longueur du chemin et la couverture :
+ * la part des intersections valides du graphe par lesquelles passe le fil.
+ * Un routage qui s'arrête presque aussitôt (moins de POINTS_MIN points) fait échouer le banc :
+ * sa mesure ne porterait que sur l'abandon, pas sur l'algorithme.
+ */
+public final class BancRoutage {
+
+    private static final int[] DISTANCES = { 3, 6 }; // distance entre les fils (en pouces)
+    private static final double PART_CHAUFFEE = 0.6; // part de la surface couverte par le fil
+    private static final long GRAINE = 42;
+    private static final int POINTS_MIN = 20; // en deçà, le routage a abandonné dès le départ
+
+    private BancRoutage() {}
+
+    public static void main(String[] args) {
+        HarnaisBanc harnais = new HarnaisBanc(args);
+        Map<String, Supplier<Piece>> pieces = new LinkedHashMap<>(CorpusPieces.fabriques());
+        pieces.putAll(GenerateurPieceSynthetique.fabriques(GRAINE));
+        for (Map.Entry<String, Supplier<Piece>> entree : pieces.entrySet()) {
+            Piece piece = entree.getValue().get();
+            piece.genererGraphe();
+            Graphe graphe = piece.getGraphe();
+            FilChauffant fil = piece.getFilChauffant();
+
+            for (int distance : DISTANCES) {
+                int longueur = (int) (piece.getLargeur() * piece.getLongueur() * PART_CHAUFFEE / distance);
+                String parametres = String.format("%s dist=%d long=%d", entree.getKey(), distance, longueur);
+                ContraintesRoutage contraintes = new ContraintesRoutage(
+                    piece, Math.max(ContraintesRoutage.DISTANCE_MIN_MUR, distance), true);
+                List<Graphe.Intersection> valides = contraintes.filtrer(graphe);
+
+                if (harnais.estSelectionne("routage.serpentin", parametres)) {
+                    List<Point> chemin = verifierRoutage("routage.serpentin", parametres,
+                        CalculateurCheminFil.calculerChemin(piece, fil, distance, longueur));
+                    ResultatBanc r = harnais.mesurer("routage.serpentin", parametres,
+                        () -> CalculateurCheminFil.calculerChemin(piece, fil, distance, longueur));
+                    ajouterMetriques(r, chemin, valides.size());
+                }
+
+                if (harnais.estSelectionne("routage.dijkstra", parametres)) {
+                    Point thermostat = ContraintesRoutage.trouverPointDepart(piece, contraintes.getDistanceMinMur());
+                    Graphe.Intersection depart = contraintes.trouverIntersectionDepart(
+                        graphe, thermostat.x, thermostat.y);
+                    if (depart == null) {
+                        throw new IllegalStateException("routage.dijkstra " + parametres
+                            + " : aucune intersection de départ valide");
+                    }
+                    List<Point> partiel = List.of(new Point(depart.getX(), depart.getY()));
+                    List<Point> chemin = verifierRoutage("routage.dijkstra", parametres,
+                        CalculateurCheminDijkstra.recalculerCheminAvecDijkstra(
+                            piece, graphe, depart, partiel, longueur, distance));
+                    ResultatBanc r = harnais.mesurer("routage.dijkstra", parametres,
+                        () -> CalculateurCheminDijkstra.recalculerCheminAvecDijkstra(
+                            piece, graphe, depart, partiel, longueur, distance));
+                    ajouterMetriques(r, chemin, valides.size());
+                }
+            }
+        }
+        harnais.terminer();
+    }
+
+    /**
+     * Vérifie, avant de le mesurer, que le routage produit un vrai chemin
+     * @throws IllegalStateException si le chemin a moins de POINTS_MIN points
+     */
+    private static List<Point> verifierRoutage(String banc, String parametres, List<Point> chemin) {
+        int points = chemin != null ? chemin.size() : 0;
+        if (points < POINTS_MIN) {
+            throw new IllegalStateException(String.format("%s %s : chemin de %d points (minimum %d)",
+                banc, parametres, points, POINTS_MIN));
+        }
+        return chemin;
+    }
+
+    private static void ajouterMetriques(ResultatBanc resultat, List<Point> chemin, int nombreValides) {
+        int points = chemin != null ? chemin.size() : 0;
+        double longueur = 0;
+        Set<Point> distincts = new HashSet<>();
+        for (int i = 0; i < points; i++) {
+            distincts.add(chemin.get(i));
+            if (i > 0) {
+                longueur += chemin.get(i - 1).distance(chemin.get(i));
+            }
+        }
+        resultat.ajouterMetrique("points", points)
+            .ajouterMetrique("longueur", Math.round(longueur))
+            .ajouterMetrique("couverture", nombreValides > 0 ? (double) distincts.size() / nombreValides : 0);
+    }
+}
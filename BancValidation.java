@@ -0,0 +1,137 @@
+package domaine.banc;
+
+import domaine.chauffage.CheminFil;
+import domaine.chauffage.FilChauffant;
+import domaine.meuble.Meuble;
+import domaine.meuble.MeubleFactory;
+import domaine.piece.Piece;
+import domaine.piece.PieceFactory;
+import domaine.validation.FilValidator;
+import domaine.validation.PieceValidator;
+
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Banc d'essai des validations et du hit-test (chemins interactifs)
+ *
+ * FilValidator.validerFil sur des chemins de 50 à 5000 sommets, PieceValidator.validerPositionMeuble
+ * et validerPositionElementChauffant, Piece.trouverObjetId avec un nombre croissant de meubles,
+ * et Piece.contientPoint sur des polygones à nombreux sommets.
+ * Exemple, comparé à la référence du dépôt :
+ * java -Dbanc.reference=banc-validation.tsv domaine.banc.BancValidation
+ * La référence dépend de la machine : la supprimer pour la recréer avant de mesurer une optimisation.
+ */
+public final class BancValidation {
+
+    private static final int COTE = 2400; // pièce carrée de 200'
+    private static final int[] SOMMETS_CHEMIN = { 50, 500, 5000 };
+    private static final int[] NOMBRES_MEUBLES = { 10, 100, 1000 };
+    private static final int[] SOMMETS_POLYGONE = { 16, 256, 4096 };
+    private static final int REQUETES = 64; // points testés par opération de contientPoint
+
+    private BancValidation() {}
+
+    public static void main(String[] args) {
+        HarnaisBanc harnais = new HarnaisBanc(args);
+
+        for (int sommets : SOMMETS_CHEMIN) {
+            String parametres = "sommets=" + sommets;
+            if (harnais.estSelectionne("validation.fil", parametres)) {
+                Piece piece = PieceFactory.creerRectangulaire(COTE, COTE);
+                FilChauffant fil = piece.getFilChauffant();
+                fil.setChemin(cheminSerpentin(sommets));
+                harnais.mesurer("validation.fil", parametres, () -> FilValidator.validerFil(piece, fil))
+                    .ajouterMetrique("erreurs", FilValidator.validerFil(piece, fil).size());
+            }
+        }
+
+        for (int nombre : NOMBRES_MEUBLES) {
+            String parametres = "meubles=" + nombre;
+            Piece piece = pieceMeublee(nombre);
+            // Position libre : tous les meubles sont parcourus
+            int y = COTE - 40;
+            if (harnais.estSelectionne("validation.meuble", parametres)) {
+                harnais.mesurer("validation.meuble", parametres,
+                    () -> PieceValidator.validerPositionMeuble(piece, COTE - 40, y, 30, 30, null));
+            }
+            if (harnais.estSelectionne("validation.element", parametres)) {
+                harnais.mesurer("validation.element", parametres,
+                    () -> PieceValidator.validerPositionElementChauffant(piece, 0, y, 6, 8));
+            }
+            if (harnais.estSelectionne("hittest.objet", parametres)) {
+                Point libre = new Point(COTE - 20, y);
+                harnais.mesurer("hittest.objet", parametres, () -> piece.trouverObjetId(libre));
+            }
+        }
+
+        for (int sommets : SOMMETS_POLYGONE) {
+            String parametres = "sommets=" + sommets + " requetes=" + REQUETES;
+            if (!harnais.estSelectionne("hittest.contour", parametres)) {
+                continue;
+            }
+            Piece piece = PieceFactory.creerIrreguliere(polygoneRegulier(sommets, COTE / 2));
+            int[] xs = new int[REQUETES];
+            int[] ys = new int[REQUETES];
+            for (int i = 0; i < REQUETES; i++) {
+                xs[i] = (i * 7919) % COTE;
+                ys[i] = (i * 104729) % COTE;
+            }
+            harnais.mesurer("hittest.contour", parametres, () -> {
+                int dedans = 0;
+                for (int i = 0; i < REQUETES; i++) {
+                    if (piece.contientPoint(xs[i], ys[i])) dedans++;
+                }
+                return dedans;
+            });
+        }
+
+        harnais.terminer();
+    }
+
+    /**
+     * Chemin en serpentin de n sommets : rangées espacées de 6", un sommet tous les 24"
+     */
+    static CheminFil cheminSerpentin(int sommets) {
+        int parRangee = (COTE - 24) / 24;
+        CheminFil.Constructeur chemin = new CheminFil.Constructeur(sommets);
+        for (int i = 0; i < sommets; i++) {
+            int rangee = i / parRangee;
+            int colonne = i % parRangee;
+            if (rangee % 2 == 1) {
+                colonne = parRangee - 1 - colonne;
+            }
+            chemin.ajouter(12 + colonne * 24, 12 + rangee * 6);
+        }
+        return chemin.construire();
+    }
+
+    /**
+     * Pièce carrée avec n meubles de 30" sur une grille, à partir du coin (0, 0)
+     */
+    static Piece pieceMeublee(int nombre) {
+        Piece piece = PieceFactory.creerRectangulaire(COTE, COTE);
+        int parRangee = (COTE - 60) / 36;
+        for (int i = 0; i < nombre; i++) {
+            Meuble m = MeubleFactory.creerDepuisType("placard",
+                new Point(6 + (i % parRangee) * 36, 6 + (i / parRangee) * 36), 30, 30);
+            m.setNom("M" + i);
+            piece.ajouterMeuble(m);
+        }
+        return piece;
+    }
+
+    /**
+     * Polygone régulier à n sommets inscrit dans un cercle centré dans la pièce
+     */
+    static List<Point> polygoneRegulier(int sommets, int rayon) {
+        List<Point> points = new ArrayList<>(sommets);
+        for (int i = 0; i < sommets; i++) {
+            double angle = 2 * Math.PI * i / sommets;
+            points.add(new Point(rayon + (int) Math.round(rayon * Math.cos(angle)),
+                rayon + (int) Math.round(rayon * Math.sin(angle))));
+        }
+        return points;
+    }
+}
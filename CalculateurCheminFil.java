@@ -1,11 +1,8 @@
 package domaine.chauffage;
 
+import domaine.diagnostic.EvenementRoutage;
 import domaine.graphe.Graphe;
 import domaine.piece.Piece;
-import domaine.meuble.Meuble;
-import domaine.meuble.MeubleAvecDrain;
-import domaine.chauffage.Thermostat;
-import domaine.zone.ZoneInterdiction;
 
 import java.awt.Point;
 import java.util.*;
@@ -16,14 +13,6 @@ import java.util.*;
  */
 public class CalculateurCheminFil {
     
-    // Constantes de contraintes (en pouces)
-    private static final int DISTANCE_MIN_MUR = 3;
-    private static final int DISTANCE_MIN_MEUBLE = 3;
-    private static final int DISTANCE_MIN_DRAIN = 6;
-    private static final int DISTANCE_MIN_DRAIN_TOILETTE = 10;
-    private static final int DISTANCE_MIN_FIL = 3;
-    private static final int LONGUEUR_MAX_SEGMENT = 120; // 10 pieds = 120 pouces
-    
     /**
      * Calcule le chemin du fil chauffant en utilisant le graphe de la pièce
      * @param piece La pièce contenant le graphe
@@ -34,227 +23,69 @@ public class CalculateurCheminFil {
      */
     public static List<Point> calculerChemin(Piece piece, FilChauffant fil, 
                                              int distanceEntreFils, int longueurSouhaitee) {
-        if (piece == null || fil == null) {
-            return null;
-        }
-        
-        Graphe graphe = piece.getGraphe();
-        if (graphe == null) {
-            return null;
-        }
-        if (!graphe.estGenere()) {
-            graphe.genererGraphe();
-        }
-        
-        // La distance minimale aux murs doit être au moins égale à la distance entre les fils
-        int distanceMinMur = Math.max(DISTANCE_MIN_MUR, distanceEntreFils);
-        
-        // Trouver le point de départ (thermostat)
-        Point pointDepart = trouverPointDepart(piece);
-        if (pointDepart == null) {
-            // Pas de thermostat, utiliser le coin inférieur gauche
-            pointDepart = new Point(distanceMinMur, distanceMinMur);
-        }
-        
-        // Filtrer les intersections valides (respectant les contraintes)
-        List<Graphe.Intersection> intersectionsValides = filtrerIntersectionsValides(
-            graphe, piece, distanceMinMur);
-        
-        if (intersectionsValides.isEmpty()) {
-            return null;
-        }
-        
-        // Trouver l'intersection la plus proche du point de départ
-        Graphe.Intersection intersectionDepart = trouverIntersectionPlusProche(
-            pointDepart, intersectionsValides);
-        
-        if (intersectionDepart == null) {
-            return null;
-        }
-        
-        // Calculer le chemin en serpentine
-        List<Point> chemin = calculerCheminSerpentine(
-            graphe, piece, intersectionDepart, distanceEntreFils, longueurSouhaitee, distanceMinMur);
-        
-        return chemin;
+        CheminFil chemin = calculerCheminCompact(piece, fil, distanceEntreFils, longueurSouhaitee);
+        return chemin != null ? chemin.versPoints() : null;
     }
     
     /**
-     * Trouve le point de départ (thermostat)
+     * Calcule le chemin du fil chauffant sous forme compacte (voir calculerChemin)
+     * @return Le chemin calculé, ou null si aucun chemin valide n'est trouvé
      */
-    private static Point trouverPointDepart(Piece piece) {
-        for (domaine.chauffage.ElementChauffant element : piece.getElementsChauffants()) {
-            if (element instanceof Thermostat) {
-                return new Point(element.getX(), element.getY());
-            }
-        }
-        return null;
-    }
-    
-    /**
-     * Filtre les intersections valides (respectant les contraintes)
-     */
-    private static List<Graphe.Intersection> filtrerIntersectionsValides(
-            Graphe graphe, Piece piece, int distanceMin) {
-        List<Graphe.Intersection> valides = new ArrayList<>();
-        
-        for (Graphe.Intersection inter : graphe.getIntersections()) {
-            if (estIntersectionValide(inter, piece, distanceMin)) {
-                valides.add(inter);
-            }
+    public static CheminFil calculerCheminCompact(Piece piece, FilChauffant fil,
+                                                  int distanceEntreFils, int longueurSouhaitee) {
+        if (piece == null || fil == null) {
+            return null;
         }
-        
-        return valides;
+        return calculerCheminCompact(piece, piece.getGraphe(),
+            new ParametresRoutage(distanceEntreFils, longueurSouhaitee));
     }
     
     /**
-     * Vérifie si une intersection est valide (respecte les contraintes)
+     * Calcule le chemin en serpentine sur le graphe donné (stratégie "serpentin")
+     * Sans intersection de départ dans les paramètres, part de l'intersection valide
+     * la plus proche du thermostat.
+     * Le graphe n'est pas modifié : il doit déjà être généré (sous le verrou de la pièce, ou un instantané).
+     * @return Le chemin calculé, ou null si aucun chemin valide n'est trouvé
+     * @throws IllegalStateException si le graphe n'est pas généré
      */
-    private static boolean estIntersectionValide(Graphe.Intersection inter, 
-                                                 Piece piece, int distanceMin) {
-        int x = inter.getX();
-        int y = inter.getY();
-        
-        // Vérifier si la pièce est irrégulière (>= 3 points, y compris 4 points pour rectangles)
-        List<Point> points = piece.getPoints();
-        boolean estIrreguliere = points != null && points.size() >= 3;
-        
-        if (estIrreguliere) {
-            // Pour une pièce irrégulière, vérifier que l'intersection est dans le polygone
-            if (!piece.contientPoint(x, y)) {
-                return false;
-            }
-            // Vérifier aussi la distance minimale aux murs (bords du polygone)
-            // On vérifie la distance au contour
-            if (!estPointAssezLoinDuContour(piece, x, y, distanceMin)) {
-                return false;
-            }
-        } else {
-            // Pour une pièce rectangulaire, vérifier distance aux murs
-            if (x < distanceMin || y < distanceMin || 
-                x > piece.getLargeur() - distanceMin || 
-                y > piece.getLongueur() - distanceMin) {
-                return false;
-            }
-        }
-        
-        // Vérifier distance aux meubles
-        for (Meuble m : piece.getMeubles()) {
-            int distX = Math.max(0, Math.max(m.getX() - x, x - (m.getX() + m.getLargeur())));
-            int distY = Math.max(0, Math.max(m.getY() - y, y - (m.getY() + m.getLongueur())));
-            double distance = Math.sqrt(distX * distX + distY * distY);
-            if (distance < DISTANCE_MIN_MEUBLE) {
-                return false;
-            }
+    public static CheminFil calculerCheminCompact(Piece piece, Graphe graphe, ParametresRoutage parametres) {
+        if (piece == null || graphe == null) {
+            return null;
         }
-        
-        // Vérifier distance aux drains
-        for (Meuble m : piece.getMeubles()) {
-            if (m instanceof MeubleAvecDrain d) {
-                int drainX = d.getDrainX();
-                int drainY = d.getDrainY();
-                double distance = Math.sqrt((x - drainX) * (x - drainX) + (y - drainY) * (y - drainY));
-                int distanceMinDrain = (m instanceof domaine.meuble.Toilette) ? 
-                    DISTANCE_MIN_DRAIN_TOILETTE : DISTANCE_MIN_DRAIN;
-                if (distance < distanceMinDrain) {
-                    return false;
-                }
-            }
+        if (!graphe.estGenere()) {
+            throw new IllegalStateException("Graphe non généré : le générer avant le routage (voir Piece.genererGraphe)");
         }
+        EvenementRoutage evenement = new EvenementRoutage();
+        evenement.begin();
+        MetriquesRoutage metriques = RegistreMetriquesRoutage.demarrer(RegistreStrategiesRoutage.SERPENTIN);
+        long debutPhase = metriques.marquer();
         
-        // Vérifier zones d'interdiction
-        if (piece.estDansZoneInterdiction(x, y)) {
-            return false;
-        }
+        // Les intersections doivent aussi être assez loin du contour d'une pièce irrégulière
+        ContraintesRoutage contraintes = new ContraintesRoutage(piece, parametres.getDistanceMinMur(), true);
         
-        return true;
-    }
-    
-    /**
-     * Vérifie si un point est assez loin du contour d'une pièce irrégulière
-     */
-    private static boolean estPointAssezLoinDuContour(Piece piece, int x, int y, int distanceMin) {
-        List<Point> points = piece.getPoints();
-        if (points == null || points.size() < 3) {
-            return true;
+        CheminFil chemin = null;
+        Graphe.Intersection intersectionDepart = parametres.getIntersectionDepart();
+        if (intersectionDepart == null) {
+            // Trouver l'intersection valide la plus proche du point de départ (thermostat)
+            Point pointDepart = ContraintesRoutage.trouverPointDepart(piece, contraintes.getDistanceMinMur());
+            intersectionDepart = contraintes.trouverIntersectionDepart(graphe, pointDepart.x, pointDepart.y);
         }
-        
-        // Vérifier la distance minimale à chaque segment du contour
-        for (int i = 0; i < points.size(); i++) {
-            Point p1 = points.get(i);
-            Point p2 = points.get((i + 1) % points.size());
-            
-            double distance = distancePointSegment(new Point(x, y), p1, p2);
-            if (distance < distanceMin) {
-                return false;
-            }
+        metriques.finPhase(MetriquesRoutage.Phase.PREPARATION, debutPhase);
+        
+        if (intersectionDepart != null) {
+            // Calculer le chemin en serpentine
+            debutPhase = metriques.marquer();
+            chemin = calculerCheminSerpentine(graphe, piece, contraintes, metriques, intersectionDepart,
+                parametres.getCheminPartiel(), parametres.getDistanceEntreFils(), parametres.getLongueurSouhaitee());
+            metriques.finPhase(MetriquesRoutage.Phase.PARCOURS, debutPhase);
         }
         
-        return true;
-    }
-    
-    /**
-     * Calcule la distance d'un point à un segment
-     */
-    private static double distancePointSegment(Point point, Point segmentStart, Point segmentEnd) {
-        int dx = segmentEnd.x - segmentStart.x;
-        int dy = segmentEnd.y - segmentStart.y;
-        
-        if (dx == 0 && dy == 0) {
-            return distance(point, segmentStart);
+        if (metriques.estActive()) {
+            metriques.terminer(chemin, contraintes.filtrer(graphe).size());
+            RegistreMetriquesRoutage.publier(metriques);
         }
-        
-        int px = point.x - segmentStart.x;
-        int py = point.y - segmentStart.y;
-        
-        double t = (double)(px * dx + py * dy) / (dx * dx + dy * dy);
-        t = Math.max(0, Math.min(1, t));
-        
-        int projX = segmentStart.x + (int)(t * dx);
-        int projY = segmentStart.y + (int)(t * dy);
-        
-        return distance(point, new Point(projX, projY));
-    }
-    
-    /**
-     * Calcule la distance entre deux points
-     */
-    private static double distance(Point p1, Point p2) {
-        double dx = p1.x - p2.x;
-        double dy = p1.y - p2.y;
-        return Math.sqrt(dx * dx + dy * dy);
-    }
-    
-    /**
-     * Trouve l'intersection la plus proche d'un point
-     */
-    private static Graphe.Intersection trouverIntersectionPlusProche(
-            Point point, List<Graphe.Intersection> intersections) {
-        if (intersections.isEmpty()) {
-            return null;
-        }
-        
-        Graphe.Intersection plusProche = intersections.get(0);
-        double distanceMin = distance(point, plusProche);
-        
-        for (Graphe.Intersection inter : intersections) {
-            double dist = distance(point, inter);
-            if (dist < distanceMin) {
-                distanceMin = dist;
-                plusProche = inter;
-            }
-        }
-        
-        return plusProche;
-    }
-    
-    /**
-     * Calcule la distance entre un point et une intersection
-     */
-    private static double distance(Point p, Graphe.Intersection inter) {
-        double dx = p.x - inter.getX();
-        double dy = p.y - inter.getY();
-        return Math.sqrt(dx * dx + dy * dy);
+        evenement.terminer(RegistreStrategiesRoutage.SERPENTIN, piece, graphe, chemin);
+        return chemin;
     }
     
     /**
@@ -262,15 +93,18 @@ public class CalculateurCheminFil {
      * Le fil passe toujours par les intersections et utilise uniquement les connexions du graphe
      * Crée un motif serpentine où les lignes parallèles sont espacées de distanceEntreFils
      */
-    private static List<Point> calculerCheminSerpentine(
-            Graphe graphe, Piece piece, Graphe.Intersection depart,
-            int distanceEntreFils, int longueurSouhaitee, int distanceMinMur) {
+    private static CheminFil calculerCheminSerpentine(
+            Graphe graphe, Piece piece, ContraintesRoutage contraintes, MetriquesRoutage metriques,
+            Graphe.Intersection depart, CheminFil cheminPartiel, int distanceEntreFils, int longueurSouhaitee) {
         
-        List<Point> chemin = new ArrayList<>();
+        // Un chemin partiel se termine à l'intersection de départ
+        CheminFil.Constructeur chemin = new CheminFil.Constructeur(cheminPartiel);
         Set<Graphe.Intersection> visites = new HashSet<>();
         Graphe.Intersection courant = depart;
         
-        chemin.add(new Point(courant.getX(), courant.getY()));
+        if (cheminPartiel.estVide()) {
+            chemin.ajouter(courant.getX(), courant.getY());
+        }
         visites.add(courant);
         
         double longueurActuelle = 0;
@@ -281,9 +115,9 @@ public class CalculateurCheminFil {
         boolean directionHorizontale = true;
         boolean aller = true; // true = vers la droite/haut, false = vers la gauche/bas
         
-        // Calculer l'espacement en nombre d'intersections
-        int espacementGraphe = graphe.getEspacement();
-        int espacementIntersections = Math.max(1, distanceEntreFils / espacementGraphe);
+        // Calculer l'espacement en nombre d'intersections (distance en pouces, espacement du graphe en 32èmes)
+        double espacementGraphe = graphe.getEspacementEnPouces();
+        int espacementIntersections = Math.max(1, (int) Math.round(distanceEntreFils / espacementGraphe));
         
         // Coordonnées de référence pour le motif serpentine
         int ligneY = depart.getY(); // Pour les lignes horizontales
@@ -291,11 +125,15 @@ public class CalculateurCheminFil {
         
         while (longueurActuelle < longueurSouhaitee * 0.95 && iterations < iterationsMax) {
             iterations++;
+            metriques.iteration();
+            if (Thread.currentThread().isInterrupted()) {
+                return null; // calcul interrompu (délai dépassé, voir TraitementLot)
+            }
             
             // Utiliser uniquement les connexions du graphe avec un motif serpentine
             Graphe.Intersection suivant = trouverIntersectionSerpentine(
-                graphe, piece, courant, visites, longueurSouhaitee - longueurActuelle,
-                directionHorizontale, aller, espacementIntersections, ligneX, ligneY, distanceMinMur);
+                contraintes, metriques, courant, visites, longueurSouhaitee - longueurActuelle,
+                directionHorizontale, aller, espacementIntersections, ligneX, ligneY);
             
             if (suivant == null) {
                 // On a atteint un bord, changer de direction perpendiculairement
@@ -305,8 +143,8 @@ public class CalculateurCheminFil {
                 if (auBord) {
                     // Se déplacer perpendiculairement de distanceEntreFils
                     Graphe.Intersection suivantPerpendiculaire = trouverIntersectionPerpendiculaire(
-                        graphe, piece, courant, visites, directionHorizontale, 
-                        espacementIntersections, ligneX, ligneY, distanceMinMur);
+                        contraintes, metriques, courant, visites, directionHorizontale, 
+                        espacementIntersections, ligneX, ligneY);
                     
                     if (suivantPerpendiculaire != null) {
                         suivant = suivantPerpendiculaire;
@@ -321,7 +159,7 @@ public class CalculateurCheminFil {
                     } else {
                         // Essayer toutes les directions disponibles
                         suivant = trouverIntersectionSuivanteDepuisConnexions(
-                            graphe, piece, courant, visites, longueurSouhaitee - longueurActuelle, distanceMinMur);
+                            piece, graphe, contraintes, metriques, courant, visites, longueurSouhaitee - longueurActuelle);
                         
                         if (suivant == null) {
                             // Plus d'intersections disponibles
@@ -331,7 +169,7 @@ public class CalculateurCheminFil {
                 } else {
                     // Essayer toutes les directions disponibles
                     suivant = trouverIntersectionSuivanteDepuisConnexions(
-                        graphe, piece, courant, visites, longueurSouhaitee - longueurActuelle, distanceMinMur);
+                        piece, graphe, contraintes, metriques, courant, visites, longueurSouhaitee - longueurActuelle);
                     
                     if (suivant == null) {
                         // Plus d'intersections disponibles
@@ -340,7 +178,7 @@ public class CalculateurCheminFil {
                 }
             }
             
-            double distanceSegment = distance(courant, suivant);
+            double distanceSegment = ContraintesRoutage.distance(courant, suivant);
             
             // Vérifier que l'ajout de ce segment ne dépasse pas trop la longueur souhaitée
             if (longueurActuelle + distanceSegment > longueurSouhaitee * 1.05) {
@@ -349,27 +187,28 @@ public class CalculateurCheminFil {
             }
             
             // Vérifier que le segment ne dépasse pas la longueur maximale
-            if (distanceSegment > LONGUEUR_MAX_SEGMENT) {
+            if (distanceSegment > ContraintesRoutage.LONGUEUR_MAX_SEGMENT) {
                 // Segment trop long, essayer une autre intersection
+                metriques.rejet(MetriquesRoutage.MotifRejet.LONGUEUR_SEGMENT);
                 visites.add(suivant); // Marquer comme visitée pour ne pas la réessayer
                 continue;
             }
             
             // Vérifier que le nouveau segment ne croise pas les segments existants
-            Point nouveauPoint = new Point(suivant.getX(), suivant.getY());
-            if (cheminSeCroise(chemin, nouveauPoint)) {
+            if (ContraintesRoutage.cheminSeCroise(chemin, suivant.getX(), suivant.getY())) {
                 // Le segment se croise, essayer une autre intersection
+                metriques.rejet(MetriquesRoutage.MotifRejet.CROISEMENT);
                 visites.add(suivant);
                 continue;
             }
             
             longueurActuelle += distanceSegment;
-            chemin.add(nouveauPoint);
+            chemin.ajouter(suivant.getX(), suivant.getY());
             visites.add(suivant);
             courant = suivant;
         }
         
-        return chemin;
+        return chemin.construire();
     }
     
     /**
@@ -377,10 +216,10 @@ public class CalculateurCheminFil {
      * Privilégie les mouvements qui créent des lignes parallèles espacées de distanceEntreFils
      */
     private static Graphe.Intersection trouverIntersectionSerpentine(
-            Graphe graphe, Piece piece, Graphe.Intersection courant,
+            ContraintesRoutage contraintes, MetriquesRoutage metriques, Graphe.Intersection courant,
             Set<Graphe.Intersection> visites, double longueurRestante,
             boolean directionHorizontale, boolean aller, int espacementIntersections,
-            int ligneX, int ligneY, int distanceMinMur) {
+            int ligneX, int ligneY) {
         
         List<Graphe.Intersection> candidats = new ArrayList<>();
         
@@ -389,9 +228,11 @@ public class CalculateurCheminFil {
             if (visites.contains(connexion)) {
                 continue; // Ne pas revisiter
             }
+            metriques.candidat();
             
             // Vérifier que l'intersection est valide
-            if (!estIntersectionValide(connexion, piece, distanceMinMur)) {
+            if (!contraintes.estValide(connexion)) {
+                metriques.rejet(contraintes, connexion);
                 continue;
             }
             
@@ -413,7 +254,7 @@ public class CalculateurCheminFil {
             }
             
             if (correspondDirection) {
-                double dist = distance(courant, connexion);
+                double dist = ContraintesRoutage.distance(courant, connexion);
                 if (dist <= longueurRestante * 1.1) {
                     candidats.add(connexion);
                 }
@@ -429,7 +270,7 @@ public class CalculateurCheminFil {
         double distanceMin = Double.MAX_VALUE;
         
         for (Graphe.Intersection candidat : candidats) {
-            double dist = distance(courant, candidat);
+            double dist = ContraintesRoutage.distance(courant, candidat);
             if (dist < distanceMin) {
                 distanceMin = dist;
                 meilleur = candidat;
@@ -444,9 +285,9 @@ public class CalculateurCheminFil {
      * Se déplace perpendiculairement de espacementIntersections intersections
      */
     private static Graphe.Intersection trouverIntersectionPerpendiculaire(
-            Graphe graphe, Piece piece, Graphe.Intersection courant,
+            ContraintesRoutage contraintes, MetriquesRoutage metriques, Graphe.Intersection courant,
             Set<Graphe.Intersection> visites, boolean directionHorizontale,
-            int espacementIntersections, int ligneX, int ligneY, int distanceMinMur) {
+            int espacementIntersections, int ligneX, int ligneY) {
         
         // Parcourir espacementIntersections intersections dans la direction perpendiculaire
         // en utilisant un BFS pour trouver l'intersection à la bonne distance
@@ -463,9 +304,10 @@ public class CalculateurCheminFil {
         while (!queue.isEmpty()) {
             Graphe.Intersection actuel = queue.poll();
             int dist = distances.get(actuel);
+            metriques.expansionBfs();
             
             // Vérifier si l'intersection est valide et perpendiculaire
-            boolean estValide = !visites.contains(actuel) && estIntersectionValide(actuel, piece, distanceMinMur);
+            boolean estValide = !visites.contains(actuel) && contraintes.estValide(actuel);
             boolean estPerpendiculaire = false;
             if (directionHorizontale) {
                 // On cherche une ligne Y différente (mouvement vertical)
@@ -536,7 +378,7 @@ public class CalculateurCheminFil {
             Graphe.Intersection courant, Piece piece,
             boolean directionHorizontale, boolean aller) {
         
-        int marge = DISTANCE_MIN_MUR + 5; // Marge pour détecter le bord
+        int marge = ContraintesRoutage.DISTANCE_MIN_MUR + 5; // Marge pour détecter le bord
         
         if (directionHorizontale) {
             // Si on va horizontalement, vérifier si on est près d'un bord vertical
@@ -562,10 +404,11 @@ public class CalculateurCheminFil {
     /**
      * Trouve l'intersection suivante en utilisant uniquement les connexions du graphe
      * Cela assure que le fil passe toujours par les intersections et prend uniquement des directions de 90°
+     * Une intersection qui mène dans une poche trop petite n'est choisie que s'il n'y a pas d'autre candidate
      */
     private static Graphe.Intersection trouverIntersectionSuivanteDepuisConnexions(
-            Graphe graphe, Piece piece, Graphe.Intersection courant,
-            Set<Graphe.Intersection> visites, double longueurRestante, int distanceMinMur) {
+            Piece piece, Graphe graphe, ContraintesRoutage contraintes, MetriquesRoutage metriques,
+            Graphe.Intersection courant, Set<Graphe.Intersection> visites, double longueurRestante) {
         
         List<Graphe.Intersection> candidats = new ArrayList<>();
         
@@ -574,14 +417,17 @@ public class CalculateurCheminFil {
             if (visites.contains(connexion)) {
                 continue; // Ne pas revisiter
             }
+            metriques.candidat();
             
             // Vérifier que l'intersection est valide (respecte les contraintes)
-            if (estIntersectionValide(connexion, piece, distanceMinMur)) {
-                double dist = distance(courant, connexion);
+            if (contraintes.estValide(connexion)) {
+                double dist = ContraintesRoutage.distance(courant, connexion);
                 // Préférer les connexions qui utilisent bien la longueur restante
                 if (dist <= longueurRestante * 1.1) {
                     candidats.add(connexion);
                 }
+            } else {
+                metriques.rejet(contraintes, connexion);
             }
         }
         
@@ -589,13 +435,27 @@ public class CalculateurCheminFil {
             return null;
         }
         
+        // Écarter les poches trop petites pour la longueur restante, s'il reste une autre candidate
+        List<Graphe.Intersection> horsPoches = new ArrayList<>(candidats.size());
+        for (Graphe.Intersection candidat : candidats) {
+            if (!contraintes.estPoche(graphe, courant, candidat, longueurRestante)) {
+                horsPoches.add(candidat);
+            }
+        }
+        if (!horsPoches.isEmpty()) {
+            for (int i = horsPoches.size(); i < candidats.size(); i++) {
+                metriques.rejet(MetriquesRoutage.MotifRejet.POCHE);
+            }
+            candidats = horsPoches;
+        }
+        
         // Choisir la meilleure intersection basée sur plusieurs critères
         Graphe.Intersection meilleur = null;
         double meilleurScore = Double.NEGATIVE_INFINITY;
         
         for (Graphe.Intersection candidat : candidats) {
             double score = 0;
-            double dist = distance(courant, candidat);
+            double dist = ContraintesRoutage.distance(courant, candidat);
             
             // Préférer les intersections qui maximisent la couverture
             // (plus éloignées du centre de la pièce)
@@ -621,84 +481,4 @@ public class CalculateurCheminFil {
         
         return meilleur != null ? meilleur : candidats.get(0);
     }
-    
-    /**
-     * Vérifie si le nouveau point créerait un croisement avec le chemin existant
-     */
-    private static boolean cheminSeCroise(List<Point> chemin, Point nouveauPoint) {
-        if (chemin.size() < 2) {
-            return false;
-        }
-        
-        Point dernierPoint = chemin.get(chemin.size() - 1);
-        
-        // Vérifier si le nouveau segment croise les segments existants
-        for (int i = 0; i < chemin.size() - 1; i++) {
-            Point p1 = chemin.get(i);
-            Point p2 = chemin.get(i + 1);
-            
-            // Ignorer le segment précédent (celui qui se termine au dernier point)
-            if (i == chemin.size() - 2 && p2.equals(dernierPoint)) {
-                continue;
-            }
-            
-            if (segmentsIntersect(dernierPoint, nouveauPoint, p1, p2)) {
-                return true;
-            }
-        }
-        
-        return false;
-    }
-    
-    /**
-     * Vérifie si deux segments se croisent
-     */
-    private static boolean segmentsIntersect(Point p1, Point q1, Point p2, Point q2) {
-        // Vérifier si les segments se croisent (sauf aux extrémités)
-        int o1 = orientation(p1, q1, p2);
-        int o2 = orientation(p1, q1, q2);
-        int o3 = orientation(p2, q2, p1);
-        int o4 = orientation(p2, q2, q1);
-        
-        // Cas général : les segments se croisent
-        if (o1 != 0 && o2 != 0 && o3 != 0 && o4 != 0 && o1 != o2 && o3 != o4) {
-            return true;
-        }
-        
-        // Cas colinéaires : vérifier si un point est sur le segment
-        if (o1 == 0 && onSegment(p1, p2, q1)) return true;
-        if (o2 == 0 && onSegment(p1, q2, q1)) return true;
-        if (o3 == 0 && onSegment(p2, p1, q2)) return true;
-        if (o4 == 0 && onSegment(p2, q1, q2)) return true;
-        
-        return false;
-    }
-    
-    /**
-     * Calcule l'orientation de trois points
-     */
-    private static int orientation(Point p, Point q, Point r) {
-        long val = (long)(q.y - p.y) * (r.x - q.x) - (long)(q.x - p.x) * (r.y - q.y);
-        if (val == 0) return 0;  // Colinéaire
-        return (val > 0) ? 1 : 2; // Horaire ou anti-horaire
-    }
-    
-    /**
-     * Vérifie si un point est sur un segment
-     */
-    private static boolean onSegment(Point p, Point q, Point r) {
-        return q.x <= Math.max(p.x, r.x) && q.x >= Math.min(p.x, r.x) &&
-               q.y <= Math.max(p.y, r.y) && q.y >= Math.min(p.y, r.y);
-    }
-    
-    
-    /**
-     * Calcule la distance entre deux intersections
-     */
-    private static double distance(Graphe.Intersection i1, Graphe.Intersection i2) {
-        double dx = i1.getX() - i2.getX();
-        double dy = i1.getY() - i2.getY();
-        return Math.sqrt(dx * dx + dy * dy);
-    }
 }
-
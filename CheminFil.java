@@ -0,0 +1,298 @@
+package domaine.chauffage;
+
+import java.awt.Point;
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Chemin du fil chauffant sous forme compacte et immuable
+ *
+ * Les sommets sont stockés dans un seul tableau int[] entrelacé (x0, y0, x1, y1, ...),
+ * soit 8 octets par sommet au lieu d'un objet Point par sommet. Le chemin étant immuable,
+ * il peut être partagé sans copie entre le modèle, les DTO, l'historique et la sauvegarde.
+ * Un sous-chemin est une vue sur le même tableau.
+ */
+public final class CheminFil implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    public static final CheminFil VIDE = new CheminFil(new int[0], 0, 0);
+
+    private final int[] coordonnees; // x et y entrelacés
+    private final int debut; // index du premier sommet dans le tableau
+    private final int taille; // nombre de sommets
+    private transient volatile double longueur = -1; // calculée au premier accès
+
+    /**
+     * Reçoit chaque segment d'un chemin
+     */
+    @FunctionalInterface
+    public interface VisiteurSegment {
+        void visiter(int index, int x1, int y1, int x2, int y2);
+    }
+
+    private CheminFil(int[] coordonnees, int debut, int taille) {
+        this.coordonnees = coordonnees;
+        this.debut = debut;
+        this.taille = taille;
+    }
+
+    /**
+     * Crée un chemin à partir d'une liste de points (les points sont copiés)
+     */
+    public static CheminFil depuisPoints(List<Point> points) {
+        if (points == null || points.isEmpty()) {
+            return VIDE;
+        }
+        int[] xy = new int[points.size() * 2];
+        int i = 0;
+        for (Point p : points) {
+            xy[i++] = p.x;
+            xy[i++] = p.y;
+        }
+        return new CheminFil(xy, 0, points.size());
+    }
+
+    /**
+     * Crée un chemin à partir de coordonnées entrelacées (le tableau est copié)
+     */
+    public static CheminFil depuisCoordonnees(int[] xy) {
+        if (xy == null || xy.length < 2) {
+            return VIDE;
+        }
+        if (xy.length % 2 != 0) {
+            throw new IllegalArgumentException("Nombre de coordonnées impair: " + xy.length);
+        }
+        return new CheminFil(xy.clone(), 0, xy.length / 2);
+    }
+
+    // === Accès ===
+
+    public int taille() {
+        return taille;
+    }
+
+    public boolean estVide() {
+        return taille == 0;
+    }
+
+    public int getX(int index) {
+        return coordonnees[position(index)];
+    }
+
+    public int getY(int index) {
+        return coordonnees[position(index) + 1];
+    }
+
+    /**
+     * Retourne le sommet demandé (nouvel objet Point)
+     */
+    public Point getPoint(int index) {
+        int p = position(index);
+        return new Point(coordonnees[p], coordonnees[p + 1]);
+    }
+
+    /**
+     * Longueur totale du chemin (en pouces), calculée une seule fois
+     */
+    public double getLongueur() {
+        double l = longueur;
+        if (l < 0) {
+            l = 0;
+            int fin = (debut + taille - 1) * 2;
+            for (int p = debut * 2; p < fin; p += 2) {
+                double dx = coordonnees[p + 2] - coordonnees[p];
+                double dy = coordonnees[p + 3] - coordonnees[p + 1];
+                l += Math.sqrt(dx * dx + dy * dy);
+            }
+            longueur = l;
+        }
+        return l;
+    }
+
+    /**
+     * Longueur du segment entre les sommets index et index + 1
+     */
+    public double longueurSegment(int index) {
+        int p = position(index);
+        position(index + 1);
+        double dx = coordonnees[p + 2] - coordonnees[p];
+        double dy = coordonnees[p + 3] - coordonnees[p + 1];
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+
+    /**
+     * Parcourt les segments du chemin dans l'ordre, sans créer d'objet
+     */
+    public void parcourirSegments(VisiteurSegment visiteur) {
+        int fin = (debut + taille - 1) * 2;
+        int index = 0;
+        for (int p = debut * 2; p < fin; p += 2) {
+            visiteur.visiter(index++, coordonnees[p], coordonnees[p + 1], coordonnees[p + 2], coordonnees[p + 3]);
+        }
+    }
+
+    /**
+     * Vue sur les sommets [debut, fin[ (sans copie)
+     */
+    public CheminFil sousChemin(int debut, int fin) {
+        if (debut < 0 || fin > taille || debut > fin) {
+            throw new IllegalArgumentException("Intervalle invalide: [" + debut + ", " + fin + "[ pour " + taille + " sommets");
+        }
+        if (debut == 0 && fin == taille) {
+            return this;
+        }
+        return new CheminFil(coordonnees, this.debut + debut, fin - debut);
+    }
+
+    /**
+     * Retourne un nouveau chemin avec un sommet ajouté à la fin
+     */
+    public CheminFil avec(int x, int y) {
+        int[] xy = Arrays.copyOfRange(coordonnees, debut * 2, (debut + taille + 1) * 2);
+        xy[taille * 2] = x;
+        xy[taille * 2 + 1] = y;
+        return new CheminFil(xy, 0, taille + 1);
+    }
+
+    /**
+     * Copie les sommets dans une nouvelle liste de points modifiable
+     */
+    public List<Point> versPoints() {
+        List<Point> points = new ArrayList<>(taille);
+        for (int i = 0; i < taille; i++) {
+            points.add(getPoint(i));
+        }
+        return points;
+    }
+
+    /**
+     * Vue en lecture seule sous forme de liste de points (chaque accès crée un Point)
+     */
+    public List<Point> commeListe() {
+        return new AbstractList<Point>() {
+            @Override
+            public Point get(int index) {
+                return getPoint(index);
+            }
+
+            @Override
+            public int size() {
+                return taille;
+            }
+        };
+    }
+
+    /**
+     * Copie les coordonnées entrelacées dans un nouveau tableau
+     */
+    public int[] versCoordonnees() {
+        return Arrays.copyOfRange(coordonnees, debut * 2, (debut + taille) * 2);
+    }
+
+    /**
+     * Après désérialisation, repasse par le constructeur pour réinitialiser la longueur en cache
+     */
+    private Object readResolve() {
+        return taille == 0 ? VIDE : new CheminFil(coordonnees, debut, taille);
+    }
+
+    private int position(int index) {
+        if (index < 0 || index >= taille) {
+            throw new IndexOutOfBoundsException("Sommet " + index + " hors du chemin (" + taille + " sommets)");
+        }
+        return (debut + index) * 2;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (!(obj instanceof CheminFil autre) || autre.taille != taille) return false;
+        return Arrays.equals(coordonnees, debut * 2, (debut + taille) * 2,
+            autre.coordonnees, autre.debut * 2, (autre.debut + autre.taille) * 2);
+    }
+
+    @Override
+    public int hashCode() {
+        int h = 1;
+        for (int p = debut * 2, fin = (debut + taille) * 2; p < fin; p++) {
+            h = 31 * h + coordonnees[p];
+        }
+        return h;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("CheminFil(%d sommets, %.1f\")", taille, getLongueur());
+    }
+
+    /**
+     * Construit un chemin sommet par sommet (utilisé par les calculateurs)
+     */
+    public static final class Constructeur {
+        private int[] coordonnees;
+        private int taille;
+        private boolean partage; // le tableau est partagé avec un chemin déjà produit
+
+        public Constructeur() {
+            this(64);
+        }
+
+        public Constructeur(int capacite) {
+            this.coordonnees = new int[Math.max(2, capacite * 2)];
+        }
+
+        /**
+         * Commence avec les sommets d'un chemin existant
+         */
+        public Constructeur(CheminFil depart) {
+            this(depart.taille + 64);
+            System.arraycopy(depart.coordonnees, depart.debut * 2, coordonnees, 0, depart.taille * 2);
+            this.taille = depart.taille;
+        }
+
+        public Constructeur ajouter(int x, int y) {
+            if (taille * 2 == coordonnees.length || partage) {
+                coordonnees = Arrays.copyOf(coordonnees, Math.max(coordonnees.length, (taille + 1) * 2) * 2);
+                partage = false;
+            }
+            coordonnees[taille * 2] = x;
+            coordonnees[taille * 2 + 1] = y;
+            taille++;
+            return this;
+        }
+
+        public Constructeur ajouter(Point p) {
+            return ajouter(p.x, p.y);
+        }
+
+        public int taille() {
+            return taille;
+        }
+
+        public int getX(int index) {
+            return coordonnees[index * 2];
+        }
+
+        public int getY(int index) {
+            return coordonnees[index * 2 + 1];
+        }
+
+        /**
+         * Produit le chemin immuable (le tableau est ajusté à la taille exacte)
+         */
+        public CheminFil construire() {
+            if (taille == 0) {
+                return VIDE;
+            }
+            if (coordonnees.length == taille * 2) {
+                // Taille exacte : le tableau est partagé, le prochain ajout le copiera
+                partage = true;
+                return new CheminFil(coordonnees, 0, taille);
+            }
+            return new CheminFil(Arrays.copyOf(coordonnees, taille * 2), 0, taille);
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package domaine.graphe;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Composantes connexes et points d'articulation des intersections valides d'un graphe
+ *
+ * Calculées une fois (parcours en profondeur itératif de Tarjan, O(intersections + connexions))
+ * sur les intersections acceptées par un filtre et les connexions entre elles. Les routeurs s'en
+ * servent pour écarter tout de suite une cible hors de la composante du départ et pour ne pas
+ * entrer dans une poche (région reliée au reste par une seule intersection) trop petite pour la
+ * longueur de fil restante. Le graphe ne doit pas être régénéré pendant l'utilisation.
+ */
+public final class ComposantesGraphe {
+
+    private final Map<Graphe.Intersection, Integer> indices = new IdentityHashMap<>();
+    private final Graphe.Intersection[] noeuds;
+    private final int[] composante;
+    private final int[] tailles;
+    private final int[] decouverte; // ordre de découverte ; un sous-arbre occupe un intervalle contigu
+    private final int[] sousArbre; // taille du sous-arbre du parcours
+    private final int[] parent;
+    private final boolean[] separe; // le sous-arbre n'est relié au reste que par son parent
+    private final int[] separeSomme; // taille totale des sous-arbres enfants séparés
+    private final boolean[] articulation;
+    private final int[] debutEnfants; // enfants de chaque nœud, par ordre de découverte
+    private final int[] enfants;
+    private int plusGrande = -1;
+
+    ComposantesGraphe(Collection<Graphe.Intersection> intersections, Predicate<Graphe.Intersection> valide) {
+        List<Graphe.Intersection> acceptees = new ArrayList<>();
+        for (Graphe.Intersection inter : intersections) {
+            if (valide.test(inter)) {
+                indices.put(inter, acceptees.size());
+                acceptees.add(inter);
+            }
+        }
+        int n = acceptees.size();
+        noeuds = acceptees.toArray(new Graphe.Intersection[0]);
+
+        // Voisins acceptés de chaque nœud
+        int[][] voisins = new int[n][];
+        for (int i = 0; i < n; i++) {
+            Collection<Graphe.Intersection> connexions = noeuds[i].getConnexions();
+            int[] v = new int[connexions.size()];
+            int k = 0;
+            for (Graphe.Intersection c : connexions) {
+                Integer j = indices.get(c);
+                if (j != null) {
+                    v[k++] = j;
+                }
+            }
+            voisins[i] = k == v.length ? v : Arrays.copyOf(v, k);
+        }
+
+        composante = new int[n];
+        decouverte = new int[n];
+        sousArbre = new int[n];
+        parent = new int[n];
+        separe = new boolean[n];
+        separeSomme = new int[n];
+        articulation = new boolean[n];
+        int[] bas = new int[n]; // plus petite découverte atteignable par le sous-arbre et une arête arrière
+        int[] position = new int[n]; // prochain voisin à examiner
+        int[] pile = new int[n];
+        Arrays.fill(decouverte, -1);
+        List<Integer> taillesComposantes = new ArrayList<>();
+
+        int temps = 0;
+        for (int racine = 0; racine < n; racine++) {
+            if (decouverte[racine] != -1) {
+                continue;
+            }
+            int c = taillesComposantes.size();
+            int enfantsRacine = 0;
+            int sommet = 0;
+            pile[sommet++] = racine;
+            parent[racine] = -1;
+            decouverte[racine] = bas[racine] = temps++;
+            composante[racine] = c;
+            while (sommet > 0) {
+                int v = pile[sommet - 1];
+                if (position[v] < voisins[v].length) {
+                    int w = voisins[v][position[v]++];
+                    if (decouverte[w] == -1) {
+                        parent[w] = v;
+                        decouverte[w] = bas[w] = temps++;
+                        composante[w] = c;
+                        pile[sommet++] = w;
+                    } else if (w != parent[v]) {
+                        bas[v] = Math.min(bas[v], decouverte[w]);
+                    }
+                    continue;
+                }
+                sommet--;
+                sousArbre[v]++;
+                int p = parent[v];
+                if (p == -1) {
+                    continue;
+                }
+                bas[p] = Math.min(bas[p], bas[v]);
+                sousArbre[p] += sousArbre[v];
+                if (bas[v] >= decouverte[p]) {
+                    separe[v] = true;
+                    separeSomme[p] += sousArbre[v];
+                    if (parent[p] != -1) {
+                        articulation[p] = true;
+                    }
+                }
+                if (p == racine) {
+                    enfantsRacine++;
+                }
+            }
+            articulation[racine] = enfantsRacine >= 2;
+            taillesComposantes.add(sousArbre[racine]);
+            if (plusGrande == -1 || sousArbre[racine] > taillesComposantes.get(plusGrande)) {
+                plusGrande = c;
+            }
+        }
+        tailles = taillesComposantes.stream().mapToInt(Integer::intValue).toArray();
+
+        // Enfants de chaque nœud, triés par découverte (parcours des nœuds dans cet ordre)
+        int[] parDecouverte = new int[n];
+        for (int i = 0; i < n; i++) {
+            parDecouverte[decouverte[i]] = i;
+        }
+        debutEnfants = new int[n + 1];
+        for (int i = 0; i < n; i++) {
+            if (parent[i] != -1) {
+                debutEnfants[parent[i] + 1]++;
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            debutEnfants[i + 1] += debutEnfants[i];
+        }
+        enfants = new int[Math.max(0, n - tailles.length)];
+        int[] remplis = new int[n];
+        for (int u : parDecouverte) {
+            int p = parent[u];
+            if (p != -1) {
+                enfants[debutEnfants[p] + remplis[p]++] = u;
+            }
+        }
+    }
+
+    public int getNombreComposantes() {
+        return tailles.length;
+    }
+
+    /**
+     * @return Le nombre d'intersections valides
+     */
+    public int getNombreIntersections() {
+        return noeuds.length;
+    }
+
+    /**
+     * @return La composante de l'intersection, -1 si elle n'est pas valide
+     */
+    public int getComposante(Graphe.Intersection inter) {
+        Integer i = indices.get(inter);
+        return i != null ? composante[i] : -1;
+    }
+
+    public int getTaille(int composante) {
+        return tailles[composante];
+    }
+
+    /**
+     * @return La taille de la composante de l'intersection, 0 si elle n'est pas valide
+     */
+    public int getTailleComposante(Graphe.Intersection inter) {
+        Integer i = indices.get(inter);
+        return i != null ? tailles[composante[i]] : 0;
+    }
+
+    /**
+     * @return La plus grande composante, -1 s'il n'y a aucune intersection valide
+     */
+    public int getPlusGrande() {
+        return plusGrande;
+    }
+
+    /**
+     * Indique si un chemin d'intersections valides relie les deux intersections
+     */
+    public boolean sontReliees(Graphe.Intersection a, Graphe.Intersection b) {
+        int ca = getComposante(a);
+        return ca != -1 && ca == getComposante(b);
+    }
+
+    /**
+     * Indique si retirer l'intersection sépare sa composante en plusieurs
+     */
+    public boolean estArticulation(Graphe.Intersection inter) {
+        Integer i = indices.get(inter);
+        return i != null && articulation[i];
+    }
+
+    public List<Graphe.Intersection> getArticulations() {
+        List<Graphe.Intersection> points = new ArrayList<>();
+        for (int i = 0; i < noeuds.length; i++) {
+            if (articulation[i]) {
+                points.add(noeuds[i]);
+            }
+        }
+        return points;
+    }
+
+    /**
+     * Nombre maximal d'intersections encore atteignables après être passé de depuis à vers :
+     * la poche de vers si depuis la sépare du reste, sinon toute la composante sauf depuis et
+     * ses poches. Les intersections déjà visitées ne peuvent que réduire ce nombre.
+     * @return 0 si les intersections ne sont pas valides ou pas dans la même composante
+     */
+    public int getCapacite(Graphe.Intersection depuis, Graphe.Intersection vers) {
+        Integer iv = indices.get(depuis);
+        Integer iw = indices.get(vers);
+        if (iv == null || iw == null || composante[iv] != composante[iw] || iv.equals(iw)) {
+            return 0;
+        }
+        int v = iv;
+        int w = iw;
+        int reste = tailles[composante[v]] - 1 - separeSomme[v];
+        if (decouverte[w] <= decouverte[v] || decouverte[w] >= decouverte[v] + sousArbre[v]) {
+            return reste; // côté du parent
+        }
+        int enfant = parent[w] == v ? w : enfantContenant(v, decouverte[w]);
+        return separe[enfant] ? sousArbre[enfant] : reste;
+    }
+
+    /**
+     * Enfant de v dont le sous-arbre contient la découverte donnée (recherche dichotomique)
+     */
+    private int enfantContenant(int v, int d) {
+        int bas = debutEnfants[v];
+        int haut = debutEnfants[v + 1] - 1;
+        while (bas < haut) {
+            int milieu = (bas + haut + 1) >>> 1;
+            if (decouverte[enfants[milieu]] <= d) {
+                bas = milieu;
+            } else {
+                haut = milieu - 1;
+            }
+        }
+        return enfants[bas];
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d intersections valides, %d composantes (plus grande : %d), %d points d'articulation",
+            noeuds.length, tailles.length, plusGrande >= 0 ? tailles[plusGrande] : 0, getArticulations().size());
+    }
+}
@@ -0,0 +1,339 @@
+package domaine.chauffage;
+
+import domaine.chauffage.MetriquesRoutage.MotifRejet;
+import domaine.graphe.ComposantesGraphe;
+import domaine.graphe.Graphe;
+import domaine.meuble.Meuble;
+import domaine.meuble.MeubleAvecDrain;
+import domaine.meuble.Toilette;
+import domaine.piece.Piece;
+
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Contraintes de placement du fil chauffant, partagées par les stratégies de routage
+ *
+ * Une instance est créée pour une pièce et une distance minimale aux murs, le temps d'un calcul :
+ * les meubles et les drains sont relus une seule fois et la validité de chaque intersection
+ * est mémorisée. La pièce ne doit pas être modifiée pendant ce temps (voir Piece.getInstantane).
+ */
+public final class ContraintesRoutage {
+
+    // Constantes de contraintes (en pouces)
+    public static final int DISTANCE_MIN_MUR = 3;
+    public static final int DISTANCE_MIN_MEUBLE = 3;
+    public static final int DISTANCE_MIN_DRAIN = 6;
+    public static final int DISTANCE_MIN_DRAIN_TOILETTE = 10;
+    public static final int DISTANCE_MIN_FIL = 3;
+    public static final int LONGUEUR_MAX_SEGMENT = 120; // 10 pieds = 120 pouces
+
+    private final Piece piece;
+    private final int distanceMinMur;
+    private final boolean verifierContour;
+    private final List<Point> contour; // null pour une pièce sans contour
+    private final int largeur;
+    private final int longueur;
+
+    // Rectangles des meubles : x, y, largeur, longueur
+    private final int[] meubles;
+    // Drains : x, y, distance minimale
+    private final int[] drains;
+
+    private final Map<Graphe.Intersection, Boolean> validite = new IdentityHashMap<>();
+    private Graphe grapheComposantes;
+    private ComposantesGraphe composantes; // des intersections valides de grapheComposantes
+
+    /**
+     * @param piece La pièce (ou un instantané de la pièce)
+     * @param distanceMinMur Distance minimale aux murs (en pouces)
+     * @param verifierContour Vérifier aussi la distance au contour d'une pièce irrégulière
+     */
+    public ContraintesRoutage(Piece piece, int distanceMinMur, boolean verifierContour) {
+        if (piece == null) {
+            throw new IllegalArgumentException("Pièce invalide");
+        }
+        this.piece = piece;
+        this.distanceMinMur = distanceMinMur;
+        this.verifierContour = verifierContour;
+        // Pièce irrégulière : >= 3 points, y compris 4 points pour les rectangles
+        List<Point> points = piece.getPoints();
+        this.contour = points != null && points.size() >= 3 ? new ArrayList<>(points) : null;
+        this.largeur = piece.getLargeur();
+        this.longueur = piece.getLongueur();
+
+        Collection<Meuble> listeMeubles = piece.getMeubles();
+        this.meubles = new int[listeMeubles.size() * 4];
+        int nombreDrains = 0;
+        for (Meuble m : listeMeubles) {
+            if (m instanceof MeubleAvecDrain) nombreDrains++;
+        }
+        this.drains = new int[nombreDrains * 3];
+        int i = 0;
+        int j = 0;
+        for (Meuble m : listeMeubles) {
+            meubles[i++] = m.getX();
+            meubles[i++] = m.getY();
+            meubles[i++] = m.getLargeur();
+            meubles[i++] = m.getLongueur();
+            if (m instanceof MeubleAvecDrain d) {
+                drains[j++] = d.getDrainX();
+                drains[j++] = d.getDrainY();
+                drains[j++] = (m instanceof Toilette) ? DISTANCE_MIN_DRAIN_TOILETTE : DISTANCE_MIN_DRAIN;
+            }
+        }
+    }
+
+    public int getDistanceMinMur() {
+        return distanceMinMur;
+    }
+
+    /**
+     * Filtre les intersections valides du graphe, dans l'ordre du graphe
+     */
+    public List<Graphe.Intersection> filtrer(Graphe graphe) {
+        List<Graphe.Intersection> valides = new ArrayList<>();
+        for (Graphe.Intersection inter : graphe.getIntersections()) {
+            if (estValide(inter)) {
+                valides.add(inter);
+            }
+        }
+        return valides;
+    }
+
+    /**
+     * Vérifie si une intersection respecte les contraintes (murs, meubles, drains, zones d'interdiction)
+     */
+    public boolean estValide(Graphe.Intersection inter) {
+        Boolean connu = validite.get(inter);
+        if (connu == null) {
+            connu = motifRejet(inter.getX(), inter.getY()) == null;
+            validite.put(inter, connu);
+        }
+        return connu;
+    }
+
+    /**
+     * Raison pour laquelle une intersection ne respecte pas les contraintes (non mémorisée)
+     * @return null si l'intersection est valide
+     */
+    public MotifRejet motifRejet(Graphe.Intersection inter) {
+        return motifRejet(inter.getX(), inter.getY());
+    }
+
+    private MotifRejet motifRejet(int x, int y) {
+        if (contour != null) {
+            // Pour une pièce irrégulière, vérifier que l'intersection est dans le polygone
+            if (!piece.contientPoint(x, y)) {
+                return MotifRejet.MUR;
+            }
+            if (verifierContour && !estPointAssezLoinDuContour(x, y)) {
+                return MotifRejet.MUR;
+            }
+        } else {
+            // Pour une pièce rectangulaire, vérifier distance aux murs
+            if (x < distanceMinMur || y < distanceMinMur ||
+                x > largeur - distanceMinMur ||
+                y > longueur - distanceMinMur) {
+                return MotifRejet.MUR;
+            }
+        }
+
+        // Vérifier distance aux meubles
+        for (int i = 0; i < meubles.length; i += 4) {
+            int mx = meubles[i];
+            int my = meubles[i + 1];
+            int distX = Math.max(0, Math.max(mx - x, x - (mx + meubles[i + 2])));
+            int distY = Math.max(0, Math.max(my - y, y - (my + meubles[i + 3])));
+            if (Math.sqrt(distX * distX + distY * distY) < DISTANCE_MIN_MEUBLE) {
+                return MotifRejet.MEUBLE;
+            }
+        }
+
+        // Vérifier distance aux drains
+        for (int i = 0; i < drains.length; i += 3) {
+            int dx = x - drains[i];
+            int dy = y - drains[i + 1];
+            if (Math.sqrt(dx * dx + dy * dy) < drains[i + 2]) {
+                return MotifRejet.DRAIN;
+            }
+        }
+
+        // Vérifier zones d'interdiction
+        return piece.estDansZoneInterdiction(x, y) ? MotifRejet.ZONE : null;
+    }
+
+    /**
+     * Vérifie si un point est assez loin de chaque segment du contour
+     */
+    private boolean estPointAssezLoinDuContour(int x, int y) {
+        for (int i = 0; i < contour.size(); i++) {
+            Point p1 = contour.get(i);
+            Point p2 = contour.get((i + 1) % contour.size());
+            if (distancePointSegment(x, y, p1, p2) < distanceMinMur) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Calcule la distance d'un point à un segment
+     */
+    private static double distancePointSegment(int x, int y, Point debut, Point fin) {
+        int dx = fin.x - debut.x;
+        int dy = fin.y - debut.y;
+
+        if (dx == 0 && dy == 0) {
+            return distance(x, y, debut.x, debut.y);
+        }
+
+        int px = x - debut.x;
+        int py = y - debut.y;
+
+        double t = (double)(px * dx + py * dy) / (dx * dx + dy * dy);
+        t = Math.max(0, Math.min(1, t));
+
+        return distance(x, y, debut.x + (int)(t * dx), debut.y + (int)(t * dy));
+    }
+
+    /**
+     * Point de départ du fil : le thermostat, sinon le coin inférieur gauche
+     */
+    public static Point trouverPointDepart(Piece piece, int distanceMinMur) {
+        for (ElementChauffant element : piece.getElementsChauffants()) {
+            if (element instanceof Thermostat) {
+                return new Point(element.getX(), element.getY());
+            }
+        }
+        return new Point(distanceMinMur, distanceMinMur);
+    }
+
+    /**
+     * Trouve l'intersection valide la plus proche d'un point (la première de filtrer en cas d'égalité)
+     * par l'index de la grille du graphe, sans parcourir toutes les intersections
+     */
+    public Graphe.Intersection trouverIntersectionProche(Graphe graphe, int x, int y) {
+        return graphe.trouverIntersectionProche(x, y, this::estValide);
+    }
+
+    /**
+     * Intersection de départ du fil : la plus proche du point parmi celles qui ont au moins une
+     * voisine valide (une intersection isolée donnerait un chemin d'un seul point), sinon la plus proche
+     */
+    public Graphe.Intersection trouverIntersectionDepart(Graphe graphe, int x, int y) {
+        ComposantesGraphe c = getComposantes(graphe);
+        Graphe.Intersection depart = graphe.trouverIntersectionProche(x, y, i -> c.getTailleComposante(i) > 1);
+        return depart != null ? depart : trouverIntersectionProche(graphe, x, y);
+    }
+
+    /**
+     * Composantes connexes des intersections valides du graphe, calculées au premier appel
+     */
+    public ComposantesGraphe getComposantes(Graphe graphe) {
+        if (composantes == null || grapheComposantes != graphe) {
+            composantes = graphe.calculerComposantes(this::estValide);
+            grapheComposantes = graphe;
+        }
+        return composantes;
+    }
+
+    /**
+     * Indique si passer de depuis à vers mène dans une poche (région reliée au reste par depuis seul)
+     * dont les intersections ne suffisent pas pour la longueur restante : le fil y resterait bloqué
+     * Une composante trop petite pour toute la longueur n'est pas une poche : rien ne la sépare.
+     */
+    public boolean estPoche(Graphe graphe, Graphe.Intersection depuis, Graphe.Intersection vers, double longueurRestante) {
+        ComposantesGraphe c = getComposantes(graphe);
+        return c.estArticulation(depuis) && c.getCapacite(depuis, vers) * distance(depuis, vers) < longueurRestante;
+    }
+
+    /**
+     * Vérifie si le nouveau point créerait un croisement avec le chemin en construction
+     * (lit directement les coordonnées, sans créer de Point)
+     */
+    public static boolean cheminSeCroise(CheminFil.Constructeur chemin, int nx, int ny) {
+        int n = chemin.taille();
+        if (n < 2) {
+            return false;
+        }
+
+        int dx = chemin.getX(n - 1);
+        int dy = chemin.getY(n - 1);
+
+        // Le segment précédent (celui qui se termine au dernier point) est ignoré
+        for (int i = 0; i < n - 2; i++) {
+            if (segmentsIntersect(dx, dy, nx, ny,
+                    chemin.getX(i), chemin.getY(i), chemin.getX(i + 1), chemin.getY(i + 1))) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Vérifie si deux segments (p1, q1) et (p2, q2) se croisent
+     */
+    private static boolean segmentsIntersect(int p1x, int p1y, int q1x, int q1y,
+                                             int p2x, int p2y, int q2x, int q2y) {
+        int o1 = orientation(p1x, p1y, q1x, q1y, p2x, p2y);
+        int o2 = orientation(p1x, p1y, q1x, q1y, q2x, q2y);
+        int o3 = orientation(p2x, p2y, q2x, q2y, p1x, p1y);
+        int o4 = orientation(p2x, p2y, q2x, q2y, q1x, q1y);
+
+        // Cas général : les segments se croisent
+        if (o1 != 0 && o2 != 0 && o3 != 0 && o4 != 0 && o1 != o2 && o3 != o4) {
+            return true;
+        }
+
+        // Cas colinéaires : vérifier si un point est sur le segment
+        if (o1 == 0 && onSegment(p1x, p1y, p2x, p2y, q1x, q1y)) return true;
+        if (o2 == 0 && onSegment(p1x, p1y, q2x, q2y, q1x, q1y)) return true;
+        if (o3 == 0 && onSegment(p2x, p2y, p1x, p1y, q2x, q2y)) return true;
+        if (o4 == 0 && onSegment(p2x, p2y, q1x, q1y, q2x, q2y)) return true;
+
+        return false;
+    }
+
+    /**
+     * Calcule l'orientation de trois points
+     */
+    private static int orientation(int px, int py, int qx, int qy, int rx, int ry) {
+        long val = (long)(qy - py) * (rx - qx) - (long)(qx - px) * (ry - qy);
+        if (val == 0) return 0;  // Colinéaire
+        return (val > 0) ? 1 : 2; // Horaire ou anti-horaire
+    }
+
+    /**
+     * Vérifie si le point q est sur le segment (p, r)
+     */
+    private static boolean onSegment(int px, int py, int qx, int qy, int rx, int ry) {
+        return qx <= Math.max(px, rx) && qx >= Math.min(px, rx) &&
+               qy <= Math.max(py, ry) && qy >= Math.min(py, ry);
+    }
+
+    /**
+     * Calcule la distance entre deux intersections
+     */
+    public static double distance(Graphe.Intersection i1, Graphe.Intersection i2) {
+        return distance(i1.getX(), i1.getY(), i2.getX(), i2.getY());
+    }
+
+    /**
+     * Calcule la distance entre un point et une intersection
+     */
+    public static double distance(int x, int y, Graphe.Intersection inter) {
+        return distance(x, y, inter.getX(), inter.getY());
+    }
+
+    private static double distance(int x1, int y1, int x2, int y2) {
+        double dx = x1 - x2;
+        double dy = y1 - y2;
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+}
@@ -4,6 +4,8 @@ import domaine.dto.*;
 import domaine.meuble.Meuble;
 import domaine.meuble.MeubleAvecDrain;
 import domaine.meuble.MeubleFactory;
+import domaine.piece.JournalModifications;
+import domaine.piece.LotModifications;
 import domaine.piece.Mur;
 import domaine.piece.Piece;
 import domaine.piece.PieceFactory;
@@ -13,16 +15,38 @@ import domaine.chauffage.FilChauffant;
 import domaine.dto.ElementChauffantMapper;
 import domaine.piece.util.MurProcheInfo;
 import domaine.sauvegarde.EtatPiece;
+import domaine.sauvegarde.EtatPieceMapper;
+import domaine.sauvegarde.FichierProjet;
+import domaine.sauvegarde.FormatBinaire;
+import domaine.sauvegarde.JournalAutosauvegarde;
+import domaine.sauvegarde.SauvegardeAsynchrone;
+import domaine.sauvegarde.SauvegardeEnCours;
 import domaine.zone.ZoneInterdiction;
 import domaine.zone.ZoneTampon;
-import domaine.chauffage.CalculateurCheminFil;
 import domaine.chauffage.CalculateurCheminDijkstra;
+import domaine.chauffage.MetriquesRoutage;
+import domaine.chauffage.ParametresRoutage;
+import domaine.chauffage.RegistreMetriquesRoutage;
+import domaine.chauffage.RegistreStrategiesRoutage;
+import domaine.chauffage.StrategieRoutage;
+import domaine.chauffage.CheminFil;
+import domaine.chauffage.ServiceRoutage;
+import domaine.diagnostic.EmpreinteMemoire;
+import domaine.diagnostic.EvenementPersistance;
+import domaine.diagnostic.SurveillanceMemoire;
 import domaine.graphe.Graphe;
 
+import java.awt.EventQueue;
 import java.awt.Point;
 import java.io.*;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
@@ -34,16 +58,28 @@ public class Controleur {
     private Piece piece;
     private final SelectionService selection;
     private UndoRedo undoRedo;
+    private FichierProjet projet;
+    private int indexPieceProjet = -1;
+    private Piece pieceProjet; // instance affichée de la pièce indexPieceProjet (suivie à travers undo/redo)
+    private JournalAutosauvegarde journal;
+    private long versionJournalisee; // version de la pièce déjà écrite dans le journal d'autosauvegarde
+    private final ServiceRoutage routage = new ServiceRoutage();
+    private Executor executeurApplication = EventQueue::invokeLater;
+    private final SurveillanceMemoire surveillanceMemoire =
+        new SurveillanceMemoire(this::getEmpreinteMemoire, r -> executeurApplication.execute(r), System.err::println);
+    // Versions [debut, fin] reliées uniquement par des résultats de routage appliqués :
+    // un calcul demandé dans cet intervalle reste valable (il remplace simplement le précédent)
+    private long debutVersionsRoutage = -1;
+    private long finVersionsRoutage = -1;
 
     public Controleur() {
         this.selection = new SelectionService();
         this.undoRedo = new UndoRedo();
     }
     public Integer trouverObjetId(int x, int y) {
-        PieceDTO piece = getPieceCourante();
-        if (piece == null) return null;
+        requirePiece();
 
-        // On appelle la vraie pièce dans le domaine
+        // On appelle la vraie pièce dans le domaine (inutile de construire le DTO)
         return this.piece.trouverObjetId(new Point(x, y));
     }
     public Integer getIdElementSelectionne() {
@@ -59,10 +95,12 @@ public class Controleur {
     }
 
     public void creerPieceRectangulaire(int largeur, int longueur) {
+        detacherPieceProjet();
         this.piece = PieceFactory.creerRectangulaire(largeur, longueur);
         selection.clear();
         undoRedo.clear(); // Vider les piles undo/redo lors de la création d'une nouvelle pièce
         // FilChauffant est créé automatiquement dans Piece (si c'est ton design actuel)
+        journaliserPiece();
     }
 
     public void creerPieceIrreguliere(int largeur, int longueur) {
@@ -71,15 +109,18 @@ public class Controleur {
     }
 
     public void creerPieceIrreguliere(List<Point> points) {
+        detacherPieceProjet();
         this.piece = PieceFactory.creerIrreguliere(points);
         selection.clear();
         undoRedo.clear(); // Vider les piles undo/redo lors de la création d'une nouvelle pièce
+        journaliserPiece();
     }
 
     public void modifierPieceCourante(int nouvelleLargeur, int nouvelleLongueur) {
         requirePiece();
         enregistrerEtatPourUndo();
         piece.modifierDimensions(nouvelleLargeur, nouvelleLongueur);
+        journaliserModifications();
     }
 
     /**
@@ -97,6 +138,7 @@ public class Controleur {
         piece.modifierPoint(index, x, y);
         // Recalculer les dimensions depuis les points
         piece.calculerDimensionsDepuisPoints();
+        journaliserModifications();
     }
 
     /**
@@ -111,8 +153,13 @@ public class Controleur {
             enregistrerEtatPourUndo();
         }
         piece.redimensionnerPieceIrreguliere(nouvelleLargeur, nouvelleLongueur);
+        journaliserModifications();
     }
 
+    /**
+     * @return L'état de la pièce, partagé et en lecture seule (voir PieceMapper) : ses setters et ceux
+     * de ses meubles, éléments, zones et fil lèvent IllegalStateException, ses listes ne sont pas modifiables
+     */
     public PieceDTO getPieceCourante() {
         return GetPiece();
     }
@@ -121,6 +168,24 @@ public class Controleur {
         requirePiece();
         return PieceMapper.toDTO(piece);
     }
+
+    /**
+     * Version courante de la pièce (à passer à getModificationsDepuis)
+     */
+    public long getVersionPiece() {
+        requirePiece();
+        return piece.getVersion();
+    }
+
+    /**
+     * Retourne les modifications survenues depuis une version, pour mettre à jour une vue
+     * sans tout reconstruire. Si le résultat demande une resynchronisation, relire toute la pièce.
+     * @param version La version reçue lors de l'appel précédent (0 au premier appel)
+     */
+    public ModificationsDTO getModificationsDepuis(long version) {
+        requirePiece();
+        return ModificationsMapper.toDTO(piece, version);
+    }
 //
 //    /**
 //     * Valide la position d'un élément chauffant ou d'un thermostat dans la pièce irrégulière.
@@ -164,6 +229,7 @@ public class Controleur {
         
         // Les valeurs passées sont relatives au meuble
         piece.modifierDrainRelatif(dto.getId(), drainX, drainY, diametre);
+        journaliserModifications();
     }
 
 
@@ -175,6 +241,7 @@ public class Controleur {
         Meuble m = MeubleFactory.creerSansDrain(type, position, largeur, longueur);
         int id = piece.ajouterMeuble(m);
         selection.setSelection(id, SelectionService.TypeElement.MEUBLE);
+        journaliserModifications();
         return id;
     }
 
@@ -245,6 +312,7 @@ public class Controleur {
 
         int id = piece.ajouterMeuble(m);
         selection.setSelection(id, SelectionService.TypeElement.MEUBLE);
+        journaliserModifications();
     }
 
     private void ajouterMeubleSansDrain(String type, String nom, int x, int y, int largeur, int longueur) {
@@ -255,6 +323,7 @@ public class Controleur {
         m.setNom(nom);
         int id = piece.ajouterMeuble(m);
         selection.setSelection(id, SelectionService.TypeElement.MEUBLE);
+        journaliserModifications();
     }
 
     /**
@@ -267,6 +336,7 @@ public class Controleur {
         Meuble m = MeubleFactory.creerDepuisDTO(meubleDTO);
         int id = piece.ajouterMeuble(m);
         selection.setSelection(id, SelectionService.TypeElement.MEUBLE);
+        journaliserModifications();
     }
 
     // ==================== DÉPLACEMENT / REDIMENSIONNEMENT ====================
@@ -282,6 +352,7 @@ public class Controleur {
 
         try {
             piece.deplacerMeuble(id, p);
+            journaliserModifications();
         } catch (IllegalArgumentException ex) {
             // collision ou dépassement → on ignore le déplacement
             System.err.println("Déplacement refusé : " + ex.getMessage());
@@ -318,6 +389,7 @@ public class Controleur {
             }
             
             piece.deplacerMeuble(dto.getId(), nouvellePos);
+            journaliserModifications();
             return null;
         } catch (IllegalArgumentException e) {
             return e.getMessage();
@@ -335,6 +407,7 @@ public class Controleur {
     public void redimensionnerMeuble(int id, int largeur, int longueur) {
         requirePiece();
         piece.redimensionnerMeuble(id, largeur, longueur);
+        journaliserModifications();
     }
 
     public void redimensionnerMeuble(MeubleDTO dto, int largeur, int longueur) {
@@ -351,15 +424,20 @@ public class Controleur {
         });
         
         piece.redimensionnerMeuble(dto.getId(), largeur, longueur);
+        journaliserModifications();
     }
     public void modifierDrain(int id, int drainX, int drainY) {
         requirePiece();
         // Ne pas enregistrer pour undo à chaque mouvement (seulement au début du drag)
-        piece.trouverMeuble(id).ifPresent(m -> {
-            if (m instanceof MeubleAvecDrain d) {
-                d.setDrainPosition(drainX, drainY);
-            }
+        piece.modifier(() -> {
+            piece.trouverMeuble(id).ifPresent(m -> {
+                if (m instanceof MeubleAvecDrain d) {
+                    d.setDrainPosition(drainX, drainY);
+                    piece.marquerModifie(Piece.Partie.MEUBLES, id, JournalModifications.TypeModification.MODIFICATION);
+                }
+            });
         });
+        journaliserModifications();
     }
 
 
@@ -369,6 +447,35 @@ public class Controleur {
         }
     }
 
+    // ==================== LOTS DE MODIFICATIONS ====================
+
+    /**
+     * Applique en une fois un lot d'ajouts, de déplacements, de redimensionnements et de suppressions
+     * (import d'un aménagement, gabarit de plusieurs appareils, ...)
+     * Le lot est validé en une passe et produit une seule entrée d'historique ; si une opération
+     * est invalide, la pièce n'est pas modifiée et rien n'est enregistré.
+     * @return Les ids des meubles et éléments ajoutés, dans l'ordre du lot
+     * @throws IllegalArgumentException si une opération est invalide ("Opération n : cause")
+     */
+    public List<Integer> appliquerLot(LotModifications lot) {
+        requirePiece();
+        if (lot == null || lot.estVide()) {
+            return new ArrayList<>();
+        }
+        PieceDTO avant = PieceMapper.toDTO(piece);
+        LotModifications.Resultat resultat = piece.appliquerLot(lot);
+        undoRedo.enregistrerEtat(avant);
+
+        for (int id : resultat.getMeublesModifies()) {
+            selection.clearSiSelectionne(id);
+        }
+        for (int id : resultat.getElementsModifies()) {
+            selection.clearSiSelectionne(id);
+        }
+        journaliserModifications(); // une passe pour tout le lot
+        return new ArrayList<>(resultat.getIdsAjoutes());
+    }
+
     // ==================== SUPPRESSION ====================
 
     public void supprimerMeuble(int id) {
@@ -377,6 +484,7 @@ public class Controleur {
         
         piece.supprimerMeuble(id);
         selection.clearSiSelectionne(id);
+        journaliserModifications();
     }
 
     public void supprimerMeuble(MeubleDTO dto) {
@@ -533,6 +641,7 @@ public class Controleur {
             selection.setSelection(id, SelectionService.TypeElement.ELEMENT_CHAUFFANT);
         }
 
+        journaliserModifications();
         return id;
         }
 
@@ -545,8 +654,10 @@ public class Controleur {
         
         if (dto.getId() > 0) {
             piece.supprimerElementChauffant(dto.getId());
+            journaliserModifications();
         } else {
             piece.supprimerElementChauffantParNomEtPosition(dto.getNom(), dto.getX(), dto.getY());
+            journaliserModifications();
         }
     }
 
@@ -556,6 +667,7 @@ public class Controleur {
         
         piece.supprimerElementChauffant(id);
         selection.clearSiSelectionne(id);
+        journaliserModifications();
     }
 
     public void supprimerElementSelectionne() {
@@ -648,6 +760,7 @@ public class Controleur {
         }
         
         piece.deplacerElementChauffant(id, new Point(x, y));
+        journaliserModifications();
     }
 
     /**
@@ -657,9 +770,15 @@ public class Controleur {
      */
     public void modifierAngleElementChauffant(int id, double angle) {
         requirePiece();
-        piece.trouverElementChauffant(id).ifPresent(e -> {
-            e.setAngle(angle);
+        piece.modifier(() -> {
+            piece.trouverElementChauffant(id).ifPresent(e -> {
+                if (e.getAngle() != angle) {
+                    e.setAngle(angle);
+                    piece.marquerModifie(Piece.Partie.ELEMENTS_CHAUFFANTS, id, JournalModifications.TypeModification.MODIFICATION);
+                }
+            });
         });
+        journaliserModifications();
     }
 
     /**
@@ -669,9 +788,15 @@ public class Controleur {
      */
     public void modifierAngleMeuble(int id, double angle) {
         requirePiece();
-        piece.trouverMeuble(id).ifPresent(m -> {
-            m.setAngle(angle);
+        piece.modifier(() -> {
+            piece.trouverMeuble(id).ifPresent(m -> {
+                if (m.getAngle() != angle) {
+                    m.setAngle(angle);
+                    piece.marquerModifie(Piece.Partie.MEUBLES, id, JournalModifications.TypeModification.MODIFICATION);
+                }
+            });
         });
+        journaliserModifications();
     }
 
     public void redimensionnerElementChauffant(int id, int largeur, int longueur) {
@@ -685,6 +810,7 @@ public class Controleur {
         });
         
         piece.redimensionnerElementChauffant(id, largeur, longueur);
+        journaliserModifications();
     }
 
     // ==================== FIL CHAUFFANT ====================
@@ -700,7 +826,7 @@ public class Controleur {
         dto.setLongueur(longueur);
         dto.setDistanceEnroulement(fil.getDistanceFil());
         dto.setActif(fil.estActif());
-        dto.setChemin(fil.getChemin());
+        dto.setCheminCompact(fil.getCheminCompact());
         return dto;
     }
 
@@ -711,35 +837,56 @@ public class Controleur {
     public void activerFilChauffant() {
         requirePiece();
         FilChauffant fil = piece.getFilChauffant();
-        if (fil != null) {
-            fil.setActif(true);
+        if (fil != null && !fil.estActif()) {
+            piece.modifier(() -> {
+                fil.setActif(true);
+                piece.marquerModifie(Piece.Partie.FIL);
+            });
+            journaliserModifications();
         }
     }
 
     public void desactiverFilChauffant() {
         requirePiece();
         FilChauffant fil = piece.getFilChauffant();
-        if (fil != null) {
-            fil.setActif(false);
+        if (fil != null && fil.estActif()) {
+            piece.modifier(() -> {
+                fil.setActif(false);
+                piece.marquerModifie(Piece.Partie.FIL);
+            });
+            journaliserModifications();
         }
     }
 
     public void mettreAJourDistanceFil(int distance) {
         requirePiece();
         FilChauffant fil = piece.getFilChauffant();
-        if (fil != null) {
-            fil.setDistanceFil(distance);
+        if (fil != null && fil.getDistanceFil() != distance) {
+            piece.modifier(() -> {
+                fil.setDistanceFil(distance);
+                piece.marquerModifie(Piece.Partie.FIL);
+            });
+            journaliserModifications();
         }
     }
 
     /**
-     * Calcule le chemin du fil chauffant
+     * Calcule le chemin du fil chauffant (stratégie serpentin)
      * @param distanceEntreFils Distance souhaitée entre les fils (en pouces)
      * @param longueurSouhaitee Longueur souhaitée du fil (en pouces)
      * @return true si un chemin a été trouvé, false sinon
      */
     public boolean calculerCheminFil(int distanceEntreFils, int longueurSouhaitee) {
+        return calculerCheminFil(RegistreStrategiesRoutage.SERPENTIN, distanceEntreFils, longueurSouhaitee);
+    }
+
+    /**
+     * Calcule le chemin du fil chauffant avec la stratégie donnée (voir getStrategiesRoutage)
+     * @throws IllegalArgumentException si la stratégie n'est pas enregistrée
+     */
+    public boolean calculerCheminFil(String nomStrategie, int distanceEntreFils, int longueurSouhaitee) {
         requirePiece();
+        StrategieRoutage strategie = RegistreStrategiesRoutage.get(nomStrategie);
         FilChauffant fil = piece.getFilChauffant();
         if (fil == null) {
             return false;
@@ -748,18 +895,121 @@ public class Controleur {
         enregistrerEtatPourUndo();
         
         // Mettre à jour la distance et la longueur souhaitée dans le fil
-        fil.setDistanceFil(distanceEntreFils);
-        fil.setLongueurSouhaitee(longueurSouhaitee);
+        piece.modifier(() -> {
+            fil.setDistanceFil(distanceEntreFils);
+            fil.setLongueurSouhaitee(longueurSouhaitee);
+        });
+        genererGrapheSiNecessaire();
         
-        List<Point> chemin = CalculateurCheminFil.calculerChemin(
-            piece, fil, distanceEntreFils, longueurSouhaitee);
+        // Le routage en arrière-plan peut écrire dans la pièce : calculer sur un instantané
+        Piece copie = piece.getInstantane();
+        CheminFil chemin = strategie.router(
+            copie, copie.getGraphe(), new ParametresRoutage(distanceEntreFils, longueurSouhaitee));
         
-        if (chemin != null && !chemin.isEmpty()) {
-            fil.setChemin(chemin);
-            return true;
+        boolean trouve = chemin != null && !chemin.estVide();
+        piece.modifier(() -> {
+            if (trouve) {
+                fil.setChemin(chemin);
+            }
+            piece.marquerModifie(Piece.Partie.FIL);
+        });
+        journaliserModifications();
+        return trouve;
+    }
+
+    /**
+     * Noms des stratégies de routage disponibles
+     */
+    public List<String> getStrategiesRoutage() {
+        return RegistreStrategiesRoutage.getNoms();
+    }
+
+    /**
+     * Calcule le chemin du fil avec plusieurs stratégies sur le même instantané de la pièce
+     * Les chemins ne sont pas appliqués au fil.
+     * @return Le chemin de chaque stratégie, par nom (vide si aucun chemin n'a été trouvé)
+     */
+    public Map<String, List<Point>> comparerStrategiesRoutage(List<String> nomsStrategies,
+                                                              int distanceEntreFils, int longueurSouhaitee) {
+        requirePiece();
+        List<StrategieRoutage> strategies = new ArrayList<>();
+        for (String nom : nomsStrategies) {
+            strategies.add(RegistreStrategiesRoutage.get(nom));
+        }
+        Piece copie = piece.getInstantane();
+        ParametresRoutage parametres = new ParametresRoutage(distanceEntreFils, longueurSouhaitee);
+        Map<String, List<Point>> chemins = new LinkedHashMap<>();
+        for (StrategieRoutage strategie : strategies) {
+            CheminFil chemin = strategie.router(copie, copie.getGraphe(), parametres);
+            chemins.put(strategie.getNom(), chemin != null ? chemin.versPoints() : new ArrayList<>());
+        }
+        return chemins;
+    }
+
+    /**
+     * Active ou désactive les métriques des calculs de chemin (désactivées par défaut)
+     */
+    public void setMetriquesRoutageActives(boolean actives) {
+        RegistreMetriquesRoutage.setActif(actives);
+    }
+
+    public boolean sontMetriquesRoutageActives() {
+        return RegistreMetriquesRoutage.estActif();
+    }
+
+    /**
+     * Métriques des derniers calculs de chemin, du plus ancien au plus récent
+     * (vide si les métriques sont désactivées)
+     */
+    public List<MetriquesRoutage> getMetriquesRoutage() {
+        return RegistreMetriquesRoutage.getDernieres();
+    }
+
+    /**
+     * Estime la mémoire retenue par la pièce courante : graphe, chemin du fil, DTO en cache et historique
+     */
+    public EmpreinteMemoire getEmpreinteMemoire() {
+        Graphe graphe = piece != null ? piece.getGraphe() : null;
+        FilChauffant fil = piece != null ? piece.getFilChauffant() : null;
+        return EmpreinteMemoire.mesurer(graphe, fil != null ? fil.getCheminCompact() : null,
+            PieceMapper.getDTOEnCache(), undoRedo.getEtats());
+    }
+
+    /**
+     * Journalise l'empreinte mémoire périodiquement (sur System.err), mesurée sur l'exécuteur d'application
+     * @param periodeMs Période entre deux mesures, en millisecondes
+     */
+    public void demarrerSurveillanceMemoire(long periodeMs) {
+        surveillanceMemoire.demarrer(periodeMs);
+    }
+
+    public void arreterSurveillanceMemoire() {
+        surveillanceMemoire.arreter();
+    }
+
+    /**
+     * Fixe le budget mémoire d'un poste, contrôlé à chaque mesure (0 ou moins : aucun budget)
+     */
+    public void setBudgetMemoire(EmpreinteMemoire.Poste poste, long octets) {
+        surveillanceMemoire.setBudget(poste, octets);
+    }
+
+    /**
+     * Mesure et journalise l'empreinte mémoire immédiatement
+     * @return Les postes au-delà de leur budget
+     */
+    public List<EmpreinteMemoire.Poste> verifierBudgetsMemoire() {
+        return surveillanceMemoire.verifier();
+    }
+
+    /**
+     * Génère le graphe de la pièce sous le verrou d'écriture, avant un calcul qui le lit
+     */
+    private void genererGrapheSiNecessaire() {
+        Graphe graphe = piece.getGraphe();
+        if (graphe != null && !graphe.estGenere()) {
+            piece.genererGraphe();
         }
-        
-        return false;
     }
 
     /**
@@ -784,7 +1034,11 @@ public class Controleur {
             return;
         }
         enregistrerEtatPourUndo();
-        fil.setChemin(nouveauChemin);
+        piece.modifier(() -> {
+            fil.setChemin(nouveauChemin);
+            piece.marquerModifie(Piece.Partie.FIL);
+        });
+        journaliserModifications();
     }
 
     /**
@@ -803,9 +1057,7 @@ public class Controleur {
             return null;
         }
         
-        if (!graphe.estGenere()) {
-            graphe.genererGraphe();
-        }
+        genererGrapheSiNecessaire();
         
         // Utiliser la longueur fournie, ou calculer depuis le fil
         if (longueurSouhaitee <= 0) {
@@ -821,8 +1073,170 @@ public class Controleur {
             distanceEntreFils = 6; // Valeur par défaut
         }
         
-        return CalculateurCheminDijkstra.recalculerCheminAvecDijkstra(
-            piece, graphe, intersection, cheminPartiel, longueurSouhaitee, distanceEntreFils);
+        // L'intersection vient du graphe de la pièce : calculer sous le verrou de lecture plutôt que sur un instantané
+        int longueur = longueurSouhaitee;
+        int distance = distanceEntreFils;
+        return piece.lire(() -> CalculateurCheminDijkstra.recalculerCheminAvecDijkstra(
+            piece, graphe, intersection, cheminPartiel, longueur, distance));
+    }
+
+    // ==================== ROUTAGE EN ARRIÈRE-PLAN ====================
+
+    /**
+     * Exécuteur sur lequel les résultats du routage sont appliqués au modèle
+     * Par défaut le fil d'événements AWT, qui est celui de l'interface ; un outil sans interface
+     * peut fournir un autre exécuteur (par exemple Runnable::run).
+     */
+    public void setExecuteurApplication(Executor executeurApplication) {
+        if (executeurApplication == null) {
+            throw new IllegalArgumentException("Exécuteur invalide");
+        }
+        this.executeurApplication = executeurApplication;
+    }
+
+    /**
+     * Calcule le chemin du fil en arrière-plan, sur une copie de la pièce
+     * Les demandes rapprochées sont regroupées : seule la dernière est calculée, les précédentes
+     * sont annulées. Le chemin n'est appliqué au fil que si la pièce n'a pas été modifiée entre-temps ;
+     * sinon le future est annulé.
+     * @return Le chemin appliqué (vide si aucun chemin valide n'a été trouvé)
+     */
+    public CompletableFuture<List<Point>> calculerCheminFilAsync(int distanceEntreFils, int longueurSouhaitee) {
+        return calculerCheminFilAsync(RegistreStrategiesRoutage.SERPENTIN, distanceEntreFils, longueurSouhaitee);
+    }
+
+    /**
+     * Calcule le chemin du fil en arrière-plan avec la stratégie donnée (voir calculerCheminFilAsync)
+     * Les demandes sont regroupées quelle que soit la stratégie : seule la dernière est appliquée.
+     */
+    public CompletableFuture<List<Point>> calculerCheminFilAsync(String nomStrategie,
+                                                                 int distanceEntreFils, int longueurSouhaitee) {
+        requirePiece();
+        StrategieRoutage strategie = RegistreStrategiesRoutage.get(nomStrategie);
+        if (piece.getFilChauffant() == null) {
+            return CompletableFuture.completedFuture(new ArrayList<>());
+        }
+        Piece source = piece;
+        long version = piece.getVersion();
+
+        // L'instantané est pris sur le fil de routage ; s'il est plus récent que la demande,
+        // la pièce a changé et le résultat ne sera pas appliqué
+        CompletableFuture<CheminFil> calcul = routage.soumettre("chemin", () -> {
+            Piece copie = source.getInstantane();
+            return strategie.router(copie, copie.getGraphe(),
+                new ParametresRoutage(distanceEntreFils, longueurSouhaitee));
+        });
+        return appliquerSiInchangee(calcul, source, version, chemin -> {
+            enregistrerEtatPourUndo();
+            FilChauffant fil = piece.getFilChauffant();
+            piece.modifier(() -> {
+                fil.setDistanceFil(distanceEntreFils);
+                fil.setLongueurSouhaitee(longueurSouhaitee);
+                if (chemin != null && !chemin.estVide()) {
+                    fil.setChemin(chemin);
+                }
+                piece.marquerModifie(Piece.Partie.FIL);
+            });
+            journaliserModifications();
+        });
+    }
+
+    /**
+     * Recalcule en arrière-plan le chemin à partir d'une intersection (voir recalculerCheminAvecDijkstra)
+     * Le chemin n'est pas appliqué au fil ; le future est annulé si la pièce a été modifiée entre-temps.
+     */
+    public CompletableFuture<List<Point>> recalculerCheminAvecDijkstraAsync(
+            Graphe.Intersection intersection, List<Point> cheminPartiel, int longueurSouhaitee) {
+        requirePiece();
+        FilChauffant fil = piece.getFilChauffant();
+        if (fil == null || piece.getGraphe() == null || intersection == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        // Mêmes valeurs par défaut que recalculerCheminAvecDijkstra
+        int longueur = longueurSouhaitee;
+        if (longueur <= 0) {
+            longueur = (int) fil.calculerLongueurTotale();
+            if (longueur == 0) {
+                longueur = 1000;
+            }
+        }
+        int distanceEntreFils = fil.getDistanceFil() > 0 ? fil.getDistanceFil() : 6;
+        int longueurFinale = longueur;
+
+        Piece source = piece;
+        long version = piece.getVersion();
+        CheminFil partiel = CheminFil.depuisPoints(cheminPartiel);
+        String idIntersection = intersection.getId();
+        int xIntersection = intersection.getX();
+        int yIntersection = intersection.getY();
+
+        CompletableFuture<CheminFil> calcul = routage.soumettre("dijkstra", () -> {
+            Piece copie = source.getInstantane(); // graphe déjà généré
+            Graphe graphe = copie.getGraphe();
+            Graphe.Intersection depart = trouverIntersection(graphe, idIntersection, xIntersection, yIntersection);
+            return CalculateurCheminDijkstra.recalculerCheminCompact(
+                copie, graphe, depart, partiel, longueurFinale, distanceEntreFils);
+        });
+        return appliquerSiInchangee(calcul, source, version, chemin -> {});
+    }
+
+    /**
+     * Attend la fin d'un calcul puis, sur l'exécuteur d'application, applique le résultat
+     * si la pièce courante est toujours la même et n'a pas changé de version
+     */
+    private CompletableFuture<List<Point>> appliquerSiInchangee(CompletableFuture<CheminFil> calcul,
+                                                               Piece source, long version,
+                                                               Consumer<CheminFil> application) {
+        CompletableFuture<List<Point>> resultat = new CompletableFuture<>();
+        calcul.whenComplete((chemin, erreur) -> executeurApplication.execute(() -> {
+            if (erreur != null) {
+                resultat.completeExceptionally(erreur);
+            } else if (!estInchangee(source, version)) {
+                resultat.completeExceptionally(new CancellationException("La pièce a été modifiée pendant le calcul"));
+            } else {
+                try {
+                    long avant = piece.getVersion();
+                    application.accept(chemin);
+                    if (piece.getVersion() != avant) {
+                        if (avant != finVersionsRoutage) {
+                            debutVersionsRoutage = avant;
+                        }
+                        finVersionsRoutage = piece.getVersion();
+                    }
+                    resultat.complete(chemin != null ? chemin.versPoints() : new ArrayList<>());
+                } catch (RuntimeException e) {
+                    resultat.completeExceptionally(e);
+                }
+            }
+        }));
+        // Annuler le future retourné annule aussi le calcul s'il n'a pas commencé
+        resultat.whenComplete((r, e) -> {
+            if (resultat.isCancelled()) {
+                calcul.cancel(false);
+            }
+        });
+        return resultat;
+    }
+
+    /**
+     * Indique si la pièce n'a pas changé depuis la version donnée, sauf par des résultats de routage
+     */
+    private boolean estInchangee(Piece source, long version) {
+        if (piece != source) {
+            return false;
+        }
+        long actuelle = piece.getVersion();
+        return actuelle == version
+                || (actuelle == finVersionsRoutage && version >= debutVersionsRoutage && version <= finVersionsRoutage);
+    }
+
+    private static Graphe.Intersection trouverIntersection(Graphe graphe, String id, int x, int y) {
+        Graphe.Intersection inter = graphe.getIntersection(id);
+        if (inter != null) {
+            return inter;
+        }
+        // Le graphe de la copie peut différer légèrement : prendre l'intersection la plus proche
+        return graphe.trouverIntersectionProche(x, y, i -> true);
     }
 
     // ==================== GRAPHE / INTERSECTIONS ====================
@@ -830,6 +1244,7 @@ public class Controleur {
     public void genererGraphe() {
         requirePiece();
         piece.genererGraphe();
+        journaliserModifications();
     }
 
     public void configurerMembrane(int espacement, int translationX, int translationY) {
@@ -837,11 +1252,15 @@ public class Controleur {
         enregistrerEtatPourUndo();
         Graphe graphe = piece.getGraphe();
         if (graphe != null) {
-            graphe.setEspacement(espacement);
-            graphe.setTranslationX(translationX);
-            graphe.setTranslationY(translationY);
-            graphe.setConfirmee(false); // Réinitialiser l'état confirmé pour permettre l'affichage des parties qui dépassent
-            graphe.genererGraphe();
+            piece.modifier(() -> {
+                graphe.setEspacement(espacement);
+                graphe.setTranslationX(translationX);
+                graphe.setTranslationY(translationY);
+                graphe.setConfirmee(false); // Réinitialiser l'état confirmé pour permettre l'affichage des parties qui dépassent
+                graphe.genererGraphe();
+                piece.marquerModifie(Piece.Partie.MEMBRANE);
+            });
+            journaliserModifications();
         }
     }
 
@@ -860,11 +1279,15 @@ public class Controleur {
         if (graphe == null) return;
         
         // Garder les translations telles quelles
-        graphe.setEspacement(espacement);
-        graphe.setTranslationX(translationX);
-        graphe.setTranslationY(translationY);
-        graphe.setConfirmee(true); // Marquer comme confirmée
-        graphe.genererGrapheAvecValidation(piece); // Générer avec validation pour supprimer les intersections invalides
+        piece.modifier(() -> {
+            graphe.setEspacement(espacement);
+            graphe.setTranslationX(translationX);
+            graphe.setTranslationY(translationY);
+            graphe.setConfirmee(true); // Marquer comme confirmée
+            graphe.genererGrapheAvecValidation(piece); // Générer avec validation pour supprimer les intersections invalides
+            piece.marquerModifie(Piece.Partie.MEMBRANE);
+        });
+        journaliserModifications();
     }
 
     /**
@@ -988,15 +1411,17 @@ public class Controleur {
         }
         
         // Sauvegarder l'état actuel pour le redo
+        PieceDTO etatActuel = null;
         if (piece != null) {
-            PieceDTO etatActuel = PieceMapper.toDTO(piece);
+            etatActuel = PieceMapper.toDTO(piece);
             undoRedo.enregistrerPourRedo(etatActuel);
         }
         
         // Récupérer l'état précédent
         PieceDTO etatPrecedent = undoRedo.undo();
         if (etatPrecedent != null) {
-            restaurerPieceDepuisDTO(etatPrecedent);
+            restaurerPieceDepuisDTO(etatPrecedent, etatActuel);
+            journaliserPiece();
             return true;
         }
         return false;
@@ -1012,15 +1437,17 @@ public class Controleur {
         }
         
         // Sauvegarder l'état actuel pour le undo (sans vider la pile redo)
+        PieceDTO etatActuel = null;
         if (piece != null) {
-            PieceDTO etatActuel = PieceMapper.toDTO(piece);
+            etatActuel = PieceMapper.toDTO(piece);
             undoRedo.ajouterAUndoSansViderRedo(etatActuel);
         }
         
         // Récupérer l'état suivant
         PieceDTO etatSuivant = undoRedo.redo();
         if (etatSuivant != null) {
-            restaurerPieceDepuisDTO(etatSuivant);
+            restaurerPieceDepuisDTO(etatSuivant, etatActuel);
+            journaliserPiece();
             return true;
         }
         return false;
@@ -1028,20 +1455,39 @@ public class Controleur {
 
     /**
      * Restaure une pièce depuis un DTO (utilisé pour undo/redo)
+     * Le contour, les zones, le chemin du fil et la membrane sont restaurés tels quels :
+     * aucun recalcul du chemin n'est nécessaire, et le graphe courant est réutilisé
+     * lorsque la géométrie restaurée est identique à la géométrie actuelle
+     * @param dto L'état à restaurer
+     * @param etatCourant L'état actuel de la pièce (null si aucune pièce)
      */
-    private void restaurerPieceDepuisDTO(PieceDTO dto) {
+    private void restaurerPieceDepuisDTO(PieceDTO dto, PieceDTO etatCourant) {
         if (dto == null) return;
         
-        // Créer une nouvelle pièce avec les dimensions du DTO
-        this.piece = PieceFactory.creerRectangulaire(dto.getLargeur(), dto.getLongueur());
+        Graphe ancienGraphe = piece != null ? piece.getGraphe() : null;
+        boolean pieceDuProjet = piece != null && piece == pieceProjet;
         
-        // Restaurer le fil chauffant
+        // Créer une nouvelle pièce avec le contour du DTO (rectangulaire ou irrégulier)
+        List<Point> contour = dto.getPoints();
+        if (contour != null && contour.size() >= 3) {
+            this.piece = PieceFactory.creerIrreguliere(contour);
+        } else {
+            this.piece = PieceFactory.creerRectangulaire(dto.getLargeur(), dto.getLongueur());
+        }
+        if (pieceDuProjet) {
+            pieceProjet = piece; // même pièce du projet, reconstruite
+        }
+        
+        // Restaurer le fil chauffant (y compris le chemin déjà calculé)
         if (dto.getFliChauffant() != null) {
             FilChauffant fil = piece.getFilChauffant();
             if (fil != null) {
-                fil.setNom(dto.getFliChauffant().getNom());
-                fil.setDistanceFil((int) dto.getFliChauffant().getDistanceEnroulement());
-                fil.setActif(dto.getFliChauffant().isActif());
+                FliChauffantDTO filDTO = dto.getFliChauffant();
+                fil.setNom(filDTO.getNom());
+                fil.setDistanceFil((int) filDTO.getDistanceEnroulement());
+                fil.setLongueurSouhaitee(filDTO.getLongueurSouhaitee());
+                fil.setActif(filDTO.isActif());
+                fil.setChemin(filDTO.getCheminCompact());
             }
         }
         
@@ -1095,10 +1541,114 @@ public class Controleur {
             }
         }
         
+        // Restaurer les zones d'interdiction
+        if (dto.getZonesInterdiction() != null) {
+            for (ZoneInterdictionDTO zoneDTO : dto.getZonesInterdiction()) {
+                try {
+                    ZoneInterdiction zone = new ZoneInterdiction(new Point(zoneDTO.getPosition()),
+                        zoneDTO.getLargeur(), zoneDTO.getLongueur(), zoneDTO.getNom());
+                    zone.setId(zoneDTO.getId());
+                    piece.ajouterZoneInterdiction(zone);
+                } catch (Exception e) {
+                    System.err.println("Erreur lors de la restauration de la zone d'interdiction: " + e.getMessage());
+                }
+            }
+        }
+        
+        // Restaurer les zones tampon
+        if (dto.getZonesTampon() != null) {
+            for (ZoneTamponDTO zoneDTO : dto.getZonesTampon()) {
+                try {
+                    ZoneTampon zone = new ZoneTampon(new Point(zoneDTO.getPosition()),
+                        zoneDTO.getLargeur(), zoneDTO.getLongueur(), zoneDTO.getDistance(), zoneDTO.getNom());
+                    zone.setId(zoneDTO.getId());
+                    piece.ajouterZoneTampon(zone);
+                } catch (Exception e) {
+                    System.err.println("Erreur lors de la restauration de la zone tampon: " + e.getMessage());
+                }
+            }
+        }
+        
+        // Restaurer la membrane
+        restaurerMembrane(dto, etatCourant, ancienGraphe);
+        
         // Effacer la sélection après restauration
         selection.clear();
     }
 
+    /**
+     * Restaure la configuration de la membrane de la pièce restaurée.
+     * Si la géométrie (contour, meubles, zones d'interdiction, membrane) n'a pas changé,
+     * le graphe déjà généré est réutilisé tel quel; sinon il est régénéré seulement
+     * s'il l'était dans l'état restauré.
+     */
+    private void restaurerMembrane(PieceDTO dto, PieceDTO etatCourant, Graphe ancienGraphe) {
+        if (ancienGraphe != null && etatCourant != null && memeGeometrie(dto, etatCourant)) {
+            piece.setGraphe(ancienGraphe);
+            return;
+        }
+        
+        Graphe graphe = piece.getGraphe();
+        if (graphe == null || dto.getEspacementMembrane() <= 0) {
+            return;
+        }
+        graphe.setEspacement(dto.getEspacementMembrane());
+        graphe.setTranslationX(dto.getTranslationXMembrane());
+        graphe.setTranslationY(dto.getTranslationYMembrane());
+        graphe.setConfirmee(dto.isMembraneConfirmee());
+        if (dto.isMembraneGeneree()) {
+            graphe.genererGrapheAvecValidation(piece);
+        }
+    }
+
+    /**
+     * Vérifie si deux états ont la même géométrie du point de vue du graphe :
+     * mêmes dimensions, même contour, mêmes meubles (et drains), mêmes zones d'interdiction
+     * et même configuration de membrane. Les éléments chauffants, les zones tampon et le fil
+     * n'influencent pas la validité des intersections.
+     */
+    private static boolean memeGeometrie(PieceDTO a, PieceDTO b) {
+        if (a.getLargeur() != b.getLargeur() || a.getLongueur() != b.getLongueur()) return false;
+        if (a.getEspacementMembrane() != b.getEspacementMembrane()
+                || a.getTranslationXMembrane() != b.getTranslationXMembrane()
+                || a.getTranslationYMembrane() != b.getTranslationYMembrane()
+                || a.isMembraneConfirmee() != b.isMembraneConfirmee()
+                || a.isMembraneGeneree() != b.isMembraneGeneree()) {
+            return false;
+        }
+        if (!java.util.Objects.equals(a.getContourCompact(), b.getContourCompact())) return false;
+        
+        List<MeubleDTO> meublesA = a.getMeubles() != null ? a.getMeubles() : List.of();
+        List<MeubleDTO> meublesB = b.getMeubles() != null ? b.getMeubles() : List.of();
+        if (meublesA.size() != meublesB.size()) return false;
+        for (int i = 0; i < meublesA.size(); i++) {
+            MeubleDTO ma = meublesA.get(i);
+            MeubleDTO mb = meublesB.get(i);
+            if (ma.getX() != mb.getX() || ma.getY() != mb.getY()
+                    || ma.getLargeur() != mb.getLargeur() || ma.getLongueur() != mb.getLongueur()
+                    || ma.isaDrain() != mb.isaDrain()
+                    || !java.util.Objects.equals(ma.getType(), mb.getType())) {
+                return false;
+            }
+            if (ma.isaDrain() && (ma.getDrainX() != mb.getDrainX() || ma.getDrainY() != mb.getDrainY())) {
+                return false;
+            }
+        }
+        
+        List<ZoneInterdictionDTO> zonesA = a.getZonesInterdiction() != null ? a.getZonesInterdiction() : List.of();
+        List<ZoneInterdictionDTO> zonesB = b.getZonesInterdiction() != null ? b.getZonesInterdiction() : List.of();
+        if (zonesA.size() != zonesB.size()) return false;
+        for (int i = 0; i < zonesA.size(); i++) {
+            ZoneInterdictionDTO za = zonesA.get(i);
+            ZoneInterdictionDTO zb = zonesB.get(i);
+            if (!java.util.Objects.equals(za.getPosition(), zb.getPosition())
+                    || za.getLargeur() != zb.getLargeur() || za.getLongueur() != zb.getLongueur()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     /**
      * Vérifie s'il y a des opérations à annuler
      */
@@ -1116,229 +1666,339 @@ public class Controleur {
     // ==================== SAUVEGARDE / CHARGEMENT ====================
 
     /**
-     * Sauvegarde l'état actuel de la pièce dans un fichier
+     * Sauvegarde l'état actuel de la pièce dans un fichier (format binaire, voir FormatBinaire)
      * @param fichier Le fichier où sauvegarder
      * @throws IOException Si une erreur d'écriture survient
      */
     public void sauvegarder(File fichier) throws IOException {
         requirePiece();
         
-        EtatPiece etat = convertirPieceEnEtat();
-        
-        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(fichier))) {
-            oos.writeObject(etat);
-        }
+        EvenementPersistance evenement = new EvenementPersistance();
+        evenement.begin();
+        EtatPiece etat = EtatPieceMapper.versEtat(piece);
+        FormatBinaire.ecrire(etat, fichier.toPath());
+        terminer(evenement, "sauvegarder", fichier, etat);
+    }
+
+    /**
+     * Sauvegarde la pièce en arrière-plan sans bloquer l'interface
+     * Seul l'instantané de la pièce est pris sur le fil de l'appelant ; l'encodage, la compression
+     * et l'écriture disque se font en arrière-plan pendant que l'édition continue.
+     * @param fichier Le fichier où sauvegarder
+     * @param compresser Si true, le contenu est compressé
+     * @return Le suivi de la sauvegarde (future de fin et avancement)
+     */
+    public SauvegardeEnCours sauvegarderEnArrierePlan(File fichier, boolean compresser) {
+        requirePiece();
+        EtatPiece instantane = EtatPieceMapper.versEtat(piece);
+        return SauvegardeAsynchrone.lancer(instantane, fichier.toPath(), compresser);
+    }
+
+    public SauvegardeEnCours sauvegarderEnArrierePlan(File fichier) {
+        return sauvegarderEnArrierePlan(fichier, true);
     }
 
     /**
      * Charge une pièce depuis un fichier
+     * Les fichiers de l'ancien format (sérialisation Java) restent lisibles, mais seules
+     * les classes de EtatPiece et leurs types de base sont acceptées à la désérialisation.
      * @param fichier Le fichier à charger
      * @throws IOException Si une erreur de lecture survient
      * @throws ClassNotFoundException Si la classe n'est pas trouvée
      */
     public void charger(File fichier) throws IOException, ClassNotFoundException {
+        EvenementPersistance evenement = new EvenementPersistance();
+        evenement.begin();
         EtatPiece etat;
         
-        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(fichier))) {
-            etat = (EtatPiece) ois.readObject();
+        if (FormatBinaire.estFormatBinaire(fichier.toPath())) {
+            etat = FormatBinaire.lire(fichier.toPath());
+        } else {
+            try (ObjectInputStream ois = new ObjectInputStream(new BufferedInputStream(new FileInputStream(fichier)))) {
+                ois.setObjectInputFilter(FILTRE_ANCIEN_FORMAT);
+                etat = (EtatPiece) ois.readObject();
+            }
         }
         
-        restaurerPieceDepuisEtat(etat);
+        detacherPieceProjet();
+        this.piece = EtatPieceMapper.versPiece(etat);
         selection.clear();
         undoRedo.clear();
+        journaliserPiece();
+        terminer(evenement, "charger", fichier, etat);
     }
 
     /**
-     * Convertit la pièce actuelle en état sérialisable
+     * Enregistre l'événement JFR d'une sauvegarde ou d'un chargement (seulement si un enregistrement le demande)
      */
-    private EtatPiece convertirPieceEnEtat() {
-        EtatPiece etat = new EtatPiece();
-        etat.setLargeur(piece.getLargeur());
-        etat.setLongueur(piece.getLongueur());
-        etat.setPoints(new java.util.ArrayList<>(piece.getPoints()));
-        
-        // Convertir les meubles
-        List<EtatPiece.EtatMeuble> meublesEtat = new java.util.ArrayList<>();
-        for (Meuble m : piece.getMeubles()) {
-            EtatPiece.EtatMeuble em = new EtatPiece.EtatMeuble();
-            em.setId(m.getId());
-            em.setType(m.getClass().getSimpleName());
-            em.setNom(m.getNom());
-            em.setX(m.getX());
-            em.setY(m.getY());
-            em.setLargeur(m.getLargeur());
-            em.setLongueur(m.getLongueur());
-            em.setAngle(m.getAngle());
-            
-            if (m instanceof MeubleAvecDrain d) {
-                em.setDrainX(d.getDrainXRelatif());
-                em.setDrainY(d.getDrainYRelatif());
-                em.setDiametreDrain(d.getDiametreDrain());
+    private static void terminer(EvenementPersistance evenement, String operation, File fichier, EtatPiece etat) {
+        evenement.end();
+        if (evenement.shouldCommit()) {
+            evenement.operation = operation;
+            evenement.fichier = fichier.getPath();
+            evenement.octets = fichier.length();
+            evenement.largeurPiece = etat.getLargeur();
+            evenement.longueurPiece = etat.getLongueur();
+            evenement.meubles = etat.getMeubles() != null ? etat.getMeubles().size() : 0;
+            CheminFil chemin = etat.getFilChauffant() != null ? etat.getFilChauffant().getCheminCompact() : null;
+            evenement.points = chemin != null ? chemin.taille() : 0;
+            evenement.commit();
+        }
+    }
+
+    // ==================== PROJET (PLUSIEURS PIÈCES) ====================
+
+    /**
+     * Ouvre un fichier de projet et affiche sa première pièce
+     * Seule la table des matières est lue : les autres pièces sont décodées à la première visite
+     * @param fichier Le fichier de projet
+     * @return Les noms des pièces du projet
+     * @throws IOException Si une erreur de lecture survient
+     */
+    public List<String> ouvrirProjet(File fichier) throws IOException {
+        FichierProjet nouveau = FichierProjet.ouvrir(fichier.toPath());
+        if (projet != null) {
+            projet.close();
+        }
+        projet = nouveau;
+        indexPieceProjet = -1;
+        pieceProjet = null;
+        if (projet.getNombrePieces() > 0) {
+            visiterPieceProjet(0);
+        }
+        return projet.getNoms();
+    }
+
+    /**
+     * Affiche une pièce du projet (la pièce courante est conservée en mémoire)
+     * @param index L'index de la pièce dans le projet
+     * @throws IOException Si la pièce ne peut pas être décodée
+     */
+    public void visiterPieceProjet(int index) throws IOException {
+        requireProjet();
+        synchroniserPieceProjet();
+        this.piece = projet.getPiece(index);
+        this.indexPieceProjet = index;
+        this.pieceProjet = piece;
+        selection.clear();
+        undoRedo.clear();
+        journaliserPiece();
+    }
+
+    /**
+     * Ajoute la pièce courante au projet (un projet vide est créé au besoin)
+     * @param nom Le nom de la pièce dans le projet
+     * @return L'index de la pièce dans le projet
+     */
+    public int ajouterPieceCouranteAuProjet(String nom) {
+        requirePiece();
+        if (projet == null) {
+            projet = FichierProjet.nouveau();
+        }
+        synchroniserPieceProjet();
+        indexPieceProjet = projet.ajouterPiece(nom, piece);
+        pieceProjet = piece;
+        return indexPieceProjet;
+    }
+
+    /**
+     * Sauvegarde le projet complet; sans projet ouvert, la pièce courante devient un projet d'une pièce
+     * @param fichier Le fichier de projet (voir FichierProjet.sauvegarder pour le fichier ouvert)
+     * @throws IOException Si une erreur d'écriture survient
+     */
+    public void sauvegarderProjet(File fichier) throws IOException {
+        if (projet == null) {
+            ajouterPieceCouranteAuProjet("Pièce 1");
+        }
+        synchroniserPieceProjet();
+        projet.sauvegarder(fichier.toPath());
+    }
+
+    public List<String> getNomsPiecesProjet() {
+        return projet != null ? projet.getNoms() : List.of();
+    }
+
+    public int getIndexPieceProjet() {
+        return indexPieceProjet;
+    }
+
+    /**
+     * La pièce courante peut avoir été reconstruite (undo/redo) : le projet doit pointer sur la bonne instance
+     * @throws IllegalStateException si la pièce courante a été remplacée par une pièce hors projet
+     */
+    private void synchroniserPieceProjet() {
+        if (projet != null && piece != null && indexPieceProjet >= 0) {
+            if (piece != pieceProjet) {
+                throw new IllegalStateException("La pièce courante n'est plus la pièce " + indexPieceProjet + " du projet");
             }
-            
-            meublesEtat.add(em);
+            projet.remplacerPiece(indexPieceProjet, piece);
         }
-        etat.setMeubles(meublesEtat);
-        
-        // Convertir les éléments chauffants
-        List<EtatPiece.EtatElementChauffant> elementsEtat = new java.util.ArrayList<>();
-        for (ElementChauffant e : piece.getElementsChauffants()) {
-            EtatPiece.EtatElementChauffant ee = new EtatPiece.EtatElementChauffant();
-            ee.setId(e.getId());
-            ee.setType(e.getClass().getSimpleName());
-            ee.setNom(e.getNom());
-            ee.setX(e.getX());
-            ee.setY(e.getY());
-            ee.setLargeur(e.getLargeur());
-            ee.setLongueur(e.getLongueur());
-            ee.setAngle(e.getAngle());
-            ee.setActif(e.isActif());
-            elementsEtat.add(ee);
-        }
-        etat.setElementsChauffants(elementsEtat);
-        
-        // Convertir les zones d'interdiction
-        List<EtatPiece.EtatZone> zonesInterdictionEtat = new java.util.ArrayList<>();
-        for (ZoneInterdiction z : piece.getZonesInterdiction()) {
-            EtatPiece.EtatZone ez = new EtatPiece.EtatZone();
-            ez.setId(z.getId());
-            ez.setType("ZoneInterdiction");
-            ez.setNom(z.getNom());
-            ez.setX(z.getPosition().x);
-            ez.setY(z.getPosition().y);
-            ez.setLargeur(z.getLargeur());
-            ez.setLongueur(z.getLongueur());
-            zonesInterdictionEtat.add(ez);
-        }
-        etat.setZonesInterdiction(zonesInterdictionEtat);
-        
-        // Convertir les zones tampon
-        List<EtatPiece.EtatZone> zonesTamponEtat = new java.util.ArrayList<>();
-        for (ZoneTampon z : piece.getZonesTampon()) {
-            EtatPiece.EtatZone ez = new EtatPiece.EtatZone();
-            ez.setId(z.getId());
-            ez.setType("ZoneTampon");
-            ez.setNom(z.getNom());
-            ez.setX(z.getPosition().x);
-            ez.setY(z.getPosition().y);
-            ez.setLargeur(z.getLargeur());
-            ez.setLongueur(z.getLongueur());
-            ez.setDistance(z.getDistance());
-            zonesTamponEtat.add(ez);
-        }
-        etat.setZonesTampon(zonesTamponEtat);
-        
-        // Convertir le fil chauffant
-        FilChauffant fil = piece.getFilChauffant();
-        if (fil != null) {
-            EtatPiece.EtatFilChauffant ef = new EtatPiece.EtatFilChauffant();
-            ef.setNom(fil.getNom());
-            ef.setLargeur(fil.getLargeur());
-            ef.setLongueur(fil.getLongueur());
-            ef.setDistanceFil(fil.getDistanceFil());
-            ef.setActif(fil.estActif());
-            // TODO: Sauvegarder le chemin du fil quand il sera implémenté
-            etat.setFilChauffant(ef);
+    }
+
+    /**
+     * La pièce courante va être remplacée par une pièce hors projet (nouvelle pièce, chargement,
+     * récupération) : la pièce du projet affichée est conservée dans le projet, puis détachée
+     */
+    private void detacherPieceProjet() {
+        synchroniserPieceProjet();
+        indexPieceProjet = -1;
+        pieceProjet = null;
+    }
+
+    private void requireProjet() {
+        if (projet == null) {
+            throw new IllegalStateException("Aucun projet ouvert");
         }
-        
-        return etat;
     }
 
     /**
-     * Restaure une pièce depuis un état sérialisé
+     * Classes acceptées lors de la lecture d'un fichier de l'ancien format
      */
-    private void restaurerPieceDepuisEtat(EtatPiece etat) {
-        // Créer la pièce
-        if (etat.getPoints() != null && etat.getPoints().size() >= 3) {
-            this.piece = PieceFactory.creerIrreguliere(etat.getPoints());
-        } else {
-            this.piece = PieceFactory.creerRectangulaire(etat.getLargeur(), etat.getLongueur());
+    private static final ObjectInputFilter FILTRE_ANCIEN_FORMAT = ObjectInputFilter.Config.createFilter(
+        "maxdepth=10;maxrefs=10000000;maxarray=10000000;"
+        + "domaine.sauvegarde.EtatPiece;domaine.sauvegarde.EtatPiece$*;"
+        + "java.util.ArrayList;java.awt.Point;java.lang.Integer;java.lang.Double;java.lang.Number;!*");
+
+    // ==================== AUTOSAUVEGARDE ====================
+
+    /**
+     * Active l'autosauvegarde : chaque modification est ajoutée à un journal à côté de base
+     * (base.ckpt et base.journal), qui est compacté périodiquement
+     * @param base Chemin de base des fichiers d'autosauvegarde
+     * @throws IOException Si les fichiers ne peuvent pas être créés
+     */
+    public void activerAutosauvegarde(File base) throws IOException {
+        requirePiece();
+        desactiverAutosauvegardeSansSupprimer();
+        versionJournalisee = piece.getVersion();
+        journal = JournalAutosauvegarde.demarrer(base.toPath(), () -> EtatPieceMapper.versEtat(piece));
+    }
+
+    /**
+     * Désactive l'autosauvegarde et supprime ses fichiers (fin de session normale)
+     */
+    public void desactiverAutosauvegarde() throws IOException {
+        if (journal != null) {
+            journal.supprimer();
+            journal = null;
         }
-        
-        // Restaurer les meubles
-        if (etat.getMeubles() != null) {
-            for (EtatPiece.EtatMeuble em : etat.getMeubles()) {
-                try {
-                    Meuble m = MeubleFactory.creerDepuisType(em.getType(), 
-                        new Point(em.getX(), em.getY()), em.getLargeur(), em.getLongueur());
-                    m.setId(em.getId());
-                    m.setNom(em.getNom());
-                    m.setAngle(em.getAngle());
-                    
-                    if (m instanceof MeubleAvecDrain d && em.getDrainX() != null && em.getDrainY() != null) {
-                        d.setDrainPositionRelative(em.getDrainX(), em.getDrainY());
-                        if (em.getDiametreDrain() != null) {
-                            d.setDiametreDrain(em.getDiametreDrain());
-                        }
-                    }
-                    
-                    piece.ajouterMeuble(m);
-                } catch (Exception e) {
-                    System.err.println("Erreur lors de la restauration du meuble: " + e.getMessage());
+    }
+
+    /**
+     * Indique si une autosauvegarde d'une session interrompue peut être récupérée
+     */
+    public boolean autosauvegardeDisponible(File base) {
+        return JournalAutosauvegarde.existe(base.toPath());
+    }
+
+    /**
+     * Récupère la pièce depuis le dernier point de reprise et le journal d'autosauvegarde
+     * @return true si une pièce a été récupérée
+     * @throws IOException Si l'autosauvegarde est illisible
+     */
+    public boolean recupererAutosauvegarde(File base) throws IOException {
+        EtatPiece etat = JournalAutosauvegarde.recuperer(base.toPath());
+        if (etat == null) {
+            return false;
+        }
+        detacherPieceProjet();
+        this.piece = EtatPieceMapper.versPiece(etat);
+        selection.clear();
+        undoRedo.clear();
+        return true;
+    }
+
+    private void desactiverAutosauvegardeSansSupprimer() throws IOException {
+        if (journal != null) {
+            journal.close();
+            journal = null;
+        }
+    }
+
+    // Les versions de la pièce sont tenues à jour par Piece ; le contrôleur ne les marque que pour
+    // les modifications qu'il fait directement sur une entité, le fil ou le graphe.
+    // L'autosauvegarde reprend ensuite les modifications notées par la pièce : une opération refusée
+    // ou sans effet n'écrit rien. Une autosauvegarde qui échoue ne doit pas empêcher la modification :
+    // l'erreur est seulement signalée
+
+    /**
+     * Écrit la pièce entière (nouvelle pièce, pièce chargée, annulée ou rétablie)
+     */
+    private void journaliserPiece() {
+        if (piece == null) return;
+        versionJournalisee = piece.getVersion();
+        if (journal == null) return;
+        try {
+            journal.enregistrerPiece(EtatPieceMapper.versEtat(piece));
+        } catch (IOException e) {
+            System.err.println("Erreur d'autosauvegarde: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Écrit les modifications notées par la pièce depuis la dernière écriture
+     * À appeler après piece.modifier, jamais dans le verrou d'écriture : l'écriture attend le disque
+     */
+    private void journaliserModifications() {
+        if (piece == null || journal == null) return;
+        long version = piece.getVersion();
+        if (version == versionJournalisee) return;
+        JournalModifications.Resume resume = piece.getModificationsDepuis(versionJournalisee);
+        versionJournalisee = version;
+        try {
+            if (resume == null) {
+                journal.enregistrerPiece(EtatPieceMapper.versEtat(piece));
+                return;
+            }
+            if (resume.isContourModifie()) {
+                EtatPiece contour = new EtatPiece();
+                contour.setLargeur(piece.getLargeur());
+                contour.setLongueur(piece.getLongueur());
+                contour.setPoints(piece.getPoints());
+                journal.enregistrerContour(contour);
+            }
+            for (int id : resume.getEntites(Piece.Partie.MEUBLES).keySet()) {
+                Meuble m = piece.trouverMeuble(id).orElse(null);
+                if (m != null) {
+                    journal.enregistrerMeuble(EtatPieceMapper.versEtat(m));
+                } else {
+                    journal.enregistrerSuppressionMeuble(id);
                 }
             }
-        }
-        
-        // Restaurer les éléments chauffants
-        if (etat.getElementsChauffants() != null) {
-            for (EtatPiece.EtatElementChauffant ee : etat.getElementsChauffants()) {
-                try {
-                    ElementChauffant element;
-                    if ("Thermostat".equals(ee.getType())) {
-                        element = new Thermostat(ee.getNom(), ee.getX(), ee.getY(), 
-                            ee.getLargeur(), ee.getLongueur());
-                    } else {
-                        element = new ElementChauffant(ee.getNom(), ee.getX(), ee.getY(), 
-                            ee.getLargeur(), ee.getLongueur());
-                    }
-                    element.setId(ee.getId());
-                    element.setAngle(ee.getAngle());
-                    element.setActif(ee.isActif());
-                    piece.ajouterElementChauffant(element);
-                } catch (Exception e) {
-                    System.err.println("Erreur lors de la restauration de l'élément chauffant: " + e.getMessage());
+            for (int id : resume.getEntites(Piece.Partie.ELEMENTS_CHAUFFANTS).keySet()) {
+                ElementChauffant element = piece.trouverElementChauffant(id).orElse(null);
+                if (element != null) {
+                    journal.enregistrerElement(EtatPieceMapper.versEtat(element));
+                } else {
+                    journal.enregistrerSuppressionElement(id);
                 }
             }
-        }
-        
-        // Restaurer les zones d'interdiction
-        if (etat.getZonesInterdiction() != null) {
-            for (EtatPiece.EtatZone ez : etat.getZonesInterdiction()) {
-                try {
-                    ZoneInterdiction zone = new ZoneInterdiction(ez.getX(), ez.getY(), 
-                        ez.getLargeur(), ez.getLongueur(), ez.getNom());
-                    piece.ajouterZoneInterdiction(zone);
-                } catch (Exception e) {
-                    System.err.println("Erreur lors de la restauration de la zone d'interdiction: " + e.getMessage());
+            for (int id : resume.getEntites(Piece.Partie.ZONES_INTERDICTION).keySet()) {
+                ZoneInterdiction zone = piece.trouverZoneInterdiction(id).orElse(null);
+                if (zone != null) {
+                    journal.enregistrerZoneInterdiction(EtatPieceMapper.versEtat(zone));
+                } else {
+                    journal.enregistrerSuppressionZoneInterdiction(id);
                 }
             }
-        }
-        
-        // Restaurer les zones tampon
-        if (etat.getZonesTampon() != null) {
-            for (EtatPiece.EtatZone ez : etat.getZonesTampon()) {
-                try {
-                    ZoneTampon zone = new ZoneTampon(ez.getX(), ez.getY(), 
-                        ez.getLargeur(), ez.getLongueur(), 
-                        ez.getDistance() != null ? ez.getDistance() : 0.0, 
-                        ez.getNom());
-                    piece.ajouterZoneTampon(zone);
-                } catch (Exception e) {
-                    System.err.println("Erreur lors de la restauration de la zone tampon: " + e.getMessage());
+            for (int id : resume.getEntites(Piece.Partie.ZONES_TAMPON).keySet()) {
+                ZoneTampon zone = piece.trouverZoneTampon(id).orElse(null);
+                if (zone != null) {
+                    journal.enregistrerZoneTampon(EtatPieceMapper.versEtat(zone));
+                } else {
+                    journal.enregistrerSuppressionZoneTampon(id);
                 }
             }
-        }
-        
-        // Restaurer le fil chauffant
-        if (etat.getFilChauffant() != null) {
-            EtatPiece.EtatFilChauffant ef = etat.getFilChauffant();
-            FilChauffant fil = piece.getFilChauffant();
-            if (fil != null) {
-                fil.setNom(ef.getNom());
-                fil.setDistanceFil(ef.getDistanceFil());
-                fil.setActif(ef.isActif());
-                // TODO: Restaurer le chemin du fil quand il sera implémenté
+            if (resume.isFilModifie() && piece.getFilChauffant() != null) {
+                journal.enregistrerFil(EtatPieceMapper.versEtat(piece.getFilChauffant()));
+            }
+            if (resume.isMembraneModifiee() && piece.getGraphe() != null) {
+                EtatPiece membrane = new EtatPiece();
+                EtatPieceMapper.copierMembrane(piece.getGraphe(), membrane);
+                journal.enregistrerMembrane(membrane);
             }
+        } catch (IOException e) {
+            System.err.println("Erreur d'autosauvegarde: " + e.getMessage());
         }
     }
 
@@ -1348,14 +2008,18 @@ public class Controleur {
         requirePiece();
         enregistrerEtatPourUndo();
         ZoneInterdiction zone = new ZoneInterdiction(x, y, largeur, longueur, nom);
-        return piece.ajouterZoneInterdiction(zone);
+        int id = piece.ajouterZoneInterdiction(zone);
+        journaliserModifications();
+        return id;
     }
 
     public int ajouterZoneTampon(String nom, int x, int y, int largeur, int longueur, double distance) {
         requirePiece();
         enregistrerEtatPourUndo();
         ZoneTampon zone = new ZoneTampon(x, y, largeur, longueur, distance, nom);
-        return piece.ajouterZoneTampon(zone);
+        int id = piece.ajouterZoneTampon(zone);
+        journaliserModifications();
+        return id;
     }
 
     public void supprimerZoneInterdiction(int id) {
@@ -1363,6 +2027,7 @@ public class Controleur {
         enregistrerEtatPourUndo();
         piece.supprimerZoneInterdiction(id);
         selection.clearSiSelectionne(id);
+        journaliserModifications();
     }
 
     public void supprimerZoneTampon(int id) {
@@ -1370,6 +2035,7 @@ public class Controleur {
         enregistrerEtatPourUndo();
         piece.supprimerZoneTampon(id);
         selection.clearSiSelectionne(id);
+        journaliserModifications();
     }
 
     // ==================== GETTERS ZONES ====================
@@ -1427,24 +2093,28 @@ public class Controleur {
         requirePiece();
         enregistrerEtatPourUndo();
         piece.deplacerZoneInterdiction(id, new Point(x, y));
+        journaliserModifications();
     }
 
     public void deplacerZoneTampon(int id, int x, int y) {
         requirePiece();
         enregistrerEtatPourUndo();
         piece.deplacerZoneTampon(id, new Point(x, y));
+        journaliserModifications();
     }
 
     public void redimensionnerZoneInterdiction(int id, int largeur, int longueur) {
         requirePiece();
         enregistrerEtatPourUndo();
         piece.redimensionnerZoneInterdiction(id, largeur, longueur);
+        journaliserModifications();
     }
 
     public void redimensionnerZoneTampon(int id, int largeur, int longueur) {
         requirePiece();
         enregistrerEtatPourUndo();
         piece.redimensionnerZoneTampon(id, largeur, longueur);
+        journaliserModifications();
     }
 
     public void deplacerZoneSelectionnee(int x, int y) {
@@ -0,0 +1,47 @@
+package domaine.diagnostic;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Contrôleur qui enregistre les modifications d'une session d'édition (voir RejeuSession)
+ *
+ * S'utilise à la place de Controleur : chaque appel observé qui modifie la pièce, la membrane,
+ * le fil ou l'historique est écrit dans un JournalSession avant d'être exécuté. Un appel
+ * imbriqué (une surcharge qui en appelle une autre) n'est écrit qu'une fois, par l'appel le
+ * plus externe. Les DTO sont journalisés par leur id, l'intersection de Dijkstra par ses
+ * coordonnées, un lot (appliquerLot) opération par opération.
+ * Pour enregistrer et mesurer la même session, ajouter un JournalSession comme observateur
+ * d'un ControleurInstrumente.
+ * Non enregistrés : les projets, la sauvegarde automatique et les appels asynchrones.
+ */
+public class ControleurEnregistre extends ControleurObserve implements Closeable {
+
+    private final JournalSession journal;
+
+    /**
+     * @param fichier Journal de la session (remplacé s'il existe)
+     */
+    public ControleurEnregistre(Path fichier) throws IOException {
+        super();
+        this.journal = new JournalSession(fichier);
+        ajouterObservateur(journal);
+    }
+
+    /**
+     * @return Le nombre d'appels enregistrés
+     */
+    public long getAppels() {
+        return journal.getAppels();
+    }
+
+    /**
+     * Ferme le journal ; les appels suivants ne sont plus enregistrés
+     */
+    @Override
+    public void close() throws IOException {
+        retirerObservateur(journal);
+        journal.close();
+    }
+}
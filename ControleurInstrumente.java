@@ -0,0 +1,51 @@
+package domaine.diagnostic;
+
+import java.util.Map;
+
+/**
+ * Contrôleur qui mesure la latence de ses opérations (instrumentation optionnelle)
+ *
+ * ControleurObserve avec une MesureLatence : les opérations d'édition, la membrane, le routage,
+ * l'historique et la sauvegarde sont chronométrés par opération. Pour mesurer et enregistrer
+ * la même session, ajouter aussi une JournalSession (ajouterObservateur).
+ */
+public class ControleurInstrumente extends ControleurObserve {
+
+    public static final long BUDGET_IMAGE_NS = MesureLatence.BUDGET_IMAGE_NS;
+
+    private final MesureLatence mesure = new MesureLatence();
+
+    public ControleurInstrumente() {
+        super();
+        ajouterObservateur(mesure);
+    }
+
+    public MesureLatence getMesure() {
+        return mesure;
+    }
+
+    /**
+     * Histogrammes par opération, triés par nom
+     */
+    public Map<String, HistogrammeLatence> getHistogrammes() {
+        return mesure.getHistogrammes();
+    }
+
+    public void reinitialiserHistogrammes() {
+        mesure.reinitialiser();
+    }
+
+    /**
+     * Table des latences par opération (voir MesureLatence.exporterTexte)
+     */
+    public String exporterTexte() {
+        return mesure.exporterTexte();
+    }
+
+    /**
+     * Latences par opération au format CSV (voir MesureLatence.exporterCsv)
+     */
+    public String exporterCsv() {
+        return mesure.exporterCsv();
+    }
+}
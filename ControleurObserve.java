@@ -0,0 +1,979 @@
+package domaine.diagnostic;
+
+import domaine.Controleur;
+import domaine.chauffage.RegistreStrategiesRoutage;
+import domaine.dto.ElementChauffantDTO;
+import domaine.dto.MeubleDTO;
+import domaine.graphe.Graphe;
+import domaine.piece.LotModifications;
+import domaine.sauvegarde.SauvegardeEnCours;
+
+import java.awt.Point;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Contrôleur dont les appels publics sont signalés à des observateurs (voir MesureLatence et JournalSession)
+ *
+ * S'utilise à la place de Controleur. Chaque surcharge ci-dessous signale l'appel avant et après
+ * son exécution ; un appel imbriqué (une surcharge qui en appelle une autre) n'est signalé qu'une
+ * fois, par l'appel le plus externe. Les observateurs se combinent : un même contrôleur peut
+ * mesurer ses latences et enregistrer la session.
+ * Une méthode publique de Controleur qui n'est ni surchargée ici ni listée dans NON_OBSERVEES
+ * empêche la construction : une nouvelle opération ne peut pas échapper aux observateurs.
+ */
+public class ControleurObserve extends Controleur {
+
+    /**
+     * Reçoit les appels les plus externes du contrôleur
+     */
+    public interface Observateur {
+        /**
+         * Avant l'exécution de l'appel
+         */
+        default void avant(Appel appel) {}
+
+        /**
+         * Après l'exécution de l'appel, y compris s'il a levé une exception
+         */
+        default void apres(Appel appel, long dureeNs) {}
+    }
+
+    /**
+     * Un appel du contrôleur
+     */
+    public static final class Appel {
+        private final String operation;
+        private final String nomJournal;
+        private final Object[] arguments;
+        private long debut;
+
+        private Appel(String operation, String nomJournal, Object[] arguments) {
+            this.operation = operation;
+            this.nomJournal = nomJournal;
+            this.arguments = arguments;
+        }
+
+        /**
+         * Nom de l'opération, commun aux surcharges (par exemple "ajouterMeuble" pour tous les meubles)
+         */
+        public String getOperation() {
+            return operation;
+        }
+
+        /**
+         * Nom de l'appel dans le journal de session, ou null pour un appel qui ne modifie pas la pièce
+         */
+        public String getNomJournal() {
+            return nomJournal;
+        }
+
+        /**
+         * Arguments tels qu'ils sont journalisés : les DTO par leur id, l'intersection par ses coordonnées
+         */
+        public Object[] getArguments() {
+            return arguments.clone();
+        }
+    }
+
+    // Lectures, projets, autosauvegarde, surveillance de la mémoire et appels asynchrones ne sont pas observés
+    private static final List<String> PREFIXES_LECTURE = List.of("get", "Get", "est", "peut", "sont", "valider");
+    private static final Set<String> NON_OBSERVEES = Set.of(
+        "activerAutosauvegarde", "desactiverAutosauvegarde", "autosauvegardeDisponible", "recupererAutosauvegarde",
+        "ouvrirProjet", "sauvegarderProjet", "visiterPieceProjet", "ajouterPieceCouranteAuProjet",
+        "demarrerSurveillanceMemoire", "arreterSurveillanceMemoire", "verifierBudgetsMemoire", "setBudgetMemoire",
+        "calculerCheminFilAsync", "recalculerCheminAvecDijkstraAsync",
+        "setExecuteurApplication", "setMetriquesRoutageActives");
+    private static final List<String> NON_COUVERTES = methodesNonCouvertes();
+
+    private final List<Observateur> observateurs = new CopyOnWriteArrayList<>();
+    private final ThreadLocal<int[]> profondeur = ThreadLocal.withInitial(() -> new int[1]);
+
+    /**
+     * @throws IllegalStateException si une méthode publique de Controleur n'est pas surchargée
+     */
+    public ControleurObserve() {
+        super();
+        if (!NON_COUVERTES.isEmpty()) {
+            throw new IllegalStateException("Méthodes de Controleur non observées : " + NON_COUVERTES);
+        }
+    }
+
+    public void ajouterObservateur(Observateur observateur) {
+        if (observateur == null) {
+            throw new IllegalArgumentException("Observateur invalide");
+        }
+        observateurs.add(observateur);
+    }
+
+    public void retirerObservateur(Observateur observateur) {
+        observateurs.remove(observateur);
+    }
+
+    /**
+     * Début d'un appel qui modifie la pièce, la membrane, le fil ou l'historique
+     * @return L'appel, ou null s'il est imbriqué dans un autre
+     */
+    private Appel debuter(String operation, String nomJournal, Object... arguments) {
+        if (profondeur.get()[0]++ > 0) {
+            return null;
+        }
+        Appel appel = new Appel(operation, nomJournal, arguments);
+        try {
+            for (Observateur observateur : observateurs) {
+                observateur.avant(appel);
+            }
+        } catch (RuntimeException e) {
+            profondeur.get()[0]--;
+            throw e;
+        }
+        appel.debut = System.nanoTime();
+        return appel;
+    }
+
+    /**
+     * Début d'un appel qui ne modifie pas la pièce (mesuré, pas journalisé)
+     */
+    private Appel debuterLecture(String operation) {
+        return debuter(operation, null);
+    }
+
+    private void terminer(Appel appel) {
+        profondeur.get()[0]--;
+        if (appel != null) {
+            long duree = System.nanoTime() - appel.debut;
+            for (Observateur observateur : observateurs) {
+                observateur.apres(appel, duree);
+            }
+        }
+    }
+
+    /**
+     * Méthodes publiques de Controleur ni surchargées ici, ni lectures, ni listées dans NON_OBSERVEES
+     */
+    private static List<String> methodesNonCouvertes() {
+        List<String> manquantes = new ArrayList<>();
+        for (Method m : Controleur.class.getDeclaredMethods()) {
+            if (!Modifier.isPublic(m.getModifiers()) || Modifier.isStatic(m.getModifiers()) || m.isSynthetic()
+                    || NON_OBSERVEES.contains(m.getName())
+                    || PREFIXES_LECTURE.stream().anyMatch(m.getName()::startsWith)) {
+                continue;
+            }
+            try {
+                ControleurObserve.class.getDeclaredMethod(m.getName(), m.getParameterTypes());
+            } catch (NoSuchMethodException e) {
+                manquantes.add(m.getName());
+            }
+        }
+        return manquantes;
+    }
+
+    // ==================== SÉLECTION ET PIÈCE ====================
+
+    @Override
+    public void creerNouvellePiece(int largeur, int longueur) {
+        Appel appel = debuter("creerPiece", "creerNouvellePiece", largeur, longueur);
+        try {
+            super.creerNouvellePiece(largeur, longueur);
+        } finally {
+            terminer(appel);
+        }
+    }
+
+    @Override
+    public void creerPieceRectangulaire(int largeur, int longueur) {
+        Appel appel = debuter("creerPiece", "creerPieceRectangulaire", largeur, longueur);
+        try {
+            super.creerPieceRectangulaire(largeur, longueur);
+        } finally {
+            terminer(appel);
+        }
+    }
+
+    @Override
+    public void creerPieceIrreguliere(int largeur, int longueur) {
+        Appel appel = debuter("creerPiece", "creerPieceIrreguliereDimensions", largeur, longueur);
+        try {
+            super.creerPieceIrreguliere(largeur, longueur);
+        } finally {
+            terminer(appel);
+        }
+    }
+
+    @Override
+    public void creerPieceIrreguliere(List<Point> points) {
+        Appel appel = debuter("creerPiece", "creerPieceIrreguliere", points);
+        try {
+            super.creerPieceIrreguliere(points);
+        } finally {
+            terminer(appel);
+        }
+    }
+
+    @Override
+    public void modifierPieceCourante(int nouvelleLargeur, int nouvelleLongueur) {
+        Appel appel = debuter("modifierPiece", "modifierPieceCourante", nouvelleLargeur, nouvelleLongueur);
+        try {
+            super.modifierPieceCourante(nouvelleLargeur, nouvelleLongueur);
+        } finally {
+            terminer(appel);
+        }
+    }
+
+    @Override
+    public void modifierPointPieceIrreguliere(int index, int x, int y, boolean enregistrerPourUndo) {
+        Appel appel = debuter("modifierPiece", "modifierPointPieceIrreguliere", index, x, y, enregistrerPourUndo);
+        try {
+            super.modifierPointPieceIrreguliere(index, x, y, enregistrerPourUndo);
+        } finally {
+            terminer(appel);
+        }
+    }
+
+    @Override
+    public void redimensionnerPieceIrreguliere(int nouvelleLargeur, int nouvelleLongueur, boolean enregistrerPourUndo) {
+        Appel appel = debuter("modifierPiece", "redimensionnerPieceIrreguliere", nouvelleLargeur, nouvelleLongueur, enregistrerPourUndo);
+        try {
+            super.redimensionnerPieceIrreguliere(nouvelleLargeur, nouvelleLongueur, enregistrerPourUndo);
+        } finally {
+            terminer(appel);
+        }
+    }
+
+    @Override
+    public void gererClicSouris(int x, int y) {
+        Appel appel = debuter("gererClicSouris", "gererClicSouris", x, y);
+        try {
+            super.gererClicSouris(x, y);
+        } finally {
+            terminer(appel);
+        }
+    }
+
+    @Override
+    public Integer trouverObjetId(int x, int y) {
+        Appel appel = debuterLecture("trouverObjetId");
+        try {
+            return super.trouverObjetId(x, y);
+        } finally {
+            terminer(appel);
+        }
+    }
+
+    @Override
+    public void setSelectionId(Integer id) {
+        Appel appel = debuter("gererClicSouris", "setSelectionId", id);
+        try {
+            super.setSelectionId(id);
+        } finally {
+            terminer(appel);
+        }
+    }
+
+    // ==================== MEUBLES ====================
+
+    @Override
+    public int ajouterMeuble(Point position, int largeur, int longueur, String type) {
+        Appel appel = debuter("ajouterMeuble", "ajouterMeuble", position, largeur, longueur, type);
+        try {
+            return super.ajouterMeuble(position, largeur, longueur, type);
+        } finally {
+            terminer(appel);
+        }
+    }
+
+    @Override
+    public void ajouterMeuble(MeubleDTO meubleDTO) {
+        Appel appel = debuter("ajouterMeuble", "ajouterMeubleDTO", JournalSession.argumentsMeuble(meubleDTO));
+        try {
+            super.ajouterMeuble(meubleDTO);
+        } finally {
+            terminer(appel);
+        }
+    }
+
+    @Override
+    public void ajouterDouche(String nom, int x, int y, int largeur, int longueur, int diametre) {
+        Appel appel = debuter("ajouterMeuble", "ajouterDouche", nom, x, y, largeur, longueur, diametre);
+        try {
+            super.ajouterDouche(nom, x, y, largeur, longueur, diametre);
+        } finally {
+            terminer(appel);
+        }
+    }
+
+    @Override
+    public void ajouterDouche(String nom, int x, int y, int largeur, int longueur, int drainX, int drainY, int diametre) {
+        Appel appel = debuter("ajouterMeuble", "ajouterDouche", nom, x, y, largeur, longueur, drainX, drainY, diametre);
+        try {
+            super.ajouterDouche(nom, x, y, largeur, longueur, drainX, drainY, diametre);
+        } finally {
+            terminer(appel);
+        }
+    }
+
+    @Override
+    public void ajouterBain(String nom, int x, int y, int largeur, int longueur, int diametre) {
+        Appel appel = debuter("ajouterMeuble", "ajouterBain", nom, x, y, largeur, longueur, diametre);
+        try {
+            super.ajouterBain(nom, x, y, largeur, longueur, diametre);
+        } finally {
+            terminer(appel);
+        }
+    }
+
+    @Override
+    public void ajouterBain(String nom, int x, int y, int largeur, int longueur, int drainX, int drainY, int diametre) {
+        Appel appel = debuter("ajouterMeuble", "ajouterBain", nom, x, y, largeur, longueur, drainX, drainY, diametre);
+        try {
+            super.ajouterBain(nom, x, y, largeur, longueur, drainX, drainY, diametre);
+        } finally {
+            terminer(appel);
+        }
+    }
+
+    @Override
+    public void ajouterToilette(String nom, int x, int y, int largeur, int longueur, int diametre) {
+        Appel appel = debuter("ajouterMeuble", "ajouterToilette", nom, x, y, largeur, longueur, diametre);
+        try {
+            super.ajouterToilette(nom, x, y, largeur, longueur, diametre);
+        } finally {
+            terminer(appel);
+        }
+    }
+
+    @Override
+    public void ajouterToilette(String nom, int x, int y, int largeur, int longueur, int drainX, int drainY, int diametre) {
+        Appel appel = debuter("ajouterMeuble", "ajouterToilette", nom, x, y, largeur, longueur, drainX, drainY, diametre);
+        try {
+            super.ajouterToilette(nom, x, y, largeur, longueur, drainX, drainY, diametre);
+        } finally {
+            terminer(appel);
+        }
+    }
+
+    @Override
+    public void ajouterVanite(String nom, int x, int y, int largeur, int longueur, int drainX, int drainY, int diametre) {
+        Appel appel = debuter("ajouterMeuble", "ajouterVanite", nom, x, y, largeur, longueur, drainX, drainY, diametre);
+        try {
+            super.ajouterVanite(nom, x, y, largeur, longueur, drainX, drainY, diametre);
+        } finally {
+            terminer(appel);
+        }
+    }
+
+    @Override
+    public void ajouterPlacard(String nom, int x, int y, int largeur, int longueur) {
+        Appel appel = debuter("ajouterMeuble", "ajouterPlacard", nom, x, y, largeur, longueur);
+        try {
+            super.ajouterPlacard(nom, x, y, largeur, longueur);
+        } finally {
+            terminer(appel);
+        }
+    }
+
+    @Override
+    public void ajouterArmoire(String nom, int x, int y, int largeur, int longueur) {
+        Appel appel = debuter("ajouterMeuble", "ajouterArmoire", nom, x, y, largeur, longueur);
+        try {
+            super.ajouterArmoire(nom, x, y, largeur, longueur);
+        } finally {
+            terminer(appel);
+        }
+    }
+
+    @Override
+    public void deplacerMeuble(int id, Point p) {
+        Appel appel = debuter("deplacerMeuble", "deplacerMeuble", id, p);
+        try {
+            super.deplacerMeuble(id, p);
+        } finally {
+            terminer(appel);
+        }
+    }
+
+    @Override
+    public String deplacerMeuble(MeubleDTO dto, int x, int y) {
+        Appel appel = debuter("deplacerMeuble", "deplacerMeubleDTO", dto != null ? dto.getId() : null, x, y, true);
+        try {
+            return super.deplacerMeuble(dto, x, y);
+        } finally {
+            terminer(appel);
+        }
+    }
+
+    @Override
+    public String deplacerMeuble(MeubleDTO dto, int x, int y, boolean enregistrerPourUndo) {
+        Appel appel = debuter("deplacerMeuble", "deplacerMeubleDTO", dto != null ? dto.getId() : null, x, y, enregistrerPourUndo);
+        try {
+            return super.deplacerMeuble(dto, x, y, enregistrerPourUndo);
+        } finally {
+            terminer(appel);
+        }
+    }
+
+    @Override
+    public void deplacerMeubleSelectionne(int x, int y) {
+        Appel appel = debuter("deplacerMeuble", "deplacerMeubleSelectionne", x, y);
+        try {
+            super.deplacerMeubleSelectionne(x, y);
+        } finally {
+            terminer(appel);
+        }
+    }
+
+    @Override
+    public void redimensionnerMeuble(int id, int largeur, int longueur) {
+        Appel appel = debuter("redimensionnerMeuble", "redimensionnerMeuble", id, largeur, longueur);
+        try {
+            super.redimensionnerMeuble(id, largeur, longueur);
+        } finally {
+            terminer(appel);
+        }
+    }
+
+    @Override
+    public void redimensionnerMeuble(MeubleDTO dto, int largeur, int longueur) {
+        Appel appel = debuter("redimensionnerMeuble", "redimensionnerMeubleDTO", dto != null ? dto.getId() : null, largeur, longueur);
+        try {
+            super.redimensionnerMeuble(dto, largeur, longueur);
+        } finally {
+            terminer(appel);
+        }
+    }
+
+    @Override
+    public void modifierMeubleSelectionne(int largeur, int longueur) {
+        Appel appel = debuter("redimensionnerMeuble", "modifierMeubleSelectionne", largeur, longueur);
+        try {
+            super.modifierMeubleSelectionne(largeur, longueur);
+        } finally {
+            terminer(appel);
+        }
+    }
+
+    @Override
+    public void modifierAngleMeuble(int id, double angle) {
+        Appel appel = debuter("modifierAngle", "modifierAngleMeuble", id, angle);
+        try {
+            super.modifierAngleMeuble(id, angle);
+        } finally {
+            terminer(appel);
+        }
+    }
+
+    @Override
+    public void modifierDrain(MeubleDTO dto, int drainX, int drainY, int diametre) {
+        Appel appel = debuter("modifierDrain", "modifierDrainDTO", dto != null ? dto.getId() : null, drainX, drainY, diametre);
+        try {
+            super.modifierDrain(dto, drainX, drainY, diametre);
+        } finally {
+            terminer(appel);
+        }
+    }
+
+    @Override
+    public void modifierDrain(int id, int drainX, int drainY) {
+        Appel appel = debuter("modifierDrain", "modifierDrain", id, drainX, drainY);
+        try {
+            super.modifierDrain(id, drainX, drainY);
+        } finally {
+            terminer(appel);
+        }
+    }
+
+    @Override
+    public List<Integer> appliquerLot(LotModifications lot) {
+        Appel appel = debuter("appliquerLot", "appliquerLot", lot);
+        try {
+            return super.appliquerLot(lot);
+        } finally {
+            terminer(appel);
+        }
+    }
+
+    @Override
+    public void supprimerMeuble(int id) {
+        Appel appel = debuter("supprimerMeuble", "supprimerMeuble", id);
+        try {
+            super.supprimerMeuble(id);
+        } finally {
+            terminer(appel);
+        }
+    }
+
+    @Override
+    public void supprimerMeuble(MeubleDTO dto) {
+        Appel appel = debuter("supprimerMeuble", "supprimerMeubleDTO", dto != null ? dto.getId() : null);
+        try {
+            super.supprimerMeuble(dto);
+        } finally {
+            terminer(appel);
+        }
+    }
+
+    @Override
+    public void supprimerMeubleSelectionne() {
+        Appel appel = debuter("supprimerMeuble", "supprimerMeubleSelectionne");
+        try {
+            super.supprimerMeubleSelectionne();
+        } finally {
+            terminer(appel);
+        }
+    }
+
+    // ==================== ÉLÉMENTS CHAUFFANTS ====================
+
+    @Override
+    public int ajouterElementChauffant(String nom, int x, int y, int largeur, int longueur) {
+        Appel appel = debuter("ajouterElementChauffant", "ajouterElementChauffant", nom, x, y, largeur, longueur);
+        try {
+            return super.ajouterElementChauffant(nom, x, y, largeur, longueur);
+        } finally {
+            terminer(appel);
+        }
+    }
+
+    @Override
+    public int ajouterElementChauffant(String nom, int x, int y) {
+        Appel appel = debuter("ajouterElementChauffant", "ajouterElementChauffant", nom, x, y);
+        try {
+            return super.ajouterElementChauffant(nom, x, y);
+        } finally {
+            terminer(appel);
+        }
+    }
+
+    @Override
+    public int ajouterThermostat(String nom, int x, int y, int largeur, int longueur) {
+        Appel appel = debuter("ajouterElementChauffant", "ajouterThermostat", nom, x, y, largeur, longueur);
+        try {
+            return super.ajouterThermostat(nom, x, y, largeur, longueur);
+        } finally {
+            terminer(appel);
+        }
+    }
+
+    @Override
+    public int ajouterThermostat(String nom, int x, int y) {
+        Appel appel = debuter("ajouterElementChauffant", "ajouterThermostat", nom, x, y);
+        try {
+            return super.ajouterThermostat(nom, x, y);
+        } finally {
+            terminer(appel);
+        }
+    }
+
+    @Override
+    public int ajouterElementMagnetise(String typeElement, String nom, int xSouhaite, int ySouhaite, int largeur, int longueur) {
+        Appel appel = debuter("ajouterElementChauffant", "ajouterElementMagnetise", typeElement, nom, xSouhaite, ySouhaite, largeur, longueur);
+        try {
+            return super.ajouterElementMagnetise(typeElement, nom, xSouhaite, ySouhaite, largeur, longueur);
+        } finally {
+            terminer(appel);
+        }
+    }
+
+    @Override
+    public void deplacerElementChauffant(int id, int x, int y) {
+        Appel appel = debuter("deplacerElementChauffant", "deplacerElementChauffant", id, x, y, true);
+        try {
+            super.deplacerElementChauffant(id, x, y);
+        } finally {
+            terminer(appel);
+        }
+    }
+
+    @Override
+    public void deplacerElementChauffant(int id, int x, int y, boolean enregistrerPourUndo) {
+        Appel appel = debuter("deplacerElementChauffant", "deplacerElementChauffant", id, x, y, enregistrerPourUndo);
+        try {
+            super.deplacerElementChauffant(id, x, y, enregistrerPourUndo);
+        } finally {
+            terminer(appel);
+        }
+    }
+
+    @Override
+    public void redimensionnerElementChauffant(int id, int largeur, int longueur) {
+        Appel appel = debuter("redimensionnerElementChauffant", "redimensionnerElementChauffant", id, largeur, longueur);
+        try {
+            super.redimensionnerElementChauffant(id, largeur, longueur);
+        } finally {
+            terminer(appel);
+        }
+    }
+
+    @Override
+    public void modifierAngleElementChauffant(int id, double angle) {
+        Appel appel = debuter("modifierAngle", "modifierAngleElementChauffant", id, angle);
+        try {
+            super.modifierAngleElementChauffant(id, angle);
+        } finally {
+            terminer(appel);
+        }
+    }
+
+    @Override
+    public void supprimerElementChauffant(ElementChauffantDTO dto) {
+        Appel appel = debuter("supprimerElementChauffant", "supprimerElementChauffantDTO", dto != null ? dto.getId() : null);
+        try {
+            super.supprimerElementChauffant(dto);
+        } finally {
+            terminer(appel);
+        }
+    }
+
+    @Override
+    public void supprimerElementChauffant(int id) {
+        Appel appel = debuter("supprimerElementChauffant", "supprimerElementChauffant", id);
+        try {
+            super.supprimerElementChauffant(id);
+        } finally {
+            terminer(appel);
+        }
+    }
+
+    @Override
+    public void supprimerElementSelectionne() {
+        Appel appel = debuter("supprimerElementChauffant", "supprimerElementSelectionne");
+        try {
+            super.supprimerElementSelectionne();
+        } finally {
+            terminer(appel);
+        }
+    }
+
+    // ==================== ZONES ====================
+
+    @Override
+    public int ajouterZoneInterdiction(String nom, int x, int y, int largeur, int longueur) {
+        Appel appel = debuter("ajouterZone", "ajouterZoneInterdiction", nom, x, y, largeur, longueur);
+        try {
+            return super.ajouterZoneInterdiction(nom, x, y, largeur, longueur);
+        } finally {
+            terminer(appel);
+        }
+    }
+
+    @Override
+    public int ajouterZoneTampon(String nom, int x, int y, int largeur, int longueur, double distance) {
+        Appel appel = debuter("ajouterZone", "ajouterZoneTampon", nom, x, y, largeur, longueur, distance);
+        try {
+            return super.ajouterZoneTampon(nom, x, y, largeur, longueur, distance);
+        } finally {
+            terminer(appel);
+        }
+    }
+
+    @Override
+    public void deplacerZoneInterdiction(int id, int x, int y) {
+        Appel appel = debuter("deplacerZone", "deplacerZoneInterdiction", id, x, y);
+        try {
+            super.deplacerZoneInterdiction(id, x, y);
+        } finally {
+            terminer(appel);
+        }
+    }
+
+    @Override
+    public void deplacerZoneTampon(int id, int x, int y) {
+        Appel appel = debuter("deplacerZone", "deplacerZoneTampon", id, x, y);
+        try {
+            super.deplacerZoneTampon(id, x, y);
+        } finally {
+            terminer(appel);
+        }
+    }
+
+    @Override
+    public void deplacerZoneSelectionnee(int x, int y) {
+        Appel appel = debuter("deplacerZone", "deplacerZoneSelectionnee", x, y);
+        try {
+            super.deplacerZoneSelectionnee(x, y);
+        } finally {
+            terminer(appel);
+        }
+    }
+
+    @Override
+    public void redimensionnerZoneInterdiction(int id, int largeur, int longueur) {
+        Appel appel = debuter("redimensionnerZone", "redimensionnerZoneInterdiction", id, largeur, longueur);
+        try {
+            super.redimensionnerZoneInterdiction(id, largeur, longueur);
+        } finally {
+            terminer(appel);
+        }
+    }
+
+    @Override
+    public void redimensionnerZoneTampon(int id, int largeur, int longueur) {
+        Appel appel = debuter("redimensionnerZone", "redimensionnerZoneTampon", id, largeur, longueur);
+        try {
+            super.redimensionnerZoneTampon(id, largeur, longueur);
+        } finally {
+            terminer(appel);
+        }
+    }
+
+    @Override
+    public void redimensionnerZoneSelectionnee(int largeur, int longueur) {
+        Appel appel = debuter("redimensionnerZone", "redimensionnerZoneSelectionnee", largeur, longueur);
+        try {
+            super.redimensionnerZoneSelectionnee(largeur, longueur);
+        } finally {
+            terminer(appel);
+        }
+    }
+
+    @Override
+    public void supprimerZoneInterdiction(int id) {
+        Appel appel = debuter("supprimerZone", "supprimerZoneInterdiction", id);
+        try {
+            super.supprimerZoneInterdiction(id);
+        } finally {
+            terminer(appel);
+        }
+    }
+
+    @Override
+    public void supprimerZoneTampon(int id) {
+        Appel appel = debuter("supprimerZone", "supprimerZoneTampon", id);
+        try {
+            super.supprimerZoneTampon(id);
+        } finally {
+            terminer(appel);
+        }
+    }
+
+    @Override
+    public void supprimerZoneSelectionnee() {
+        Appel appel = debuter("supprimerZone", "supprimerZoneSelectionnee");
+        try {
+            super.supprimerZoneSelectionnee();
+        } finally {
+            terminer(appel);
+        }
+    }
+
+    // ==================== MEMBRANE ET FIL ====================
+
+    @Override
+    public void genererGraphe() {
+        Appel appel = debuter("genererGraphe", "genererGraphe");
+        try {
+            super.genererGraphe();
+        } finally {
+            terminer(appel);
+        }
+    }
+
+    @Override
+    public void configurerMembrane(int espacement, int translationX, int translationY) {
+        Appel appel = debuter("configurerMembrane", "configurerMembrane", espacement, translationX, translationY);
+        try {
+            super.configurerMembrane(espacement, translationX, translationY);
+        } finally {
+            terminer(appel);
+        }
+    }
+
+    @Override
+    public void confirmerMembrane(int espacement, int translationX, int translationY) {
+        Appel appel = debuter("confirmerMembrane", "confirmerMembrane", espacement, translationX, translationY);
+        try {
+            super.confirmerMembrane(espacement, translationX, translationY);
+        } finally {
+            terminer(appel);
+        }
+    }
+
+    @Override
+    public void activerIntersection(int x, int y) {
+        Appel appel = debuter("modifierMembrane", "activerIntersection", x, y);
+        try {
+            super.activerIntersection(x, y);
+        } finally {
+            terminer(appel);
+        }
+    }
+
+    @Override
+    public void desactiverToutesIntersections() {
+        Appel appel = debuter("modifierMembrane", "desactiverToutesIntersections");
+        try {
+            super.desactiverToutesIntersections();
+        } finally {
+            terminer(appel);
+        }
+    }
+
+    @Override
+    public void creerPieceAvecIntersections(List<String> idsIntersections) {
+        Appel appel = debuter("creerPiece", "creerPieceAvecIntersections", idsIntersections);
+        try {
+            super.creerPieceAvecIntersections(idsIntersections);
+        } finally {
+            terminer(appel);
+        }
+    }
+
+    @Override
+    public void activerFilChauffant() {
+        Appel appel = debuter("modifierFil", "activerFilChauffant");
+        try {
+            super.activerFilChauffant();
+        } finally {
+            terminer(appel);
+        }
+    }
+
+    @Override
+    public void desactiverFilChauffant() {
+        Appel appel = debuter("modifierFil", "desactiverFilChauffant");
+        try {
+            super.desactiverFilChauffant();
+        } finally {
+            terminer(appel);
+        }
+    }
+
+    @Override
+    public void mettreAJourDistanceFil(int distance) {
+        Appel appel = debuter("modifierFil", "mettreAJourDistanceFil", distance);
+        try {
+            super.mettreAJourDistanceFil(distance);
+        } finally {
+            terminer(appel);
+        }
+    }
+
+    @Override
+    public boolean calculerCheminFil(int distanceEntreFils, int longueurSouhaitee) {
+        Appel appel = debuter("calculerCheminFil", "calculerCheminFil", RegistreStrategiesRoutage.SERPENTIN, distanceEntreFils, longueurSouhaitee);
+        try {
+            return super.calculerCheminFil(distanceEntreFils, longueurSouhaitee);
+        } finally {
+            terminer(appel);
+        }
+    }
+
+    @Override
+    public boolean calculerCheminFil(String nomStrategie, int distanceEntreFils, int longueurSouhaitee) {
+        Appel appel = debuter("calculerCheminFil", "calculerCheminFil", nomStrategie, distanceEntreFils, longueurSouhaitee);
+        try {
+            return super.calculerCheminFil(nomStrategie, distanceEntreFils, longueurSouhaitee);
+        } finally {
+            terminer(appel);
+        }
+    }
+
+    @Override
+    public Map<String, List<Point>> comparerStrategiesRoutage(List<String> nomsStrategies, int distanceEntreFils, int longueurSouhaitee) {
+        Appel appel = debuterLecture("comparerStrategiesRoutage");
+        try {
+            return super.comparerStrategiesRoutage(nomsStrategies, distanceEntreFils, longueurSouhaitee);
+        } finally {
+            terminer(appel);
+        }
+    }
+
+    @Override
+    public void mettreAJourCheminFil(List<Point> nouveauChemin) {
+        Appel appel = debuter("modifierFil", "mettreAJourCheminFil", nouveauChemin);
+        try {
+            super.mettreAJourCheminFil(nouveauChemin);
+        } finally {
+            terminer(appel);
+        }
+    }
+
+    @Override
+    public List<Point> recalculerCheminAvecDijkstra(Graphe.Intersection intersection, List<Point> cheminPartiel, int longueurSouhaitee) {
+        Appel appel = debuter("recalculerCheminAvecDijkstra", "recalculerCheminAvecDijkstra", intersection != null ? new Point(intersection.getX(), intersection.getY()) : null, cheminPartiel, longueurSouhaitee);
+        try {
+            return super.recalculerCheminAvecDijkstra(intersection, cheminPartiel, longueurSouhaitee);
+        } finally {
+            terminer(appel);
+        }
+    }
+
+    // ==================== HISTORIQUE ET FICHIERS ====================
+
+    @Override
+    public void enregistrerEtatPourUndo() {
+        Appel appel = debuter("enregistrerEtatPourUndo", "enregistrerEtatPourUndo");
+        try {
+            super.enregistrerEtatPourUndo();
+        } finally {
+            terminer(appel);
+        }
+    }
+
+    @Override
+    public boolean Undo() {
+        Appel appel = debuter("undo", "undo");
+        try {
+            return super.Undo();
+        } finally {
+            terminer(appel);
+        }
+    }
+
+    @Override
+    public boolean Redo() {
+        Appel appel = debuter("redo", "redo");
+        try {
+            return super.Redo();
+        } finally {
+            terminer(appel);
+        }
+    }
+
+    @Override
+    public void sauvegarder(File fichier) throws IOException {
+        Appel appel = debuter("sauvegarder", "sauvegarder", fichier.getPath());
+        try {
+            super.sauvegarder(fichier);
+        } finally {
+            terminer(appel);
+        }
+    }
+
+    @Override
+    public SauvegardeEnCours sauvegarderEnArrierePlan(File fichier, boolean compresser) {
+        Appel appel = debuterLecture("sauvegarderEnArrierePlan");
+        try {
+            return super.sauvegarderEnArrierePlan(fichier, compresser);
+        } finally {
+            terminer(appel);
+        }
+    }
+
+    @Override
+    public SauvegardeEnCours sauvegarderEnArrierePlan(File fichier) {
+        Appel appel = debuterLecture("sauvegarderEnArrierePlan");
+        try {
+            return super.sauvegarderEnArrierePlan(fichier);
+        } finally {
+            terminer(appel);
+        }
+    }
+
+    @Override
+    public void charger(File fichier) throws IOException, ClassNotFoundException {
+        Appel appel = debuter("charger", "charger", fichier.getPath());
+        try {
+            super.charger(fichier);
+        } finally {
+            terminer(appel);
+        }
+    }
+}
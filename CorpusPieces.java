@@ -0,0 +1,102 @@
+package domaine.banc;
+
+import domaine.chauffage.Thermostat;
+import domaine.meuble.Meuble;
+import domaine.meuble.MeubleFactory;
+import domaine.piece.Piece;
+import domaine.piece.PieceFactory;
+import domaine.zone.ZoneInterdiction;
+
+import java.awt.Point;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Corpus fixe de pièces réalistes pour les bancs d'essai
+ * Chaque appel crée une nouvelle pièce, identique d'un appel à l'autre (hors ids).
+ */
+public final class CorpusPieces {
+
+    private CorpusPieces() {}
+
+    /**
+     * Fabriques des pièces du corpus, par nom, du plus petit au plus grand
+     */
+    public static Map<String, Supplier<Piece>> fabriques() {
+        Map<String, Supplier<Piece>> corpus = new LinkedHashMap<>();
+        corpus.put("sdb-petite", CorpusPieces::salleDeBainPetite);
+        corpus.put("sdb-complete", CorpusPieces::salleDeBainComplete);
+        corpus.put("cuisine-L", CorpusPieces::cuisineEnL);
+        corpus.put("aire-ouverte", CorpusPieces::aireOuverte);
+        return corpus;
+    }
+
+    /**
+     * Salle de bain de 8' x 7' : toilette, douche et vanité
+     */
+    public static Piece salleDeBainPetite() {
+        Piece piece = PieceFactory.creerRectangulaire(96, 84);
+        ajouter(piece, "toilette", 6, 50, 20, 28);
+        ajouter(piece, "douche", 58, 6, 32, 36);
+        ajouter(piece, "vanite", 40, 60, 24, 20);
+        ajouterThermostat(piece);
+        return piece;
+    }
+
+    /**
+     * Salle de bain de 12' x 10' : bain, douche, toilette, vanité et placard
+     */
+    public static Piece salleDeBainComplete() {
+        Piece piece = PieceFactory.creerRectangulaire(144, 120);
+        ajouter(piece, "bain", 6, 82, 60, 32);
+        ajouter(piece, "douche", 102, 6, 36, 36);
+        ajouter(piece, "toilette", 100, 86, 20, 28);
+        ajouter(piece, "vanite", 40, 6, 36, 22);
+        ajouter(piece, "placard", 6, 30, 18, 30);
+        ajouterThermostat(piece);
+        return piece;
+    }
+
+    /**
+     * Cuisine en L de 20' x 18' : comptoir, évier et garde-manger
+     */
+    public static Piece cuisineEnL() {
+        Piece piece = PieceFactory.creerIrreguliere(List.of(
+            new Point(0, 0), new Point(240, 0), new Point(240, 96),
+            new Point(120, 96), new Point(120, 216), new Point(0, 216)));
+        ajouter(piece, "armoire", 12, 6, 96, 24);
+        ajouter(piece, "vanite", 150, 6, 36, 24);
+        ajouter(piece, "placard", 6, 150, 24, 60);
+        ajouterThermostat(piece);
+        return piece;
+    }
+
+    /**
+     * Aire ouverte de 40' x 30' : quelques meubles et une zone d'interdiction (îlot)
+     */
+    public static Piece aireOuverte() {
+        Piece piece = PieceFactory.creerRectangulaire(480, 360);
+        ajouter(piece, "armoire", 12, 6, 120, 24);
+        ajouter(piece, "placard", 400, 6, 36, 36);
+        ajouter(piece, "placard", 6, 300, 48, 30);
+        ajouter(piece, "bain", 380, 300, 60, 32);
+        piece.ajouterZoneInterdiction(new ZoneInterdiction(200, 150, 80, 48, "Îlot"));
+        ajouterThermostat(piece);
+        return piece;
+    }
+
+    private static void ajouter(Piece piece, String type, int x, int y, int largeur, int longueur) {
+        Meuble m = MeubleFactory.creerDepuisType(type, new Point(x, y), largeur, longueur);
+        m.setNom(type);
+        piece.ajouterMeuble(m);
+    }
+
+    /**
+     * Thermostat dans le coin (0, 0), collé à deux murs
+     */
+    private static void ajouterThermostat(Piece piece) {
+        piece.ajouterElementChauffant(new Thermostat("Thermostat", 0, 0, 6, 8));
+    }
+}
@@ -4,6 +4,7 @@ import java.awt.Point;
 
 /**
  * DTO pour la communication des données d'élément chauffant
+ * Les DTO retournés par le contrôleur (PieceMapper) sont en lecture seule : voir estFige.
  */
 public class ElementChauffantDTO {
     private int id;
@@ -14,6 +15,7 @@ public class ElementChauffantDTO {
     private String type; // "ElementChauffant" ou "Thermostat"
     private boolean actif;
     private double angle; // Angle de rotation en degrés
+    private boolean fige; // partagé en lecture seule (voir figer)
 
     public ElementChauffantDTO() {
     }
@@ -34,6 +36,7 @@ public class ElementChauffantDTO {
     }
 
     public void setId(int id) {
+        verifierModifiable();
         this.id = id;
     }
     public String getNom() {
@@ -41,14 +44,16 @@ public class ElementChauffantDTO {
     }
 
     public void setNom(String nom) {
+        verifierModifiable();
         this.nom = nom;
     }
 
     public Point getPosition() {
-        return position;
+        return fige && position != null ? new Point(position) : position;
     }
 
     public void setPosition(Point position) {
+        verifierModifiable();
         this.position = position;
     }
 
@@ -57,6 +62,7 @@ public class ElementChauffantDTO {
     }
 
     public void setLargeur(int largeur) {
+        verifierModifiable();
         this.largeur = largeur;
     }
 
@@ -65,6 +71,7 @@ public class ElementChauffantDTO {
     }
 
     public void setLongueur(int longueur) {
+        verifierModifiable();
         this.longueur = longueur;
     }
 
@@ -73,6 +80,7 @@ public class ElementChauffantDTO {
     }
 
     public void setType(String type) {
+        verifierModifiable();
         this.type = type;
     }
 
@@ -81,6 +89,7 @@ public class ElementChauffantDTO {
     }
 
     public void setActif(boolean actif) {
+        verifierModifiable();
         this.actif = actif;
     }
 
@@ -89,6 +98,7 @@ public class ElementChauffantDTO {
     }
 
     public void setAngle(double angle) {
+        verifierModifiable();
         this.angle = angle;
     }
 
@@ -102,6 +112,7 @@ public class ElementChauffantDTO {
     }
 
     public void setX(int x) {
+        verifierModifiable();
         if (position == null) {
             position = new Point();
         }
@@ -109,6 +120,7 @@ public class ElementChauffantDTO {
     }
 
     public void setY(int y) {
+        verifierModifiable();
         if (position == null) {
             position = new Point();
         }
@@ -119,4 +131,25 @@ public class ElementChauffantDTO {
     public boolean estSelectionne() {
         return false; // Par défaut, pas sélectionné
     }
+
+    /**
+     * Rend le DTO non modifiable (DTO partagé par le cache de PieceMapper)
+     */
+    ElementChauffantDTO figer() {
+        fige = true;
+        return this;
+    }
+
+    /**
+     * Indique si le DTO est partagé en lecture seule : ses setters lèvent IllegalStateException
+     */
+    public boolean estFige() {
+        return fige;
+    }
+
+    private void verifierModifiable() {
+        if (fige) {
+            throw new IllegalStateException("DTO partagé en lecture seule");
+        }
+    }
 }
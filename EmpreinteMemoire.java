@@ -0,0 +1,263 @@
+package domaine.diagnostic;
+
+import domaine.chauffage.CheminFil;
+import domaine.dto.ElementChauffantDTO;
+import domaine.dto.FliChauffantDTO;
+import domaine.dto.MeubleDTO;
+import domaine.dto.PieceDTO;
+import domaine.dto.ZoneInterdictionDTO;
+import domaine.dto.ZoneTamponDTO;
+import domaine.graphe.Graphe;
+
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Estimation de la mémoire retenue par la pièce courante, par poste (voir Controleur.getEmpreinteMemoire)
+ *
+ * Les tailles sont calculées à partir de la forme des objets (en-têtes, références, tableaux des
+ * HashMap) pour une JVM 64 bits à références compressées, sans parcours du tas : l'ordre de
+ * grandeur est fiable, pas l'octet près. Un objet partagé (chaîne, chemin compact immuable) n'est
+ * compté qu'une fois, dans le premier poste qui le retient, dans l'ordre de Poste.
+ */
+public final class EmpreinteMemoire {
+
+    /**
+     * Postes mesurés
+     */
+    public enum Poste {
+        INTERSECTIONS,  // intersections du graphe, leur table et l'ensemble des actives
+        CONNEXIONS,     // ensembles de connexions des intersections
+        CHEMINS,        // sommets du chemin du fil
+        CACHES_DTO,     // DTO conservés par PieceMapper
+        HISTORIQUE      // instantanés des piles undo et redo
+    }
+
+    private static final int ENTETE = 12;
+    private static final int ENTETE_TABLEAU = 16;
+    private static final int REFERENCE = 4;
+    private static final int NOEUD_HASHMAP = 32;
+    private static final int POINT = 24;
+
+    private final long[] octets = new long[Poste.values().length];
+    private final long[] objets = new long[Poste.values().length]; // intersections, sommets, DTO...
+    private final long instant = System.currentTimeMillis();
+    private final Set<Object> comptes = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    private EmpreinteMemoire() {}
+
+    /**
+     * Mesure les postes
+     * @param graphe Le graphe de la pièce (peut être null)
+     * @param chemin Le chemin du fil de la pièce (peut être null)
+     * @param caches Les DTO en cache
+     * @param historique Les instantanés undo et redo
+     */
+    public static EmpreinteMemoire mesurer(Graphe graphe, CheminFil chemin,
+                                           Collection<PieceDTO> caches, Collection<PieceDTO> historique) {
+        EmpreinteMemoire e = new EmpreinteMemoire();
+        if (graphe != null) {
+            e.mesurerGraphe(graphe);
+        }
+        e.ajouter(Poste.CHEMINS, e.chemin(chemin), chemin != null ? chemin.taille() : 0);
+        for (PieceDTO dto : caches) {
+            e.ajouter(Poste.CACHES_DTO, e.piece(dto), 1);
+        }
+        for (PieceDTO dto : historique) {
+            e.ajouter(Poste.HISTORIQUE, e.piece(dto), 1);
+        }
+        e.comptes.clear(); // seuls les totaux sont conservés
+        return e;
+    }
+
+    public long getOctets(Poste poste) {
+        return octets[poste.ordinal()];
+    }
+
+    /**
+     * @return Le nombre d'éléments du poste : intersections, connexions, sommets ou instantanés
+     */
+    public long getObjets(Poste poste) {
+        return objets[poste.ordinal()];
+    }
+
+    public long getOctetsTotal() {
+        long total = 0;
+        for (long o : octets) {
+            total += o;
+        }
+        return total;
+    }
+
+    /**
+     * @return L'instant de la mesure (ms depuis l'époque)
+     */
+    public long getInstant() {
+        return instant;
+    }
+
+    /**
+     * Postes au-delà de leur budget
+     * @param budgets Budget en octets par poste (un poste absent n'a pas de budget)
+     */
+    public List<Poste> depassements(Map<Poste, Long> budgets) {
+        List<Poste> postes = new ArrayList<>();
+        for (Map.Entry<Poste, Long> budget : budgets.entrySet()) {
+            if (getOctets(budget.getKey()) > budget.getValue()) {
+                postes.add(budget.getKey());
+            }
+        }
+        return postes;
+    }
+
+    public Map<Poste, Long> getOctetsParPoste() {
+        Map<Poste, Long> parPoste = new EnumMap<>(Poste.class);
+        for (Poste poste : Poste.values()) {
+            parPoste.put(poste, octets[poste.ordinal()]);
+        }
+        return parPoste;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(String.format(Locale.ROOT, "Mémoire estimée %.1f Ko :", getOctetsTotal() / 1024.0));
+        for (Poste poste : Poste.values()) {
+            sb.append(String.format(Locale.ROOT, " %s %.1f Ko (%d)", poste.name().toLowerCase(Locale.ROOT),
+                octets[poste.ordinal()] / 1024.0, objets[poste.ordinal()]));
+        }
+        return sb.toString();
+    }
+
+    private void ajouter(Poste poste, long taille, long nombre) {
+        octets[poste.ordinal()] += taille;
+        objets[poste.ordinal()] += nombre;
+    }
+
+    private void mesurerGraphe(Graphe graphe) {
+        Collection<Graphe.Intersection> intersections = graphe.getIntersections();
+        // Graphe, table par id (la clé est l'id de l'intersection), ensemble des actives et index de la grille
+        long table = aligner(ENTETE + 8 * 4 + 3 * 8 + 2 + 5 * REFERENCE) + hashMap(intersections.size())
+            + hashSet(graphe.getNombreIntersectionsActives());
+        if (graphe.getTailleGrille() > 0) {
+            table += tableau(graphe.getTailleGrille(), REFERENCE) + tableau(graphe.getTailleGrille(), 4);
+        }
+        ajouter(Poste.INTERSECTIONS, table, 0);
+        for (Graphe.Intersection inter : intersections) {
+            ajouter(Poste.INTERSECTIONS, aligner(ENTETE + 2 * REFERENCE + 2 * 4 + 1) + chaine(inter.getId()), 1);
+            int connexions = inter.getConnexions().size();
+            ajouter(Poste.CONNEXIONS, hashSet(connexions), connexions);
+        }
+    }
+
+    private long piece(PieceDTO dto) {
+        if (dto == null || !comptes.add(dto)) {
+            return 0;
+        }
+        long taille = aligner(ENTETE + 2 * 4 + 6 * REFERENCE + 3 * 4 + 2);
+        taille += chemin(dto.getContourCompact());
+        if (dto.getMeubles() != null && comptes.add(dto.getMeubles())) {
+            taille += liste(dto.getMeubles().size());
+            for (MeubleDTO m : dto.getMeubles()) {
+                taille += meuble(m);
+            }
+        }
+        if (dto.getElementsChauffants() != null && comptes.add(dto.getElementsChauffants())) {
+            taille += liste(dto.getElementsChauffants().size());
+            for (ElementChauffantDTO e : dto.getElementsChauffants()) {
+                taille += element(e);
+            }
+        }
+        if (dto.getZonesInterdiction() != null && comptes.add(dto.getZonesInterdiction())) {
+            taille += liste(dto.getZonesInterdiction().size());
+            for (ZoneInterdictionDTO z : dto.getZonesInterdiction()) {
+                taille += zone(z, z.getNom(), z.getPosition(), 0);
+            }
+        }
+        if (dto.getZonesTampon() != null && comptes.add(dto.getZonesTampon())) {
+            taille += liste(dto.getZonesTampon().size());
+            for (ZoneTamponDTO z : dto.getZonesTampon()) {
+                taille += zone(z, z.getNom(), z.getPosition(), 8);
+            }
+        }
+        taille += fil(dto.getFliChauffant());
+        return taille;
+    }
+
+    private long meuble(MeubleDTO m) {
+        if (m == null || !comptes.add(m)) {
+            return 0;
+        }
+        return aligner(ENTETE + 9 * 4 + 3 * REFERENCE + 8 + 2) + chaine(m.getNom()) + chaine(m.getType()) + POINT;
+    }
+
+    private long element(ElementChauffantDTO e) {
+        if (e == null || !comptes.add(e)) {
+            return 0;
+        }
+        return aligner(ENTETE + 3 * 4 + 3 * REFERENCE + 8 + 1) + chaine(e.getNom()) + chaine(e.getType())
+            + (e.getPosition() != null ? POINT : 0);
+    }
+
+    private long zone(Object z, String nom, Point position, int supplement) {
+        if (z == null || !comptes.add(z)) {
+            return 0;
+        }
+        return aligner(ENTETE + 3 * 4 + 2 * REFERENCE + supplement) + chaine(nom) + (position != null ? POINT : 0);
+    }
+
+    private long fil(FliChauffantDTO fil) {
+        if (fil == null || !comptes.add(fil)) {
+            return 0;
+        }
+        return aligner(ENTETE + 2 * 8 + 4 + 1 + 4 * REFERENCE) + chaine(fil.getNom()) + chemin(fil.getCheminCompact());
+    }
+
+    private long chemin(CheminFil chemin) {
+        if (chemin == null || chemin.estVide() || !comptes.add(chemin)) {
+            return 0;
+        }
+        // Tableau x, y entrelacés ; un sous-chemin qui partage un tableau plus grand est sous-estimé
+        return aligner(ENTETE + REFERENCE + 2 * 4 + 8) + tableau(2L * chemin.taille(), 4);
+    }
+
+    private long chaine(String s) {
+        if (s == null || !comptes.add(s)) {
+            return 0;
+        }
+        return aligner(ENTETE + REFERENCE + 4 + 2) + tableau(s.length(), 1); // chaîne Latin-1 (compacte)
+    }
+
+    private static long liste(int taille) {
+        return aligner(ENTETE + 2 * 4 + REFERENCE) + tableau(taille, REFERENCE);
+    }
+
+    private static long hashSet(int taille) {
+        return aligner(ENTETE + REFERENCE) + hashMap(taille);
+    }
+
+    private static long hashMap(int taille) {
+        long table = 0;
+        if (taille > 0) {
+            // Capacité : puissance de 2 avec un facteur de charge de 0,75 (16 au minimum)
+            int besoin = Math.max(16, (int) Math.ceil(taille / 0.75));
+            table = tableau(Integer.highestOneBit(besoin * 2 - 1), REFERENCE);
+        }
+        return aligner(ENTETE + 4 * REFERENCE + 3 * 4 + 4) + table + (long) taille * NOEUD_HASHMAP;
+    }
+
+    private static long tableau(long longueur, int tailleElement) {
+        return aligner(ENTETE_TABLEAU + longueur * tailleElement);
+    }
+
+    private static long aligner(long taille) {
+        return (taille + 7) & ~7L;
+    }
+}
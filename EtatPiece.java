@@ -29,6 +29,13 @@ public class EtatPiece implements Serializable {
     // Fil chauffant
     private EtatFilChauffant filChauffant;
     
+    // Configuration de la membrane (l'espacement et les translations sont en 1/32 de pouce)
+    private int espacementMembrane;
+    private int translationXMembrane;
+    private int translationYMembrane;
+    private boolean membraneConfirmee;
+    private boolean membraneGeneree;
+    
     public EtatPiece() {
         this.meubles = new ArrayList<>();
         this.elementsChauffants = new ArrayList<>();
@@ -62,6 +69,21 @@ public class EtatPiece implements Serializable {
     public EtatFilChauffant getFilChauffant() { return filChauffant; }
     public void setFilChauffant(EtatFilChauffant filChauffant) { this.filChauffant = filChauffant; }
     
+    public int getEspacementMembrane() { return espacementMembrane; }
+    public void setEspacementMembrane(int espacementMembrane) { this.espacementMembrane = espacementMembrane; }
+    
+    public int getTranslationXMembrane() { return translationXMembrane; }
+    public void setTranslationXMembrane(int translationXMembrane) { this.translationXMembrane = translationXMembrane; }
+    
+    public int getTranslationYMembrane() { return translationYMembrane; }
+    public void setTranslationYMembrane(int translationYMembrane) { this.translationYMembrane = translationYMembrane; }
+    
+    public boolean isMembraneConfirmee() { return membraneConfirmee; }
+    public void setMembraneConfirmee(boolean membraneConfirmee) { this.membraneConfirmee = membraneConfirmee; }
+    
+    public boolean isMembraneGeneree() { return membraneGeneree; }
+    public void setMembraneGeneree(boolean membraneGeneree) { this.membraneGeneree = membraneGeneree; }
+    
     /**
      * Classe interne pour sauvegarder un meuble
      */
@@ -203,8 +225,10 @@ public class EtatPiece implements Serializable {
         private String nom;
         private int largeur, longueur;
         private int distanceFil;
+        private int longueurSouhaitee;
         private boolean actif;
-        private List<Point> chemin; // Chemin du fil (liste de points)
+        private List<Point> chemin; // Ancien format du chemin (fichiers sérialisés existants)
+        private domaine.chauffage.CheminFil cheminCompact; // Chemin du fil (sommets compacts)
         
         // Getters et Setters
         public String getNom() { return nom; }
@@ -219,11 +243,26 @@ public class EtatPiece implements Serializable {
         public int getDistanceFil() { return distanceFil; }
         public void setDistanceFil(int distanceFil) { this.distanceFil = distanceFil; }
         
+        public int getLongueurSouhaitee() { return longueurSouhaitee; }
+        public void setLongueurSouhaitee(int longueurSouhaitee) { this.longueurSouhaitee = longueurSouhaitee; }
+        
         public boolean isActif() { return actif; }
         public void setActif(boolean actif) { this.actif = actif; }
         
-        public List<Point> getChemin() { return chemin; }
-        public void setChemin(List<Point> chemin) { this.chemin = chemin; }
+        public List<Point> getChemin() { return cheminCompact != null ? cheminCompact.commeListe() : chemin; }
+        public void setChemin(List<Point> chemin) { this.chemin = chemin; this.cheminCompact = null; }
+        
+        /**
+         * Chemin compact; pour un fichier de l'ancien format, converti depuis la liste de points
+         */
+        public domaine.chauffage.CheminFil getCheminCompact() {
+            if (cheminCompact == null && chemin != null) {
+                cheminCompact = domaine.chauffage.CheminFil.depuisPoints(chemin);
+                chemin = null;
+            }
+            return cheminCompact;
+        }
+        public void setCheminCompact(domaine.chauffage.CheminFil cheminCompact) { this.cheminCompact = cheminCompact; this.chemin = null; }
     }
 }
 
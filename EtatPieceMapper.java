@@ -0,0 +1,277 @@
+package domaine.sauvegarde;
+
+import domaine.chauffage.ElementChauffant;
+import domaine.chauffage.FilChauffant;
+import domaine.chauffage.Thermostat;
+import domaine.graphe.Graphe;
+import domaine.meuble.Meuble;
+import domaine.meuble.MeubleAvecDrain;
+import domaine.meuble.MeubleFactory;
+import domaine.piece.Piece;
+import domaine.piece.PieceFactory;
+import domaine.zone.ZoneInterdiction;
+import domaine.zone.ZoneTampon;
+
+import java.awt.Point;
+import java.util.List;
+
+/**
+ * Mapper pour convertir une Piece en EtatPiece (sauvegarde) et inversement
+ */
+public final class EtatPieceMapper {
+    private EtatPieceMapper() {}
+
+    /**
+     * Convertit une pièce en état sérialisable
+     */
+    public static EtatPiece versEtat(Piece piece) {
+        if (piece == null) {
+            throw new IllegalArgumentException("Pièce invalide");
+        }
+        EtatPiece etat = new EtatPiece();
+        etat.setLargeur(piece.getLargeur());
+        etat.setLongueur(piece.getLongueur());
+        etat.setPoints(new java.util.ArrayList<>(piece.getPoints()));
+        
+        // Convertir les meubles
+        List<EtatPiece.EtatMeuble> meublesEtat = new java.util.ArrayList<>();
+        for (Meuble m : piece.getMeubles()) {
+            meublesEtat.add(versEtat(m));
+        }
+        etat.setMeubles(meublesEtat);
+        
+        // Convertir les éléments chauffants
+        List<EtatPiece.EtatElementChauffant> elementsEtat = new java.util.ArrayList<>();
+        for (ElementChauffant e : piece.getElementsChauffants()) {
+            elementsEtat.add(versEtat(e));
+        }
+        etat.setElementsChauffants(elementsEtat);
+        
+        // Convertir les zones d'interdiction
+        List<EtatPiece.EtatZone> zonesInterdictionEtat = new java.util.ArrayList<>();
+        for (ZoneInterdiction z : piece.getZonesInterdiction()) {
+            zonesInterdictionEtat.add(versEtat(z));
+        }
+        etat.setZonesInterdiction(zonesInterdictionEtat);
+        
+        // Convertir les zones tampon
+        List<EtatPiece.EtatZone> zonesTamponEtat = new java.util.ArrayList<>();
+        for (ZoneTampon z : piece.getZonesTampon()) {
+            zonesTamponEtat.add(versEtat(z));
+        }
+        etat.setZonesTampon(zonesTamponEtat);
+        
+        // Convertir le fil chauffant
+        if (piece.getFilChauffant() != null) {
+            etat.setFilChauffant(versEtat(piece.getFilChauffant()));
+        }
+        
+        // Convertir la configuration de la membrane
+        copierMembrane(piece.getGraphe(), etat);
+        
+        return etat;
+    }
+
+    public static EtatPiece.EtatMeuble versEtat(Meuble m) {
+        EtatPiece.EtatMeuble em = new EtatPiece.EtatMeuble();
+        em.setId(m.getId());
+        em.setType(m.getClass().getSimpleName());
+        em.setNom(m.getNom());
+        em.setX(m.getX());
+        em.setY(m.getY());
+        em.setLargeur(m.getLargeur());
+        em.setLongueur(m.getLongueur());
+        em.setAngle(m.getAngle());
+        
+        if (m instanceof MeubleAvecDrain d) {
+            em.setDrainX(d.getDrainXRelatif());
+            em.setDrainY(d.getDrainYRelatif());
+            em.setDiametreDrain(d.getDiametreDrain());
+        }
+        return em;
+    }
+
+    public static EtatPiece.EtatElementChauffant versEtat(ElementChauffant e) {
+        EtatPiece.EtatElementChauffant ee = new EtatPiece.EtatElementChauffant();
+        ee.setId(e.getId());
+        ee.setType(e.getClass().getSimpleName());
+        ee.setNom(e.getNom());
+        ee.setX(e.getX());
+        ee.setY(e.getY());
+        ee.setLargeur(e.getLargeur());
+        ee.setLongueur(e.getLongueur());
+        ee.setAngle(e.getAngle());
+        ee.setActif(e.isActif());
+        return ee;
+    }
+
+    public static EtatPiece.EtatZone versEtat(ZoneInterdiction z) {
+        EtatPiece.EtatZone ez = new EtatPiece.EtatZone();
+        ez.setId(z.getId());
+        ez.setType("ZoneInterdiction");
+        ez.setNom(z.getNom());
+        ez.setX(z.getPosition().x);
+        ez.setY(z.getPosition().y);
+        ez.setLargeur(z.getLargeur());
+        ez.setLongueur(z.getLongueur());
+        return ez;
+    }
+
+    public static EtatPiece.EtatZone versEtat(ZoneTampon z) {
+        EtatPiece.EtatZone ez = new EtatPiece.EtatZone();
+        ez.setId(z.getId());
+        ez.setType("ZoneTampon");
+        ez.setNom(z.getNom());
+        ez.setX(z.getPosition().x);
+        ez.setY(z.getPosition().y);
+        ez.setLargeur(z.getLargeur());
+        ez.setLongueur(z.getLongueur());
+        ez.setDistance(z.getDistance());
+        return ez;
+    }
+
+    public static EtatPiece.EtatFilChauffant versEtat(FilChauffant fil) {
+        EtatPiece.EtatFilChauffant ef = new EtatPiece.EtatFilChauffant();
+        ef.setNom(fil.getNom());
+        ef.setLargeur(fil.getLargeur());
+        ef.setLongueur(fil.getLongueur());
+        ef.setDistanceFil(fil.getDistanceFil());
+        ef.setLongueurSouhaitee(fil.getLongueurSouhaitee());
+        ef.setActif(fil.estActif());
+        ef.setCheminCompact(fil.getCheminCompact());
+        return ef;
+    }
+
+    /**
+     * Copie la configuration de la membrane dans l'état
+     */
+    public static void copierMembrane(Graphe graphe, EtatPiece etat) {
+        if (graphe != null) {
+            etat.setEspacementMembrane(graphe.getEspacement());
+            etat.setTranslationXMembrane(graphe.getTranslationX());
+            etat.setTranslationYMembrane(graphe.getTranslationY());
+            etat.setMembraneConfirmee(graphe.estConfirmee());
+            etat.setMembraneGeneree(graphe.estGenere());
+        }
+    }
+
+    /**
+     * Reconstruit une pièce depuis un état sérialisé
+     */
+    public static Piece versPiece(EtatPiece etat) {
+        if (etat == null) {
+            throw new IllegalArgumentException("État invalide");
+        }
+        
+        // Créer la pièce
+        Piece piece;
+        if (etat.getPoints() != null && etat.getPoints().size() >= 3) {
+            piece = PieceFactory.creerIrreguliere(etat.getPoints());
+        } else {
+            piece = PieceFactory.creerRectangulaire(etat.getLargeur(), etat.getLongueur());
+        }
+        
+        // Restaurer les meubles
+        if (etat.getMeubles() != null) {
+            for (EtatPiece.EtatMeuble em : etat.getMeubles()) {
+                try {
+                    Meuble m = MeubleFactory.creerDepuisType(em.getType(), 
+                        new Point(em.getX(), em.getY()), em.getLargeur(), em.getLongueur());
+                    m.setId(em.getId());
+                    m.setNom(em.getNom());
+                    m.setAngle(em.getAngle());
+                    
+                    if (m instanceof MeubleAvecDrain d && em.getDrainX() != null && em.getDrainY() != null) {
+                        d.setDrainPositionRelative(em.getDrainX(), em.getDrainY());
+                        if (em.getDiametreDrain() != null) {
+                            d.setDiametreDrain(em.getDiametreDrain());
+                        }
+                    }
+                    
+                    piece.ajouterMeuble(m);
+                } catch (Exception e) {
+                    System.err.println("Erreur lors de la restauration du meuble: " + e.getMessage());
+                }
+            }
+        }
+        
+        // Restaurer les éléments chauffants
+        if (etat.getElementsChauffants() != null) {
+            for (EtatPiece.EtatElementChauffant ee : etat.getElementsChauffants()) {
+                try {
+                    ElementChauffant element;
+                    if ("Thermostat".equals(ee.getType())) {
+                        element = new Thermostat(ee.getNom(), ee.getX(), ee.getY(), 
+                            ee.getLargeur(), ee.getLongueur());
+                    } else {
+                        element = new ElementChauffant(ee.getNom(), ee.getX(), ee.getY(), 
+                            ee.getLargeur(), ee.getLongueur());
+                    }
+                    element.setId(ee.getId());
+                    element.setAngle(ee.getAngle());
+                    element.setActif(ee.isActif());
+                    piece.ajouterElementChauffant(element);
+                } catch (Exception e) {
+                    System.err.println("Erreur lors de la restauration de l'élément chauffant: " + e.getMessage());
+                }
+            }
+        }
+        
+        // Restaurer les zones d'interdiction
+        if (etat.getZonesInterdiction() != null) {
+            for (EtatPiece.EtatZone ez : etat.getZonesInterdiction()) {
+                try {
+                    ZoneInterdiction zone = new ZoneInterdiction(ez.getX(), ez.getY(), 
+                        ez.getLargeur(), ez.getLongueur(), ez.getNom());
+                    zone.setId(ez.getId());
+                    piece.ajouterZoneInterdiction(zone);
+                } catch (Exception e) {
+                    System.err.println("Erreur lors de la restauration de la zone d'interdiction: " + e.getMessage());
+                }
+            }
+        }
+        
+        // Restaurer les zones tampon
+        if (etat.getZonesTampon() != null) {
+            for (EtatPiece.EtatZone ez : etat.getZonesTampon()) {
+                try {
+                    ZoneTampon zone = new ZoneTampon(ez.getX(), ez.getY(), 
+                        ez.getLargeur(), ez.getLongueur(), 
+                        ez.getDistance() != null ? ez.getDistance() : 0.0, 
+                        ez.getNom());
+                    zone.setId(ez.getId());
+                    piece.ajouterZoneTampon(zone);
+                } catch (Exception e) {
+                    System.err.println("Erreur lors de la restauration de la zone tampon: " + e.getMessage());
+                }
+            }
+        }
+        
+        // Restaurer le fil chauffant
+        if (etat.getFilChauffant() != null) {
+            EtatPiece.EtatFilChauffant ef = etat.getFilChauffant();
+            FilChauffant fil = piece.getFilChauffant();
+            if (fil != null) {
+                fil.setNom(ef.getNom());
+                fil.setDistanceFil(ef.getDistanceFil());
+                fil.setLongueurSouhaitee(ef.getLongueurSouhaitee());
+                fil.setActif(ef.isActif());
+                fil.setChemin(ef.getCheminCompact());
+            }
+        }
+        
+        // Restaurer la membrane (les anciens fichiers n'en ont pas : espacement à 0)
+        Graphe graphe = piece.getGraphe();
+        if (graphe != null && etat.getEspacementMembrane() > 0) {
+            graphe.setEspacement(etat.getEspacementMembrane());
+            graphe.setTranslationX(etat.getTranslationXMembrane());
+            graphe.setTranslationY(etat.getTranslationYMembrane());
+            graphe.setConfirmee(etat.isMembraneConfirmee());
+            if (etat.isMembraneGeneree()) {
+                graphe.genererGrapheAvecValidation(piece);
+            }
+        }
+        
+        return piece;
+    }
+}
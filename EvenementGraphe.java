@@ -0,0 +1,25 @@
+package domaine.diagnostic;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Génération du graphe des intersections (Graphe.genererGrapheAvecValidation)
+ */
+@Name("glo.Graphe")
+@Label("Génération du graphe")
+@Category({ "GLO", "Graphe" })
+@Description("Génération de la grille d'intersections de la membrane")
+public class EvenementGraphe extends EvenementPiece {
+
+    @Label("Espacement (1/32 po)")
+    public int espacement;
+
+    @Label("Membrane confirmée")
+    public boolean confirmee;
+
+    @Label("Intersections")
+    public int intersections;
+}
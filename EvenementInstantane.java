@@ -0,0 +1,26 @@
+package domaine.diagnostic;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Copie d'un état de la pièce dans une pile de l'historique (UndoRedo)
+ */
+@Name("glo.Instantane")
+@Label("Instantané de l'historique")
+@Category({ "GLO", "Historique" })
+public class EvenementInstantane extends EvenementPiece {
+
+    @Label("Pile")
+    public String pile; // "undo" ou "redo"
+
+    @Label("Meubles")
+    public int meubles;
+
+    @Label("Sommets du chemin")
+    public int points;
+
+    @Label("Profondeur de la pile")
+    public int profondeur;
+}
@@ -0,0 +1,31 @@
+package domaine.diagnostic;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Sauvegarde ou chargement d'une pièce (Controleur.sauvegarder, Controleur.charger)
+ */
+@Name("glo.Persistance")
+@Label("Sauvegarde ou chargement")
+@Category({ "GLO", "Persistance" })
+public class EvenementPersistance extends EvenementPiece {
+
+    @Label("Opération")
+    public String operation; // "sauvegarder" ou "charger"
+
+    @Label("Fichier")
+    public String fichier;
+
+    @Label("Taille du fichier")
+    @DataAmount
+    public long octets;
+
+    @Label("Meubles")
+    public int meubles;
+
+    @Label("Sommets du chemin")
+    public int points;
+}
@@ -0,0 +1,24 @@
+package domaine.diagnostic;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+/**
+ * Base des événements JFR de l'application : dimensions de la pièce concernée
+ *
+ * Les événements sont enregistrés par JDK Flight Recorder, sans agent, par exemple :
+ * java -XX:StartFlightRecording=filename=glo.jfr,settings=profile ...
+ * puis lus avec « jfr print --categories GLO glo.jfr » ou JDK Mission Control.
+ * Sans enregistrement en cours, begin() et commit() ne coûtent presque rien.
+ */
+@Category("GLO")
+@StackTrace(false)
+public abstract class EvenementPiece extends jdk.jfr.Event {
+
+    @Label("Largeur de la pièce (po)")
+    public int largeurPiece;
+
+    @Label("Longueur de la pièce (po)")
+    public int longueurPiece;
+}
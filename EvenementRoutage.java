@@ -0,0 +1,48 @@
+package domaine.diagnostic;
+
+import domaine.chauffage.CheminFil;
+import domaine.graphe.Graphe;
+import domaine.piece.Piece;
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Calcul du chemin du fil par une stratégie de routage
+ */
+@Name("glo.Routage")
+@Label("Routage du fil")
+@Category({ "GLO", "Routage" })
+public class EvenementRoutage extends EvenementPiece {
+
+    @Label("Stratégie")
+    public String strategie;
+
+    @Label("Intersections du graphe")
+    public int intersections;
+
+    @Label("Sommets du chemin")
+    public int points;
+
+    @Label("Longueur du chemin (po)")
+    public double longueurChemin;
+
+    /**
+     * Renseigne l'événement et l'enregistre (rien n'est lu si l'événement n'est pas enregistré)
+     */
+    public void terminer(String nomStrategie, Piece piece, Graphe graphe, CheminFil chemin) {
+        end();
+        if (!shouldCommit()) {
+            return;
+        }
+        strategie = nomStrategie;
+        largeurPiece = piece.getLargeur();
+        longueurPiece = piece.getLongueur();
+        intersections = graphe != null ? graphe.getIntersections().size() : 0;
+        if (chemin != null) {
+            points = chemin.taille();
+            longueurChemin = chemin.getLongueur();
+        }
+        commit();
+    }
+}
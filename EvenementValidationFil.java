@@ -0,0 +1,23 @@
+package domaine.diagnostic;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Validation des contraintes du fil (FilValidator.validerFil)
+ */
+@Name("glo.ValidationFil")
+@Label("Validation du fil")
+@Category({ "GLO", "Validation" })
+public class EvenementValidationFil extends EvenementPiece {
+
+    @Label("Sommets du chemin")
+    public int points;
+
+    @Label("Longueur du chemin (po)")
+    public double longueurChemin;
+
+    @Label("Erreurs")
+    public int erreurs;
+}
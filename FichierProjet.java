@@ -0,0 +1,298 @@
+package domaine.sauvegarde;
+
+import domaine.piece.Piece;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Fichier de projet regroupant plusieurs pièces (une maison complète)
+ *
+ * Structure du fichier :
+ * - En-tête : magique "GLPJ", version (short), drapeaux (short), nombre de pièces (int)
+ * - Table des matières : pour chaque pièce, son nom, la position (long) et la taille (int) de son contenu
+ * - Le contenu de chaque pièce, encodé avec FormatBinaire
+ *
+ * À l'ouverture, seule la table des matières est lue. Le contenu d'une pièce n'est mappé en
+ * mémoire (à sa position sur 64 bits : le projet peut dépasser 2 Gio, pas une pièce), décodé,
+ * puis reconstruit en Piece, que lorsqu'il est demandé.
+ * Les pièces jamais visitées sont recopiées telles quelles lors de la sauvegarde.
+ */
+public final class FichierProjet implements Closeable {
+
+    public static final int MAGIQUE = 0x474C504A; // "GLPJ"
+    public static final short VERSION = 1;
+    private static final int TAILLE_MIN_ENTREE = 13; // nom (au moins un octet), position et taille
+
+    private final FileChannel canal;
+    private final List<Entree> entrees;
+
+    /**
+     * Entrée de la table des matières
+     */
+    private static final class Entree {
+        private String nom;
+        private final long position;
+        private final int taille;
+        private EtatPiece etat; // décodé à la demande
+        private Piece piece; // reconstruite à la demande
+
+        Entree(String nom, long position, int taille) {
+            this.nom = nom;
+            this.position = position;
+            this.taille = taille;
+        }
+
+        Entree(String nom, Piece piece) {
+            this(nom, -1, 0);
+            this.piece = piece;
+        }
+    }
+
+    private FichierProjet(FileChannel canal, List<Entree> entrees) {
+        this.canal = canal;
+        this.entrees = entrees;
+    }
+
+    /**
+     * Crée un projet vide, sans fichier associé
+     */
+    public static FichierProjet nouveau() {
+        return new FichierProjet(null, new ArrayList<>());
+    }
+
+    /**
+     * Ouvre un fichier de projet : seule la table des matières est lue
+     * @param fichier Le fichier de projet
+     * @throws IOException Si le fichier est illisible ou n'est pas un projet
+     */
+    public static FichierProjet ouvrir(Path fichier) throws IOException {
+        FileChannel canal = FileChannel.open(fichier, StandardOpenOption.READ);
+        try {
+            long tailleFichier = canal.size();
+            // La table des matières est en tête : un mappage est limité à 2 Gio
+            MappedByteBuffer contenu = canal.map(FileChannel.MapMode.READ_ONLY, 0,
+                Math.min(tailleFichier, Integer.MAX_VALUE));
+            if (contenu.remaining() < 12 || contenu.getInt() != MAGIQUE) {
+                throw new IOException("Fichier de projet non reconnu");
+            }
+            short version = contenu.getShort();
+            if (version > VERSION) {
+                throw new IOException("Version de projet non supportée: " + version);
+            }
+            contenu.getShort(); // drapeaux (réservés)
+            int nombre = contenu.getInt();
+            if (nombre < 0 || (long) nombre * TAILLE_MIN_ENTREE > contenu.remaining()) {
+                throw new IOException("Table des matières corrompue");
+            }
+
+            List<Entree> entrees = new ArrayList<>(nombre);
+            for (int i = 0; i < nombre; i++) {
+                String nom = FormatBinaire.lireChaine(contenu);
+                long position = contenu.getLong();
+                int taille = contenu.getInt();
+                if (position < 0 || taille < 0 || position > tailleFichier - taille) {
+                    throw new IOException("Table des matières corrompue (pièce " + i + ")");
+                }
+                entrees.add(new Entree(nom, position, taille));
+            }
+            return new FichierProjet(canal, entrees);
+        } catch (IOException | RuntimeException e) {
+            canal.close();
+            if (e instanceof IOException io) throw io;
+            throw new IOException("Fichier de projet tronqué ou corrompu", e);
+        }
+    }
+
+    /**
+     * Indique si un fichier commence par l'en-tête d'un fichier de projet
+     */
+    public static boolean estFichierProjet(Path fichier) throws IOException {
+        try (FileChannel canal = FileChannel.open(fichier, StandardOpenOption.READ)) {
+            ByteBuffer tampon = ByteBuffer.allocate(4);
+            while (tampon.hasRemaining()) {
+                if (canal.read(tampon) < 0) return false;
+            }
+            tampon.flip();
+            return tampon.getInt() == MAGIQUE;
+        }
+    }
+
+    public int getNombrePieces() {
+        return entrees.size();
+    }
+
+    public List<String> getNoms() {
+        List<String> noms = new ArrayList<>(entrees.size());
+        for (Entree e : entrees) {
+            noms.add(e.nom);
+        }
+        return Collections.unmodifiableList(noms);
+    }
+
+    public String getNom(int index) {
+        return entree(index).nom;
+    }
+
+    public void renommer(int index, String nom) {
+        entree(index).nom = nom;
+    }
+
+    /**
+     * Indique si la pièce a déjà été reconstruite en mémoire
+     */
+    public boolean estMaterialisee(int index) {
+        return entree(index).piece != null;
+    }
+
+    /**
+     * Retourne l'état de la pièce, décodé depuis le fichier mappé au premier accès
+     */
+    public EtatPiece getEtat(int index) throws IOException {
+        Entree e = entree(index);
+        if (e.piece != null) {
+            return EtatPieceMapper.versEtat(e.piece);
+        }
+        if (e.etat == null) {
+            e.etat = FormatBinaire.decoder(tranche(e));
+        }
+        return e.etat;
+    }
+
+    /**
+     * Retourne la pièce, reconstruite au premier accès puis conservée (les modifications
+     * faites sur cette instance sont prises en compte à la sauvegarde)
+     */
+    public Piece getPiece(int index) throws IOException {
+        Entree e = entree(index);
+        if (e.piece == null) {
+            e.piece = EtatPieceMapper.versPiece(getEtat(index));
+            e.etat = null; // la pièce fait désormais foi
+        }
+        return e.piece;
+    }
+
+    /**
+     * Ajoute une pièce au projet
+     * @return L'index de la pièce ajoutée
+     */
+    public int ajouterPiece(String nom, Piece piece) {
+        if (piece == null) {
+            throw new IllegalArgumentException("Pièce invalide");
+        }
+        entrees.add(new Entree(nom, piece));
+        return entrees.size() - 1;
+    }
+
+    /**
+     * Remplace la pièce à l'index donné (par exemple après un undo, qui reconstruit la pièce)
+     */
+    public void remplacerPiece(int index, Piece piece) {
+        if (piece == null) {
+            throw new IllegalArgumentException("Pièce invalide");
+        }
+        Entree e = entree(index);
+        e.piece = piece;
+        e.etat = null;
+    }
+
+    public void supprimerPiece(int index) {
+        entrees.remove(entree(index));
+    }
+
+    /**
+     * Écrit le projet dans un fichier. Le fichier est d'abord écrit à côté puis déplacé :
+     * en cas d'échec, le fichier existant est intact et le fichier temporaire est supprimé.
+     * Le fichier actuellement mappé ne peut pas toujours être remplacé (Windows refuse le
+     * déplacement tant que le mappage existe) : sauvegarder alors sous un autre nom.
+     */
+    public void sauvegarder(Path fichier) throws IOException {
+        // Encoder les pièces (les pièces jamais visitées sont recopiées sans décodage)
+        List<ByteBuffer> contenus = new ArrayList<>(entrees.size());
+        for (Entree e : entrees) {
+            if (e.piece != null) {
+                contenus.add(FormatBinaire.encoder(EtatPieceMapper.versEtat(e.piece)));
+            } else {
+                contenus.add(tranche(e));
+            }
+        }
+
+        // En-tête et table des matières
+        FormatBinaire.Ecrivain toc = new FormatBinaire.Ecrivain(256);
+        toc.tampon(12).putInt(MAGIQUE).putShort(VERSION).putShort((short) 0).putInt(entrees.size());
+        int tailleToc = 12;
+        for (Entree e : entrees) {
+            tailleToc += tailleVarint(e.nom) + 12;
+        }
+        long position = tailleToc;
+        for (int i = 0; i < entrees.size(); i++) {
+            toc.chaine(entrees.get(i).nom);
+            toc.tampon(12).putLong(position).putInt(contenus.get(i).remaining());
+            position += contenus.get(i).remaining();
+        }
+        toc.tampon.flip();
+
+        Path temporaire = fichier.resolveSibling(fichier.getFileName() + ".tmp");
+        try {
+            try (FileChannel sortie = FileChannel.open(temporaire, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ecrireTout(sortie, toc.tampon);
+                for (ByteBuffer b : contenus) {
+                    ecrireTout(sortie, b);
+                }
+            }
+            Files.move(temporaire, fichier, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporaire);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (canal != null) {
+            canal.close();
+        }
+    }
+
+    private Entree entree(int index) {
+        if (index < 0 || index >= entrees.size()) {
+            throw new IllegalArgumentException("Index de pièce invalide: " + index);
+        }
+        return entrees.get(index);
+    }
+
+    /**
+     * Contenu d'une pièce du fichier ouvert, mappé à sa position
+     */
+    private ByteBuffer tranche(Entree e) throws IOException {
+        return canal.map(FileChannel.MapMode.READ_ONLY, e.position, e.taille);
+    }
+
+    private static int tailleVarint(String s) {
+        int octets = s == null ? 0 : s.getBytes(StandardCharsets.UTF_8).length;
+        int valeur = s == null ? 0 : octets + 1;
+        int taille = 1;
+        while ((valeur & ~0x7F) != 0) {
+            valeur >>>= 7;
+            taille++;
+        }
+        return taille + octets;
+    }
+
+    private static void ecrireTout(FileChannel canal, ByteBuffer b) throws IOException {
+        while (b.hasRemaining()) {
+            canal.write(b);
+        }
+    }
+}
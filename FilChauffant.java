@@ -1,7 +1,6 @@
 package domaine.chauffage;
 
 import java.awt.Point;
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -15,7 +14,7 @@ public class FilChauffant {
     private int distanceFil; // distance entre les spires du fil (en pouces)
     private int longueurSouhaitee; // longueur souhaitée du fil (en pouces)
     private boolean actif;
-    private List<Point> chemin; // Chemin du fil (liste de points/intersections)
+    private CheminFil chemin; // Chemin du fil (sommets compacts et immuables)
 
     public FilChauffant(String nom, int largeur, int longueur, int distanceFil) {
         this.nom = nom;
@@ -23,7 +22,7 @@ public class FilChauffant {
         this.longueur = longueur;
         this.distanceFil = distanceFil;
         this.actif = false; // Inactif par défaut
-        this.chemin = new ArrayList<>();
+        this.chemin = CheminFil.VIDE;
     }
 
     // === Getters et Setters ===
@@ -75,39 +74,45 @@ public class FilChauffant {
         this.actif = actif;
     }
 
+    /**
+     * Retourne une copie du chemin sous forme de points (préférer getCheminCompact())
+     */
     public List<Point> getChemin() {
-        return new ArrayList<>(chemin);
+        return chemin.versPoints();
+    }
+
+    /**
+     * Retourne le chemin compact, partageable sans copie puisqu'il est immuable
+     */
+    public CheminFil getCheminCompact() {
+        return chemin;
     }
 
     public void setChemin(List<Point> chemin) {
-        this.chemin = chemin != null ? new ArrayList<>(chemin) : new ArrayList<>();
+        this.chemin = CheminFil.depuisPoints(chemin);
+    }
+
+    public void setChemin(CheminFil chemin) {
+        this.chemin = chemin != null ? chemin : CheminFil.VIDE;
     }
 
     public void ajouterPointChemin(Point point) {
         if (point != null) {
-            this.chemin.add(new Point(point));
+            this.chemin = chemin.avec(point.x, point.y);
         }
     }
 
     public void viderChemin() {
-        this.chemin.clear();
+        this.chemin = CheminFil.VIDE;
     }
 
     /**
      * Calcule la longueur totale du fil chauffant nécessaire
      */
     public double calculerLongueurTotale() {
-        if (chemin != null && chemin.size() > 1) {
-            // Calculer la longueur réelle du chemin
-            double longueurTotale = 0;
-            for (int i = 0; i < chemin.size() - 1; i++) {
-                Point p1 = chemin.get(i);
-                Point p2 = chemin.get(i + 1);
-                double dx = p2.x - p1.x;
-                double dy = p2.y - p1.y;
-                longueurTotale += Math.sqrt(dx * dx + dy * dy);
-            }
-            return longueurTotale;
+        if (chemin.taille() > 1) {
+            // Longueur réelle du chemin (mise en cache dans le chemin)
+            return chemin.getLongueur();
         }
         // Fallback: calcul approximatif
         int nombreSpires = (int) Math.ceil((double) longueur / distanceFil);
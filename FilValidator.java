@@ -4,10 +4,13 @@ import domaine.piece.Piece;
 import domaine.meuble.Meuble;
 import domaine.meuble.MeubleAvecDrain;
 import domaine.meuble.Toilette;
+import domaine.chauffage.CheminFil;
 import domaine.chauffage.FilChauffant;
+import domaine.diagnostic.EvenementValidationFil;
 
 import java.awt.Point;
 import java.util.List;
+import java.util.concurrent.CancellationException;
 
 /**
  * Valide les contraintes du fil chauffant
@@ -28,6 +31,7 @@ public final class FilValidator {
      * @param piece La pièce
      * @param fil Le fil chauffant
      * @return Liste des messages d'erreur (vide si valide)
+     * @throws CancellationException si le fil est interrompu (délai dépassé, voir TraitementLot)
      */
     public static List<String> validerFil(Piece piece, FilChauffant fil) {
         List<String> erreurs = new java.util.ArrayList<>();
@@ -37,16 +41,19 @@ public final class FilValidator {
             return erreurs;
         }
         
-        List<Point> chemin = fil.getChemin();
-        if (chemin == null || chemin.size() < 2) {
+        CheminFil chemin = fil.getCheminCompact();
+        if (chemin == null || chemin.taille() < 2) {
             // Pas de chemin, pas d'erreur (le fil n'est peut-être pas encore calculé)
             return erreurs;
         }
+        EvenementValidationFil evenement = new EvenementValidationFil();
+        evenement.begin();
         
         // Valider chaque segment
-        for (int i = 0; i < chemin.size() - 1; i++) {
-            Point p1 = chemin.get(i);
-            Point p2 = chemin.get(i + 1);
+        for (int i = 0; i < chemin.taille() - 1; i++) {
+            verifierInterruption();
+            Point p1 = chemin.getPoint(i);
+            Point p2 = chemin.getPoint(i + 1);
             
             // Vérifier longueur du segment
             double longueurSegment = distance(p1, p2);
@@ -92,6 +99,15 @@ public final class FilValidator {
             erreurs.add(erreurDistanceFil);
         }
         
+        evenement.end();
+        if (evenement.shouldCommit()) {
+            evenement.largeurPiece = piece.getLargeur();
+            evenement.longueurPiece = piece.getLongueur();
+            evenement.points = chemin.taille();
+            evenement.longueurChemin = chemin.getLongueur();
+            evenement.erreurs = erreurs.size();
+            evenement.commit();
+        }
         return erreurs;
     }
     
@@ -152,45 +168,58 @@ public final class FilValidator {
         return null;
     }
     
-    private static String validerAutoCroisement(List<Point> chemin) {
+    // Les deux validations suivantes sont en O(n²) sur les segments : elles lisent
+    // directement les coordonnées du chemin compact, sans créer de Point
+    
+    private static String validerAutoCroisement(CheminFil chemin) {
         // Vérifier si le fil se croise lui-même
-        for (int i = 0; i < chemin.size() - 1; i++) {
-            Point p1 = chemin.get(i);
-            Point p2 = chemin.get(i + 1);
+        int n = chemin.taille();
+        for (int i = 0; i < n - 1; i++) {
+            int x1 = chemin.getX(i), y1 = chemin.getY(i);
+            int x2 = chemin.getX(i + 1), y2 = chemin.getY(i + 1);
+            verifierInterruption();
             
-            for (int j = i + 2; j < chemin.size() - 1; j++) {
-                Point p3 = chemin.get(j);
-                Point p4 = chemin.get(j + 1);
+            for (int j = i + 2; j < n - 1; j++) {
+                int x3 = chemin.getX(j), y3 = chemin.getY(j);
+                int x4 = chemin.getX(j + 1), y4 = chemin.getY(j + 1);
                 
-                if (segmentsSeCroisent(p1, p2, p3, p4)) {
+                if (segmentsSeCroisent(x1, y1, x2, y2, x3, y3, x4, y4)) {
                     return String.format("Le fil se croise entre (%d, %d)-(%d, %d) et (%d, %d)-(%d, %d)",
-                        p1.x, p1.y, p2.x, p2.y, p3.x, p3.y, p4.x, p4.y);
+                        x1, y1, x2, y2, x3, y3, x4, y4);
                 }
             }
         }
         return null;
     }
     
-    private static String validerDistanceEntreSegments(List<Point> chemin) {
+    private static String validerDistanceEntreSegments(CheminFil chemin) {
         // Vérifier que les segments sont à au moins 3 pouces les uns des autres
-        for (int i = 0; i < chemin.size() - 1; i++) {
-            Point p1 = chemin.get(i);
-            Point p2 = chemin.get(i + 1);
+        int n = chemin.taille();
+        for (int i = 0; i < n - 1; i++) {
+            int x1 = chemin.getX(i), y1 = chemin.getY(i);
+            int x2 = chemin.getX(i + 1), y2 = chemin.getY(i + 1);
+            verifierInterruption();
             
-            for (int j = i + 2; j < chemin.size() - 1; j++) {
-                Point p3 = chemin.get(j);
-                Point p4 = chemin.get(j + 1);
+            for (int j = i + 2; j < n - 1; j++) {
+                int x3 = chemin.getX(j), y3 = chemin.getY(j);
+                int x4 = chemin.getX(j + 1), y4 = chemin.getY(j + 1);
                 
-                double distMin = distanceMinEntreSegments(p1, p2, p3, p4);
+                double distMin = distanceMinEntreSegments(x1, y1, x2, y2, x3, y3, x4, y4);
                 if (distMin < DISTANCE_MIN_FIL) {
                     return String.format("Segments trop proches (%.1f\") entre (%d, %d)-(%d, %d) et (%d, %d)-(%d, %d). Minimum: %d\"",
-                        distMin, p1.x, p1.y, p2.x, p2.y, p3.x, p3.y, p4.x, p4.y, DISTANCE_MIN_FIL);
+                        distMin, x1, y1, x2, y2, x3, y3, x4, y4, DISTANCE_MIN_FIL);
                 }
             }
         }
         return null;
     }
     
+    private static void verifierInterruption() {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new CancellationException("Validation du fil interrompue");
+        }
+    }
+    
     private static double distance(Point p1, Point p2) {
         double dx = p1.x - p2.x;
         double dy = p1.y - p2.y;
@@ -203,12 +232,12 @@ public final class FilValidator {
         return distance(p, new Point(closestX, closestY));
     }
     
-    private static boolean segmentsSeCroisent(Point p1, Point p2, Point p3, Point p4) {
+    private static boolean segmentsSeCroisent(int x1, int y1, int x2, int y2, int x3, int y3, int x4, int y4) {
         // Algorithme pour vérifier si deux segments se croisent
-        int o1 = orientation(p1, p2, p3);
-        int o2 = orientation(p1, p2, p4);
-        int o3 = orientation(p3, p4, p1);
-        int o4 = orientation(p3, p4, p2);
+        int o1 = orientation(x1, y1, x2, y2, x3, y3);
+        int o2 = orientation(x1, y1, x2, y2, x4, y4);
+        int o3 = orientation(x3, y3, x4, y4, x1, y1);
+        int o4 = orientation(x3, y3, x4, y4, x2, y2);
         
         if (o1 != o2 && o3 != o4) {
             return true;
@@ -217,36 +246,42 @@ public final class FilValidator {
         return false;
     }
     
-    private static int orientation(Point p, Point q, Point r) {
-        int val = (q.y - p.y) * (r.x - q.x) - (q.x - p.x) * (r.y - q.y);
+    private static int orientation(int px, int py, int qx, int qy, int rx, int ry) {
+        int val = (qy - py) * (rx - qx) - (qx - px) * (ry - qy);
         if (val == 0) return 0; // Colinéaire
         return (val > 0) ? 1 : 2; // Sens horaire ou anti-horaire
     }
     
-    private static double distanceMinEntreSegments(Point p1, Point p2, Point p3, Point p4) {
+    private static double distanceMinEntreSegments(int x1, int y1, int x2, int y2, int x3, int y3, int x4, int y4) {
         // Distance minimale entre deux segments
         double minDist = Double.MAX_VALUE;
         
         // Distance entre extrémités
-        minDist = Math.min(minDist, distance(p1, p3));
-        minDist = Math.min(minDist, distance(p1, p4));
-        minDist = Math.min(minDist, distance(p2, p3));
-        minDist = Math.min(minDist, distance(p2, p4));
+        minDist = Math.min(minDist, distance(x1, y1, x3, y3));
+        minDist = Math.min(minDist, distance(x1, y1, x4, y4));
+        minDist = Math.min(minDist, distance(x2, y2, x3, y3));
+        minDist = Math.min(minDist, distance(x2, y2, x4, y4));
         
         // Distance entre points et segments (approximation)
-        minDist = Math.min(minDist, distancePointSegment(p1, p3, p4));
-        minDist = Math.min(minDist, distancePointSegment(p2, p3, p4));
-        minDist = Math.min(minDist, distancePointSegment(p3, p1, p2));
-        minDist = Math.min(minDist, distancePointSegment(p4, p1, p2));
+        minDist = Math.min(minDist, distancePointSegment(x1, y1, x3, y3, x4, y4));
+        minDist = Math.min(minDist, distancePointSegment(x2, y2, x3, y3, x4, y4));
+        minDist = Math.min(minDist, distancePointSegment(x3, y3, x1, y1, x2, y2));
+        minDist = Math.min(minDist, distancePointSegment(x4, y4, x1, y1, x2, y2));
         
         return minDist;
     }
     
-    private static double distancePointSegment(Point p, Point s1, Point s2) {
-        double A = p.x - s1.x;
-        double B = p.y - s1.y;
-        double C = s2.x - s1.x;
-        double D = s2.y - s1.y;
+    private static double distance(int x1, int y1, int x2, int y2) {
+        double dx = x1 - x2;
+        double dy = y1 - y2;
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+    
+    private static double distancePointSegment(int px, int py, int s1x, int s1y, int s2x, int s2y) {
+        double A = px - s1x;
+        double B = py - s1y;
+        double C = s2x - s1x;
+        double D = s2y - s1y;
         
         double dot = A * C + B * D;
         double lenSq = C * C + D * D;
@@ -254,18 +289,18 @@ public final class FilValidator {
         
         double xx, yy;
         if (param < 0) {
-            xx = s1.x;
-            yy = s1.y;
+            xx = s1x;
+            yy = s1y;
         } else if (param > 1) {
-            xx = s2.x;
-            yy = s2.y;
+            xx = s2x;
+            yy = s2y;
         } else {
-            xx = s1.x + param * C;
-            yy = s1.y + param * D;
+            xx = s1x + param * C;
+            yy = s1y + param * D;
         }
         
-        double dx = p.x - xx;
-        double dy = p.y - yy;
+        double dx = px - xx;
+        double dy = py - yy;
         return Math.sqrt(dx * dx + dy * dy);
     }
 }
@@ -1,19 +1,24 @@
 package domaine.dto;
 
+import domaine.chauffage.CheminFil;
+
 import java.awt.Point;
 import java.util.List;
 
 /**
  * DTO pour la communication des données de fil chauffant
+ * Les DTO retournés par le contrôleur (PieceMapper) sont en lecture seule : voir estFige.
  */
 public class FliChauffantDTO {
     private String nom;
     private double longueur;
     private double distanceEnroulement;
+    private int longueurSouhaitee; // longueur demandée lors du dernier calcul (0 si aucune)
     private boolean actif;
     private List<MembraneDTO> membranes;
     private List<IntersectionDTO> intersections;
-    private List<Point> chemin; // Chemin du fil (liste de points)
+    private CheminFil chemin; // Chemin du fil (compact, partagé sans copie avec le modèle)
+    private boolean fige; // partagé en lecture seule (voir figer)
 
     public FliChauffantDTO() {
     }
@@ -31,6 +36,7 @@ public class FliChauffantDTO {
     }
 
     public void setNom(String nom) {
+        verifierModifiable();
         this.nom = nom;
     }
 
@@ -39,6 +45,7 @@ public class FliChauffantDTO {
     }
 
     public void setLongueur(double longueur) {
+        verifierModifiable();
         this.longueur = longueur;
     }
 
@@ -47,14 +54,25 @@ public class FliChauffantDTO {
     }
 
     public void setDistanceEnroulement(double distanceEnroulement) {
+        verifierModifiable();
         this.distanceEnroulement = distanceEnroulement;
     }
 
+    public int getLongueurSouhaitee() {
+        return longueurSouhaitee;
+    }
+
+    public void setLongueurSouhaitee(int longueurSouhaitee) {
+        verifierModifiable();
+        this.longueurSouhaitee = longueurSouhaitee;
+    }
+
     public boolean isActif() {
         return actif;
     }
 
     public void setActif(boolean actif) {
+        verifierModifiable();
         this.actif = actif;
     }
 
@@ -63,6 +81,7 @@ public class FliChauffantDTO {
     }
 
     public void setMembranes(List<MembraneDTO> membranes) {
+        verifierModifiable();
         this.membranes = membranes;
     }
 
@@ -71,14 +90,49 @@ public class FliChauffantDTO {
     }
 
     public void setIntersections(List<IntersectionDTO> intersections) {
+        verifierModifiable();
         this.intersections = intersections;
     }
 
+    /**
+     * Vue en lecture seule du chemin sous forme de points (null si aucun chemin)
+     */
     public List<Point> getChemin() {
-        return chemin;
+        return chemin != null ? chemin.commeListe() : null;
     }
 
     public void setChemin(List<Point> chemin) {
+        verifierModifiable();
+        this.chemin = chemin != null ? CheminFil.depuisPoints(chemin) : null;
+    }
+
+    public CheminFil getCheminCompact() {
+        return chemin;
+    }
+
+    public void setCheminCompact(CheminFil chemin) {
+        verifierModifiable();
         this.chemin = chemin;
     }
+
+    /**
+     * Rend le DTO non modifiable (DTO partagé par le cache de PieceMapper)
+     */
+    FliChauffantDTO figer() {
+        fige = true;
+        return this;
+    }
+
+    /**
+     * Indique si le DTO est partagé en lecture seule : ses setters lèvent IllegalStateException
+     */
+    public boolean estFige() {
+        return fige;
+    }
+
+    private void verifierModifiable() {
+        if (fige) {
+            throw new IllegalStateException("DTO partagé en lecture seule");
+        }
+    }
 }
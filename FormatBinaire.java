@@ -0,0 +1,653 @@
+package domaine.sauvegarde;
+
+import domaine.chauffage.CheminFil;
+
+import java.awt.Point;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Format binaire versionné pour la sauvegarde d'une pièce (remplace la sérialisation Java)
+ *
+ * Structure du fichier :
+ * - En-tête fixe de 12 octets : magique "GLOP", version (short), drapeaux (short), nombre de sections (int)
+ * - Une section par type d'entité : étiquette (octet), longueur (int), contenu
+ *
+ * Les entiers sont encodés en varint (zigzag pour les valeurs signées) et les listes de points
+ * (contour, chemin du fil) en deltas successifs, ce qui réduit un long chemin à 2 octets par point.
+ * Un lecteur ignore les sections dont il ne connaît pas l'étiquette.
+ *
+ * Si le drapeau DRAPEAU_DEFLATE est présent, l'en-tête est suivi de la taille décompressée (int)
+ * puis des sections compressées avec Deflate.
+ */
+public final class FormatBinaire {
+
+    public static final int MAGIQUE = 0x474C4F50; // "GLOP"
+    public static final short VERSION = 1;
+    public static final int TAILLE_EN_TETE = 12;
+    public static final short DRAPEAU_DEFLATE = 1;
+
+    // Étiquettes des sections
+    static final byte SECTION_PIECE = 1;
+    static final byte SECTION_MEUBLES = 2;
+    static final byte SECTION_ELEMENTS = 3;
+    static final byte SECTION_ZONES_INTERDICTION = 4;
+    static final byte SECTION_ZONES_TAMPON = 5;
+    static final byte SECTION_FIL = 6;
+    static final byte SECTION_MEMBRANE = 7;
+
+    private static final int TAILLE_INITIALE = 4096;
+    private static final int TAILLE_MIN_ENTITE = 16; // meuble ou élément : 7 varints, un double et un octet
+    private static final int TAILLE_MIN_ZONE = 6; // 6 varints
+    private static final long RATIO_DEFLATE_MAX = 1032; // facteur d'expansion maximal de Deflate
+
+    private FormatBinaire() {}
+
+    // ==================== FICHIERS ====================
+
+    /**
+     * Écrit l'état d'une pièce dans un fichier
+     * Le fichier est écrit à côté puis remplacé en une fois : une erreur en cours d'écriture
+     * laisse la sauvegarde précédente intacte.
+     * @param etat L'état à écrire
+     * @param fichier Le fichier de destination (remplacé s'il existe)
+     */
+    public static void ecrire(EtatPiece etat, Path fichier) throws IOException {
+        ByteBuffer tampon = encoder(etat);
+        Path temporaire = fichier.resolveSibling(fichier.getFileName() + ".tmp");
+        try {
+            try (FileChannel canal = FileChannel.open(temporaire, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                while (tampon.hasRemaining()) {
+                    canal.write(tampon);
+                }
+                canal.force(true);
+            }
+            Files.move(temporaire, fichier, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporaire);
+        }
+    }
+
+    /**
+     * Lit l'état d'une pièce depuis un fichier
+     * @param fichier Le fichier à lire
+     * @return L'état décodé
+     * @throws IOException Si le fichier est illisible ou n'est pas dans ce format
+     */
+    public static EtatPiece lire(Path fichier) throws IOException {
+        try (FileChannel canal = FileChannel.open(fichier, StandardOpenOption.READ)) {
+            long taille = canal.size();
+            if (taille > Integer.MAX_VALUE) {
+                throw new IOException("Fichier trop volumineux: " + taille + " octets");
+            }
+            ByteBuffer tampon = ByteBuffer.allocateDirect((int) taille);
+            while (tampon.hasRemaining()) {
+                if (canal.read(tampon) < 0) {
+                    throw new IOException("Fin de fichier inattendue");
+                }
+            }
+            tampon.flip();
+            return decoder(tampon);
+        }
+    }
+
+    /**
+     * Indique si un fichier commence par l'en-tête de ce format
+     */
+    public static boolean estFormatBinaire(Path fichier) throws IOException {
+        try (FileChannel canal = FileChannel.open(fichier, StandardOpenOption.READ)) {
+            ByteBuffer tampon = ByteBuffer.allocate(4);
+            while (tampon.hasRemaining()) {
+                if (canal.read(tampon) < 0) return false;
+            }
+            tampon.flip();
+            return tampon.getInt() == MAGIQUE;
+        }
+    }
+
+    // ==================== ENCODAGE ====================
+
+    /**
+     * Encode l'état d'une pièce dans un tampon direct prêt à être écrit (position 0, limite = taille)
+     */
+    public static ByteBuffer encoder(EtatPiece etat) {
+        if (etat == null) {
+            throw new IllegalArgumentException("État invalide");
+        }
+        Ecrivain e = new Ecrivain(TAILLE_INITIALE);
+        e.tampon.putInt(MAGIQUE);
+        e.tampon.putShort(VERSION);
+        e.tampon.putShort((short) 0);
+        int positionNombreSections = e.tampon.position();
+        e.tampon.putInt(0);
+
+        int sections = 0;
+
+        e.debutSection(SECTION_PIECE);
+        e.varint(etat.getLargeur());
+        e.varint(etat.getLongueur());
+        e.points(etat.getPoints());
+        e.finSection();
+        sections++;
+
+        if (etat.getMeubles() != null && !etat.getMeubles().isEmpty()) {
+            e.debutSection(SECTION_MEUBLES);
+            e.varint(etat.getMeubles().size());
+            for (EtatPiece.EtatMeuble m : etat.getMeubles()) {
+                e.meuble(m);
+            }
+            e.finSection();
+            sections++;
+        }
+
+        if (etat.getElementsChauffants() != null && !etat.getElementsChauffants().isEmpty()) {
+            e.debutSection(SECTION_ELEMENTS);
+            e.varint(etat.getElementsChauffants().size());
+            for (EtatPiece.EtatElementChauffant el : etat.getElementsChauffants()) {
+                e.element(el);
+            }
+            e.finSection();
+            sections++;
+        }
+
+        if (etat.getZonesInterdiction() != null && !etat.getZonesInterdiction().isEmpty()) {
+            e.debutSection(SECTION_ZONES_INTERDICTION);
+            e.zones(etat.getZonesInterdiction(), false);
+            e.finSection();
+            sections++;
+        }
+
+        if (etat.getZonesTampon() != null && !etat.getZonesTampon().isEmpty()) {
+            e.debutSection(SECTION_ZONES_TAMPON);
+            e.zones(etat.getZonesTampon(), true);
+            e.finSection();
+            sections++;
+        }
+
+        EtatPiece.EtatFilChauffant fil = etat.getFilChauffant();
+        if (fil != null) {
+            e.debutSection(SECTION_FIL);
+            e.fil(fil);
+            e.finSection();
+            sections++;
+        }
+
+        if (etat.getEspacementMembrane() > 0) {
+            e.debutSection(SECTION_MEMBRANE);
+            e.membrane(etat);
+            e.finSection();
+            sections++;
+        }
+
+        e.tampon.putInt(positionNombreSections, sections);
+        e.tampon.flip();
+        return e.tampon;
+    }
+
+    // ==================== DÉCODAGE ====================
+
+    /**
+     * Décode l'état d'une pièce à partir de la position courante du tampon
+     * (tampon direct, mappé en mémoire ou sur le tas)
+     * @throws IOException Si l'en-tête ou une section est invalide
+     */
+    public static EtatPiece decoder(ByteBuffer source) throws IOException {
+        ByteBuffer tampon = source.slice().order(ByteOrder.BIG_ENDIAN);
+        try {
+            if (tampon.remaining() < TAILLE_EN_TETE || tampon.getInt() != MAGIQUE) {
+                throw new IOException("Format de fichier non reconnu");
+            }
+            short version = tampon.getShort();
+            if (version > VERSION) {
+                throw new IOException("Version de format non supportée: " + version);
+            }
+            short drapeaux = tampon.getShort();
+            int sections = tampon.getInt();
+            if ((drapeaux & DRAPEAU_DEFLATE) != 0) {
+                tampon = decompresser(tampon);
+            }
+
+            EtatPiece etat = new EtatPiece();
+            for (int i = 0; i < sections; i++) {
+                byte etiquette = tampon.get();
+                int longueur = tampon.getInt();
+                if (longueur < 0 || longueur > tampon.remaining()) {
+                    throw new IOException("Section corrompue (étiquette " + etiquette + ")");
+                }
+                int fin = tampon.position() + longueur;
+                ByteBuffer section = tampon.slice();
+                section.limit(longueur);
+                lireSection(etiquette, section, etat);
+                tampon.position(fin);
+            }
+            return etat;
+        } catch (RuntimeException ex) {
+            // BufferUnderflow, taille invalide, etc. : un fichier corrompu n'est jamais qu'une IOException
+            throw new IOException("Fichier tronqué ou corrompu", ex);
+        }
+    }
+
+    // ==================== COMPRESSION ====================
+
+    /**
+     * Compresse un contenu produit par encoder() : l'en-tête reste lisible, les sections sont compressées
+     * @param encode Le contenu encodé (non modifié)
+     * @param progression Reçoit la fraction du contenu traitée (0 à 1), peut être null
+     * @return Un tampon direct prêt à être écrit
+     */
+    public static ByteBuffer compresser(ByteBuffer encode, java.util.function.DoubleConsumer progression) {
+        ByteBuffer source = encode.duplicate();
+        int total = source.remaining() - TAILLE_EN_TETE;
+        if (total < 0) {
+            throw new IllegalArgumentException("Contenu encodé invalide");
+        }
+        ByteBuffer resultat = ByteBuffer.allocateDirect(TAILLE_EN_TETE + 4 + total + total / 1000 + 64);
+        resultat.putInt(source.getInt());
+        resultat.putShort(source.getShort());
+        resultat.putShort((short) (source.getShort() | DRAPEAU_DEFLATE));
+        resultat.putInt(source.getInt());
+        resultat.putInt(total);
+
+        java.util.zip.Deflater deflater = new java.util.zip.Deflater(java.util.zip.Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(source);
+            deflater.finish();
+            while (!deflater.finished()) {
+                if (!resultat.hasRemaining()) {
+                    ByteBuffer plusGrand = ByteBuffer.allocateDirect(resultat.capacity() * 2);
+                    resultat.flip();
+                    plusGrand.put(resultat);
+                    resultat = plusGrand;
+                }
+                deflater.deflate(resultat);
+                if (progression != null && total > 0) {
+                    progression.accept(Math.min(1.0, deflater.getBytesRead() / (double) total));
+                }
+            }
+        } finally {
+            deflater.end();
+        }
+        resultat.flip();
+        return resultat;
+    }
+
+    private static ByteBuffer decompresser(ByteBuffer tampon) throws IOException {
+        int taille = tampon.getInt();
+        if (taille < 0 || taille > tampon.remaining() * RATIO_DEFLATE_MAX + 64) {
+            throw new IOException("Taille décompressée invalide");
+        }
+        ByteBuffer resultat = ByteBuffer.allocateDirect(taille);
+        java.util.zip.Inflater inflater = new java.util.zip.Inflater();
+        try {
+            inflater.setInput(tampon);
+            while (resultat.hasRemaining() && !inflater.finished()) {
+                if (inflater.inflate(resultat) == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IOException("Contenu compressé tronqué");
+                }
+            }
+        } catch (java.util.zip.DataFormatException e) {
+            throw new IOException("Contenu compressé corrompu", e);
+        } finally {
+            inflater.end();
+        }
+        resultat.flip();
+        return resultat;
+    }
+
+    private static void lireSection(byte etiquette, ByteBuffer b, EtatPiece etat) {
+        switch (etiquette) {
+            case SECTION_PIECE:
+                etat.setLargeur(lireVarint(b));
+                etat.setLongueur(lireVarint(b));
+                etat.setPoints(lirePoints(b));
+                break;
+            case SECTION_MEUBLES: {
+                int n = lireTaille(b, TAILLE_MIN_ENTITE);
+                List<EtatPiece.EtatMeuble> meubles = new ArrayList<>(n);
+                for (int i = 0; i < n; i++) {
+                    meubles.add(lireMeuble(b));
+                }
+                etat.setMeubles(meubles);
+                break;
+            }
+            case SECTION_ELEMENTS: {
+                int n = lireTaille(b, TAILLE_MIN_ENTITE);
+                List<EtatPiece.EtatElementChauffant> elements = new ArrayList<>(n);
+                for (int i = 0; i < n; i++) {
+                    elements.add(lireElement(b));
+                }
+                etat.setElementsChauffants(elements);
+                break;
+            }
+            case SECTION_ZONES_INTERDICTION:
+                etat.setZonesInterdiction(lireZones(b, false, "ZoneInterdiction"));
+                break;
+            case SECTION_ZONES_TAMPON:
+                etat.setZonesTampon(lireZones(b, true, "ZoneTampon"));
+                break;
+            case SECTION_FIL:
+                etat.setFilChauffant(lireFil(b));
+                break;
+            case SECTION_MEMBRANE:
+                lireMembrane(b, etat);
+                break;
+            default:
+                // Section inconnue (version plus récente) : ignorée
+                break;
+        }
+    }
+
+    private static List<EtatPiece.EtatZone> lireZones(ByteBuffer b, boolean avecDistance, String type) {
+        int n = lireTaille(b, TAILLE_MIN_ZONE);
+        List<EtatPiece.EtatZone> zones = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            zones.add(lireZone(b, avecDistance, type));
+        }
+        return zones;
+    }
+
+    // ==================== ENTITÉS (partagées avec le journal d'autosauvegarde) ====================
+
+    static EtatPiece.EtatMeuble lireMeuble(ByteBuffer b) {
+        EtatPiece.EtatMeuble m = new EtatPiece.EtatMeuble();
+        m.setId(lireVarint(b));
+        m.setType(lireChaine(b));
+        m.setNom(lireChaine(b));
+        m.setX(lireSigne(b));
+        m.setY(lireSigne(b));
+        m.setLargeur(lireVarint(b));
+        m.setLongueur(lireVarint(b));
+        m.setAngle(b.getDouble());
+        if (b.get() != 0) {
+            m.setDrainX(lireSigne(b));
+            m.setDrainY(lireSigne(b));
+            int diametre = lireSigne(b);
+            m.setDiametreDrain(diametre > 0 ? diametre - 1 : null);
+        }
+        return m;
+    }
+
+    static EtatPiece.EtatElementChauffant lireElement(ByteBuffer b) {
+        EtatPiece.EtatElementChauffant el = new EtatPiece.EtatElementChauffant();
+        el.setId(lireVarint(b));
+        el.setType(lireChaine(b));
+        el.setNom(lireChaine(b));
+        el.setX(lireSigne(b));
+        el.setY(lireSigne(b));
+        el.setLargeur(lireVarint(b));
+        el.setLongueur(lireVarint(b));
+        el.setAngle(b.getDouble());
+        el.setActif(b.get() != 0);
+        return el;
+    }
+
+    static EtatPiece.EtatZone lireZone(ByteBuffer b, boolean avecDistance, String type) {
+        EtatPiece.EtatZone z = new EtatPiece.EtatZone();
+        z.setId(lireVarint(b));
+        z.setType(type);
+        z.setNom(lireChaine(b));
+        z.setX(lireSigne(b));
+        z.setY(lireSigne(b));
+        z.setLargeur(lireVarint(b));
+        z.setLongueur(lireVarint(b));
+        if (avecDistance) {
+            z.setDistance(b.getDouble());
+        }
+        return z;
+    }
+
+    static EtatPiece.EtatFilChauffant lireFil(ByteBuffer b) {
+        EtatPiece.EtatFilChauffant fil = new EtatPiece.EtatFilChauffant();
+        fil.setNom(lireChaine(b));
+        fil.setLargeur(lireVarint(b));
+        fil.setLongueur(lireVarint(b));
+        fil.setDistanceFil(lireVarint(b));
+        fil.setLongueurSouhaitee(lireVarint(b));
+        fil.setActif(b.get() != 0);
+        fil.setCheminCompact(lireChemin(b));
+        return fil;
+    }
+
+    static void lireMembrane(ByteBuffer b, EtatPiece etat) {
+        etat.setEspacementMembrane(lireVarint(b));
+        etat.setTranslationXMembrane(lireSigne(b));
+        etat.setTranslationYMembrane(lireSigne(b));
+        byte drapeaux = b.get();
+        etat.setMembraneConfirmee((drapeaux & 1) != 0);
+        etat.setMembraneGeneree((drapeaux & 2) != 0);
+    }
+
+    // ==================== PRIMITIVES ====================
+
+    static int lireVarint(ByteBuffer b) {
+        int valeur = 0;
+        int decalage = 0;
+        byte octet;
+        do {
+            if (decalage > 28) {
+                throw new IllegalArgumentException("Varint invalide");
+            }
+            octet = b.get();
+            valeur |= (octet & 0x7F) << decalage;
+            decalage += 7;
+        } while ((octet & 0x80) != 0);
+        return valeur;
+    }
+
+    /**
+     * Lit un nombre d'éléments ou une longueur venant du fichier, avant toute allocation
+     * @param tailleMin Nombre minimal d'octets occupés par un élément
+     * @throws IllegalArgumentException Si la valeur est négative ou dépasse les octets restants
+     */
+    static int lireTaille(ByteBuffer b, int tailleMin) {
+        int n = lireVarint(b);
+        if (n < 0 || (long) n * tailleMin > b.remaining()) {
+            throw new IllegalArgumentException("Taille invalide: " + n);
+        }
+        return n;
+    }
+
+    static int lireSigne(ByteBuffer b) {
+        int v = lireVarint(b);
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    static String lireChaine(ByteBuffer b) {
+        int longueur = lireTaille(b, 1); // longueur + 1, 0 pour null
+        if (longueur == 0) return null;
+        byte[] octets = new byte[longueur - 1];
+        b.get(octets);
+        return new String(octets, StandardCharsets.UTF_8);
+    }
+
+    static CheminFil lireChemin(ByteBuffer b) {
+        int n = lireTaille(b, 2);
+        CheminFil.Constructeur chemin = new CheminFil.Constructeur(n);
+        int x = 0, y = 0;
+        for (int i = 0; i < n; i++) {
+            x += lireSigne(b);
+            y += lireSigne(b);
+            chemin.ajouter(x, y);
+        }
+        return chemin.construire();
+    }
+
+    static List<Point> lirePoints(ByteBuffer b) {
+        int n = lireTaille(b, 2);
+        List<Point> points = new ArrayList<>(n);
+        int x = 0, y = 0;
+        for (int i = 0; i < n; i++) {
+            x += lireSigne(b);
+            y += lireSigne(b);
+            points.add(new Point(x, y));
+        }
+        return points;
+    }
+
+    /**
+     * Écrivain sur un tampon direct qui s'agrandit au besoin
+     */
+    static final class Ecrivain {
+        ByteBuffer tampon;
+        private int debutSection = -1;
+
+        Ecrivain(int capacite) {
+            this.tampon = ByteBuffer.allocateDirect(capacite);
+        }
+
+        /**
+         * Garantit qu'il reste au moins n octets et retourne le tampon
+         */
+        ByteBuffer tampon(int n) {
+            if (tampon.remaining() < n) {
+                int capacite = Math.max(tampon.capacity() * 2, tampon.position() + n);
+                ByteBuffer nouveau = ByteBuffer.allocateDirect(capacite);
+                tampon.flip();
+                nouveau.put(tampon);
+                tampon = nouveau;
+            }
+            return tampon;
+        }
+
+        void debutSection(byte etiquette) {
+            tampon(5).put(etiquette);
+            debutSection = tampon.position();
+            tampon.putInt(0);
+        }
+
+        void finSection() {
+            tampon.putInt(debutSection, tampon.position() - debutSection - 4);
+            debutSection = -1;
+        }
+
+        void varint(int valeur) {
+            ByteBuffer t = tampon(5);
+            while ((valeur & ~0x7F) != 0) {
+                t.put((byte) ((valeur & 0x7F) | 0x80));
+                valeur >>>= 7;
+            }
+            t.put((byte) valeur);
+        }
+
+        void signe(int valeur) {
+            varint((valeur << 1) ^ (valeur >> 31));
+        }
+
+        void chaine(String s) {
+            if (s == null) {
+                varint(0);
+                return;
+            }
+            byte[] octets = s.getBytes(StandardCharsets.UTF_8);
+            varint(octets.length + 1);
+            tampon(octets.length).put(octets);
+        }
+
+        void points(List<Point> points) {
+            if (points == null) {
+                varint(0);
+                return;
+            }
+            varint(points.size());
+            int x = 0, y = 0;
+            for (Point p : points) {
+                signe(p.x - x);
+                signe(p.y - y);
+                x = p.x;
+                y = p.y;
+            }
+        }
+
+        void chemin(CheminFil chemin) {
+            if (chemin == null) {
+                varint(0);
+                return;
+            }
+            varint(chemin.taille());
+            int x = 0, y = 0;
+            for (int i = 0; i < chemin.taille(); i++) {
+                signe(chemin.getX(i) - x);
+                signe(chemin.getY(i) - y);
+                x = chemin.getX(i);
+                y = chemin.getY(i);
+            }
+        }
+
+        void zones(List<EtatPiece.EtatZone> zones, boolean avecDistance) {
+            varint(zones.size());
+            for (EtatPiece.EtatZone z : zones) {
+                zone(z, avecDistance);
+            }
+        }
+
+        void zone(EtatPiece.EtatZone z, boolean avecDistance) {
+            varint(z.getId());
+            chaine(z.getNom());
+            signe(z.getX());
+            signe(z.getY());
+            varint(z.getLargeur());
+            varint(z.getLongueur());
+            if (avecDistance) {
+                tampon(8).putDouble(z.getDistance() != null ? z.getDistance() : 0.0);
+            }
+        }
+
+        void meuble(EtatPiece.EtatMeuble m) {
+            varint(m.getId());
+            chaine(m.getType());
+            chaine(m.getNom());
+            signe(m.getX());
+            signe(m.getY());
+            varint(m.getLargeur());
+            varint(m.getLongueur());
+            tampon(8).putDouble(m.getAngle());
+            boolean drain = m.getDrainX() != null && m.getDrainY() != null;
+            tampon(1).put((byte) (drain ? 1 : 0));
+            if (drain) {
+                signe(m.getDrainX());
+                signe(m.getDrainY());
+                signe(m.getDiametreDrain() != null ? m.getDiametreDrain() + 1 : 0);
+            }
+        }
+
+        void element(EtatPiece.EtatElementChauffant el) {
+            varint(el.getId());
+            chaine(el.getType());
+            chaine(el.getNom());
+            signe(el.getX());
+            signe(el.getY());
+            varint(el.getLargeur());
+            varint(el.getLongueur());
+            tampon(8).putDouble(el.getAngle());
+            tampon(1).put((byte) (el.isActif() ? 1 : 0));
+        }
+
+        void fil(EtatPiece.EtatFilChauffant fil) {
+            chaine(fil.getNom());
+            varint(fil.getLargeur());
+            varint(fil.getLongueur());
+            varint(fil.getDistanceFil());
+            varint(fil.getLongueurSouhaitee());
+            tampon(1).put((byte) (fil.isActif() ? 1 : 0));
+            chemin(fil.getCheminCompact());
+        }
+
+        void membrane(EtatPiece etat) {
+            varint(etat.getEspacementMembrane());
+            signe(etat.getTranslationXMembrane());
+            signe(etat.getTranslationYMembrane());
+            int drapeaux = (etat.isMembraneConfirmee() ? 1 : 0) | (etat.isMembraneGeneree() ? 2 : 0);
+            tampon(1).put((byte) drapeaux);
+        }
+    }
+}
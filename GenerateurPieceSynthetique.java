@@ -0,0 +1,239 @@
+package domaine.banc;
+
+import domaine.chauffage.Thermostat;
+import domaine.meuble.Meuble;
+import domaine.meuble.MeubleAvecDrain;
+import domaine.meuble.MeubleFactory;
+import domaine.meuble.TypeMeuble;
+import domaine.piece.Piece;
+import domaine.piece.PieceFactory;
+import domaine.validation.PieceValidator;
+import domaine.zone.ZoneInterdiction;
+import domaine.zone.ZoneTampon;
+
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Supplier;
+
+/**
+ * Générateur de pièces synthétiques pour les bancs d'essai et les tests de charge
+ *
+ * Contour rectangulaire (4 sommets) ou irrégulier en escalier (nombre pair de sommets),
+ * meubles de tous les TypeMeuble avec drains placés au hasard dans le meuble, zones
+ * d'interdiction et tampons, et un thermostat collé à un mur. Les meubles et les zones
+ * occupent des cases distinctes d'une grille, entièrement dans le contour, et la pièce
+ * passe par les validations de Piece (PieceValidator).
+ * Une même graine et les mêmes paramètres donnent toujours la même pièce (hors ids).
+ */
+public final class GenerateurPieceSynthetique {
+
+    private static final int CASE = 66; // côté d'une case de la grille (meuble de 60" au plus)
+    private static final int MARGE = 3; // entre un meuble et le bord de sa case
+    private static final int MARCHE = 6; // pas des hauteurs de l'escalier
+    private static final int LARGEUR_MIN_MARCHE = 12;
+    private static final int[] DISTANCES_TAMPON = { 3, 6, 12 };
+
+    // Dimensions min et max (largeur, longueur) par type, dans l'ordre de TypeMeuble
+    private static final int[][] DIMENSIONS = {
+        { 18, 24, 36, 48 },  // placard
+        { 24, 18, 60, 24 },  // armoire
+        { 18, 26, 22, 30 },  // toilette
+        { 32, 32, 48, 48 },  // douche
+        { 54, 30, 60, 36 },  // bain
+        { 24, 18, 48, 24 },  // vanité
+    };
+
+    private final long graine;
+
+    public GenerateurPieceSynthetique(long graine) {
+        this.graine = graine;
+    }
+
+    public long getGraine() {
+        return graine;
+    }
+
+    /**
+     * Génère une pièce
+     * @param sommets 4 pour une pièce rectangulaire, sinon un nombre pair d'au moins 6 (escalier)
+     * @param meubles nombre de meubles
+     * @param zones nombre de zones (interdiction ou tampon, au hasard)
+     * @throws IllegalArgumentException si les paramètres sont invalides ou si la pièce est trop petite
+     */
+    public Piece generer(int largeur, int longueur, int sommets, int meubles, int zones) {
+        String erreur = PieceValidator.validerDimensionsPiece(largeur, longueur);
+        if (erreur != null) {
+            throw new IllegalArgumentException(erreur);
+        }
+        if (sommets < 4 || sommets == 5 || sommets % 2 != 0) {
+            throw new IllegalArgumentException("Nombre de sommets invalide (4 ou pair et >= 6) : " + sommets);
+        }
+        if (meubles < 0 || zones < 0) {
+            throw new IllegalArgumentException("Le nombre de meubles et de zones doit être positif");
+        }
+
+        // Une graine par pièce : le résultat ne dépend pas des appels précédents
+        Random aleatoire = new Random(graine);
+        Piece piece;
+        List<Point> coins; // positions possibles du thermostat, au début d'un mur
+        if (sommets == 4) {
+            piece = PieceFactory.creerRectangulaire(largeur, longueur);
+            coins = List.of(new Point(0, 0), new Point(largeur - 6, 0),
+                new Point(largeur - 6, longueur - 8), new Point(0, longueur - 8));
+        } else {
+            List<Point> contour = contourEscalier(aleatoire, largeur, longueur, (sommets - 2) / 2);
+            piece = PieceFactory.creerIrreguliere(contour);
+            // (0, 0), (largeur, 0) et le dernier sommet, en haut du mur gauche
+            Point gauche = contour.get(contour.size() - 1);
+            coins = List.of(new Point(0, 0), new Point(largeur - 6, 0), new Point(0, gauche.y - 8));
+        }
+
+        Rectangle thermostat = ajouterThermostat(piece, aleatoire, coins);
+        thermostat.grow(12, 12);
+
+        List<Rectangle> cases = casesLibres(piece, thermostat);
+        if (meubles + zones > cases.size()) {
+            throw new IllegalArgumentException(String.format(
+                "Pièce trop petite : %d cases libres pour %d meubles et %d zones", cases.size(), meubles, zones));
+        }
+        Collections.shuffle(cases, aleatoire);
+
+        TypeMeuble[] types = TypeMeuble.values();
+        for (int i = 0; i < meubles; i++) {
+            int t = aleatoire.nextInt(types.length);
+            ajouterMeuble(piece, aleatoire, types[t], DIMENSIONS[t], cases.get(i), "M" + i);
+        }
+        for (int i = 0; i < zones; i++) {
+            ajouterZone(piece, aleatoire, cases.get(meubles + i), i);
+        }
+        return piece;
+    }
+
+    /**
+     * Fabriques de pièces synthétiques de taille croissante, par nom (même forme que CorpusPieces)
+     */
+    public static Map<String, Supplier<Piece>> fabriques(long graine) {
+        GenerateurPieceSynthetique generateur = new GenerateurPieceSynthetique(graine);
+        Map<String, Supplier<Piece>> pieces = new LinkedHashMap<>();
+        pieces.put("synth-rect-240x180", () -> generateur.generer(240, 180, 4, 4, 1));
+        pieces.put("synth-escalier-480x360", () -> generateur.generer(480, 360, 32, 16, 4));
+        pieces.put("synth-escalier-960x720", () -> generateur.generer(960, 720, 128, 60, 12));
+        return pieces;
+    }
+
+    /**
+     * Contour en escalier : plancher droit et plafond de n marches de hauteurs différentes,
+     * sommets dans le sens horaire à partir de (0, 0)
+     */
+    private static List<Point> contourEscalier(Random aleatoire, int largeur, int longueur, int marches) {
+        if (largeur / marches < LARGEUR_MIN_MARCHE) {
+            throw new IllegalArgumentException("Trop de sommets pour la largeur de la pièce : " + (2 * marches + 2));
+        }
+        int niveaux = Math.max(2, longueur / 4 / MARCHE); // les marches descendent d'au plus le quart
+        int[] hauteurs = new int[marches];
+        for (int j = 0; j < marches; j++) {
+            do {
+                hauteurs[j] = longueur - aleatoire.nextInt(niveaux) * MARCHE;
+            } while (j > 0 && hauteurs[j] == hauteurs[j - 1]);
+        }
+
+        List<Point> points = new ArrayList<>(2 * marches + 2);
+        points.add(new Point(0, 0));
+        points.add(new Point(largeur, 0));
+        points.add(new Point(largeur, hauteurs[marches - 1]));
+        for (int j = marches - 1; j > 0; j--) {
+            int x = j * largeur / marches;
+            points.add(new Point(x, hauteurs[j]));
+            points.add(new Point(x, hauteurs[j - 1]));
+        }
+        points.add(new Point(0, hauteurs[0]));
+        return points;
+    }
+
+    /**
+     * Thermostat de 6" x 8" collé à un mur, au début du mur : PieceValidator mesure
+     * la distance depuis le premier sommet du mur
+     */
+    private static Rectangle ajouterThermostat(Piece piece, Random aleatoire, List<Point> coins) {
+        Point p = coins.get(aleatoire.nextInt(coins.size()));
+        piece.ajouterElementChauffant(new Thermostat("Thermostat", p.x, p.y, 6, 8));
+        return new Rectangle(p.x, p.y, 6, 8);
+    }
+
+    /**
+     * Cases de la grille entièrement dans le contour (coins dedans, aucun mur ne les traverse)
+     * et hors du voisinage du thermostat
+     */
+    private static List<Rectangle> casesLibres(Piece piece, Rectangle reserve) {
+        List<Point> contour = piece.getPoints();
+        List<Rectangle> cases = new ArrayList<>();
+        for (int y = 0; y + CASE <= piece.getLongueur(); y += CASE) {
+            for (int x = 0; x + CASE <= piece.getLargeur(); x += CASE) {
+                Rectangle c = new Rectangle(x, y, CASE, CASE);
+                if (!c.intersects(reserve) && estDansContour(piece, contour, c)) {
+                    cases.add(c);
+                }
+            }
+        }
+        return cases;
+    }
+
+    private static boolean estDansContour(Piece piece, List<Point> contour, Rectangle c) {
+        int x1 = c.x + 1;
+        int y1 = c.y + 1;
+        int x2 = c.x + c.width - 1;
+        int y2 = c.y + c.height - 1;
+        if (!piece.contientPoint(x1, y1) || !piece.contientPoint(x2, y1)
+                || !piece.contientPoint(x1, y2) || !piece.contientPoint(x2, y2)) {
+            return false;
+        }
+        Rectangle interieur = new Rectangle(x1, y1, x2 - x1, y2 - y1);
+        for (int i = 0; i < contour.size(); i++) {
+            Point a = contour.get(i);
+            Point b = contour.get((i + 1) % contour.size());
+            if (interieur.intersectsLine(a.x, a.y, b.x, b.y)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void ajouterMeuble(Piece piece, Random aleatoire, TypeMeuble type, int[] dimensions,
+                                      Rectangle c, String nom) {
+        int largeur = entre(aleatoire, dimensions[0], dimensions[2]);
+        int longueur = entre(aleatoire, dimensions[1], dimensions[3]);
+        int x = c.x + entre(aleatoire, MARGE, CASE - MARGE - largeur);
+        int y = c.y + entre(aleatoire, MARGE, CASE - MARGE - longueur);
+        Meuble m = MeubleFactory.creerDepuisType(type.getNom(), new Point(x, y), largeur, longueur);
+        m.setNom(nom);
+        if (m instanceof MeubleAvecDrain avecDrain) {
+            int rayon = avecDrain.getDiametreDrain() / 2;
+            avecDrain.setDrainPositionRelative(entre(aleatoire, rayon, largeur - rayon),
+                entre(aleatoire, rayon, longueur - rayon));
+        }
+        piece.ajouterMeuble(m);
+    }
+
+    private static void ajouterZone(Piece piece, Random aleatoire, Rectangle c, int i) {
+        int largeur = entre(aleatoire, 12, CASE - 2 * MARGE);
+        int longueur = entre(aleatoire, 12, CASE - 2 * MARGE);
+        int x = c.x + entre(aleatoire, MARGE, CASE - MARGE - largeur);
+        int y = c.y + entre(aleatoire, MARGE, CASE - MARGE - longueur);
+        if (aleatoire.nextBoolean()) {
+            piece.ajouterZoneInterdiction(new ZoneInterdiction(x, y, largeur, longueur, "Interdiction " + i));
+        } else {
+            double distance = DISTANCES_TAMPON[aleatoire.nextInt(DISTANCES_TAMPON.length)];
+            piece.ajouterZoneTampon(new ZoneTampon(x, y, largeur, longueur, distance, "Tampon " + i));
+        }
+    }
+
+    private static int entre(Random aleatoire, int min, int max) {
+        return min + aleatoire.nextInt(max - min + 1);
+    }
+}
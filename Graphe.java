@@ -1,6 +1,9 @@
 package domaine.graphe;
 
+import domaine.diagnostic.EvenementGraphe;
+
 import java.util.*;
+import java.util.concurrent.CancellationException;
 import java.util.stream.Collectors;
 
 /**
@@ -117,6 +120,15 @@ public class Graphe {
     private int translationY = 0; // Translation Y de la membrane (en 32èmes de pouce)
     private boolean confirmee = false; // Si true, on ne garde que les intersections dans la pièce
 
+    // Index des intersections par position dans la grille, construit à chaque génération : la
+    // colonne d'une intersection est round((x - translation) / pas), avec le pas et la translation
+    // en pouces comme à la génération. Le rang est l'ordre d'itération de la table (départage).
+    private Intersection[] grille; // null si le graphe n'est pas indexé
+    private int[] rangs;
+    private int colonneMin, ligneMin, colonnes, lignes;
+    private double pasGrille, origineGrilleX, origineGrilleY;
+    private volatile ComposantesGraphe composantes; // de toutes les intersections, calculées à la demande
+
     public int getEspacement() {
         return espacement;
     }
@@ -178,10 +190,15 @@ public class Graphe {
     /**
      * Génère le graphe avec validation des intersections (pour la confirmation)
      * @param piece La pièce pour valider les intersections (null si pas de validation)
+     * @throws CancellationException si le fil est interrompu (le graphe reste alors non généré)
      */
     public void genererGrapheAvecValidation(domaine.piece.Piece piece) {
+        EvenementGraphe evenement = new EvenementGraphe();
+        evenement.begin();
+        this.genere = false;
         intersections.clear();
         intersectionsActives.clear();
+        Map<Long, Intersection> parCase = new HashMap<>(); // intersections par (colonne, ligne) de la grille
 
         if (confirmee && piece != null) {
             // Après confirmation : garder la position actuelle (translation) et compléter
@@ -221,8 +238,11 @@ public class Graphe {
             while (debutYBase >= espacementPouces) debutYBase -= espacementPouces;
             
             // Créer toutes les intersections dans la pièce
-            for (double xBase = debutXBase; xBase <= largeur + espacementPouces; xBase += espacementPouces) {
-                for (double yBase = debutYBase; yBase <= longueur + espacementPouces; yBase += espacementPouces) {
+            int colonne = 0;
+            for (double xBase = debutXBase; xBase <= largeur + espacementPouces; xBase += espacementPouces, colonne++) {
+                verifierInterruption();
+                int ligne = 0;
+                for (double yBase = debutYBase; yBase <= longueur + espacementPouces; yBase += espacementPouces, ligne++) {
                     int x = (int) Math.round(xBase + translationXPouces);
                     int y = (int) Math.round(yBase + translationYPouces);
                     
@@ -230,9 +250,7 @@ public class Graphe {
                     if (x >= 0 && x <= largeur && y >= 0 && y <= longueur) {
                         // Valider l'intersection (pas dans un meuble, pas trop près, etc.)
                         if (estIntersectionValide(x, y, piece)) {
-                            String id = String.format("I_%d_%d", x, y);
-                            Intersection intersection = new Intersection(id, x, y);
-                            intersections.put(id, intersection);
+                            ajouterIntersection(parCase, colonne, ligne, x, y);
                         }
                     }
                 }
@@ -259,17 +277,18 @@ public class Graphe {
             maxY += marge;
             
             // Créer la grille de base (sans translation)
-            for (double xBase = 0; xBase <= largeur; xBase += espacementPouces) {
-                for (double yBase = 0; yBase <= longueur; yBase += espacementPouces) {
+            int colonne = 0;
+            for (double xBase = 0; xBase <= largeur; xBase += espacementPouces, colonne++) {
+                verifierInterruption();
+                int ligne = 0;
+                for (double yBase = 0; yBase <= longueur; yBase += espacementPouces, ligne++) {
                     int xTranslated = (int) Math.round(xBase + translationXPouces);
                     int yTranslated = (int) Math.round(yBase + translationYPouces);
                     
                     // Avant confirmation : toutes les intersections (même celles qui dépassent)
                     if (xTranslated >= minX && xTranslated <= maxX && 
                         yTranslated >= minY && yTranslated <= maxY) {
-                        String id = String.format("I_%d_%d", xTranslated, yTranslated);
-                        Intersection intersection = new Intersection(id, xTranslated, yTranslated);
-                        intersections.put(id, intersection);
+                        ajouterIntersection(parCase, colonne, ligne, xTranslated, yTranslated);
                     }
                 }
             }
@@ -277,47 +296,61 @@ public class Graphe {
 
         // Créer des connexions uniquement horizontales et verticales (90° uniquement)
         // Le fil doit toujours passer par les intersections et prendre uniquement des directions de 90°
+        // Les voisines sont les intersections de la colonne ou de la ligne suivante de la grille :
+        // l'espacement est en 32èmes de pouce et les coordonnées en pouces arrondis, on ne peut donc
+        // pas les retrouver par leurs coordonnées
         // On crée des connexions pour toutes les intersections, même celles en dehors de la pièce
-        for (Intersection intersection : intersections.values()) {
-            int x = intersection.getX();
-            int y = intersection.getY();
-
-            // Connexions horizontales (90° - droite)
-            int xVoisin = x + espacement;
-            String idVoisin = String.format("I_%d_%d", xVoisin, y);
-            Intersection voisin = intersections.get(idVoisin);
-            if (voisin != null) {
-                intersection.ajouterConnexion(voisin);
-            }
+        for (Map.Entry<Long, Intersection> entree : parCase.entrySet()) {
+            int colonne = (int) (entree.getKey() >> 32);
+            int ligne = (int) (long) entree.getKey();
+            Intersection intersection = entree.getValue();
 
-            // Connexions horizontales (90° - gauche)
-            int xVoisinGauche = x - espacement;
-            String idVoisinGauche = String.format("I_%d_%d", xVoisinGauche, y);
-            Intersection voisinGauche = intersections.get(idVoisinGauche);
-            if (voisinGauche != null) {
-                intersection.ajouterConnexion(voisinGauche);
-            }
+            // Connexion horizontale (90° - droite ; la gauche est ajoutée par la voisine)
+            intersection.ajouterConnexion(parCase.get(cleCase(colonne + 1, ligne)));
 
-            // Connexions verticales (90° - haut)
-            int yVoisin = y + espacement;
-            String idVoisinHaut = String.format("I_%d_%d", x, yVoisin);
-            Intersection voisinHaut = intersections.get(idVoisinHaut);
-            if (voisinHaut != null) {
-                intersection.ajouterConnexion(voisinHaut);
-            }
-
-            // Connexions verticales (90° - bas)
-            int yVoisinBas = y - espacement;
-            String idVoisinBas = String.format("I_%d_%d", x, yVoisinBas);
-            Intersection voisinBas = intersections.get(idVoisinBas);
-            if (voisinBas != null) {
-                intersection.ajouterConnexion(voisinBas);
-            }
+            // Connexion verticale (90° - bas ; le haut est ajouté par la voisine)
+            intersection.ajouterConnexion(parCase.get(cleCase(colonne, ligne + 1)));
         }
 
+        indexer();
         this.genere = true;
+
+        evenement.end();
+        if (evenement.shouldCommit()) {
+            evenement.largeurPiece = largeur;
+            evenement.longueurPiece = longueur;
+            evenement.espacement = espacement;
+            evenement.confirmee = confirmee && piece != null;
+            evenement.intersections = intersections.size();
+            evenement.commit();
+        }
     }
     
+    /**
+     * Abandonne une génération dont le fil a été interrompu (délai dépassé, voir TraitementLot)
+     */
+    private void verifierInterruption() {
+        if (Thread.currentThread().isInterrupted()) {
+            intersections.clear();
+            intersectionsActives.clear();
+            throw new CancellationException("Génération du graphe interrompue");
+        }
+    }
+
+    /**
+     * Ajoute l'intersection de la case (colonne, ligne) de la grille
+     * Si l'arrondi en pouces place deux cases sur les mêmes coordonnées, elles partagent l'intersection
+     */
+    private void ajouterIntersection(Map<Long, Intersection> parCase, int colonne, int ligne, int x, int y) {
+        String id = String.format("I_%d_%d", x, y);
+        Intersection intersection = intersections.computeIfAbsent(id, cle -> new Intersection(cle, x, y));
+        parCase.put(cleCase(colonne, ligne), intersection);
+    }
+
+    private static long cleCase(int colonne, int ligne) {
+        return ((long) colonne << 32) | (ligne & 0xFFFFFFFFL);
+    }
+
     /**
      * Vérifie si une intersection est valide (dans la pièce, pas dans un meuble, etc.)
      * @param x Coordonnée X de l'intersection
@@ -471,6 +504,188 @@ public class Graphe {
         return intersections.get(id);
     }
 
+    /**
+     * Intersection la plus proche d'un point parmi celles acceptées par le filtre
+     * (la première dans l'ordre de getIntersections en cas d'égalité)
+     *
+     * Le point est ramené à sa case de la grille en temps constant, puis les cases sont parcourues
+     * par anneaux de plus en plus larges jusqu'à ce qu'aucune intersection plus proche ne soit
+     * possible : quelques cases quand une intersection acceptée est voisine, toute la grille au pire.
+     * @return null si aucune intersection n'est acceptée
+     */
+    public Intersection trouverIntersectionProche(int x, int y, java.util.function.Predicate<Intersection> filtre) {
+        if (grille == null) {
+            return trouverIntersectionProcheLineaire(x, y, filtre);
+        }
+        int c0 = (int) Math.round((x - origineGrilleX) / pasGrille) - colonneMin;
+        int l0 = (int) Math.round((y - origineGrilleY) / pasGrille) - ligneMin;
+        // Premier anneau qui touche la grille et dernier anneau qui la contient encore
+        int rayonMin = Math.max(0, Math.max(Math.max(-c0, c0 - colonnes + 1), Math.max(-l0, l0 - lignes + 1)));
+        int rayonMax = Math.max(Math.max(c0, colonnes - 1 - c0), Math.max(l0, lignes - 1 - l0));
+
+        Intersection meilleure = null;
+        long distanceMin = Long.MAX_VALUE;
+        int rangMin = Integer.MAX_VALUE;
+        for (int r = rayonMin; r <= rayonMax; r++) {
+            // Une intersection de l'anneau r est à au moins (r - 1/2) pas, moins l'arrondi des coordonnées
+            double borne = (r - 0.5) * pasGrille - 0.6;
+            if (meilleure != null && borne > 0 && borne * borne > distanceMin) {
+                break;
+            }
+            for (int l = Math.max(0, l0 - r); l <= Math.min(lignes - 1, l0 + r); l++) {
+                // Lignes du haut et du bas entières, sinon seulement les deux colonnes du bord
+                boolean bord = l == l0 - r || l == l0 + r;
+                int saut = bord ? 1 : 2 * r;
+                for (int c = c0 - r; c <= c0 + r; c += Math.max(1, saut)) {
+                    if (c < 0 || c >= colonnes) {
+                        continue;
+                    }
+                    int indice = l * colonnes + c;
+                    Intersection inter = grille[indice];
+                    if (inter == null || !filtre.test(inter)) {
+                        continue;
+                    }
+                    long dx = inter.x - x;
+                    long dy = inter.y - y;
+                    long distance = dx * dx + dy * dy;
+                    if (distance < distanceMin || (distance == distanceMin && rangs[indice] < rangMin)) {
+                        meilleure = inter;
+                        distanceMin = distance;
+                        rangMin = rangs[indice];
+                    }
+                }
+            }
+        }
+        return meilleure;
+    }
+
+    private Intersection trouverIntersectionProcheLineaire(int x, int y, java.util.function.Predicate<Intersection> filtre) {
+        Intersection meilleure = null;
+        long distanceMin = Long.MAX_VALUE;
+        for (Intersection inter : intersections.values()) {
+            long dx = inter.x - x;
+            long dy = inter.y - y;
+            if (dx * dx + dy * dy < distanceMin && filtre.test(inter)) {
+                meilleure = inter;
+                distanceMin = dx * dx + dy * dy;
+            }
+        }
+        return meilleure;
+    }
+
+    /**
+     * Composantes connexes et points d'articulation de toutes les intersections, calculés à la
+     * première demande après chaque génération. Une membrane confirmée ne contient que des
+     * intersections validées sur la pièce : ce sont alors les composantes du treillis valide.
+     */
+    public ComposantesGraphe getComposantes() {
+        ComposantesGraphe c = composantes; // les instantanés sont lus par plusieurs fils
+        if (c == null) {
+            c = new ComposantesGraphe(intersections.values(), i -> true);
+            composantes = c;
+        }
+        return c;
+    }
+
+    /**
+     * Composantes connexes et points d'articulation des intersections acceptées par le filtre
+     * (par exemple les contraintes d'un routage), sans mise en cache
+     */
+    public ComposantesGraphe calculerComposantes(java.util.function.Predicate<Intersection> valide) {
+        return new ComposantesGraphe(intersections.values(), valide);
+    }
+
+    /**
+     * Nombre de cases de l'index de la grille (0 si le graphe n'est pas indexé)
+     */
+    public int getTailleGrille() {
+        return grille != null ? grille.length : 0;
+    }
+
+    /**
+     * Construit l'index de la grille à partir des intersections générées
+     */
+    private void indexer() {
+        composantes = null;
+        grille = null;
+        rangs = null;
+        pasGrille = espacement / 32.0;
+        origineGrilleX = translationX / 32.0;
+        origineGrilleY = translationY / 32.0;
+        // Sous un pouce, deux nœuds voisins peuvent tomber sur les mêmes coordonnées entières
+        if (intersections.isEmpty() || pasGrille < 1) {
+            return;
+        }
+        int cMin = Integer.MAX_VALUE, cMax = Integer.MIN_VALUE, lMin = Integer.MAX_VALUE, lMax = Integer.MIN_VALUE;
+        for (Intersection inter : intersections.values()) {
+            int c = (int) Math.round((inter.x - origineGrilleX) / pasGrille);
+            int l = (int) Math.round((inter.y - origineGrilleY) / pasGrille);
+            cMin = Math.min(cMin, c);
+            cMax = Math.max(cMax, c);
+            lMin = Math.min(lMin, l);
+            lMax = Math.max(lMax, l);
+        }
+        long taille = (long) (cMax - cMin + 1) * (lMax - lMin + 1);
+        if (taille > Integer.MAX_VALUE - 8) {
+            return;
+        }
+        Intersection[] cases = new Intersection[(int) taille];
+        int[] rangsCases = new int[(int) taille];
+        int largeurGrille = cMax - cMin + 1;
+        int rang = 0;
+        for (Intersection inter : intersections.values()) {
+            int c = (int) Math.round((inter.x - origineGrilleX) / pasGrille) - cMin;
+            int l = (int) Math.round((inter.y - origineGrilleY) / pasGrille) - lMin;
+            int indice = l * largeurGrille + c;
+            if (cases[indice] != null) {
+                return; // deux intersections dans la même case : recherche linéaire
+            }
+            cases[indice] = inter;
+            rangsCases[indice] = rang++;
+        }
+        grille = cases;
+        rangs = rangsCases;
+        colonneMin = cMin;
+        ligneMin = lMin;
+        colonnes = largeurGrille;
+        lignes = lMax - lMin + 1;
+    }
+
+    /**
+     * Copie profonde du graphe (intersections, connexions et configuration), sans le régénérer
+     * Utilisé pour les instantanés de pièce lus par les traitements en arrière-plan
+     */
+    public Graphe copier() {
+        Graphe copie = new Graphe(largeur, longueur);
+        copie.espacement = espacement;
+        copie.translationX = translationX;
+        copie.translationY = translationY;
+        copie.confirmee = confirmee;
+        for (Intersection i : intersections.values()) {
+            Intersection c = new Intersection(i.id, i.x, i.y);
+            c.active = i.active;
+            copie.intersections.put(i.id, c);
+        }
+        for (Intersection i : intersections.values()) {
+            Intersection c = copie.intersections.get(i.id);
+            for (Intersection voisin : i.connexions) {
+                Intersection v = copie.intersections.get(voisin.id);
+                if (v != null) {
+                    c.connexions.add(v);
+                }
+            }
+        }
+        for (Intersection i : intersectionsActives) {
+            Intersection c = copie.intersections.get(i.id);
+            if (c != null) {
+                copie.intersectionsActives.add(c);
+            }
+        }
+        copie.indexer();
+        copie.genere = genere;
+        return copie;
+    }
+
     @Override
     public String toString() {
         return String.format("Graphe (%d\" x %d\") - %d intersections, %d actives",
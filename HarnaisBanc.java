@@ -0,0 +1,274 @@
+package domaine.banc;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Harnais de micro-bancs d'essai, sans dépendance externe
+ *
+ * Chaque mesure exécute l'opération sur le fil appelant, d'abord pendant une phase de chauffe
+ * (compilation JIT) puis pendant la phase de mesure. Le débit est calculé sur la phase de mesure ;
+ * les octets alloués par opération sont lus sur com.sun.management.ThreadMXBean et les collections
+ * sur les GarbageCollectorMXBean. Les percentiles de latence portent sur les dernières
+ * ECHANTILLONS opérations de la mesure.
+ *
+ * Réglages (propriétés système) : banc.chauffe et banc.mesure (en ms), banc.sortie (fichier
+ * où écrire les résultats) et banc.reference (fichier de référence : les résultats y sont comparés
+ * s'il existe, sinon il est créé). Les arguments de la ligne de commande filtrent les mesures :
+ * seules celles dont le nom ou les paramètres contiennent l'un des arguments sont exécutées.
+ *
+ * Pourquoi pas JMH : l'arbre n'a pas de fichier de build où câbler un module JMH et son
+ * processeur d'annotations. Ce qui en tient lieu :
+ * - élimination du code mort : le résultat de chaque appel est écrit dans un champ volatile
+ *   (puits), que le JIT ne peut ni supprimer ni sortir de la boucle ; une opération doit donc
+ *   retourner ce qu'elle calcule, jamais une constante ;
+ * - chauffe : durée fixe (banc.chauffe) sur la même opération avant la mesure ;
+ * - isolation : pas de fourche, toutes les mesures partagent la JVM et ses profils JIT. Pour
+ *   comparer deux mesures sans influence mutuelle, lancer chacune dans sa propre JVM avec un filtre.
+ */
+public final class HarnaisBanc {
+
+    private static final int ECHANTILLONS = 1 << 16;
+
+    private static volatile Object puits; // empêche le JIT d'éliminer le résultat de l'opération
+
+    private final long chauffeNs;
+    private final long mesureNs;
+    private final List<String> filtres;
+    private final List<ResultatBanc> resultats = new ArrayList<>();
+    private final long[] latences = new long[ECHANTILLONS]; // alloué une fois, hors des mesures
+
+    public HarnaisBanc(String[] filtres) {
+        this(Long.getLong("banc.chauffe", 300), Long.getLong("banc.mesure", 1000), filtres);
+    }
+
+    public HarnaisBanc(long chauffeMs, long mesureMs, String[] filtres) {
+        if (chauffeMs < 0 || mesureMs <= 0) {
+            throw new IllegalArgumentException("Durées de chauffe et de mesure invalides");
+        }
+        this.chauffeNs = chauffeMs * 1_000_000L;
+        this.mesureNs = mesureMs * 1_000_000L;
+        this.filtres = filtres != null ? List.of(filtres) : List.of();
+    }
+
+    /**
+     * Indique si une mesure est retenue par les filtres de la ligne de commande
+     */
+    public boolean estSelectionne(String banc, String parametres) {
+        if (filtres.isEmpty()) {
+            return true;
+        }
+        String nom = banc + " " + parametres;
+        for (String filtre : filtres) {
+            if (nom.contains(filtre)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Mesure une opération
+     * @param banc Nom du banc (par exemple "graphe.generer")
+     * @param parametres Paramètres de la mesure, affichés avec le résultat
+     * @param operation L'opération ; son résultat est consommé pour ne pas être éliminé par le JIT
+     */
+    public ResultatBanc mesurer(String banc, String parametres, Supplier<?> operation) {
+        executer(operation, chauffeNs);
+
+        long octetsAvant = octetsAlloues();
+        long collectionsAvant = collections();
+        long tempsGcAvant = tempsGc();
+        long debut = System.nanoTime();
+        long fin = debut + mesureNs;
+        long n = 0;
+        long precedent = debut;
+        long maintenant;
+        do {
+            puits = operation.get();
+            maintenant = System.nanoTime();
+            latences[(int) (n % ECHANTILLONS)] = maintenant - precedent;
+            precedent = maintenant;
+            n++;
+        } while (maintenant < fin);
+        long octetsApres = octetsAlloues();
+
+        long octets = octetsAvant >= 0 && octetsApres >= 0 ? (octetsApres - octetsAvant) / n : -1;
+        int echantillons = (int) Math.min(n, ECHANTILLONS);
+        Arrays.sort(latences, 0, echantillons);
+        ResultatBanc resultat = new ResultatBanc(banc, parametres, n, maintenant - debut, octets,
+            collections() - collectionsAvant, tempsGc() - tempsGcAvant,
+            percentile(echantillons, 0.50), percentile(echantillons, 0.90),
+            percentile(echantillons, 0.99), latences[echantillons - 1]);
+        resultats.add(resultat);
+        return resultat;
+    }
+
+    /**
+     * Percentile des latences triées (méthode du rang le plus proche)
+     */
+    private long percentile(int echantillons, double p) {
+        int rang = (int) Math.ceil(p * echantillons);
+        return latences[Math.max(0, rang - 1)];
+    }
+
+    private static void executer(Supplier<?> operation, long dureeNs) {
+        long fin = System.nanoTime() + dureeNs;
+        do {
+            puits = operation.get();
+        } while (System.nanoTime() < fin);
+    }
+
+    public List<ResultatBanc> getResultats() {
+        return Collections.unmodifiableList(resultats);
+    }
+
+    /**
+     * Affiche les résultats, les écrit dans banc.sortie si elle est définie
+     * et les compare à banc.reference si elle est définie
+     */
+    public void terminer() {
+        afficher(System.out);
+        String sortie = System.getProperty("banc.sortie");
+        String reference = System.getProperty("banc.reference");
+        try {
+            if (sortie != null) {
+                ecrire(Paths.get(sortie));
+            }
+            if (reference != null) {
+                Path fichier = Paths.get(reference);
+                if (Files.exists(fichier)) {
+                    System.out.println();
+                    System.out.println("Comparaison avec " + fichier + " (rapport < 1 : plus rapide)");
+                    comparer(fichier).forEach(System.out::println);
+                } else {
+                    ecrire(fichier);
+                    System.out.println("Référence créée: " + fichier);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Impossible d'écrire ou de lire les résultats du banc: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Compare les résultats à une référence écrite par ecrire (mêmes banc et paramètres)
+     * @return Une ligne par mesure : ns/op de référence et mesuré, rapport des durées
+     *         et rapport des octets alloués par opération
+     */
+    public List<String> comparer(Path reference) throws IOException {
+        Map<String, String[]> lignesReference = new HashMap<>();
+        List<String> lignes = Files.readAllLines(reference, StandardCharsets.UTF_8);
+        for (String ligne : lignes.subList(Math.min(1, lignes.size()), lignes.size())) {
+            String[] colonnes = ligne.split("\t", -1);
+            if (colonnes.length >= 5) {
+                lignesReference.put(colonnes[0] + "\t" + colonnes[1], colonnes);
+            }
+        }
+
+        List<String> comparaison = new ArrayList<>();
+        for (ResultatBanc r : resultats) {
+            String[] ref = lignesReference.get(r.getBanc() + "\t" + r.getParametres());
+            if (ref == null) {
+                comparaison.add(String.format("%-24s %-44s (absent de la référence)", r.getBanc(), r.getParametres()));
+                continue;
+            }
+            double nsReference = Double.parseDouble(ref[3]);
+            long octetsReference = Long.parseLong(ref[4]);
+            comparaison.add(String.format(Locale.ROOT, "%-24s %-44s %14.0f -> %14.0f ns/op  x%.2f  octets x%s",
+                r.getBanc(), r.getParametres(), nsReference, r.getNsParOperation(),
+                r.getNsParOperation() / nsReference,
+                octetsReference > 0 && r.getOctetsParOperation() >= 0
+                    ? String.format(Locale.ROOT, "%.2f", (double) r.getOctetsParOperation() / octetsReference) : "?"));
+        }
+        return comparaison;
+    }
+
+    /**
+     * Affiche les résultats, une ligne par mesure
+     */
+    public void afficher(PrintStream sortie) {
+        for (ResultatBanc r : resultats) {
+            StringBuilder ligne = new StringBuilder(String.format(Locale.ROOT,
+                "%-24s %-44s %12.1f op/s %14.0f ns/op %12s o/op  p50 %d p99 %d ns  gc %d (%d ms)",
+                r.getBanc(), r.getParametres(), r.getOperationsParSeconde(), r.getNsParOperation(),
+                r.getOctetsParOperation() >= 0 ? Long.toString(r.getOctetsParOperation()) : "?",
+                r.getP50Ns(), r.getP99Ns(), r.getCollections(), r.getTempsGcMs()));
+            for (Map.Entry<String, Double> m : r.getMetriques().entrySet()) {
+                ligne.append("  ").append(m.getKey()).append('=').append(formater(m.getValue()));
+            }
+            sortie.println(ligne);
+        }
+    }
+
+    /**
+     * Écrit les résultats (texte, une ligne par mesure, colonnes séparées par des tabulations)
+     */
+    public void ecrire(Path fichier) throws IOException {
+        try (Writer w = Files.newBufferedWriter(fichier, StandardCharsets.UTF_8)) {
+            w.write("banc\tparametres\tops_par_s\tns_par_op\toctets_par_op\tgc\tgc_ms"
+                + "\tp50_ns\tp90_ns\tp99_ns\tmax_ns\tmetriques\n");
+            for (ResultatBanc r : resultats) {
+                StringBuilder metriques = new StringBuilder();
+                for (Map.Entry<String, Double> m : r.getMetriques().entrySet()) {
+                    if (metriques.length() > 0) metriques.append(' ');
+                    metriques.append(m.getKey()).append('=').append(formater(m.getValue()));
+                }
+                w.write(String.format(Locale.ROOT, "%s\t%s\t%.1f\t%.0f\t%d\t%d\t%d\t%d\t%d\t%d\t%d\t%s\n",
+                    r.getBanc(), r.getParametres(), r.getOperationsParSeconde(), r.getNsParOperation(),
+                    r.getOctetsParOperation(), r.getCollections(), r.getTempsGcMs(),
+                    r.getP50Ns(), r.getP90Ns(), r.getP99Ns(), r.getMaxNs(), metriques));
+            }
+        }
+    }
+
+    private static String formater(double valeur) {
+        if (valeur == Math.rint(valeur) && Math.abs(valeur) < 1e15) {
+            return Long.toString((long) valeur);
+        }
+        return String.format(Locale.ROOT, "%.3f", valeur);
+    }
+
+    /**
+     * Octets alloués par le fil courant depuis son démarrage, ou -1 si la JVM ne le mesure pas
+     */
+    private static long octetsAlloues() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean sun && sun.isThreadAllocatedMemorySupported()) {
+            return sun.getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    private static long collections() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, gc.getCollectionCount());
+        }
+        return total;
+    }
+
+    private static long tempsGc() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, gc.getCollectionTime());
+        }
+        return total;
+    }
+}
@@ -0,0 +1,123 @@
+package domaine.diagnostic;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogramme de latences sans verrou, à compartiments log-linéaires (à la HdrHistogram)
+ *
+ * Chaque puissance de 2 est découpée en SOUS_COMPARTIMENTS compartiments égaux : l'erreur
+ * relative sur une valeur est d'au plus 1/32 (environ 3 %), de la nanoseconde à Long.MAX_VALUE,
+ * pour une mémoire fixe d'environ 15 Ko. L'enregistrement ne fait que des incréments atomiques
+ * et peut être appelé depuis plusieurs fils ; les lectures sont approchées pendant les écritures.
+ */
+public final class HistogrammeLatence {
+
+    private static final int BITS_SOUS_COMPARTIMENTS = 5;
+    private static final int SOUS_COMPARTIMENTS = 1 << BITS_SOUS_COMPARTIMENTS;
+    private static final int COMPARTIMENTS = SOUS_COMPARTIMENTS
+        + (63 - BITS_SOUS_COMPARTIMENTS) * SOUS_COMPARTIMENTS;
+
+    private final String nom;
+    private final AtomicLongArray compteurs = new AtomicLongArray(COMPARTIMENTS);
+    private final AtomicLong nombre = new AtomicLong();
+    private final AtomicLong somme = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    public HistogrammeLatence(String nom) {
+        this.nom = nom;
+    }
+
+    public String getNom() {
+        return nom;
+    }
+
+    /**
+     * Enregistre une latence (en ns ; une valeur négative compte pour 0)
+     */
+    public void enregistrer(long latenceNs) {
+        long valeur = Math.max(0, latenceNs);
+        compteurs.incrementAndGet(indice(valeur));
+        nombre.incrementAndGet();
+        somme.addAndGet(valeur);
+        long actuel;
+        while (valeur > (actuel = max.get()) && !max.compareAndSet(actuel, valeur)) {
+            // un autre fil a modifié le maximum : relire
+        }
+    }
+
+    public long getNombre() {
+        return nombre.get();
+    }
+
+    public long getMaxNs() {
+        return max.get();
+    }
+
+    public double getMoyenneNs() {
+        long n = nombre.get();
+        return n > 0 ? (double) somme.get() / n : 0;
+    }
+
+    /**
+     * Latence sous laquelle se trouvent p % des enregistrements (borne haute du compartiment,
+     * limitée au maximum observé)
+     * @param p Percentile, entre 0 et 100
+     * @return 0 si l'histogramme est vide
+     */
+    public long getPercentileNs(double p) {
+        if (p < 0 || p > 100) {
+            throw new IllegalArgumentException("Percentile invalide : " + p);
+        }
+        long[] copie = new long[COMPARTIMENTS];
+        long total = 0;
+        for (int i = 0; i < COMPARTIMENTS; i++) {
+            copie[i] = compteurs.get(i);
+            total += copie[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rang = Math.max(1, (long) Math.ceil(p / 100 * total));
+        long cumul = 0;
+        for (int i = 0; i < COMPARTIMENTS; i++) {
+            cumul += copie[i];
+            if (cumul >= rang) {
+                return Math.min(borneHaute(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    /**
+     * Remet l'histogramme à zéro (les enregistrements concurrents peuvent être perdus en partie)
+     */
+    public void reinitialiser() {
+        for (int i = 0; i < COMPARTIMENTS; i++) {
+            compteurs.set(i, 0);
+        }
+        nombre.set(0);
+        somme.set(0);
+        max.set(0);
+    }
+
+    static int indice(long valeur) {
+        if (valeur < SOUS_COMPARTIMENTS) {
+            return (int) valeur;
+        }
+        int magnitude = 63 - Long.numberOfLeadingZeros(valeur); // >= BITS_SOUS_COMPARTIMENTS
+        int decalage = magnitude - BITS_SOUS_COMPARTIMENTS;
+        int sous = (int) (valeur >>> decalage) - SOUS_COMPARTIMENTS;
+        return SOUS_COMPARTIMENTS + decalage * SOUS_COMPARTIMENTS + sous;
+    }
+
+    static long borneHaute(int indice) {
+        if (indice < SOUS_COMPARTIMENTS) {
+            return indice;
+        }
+        int decalage = (indice - SOUS_COMPARTIMENTS) / SOUS_COMPARTIMENTS;
+        long sous = (indice - SOUS_COMPARTIMENTS) % SOUS_COMPARTIMENTS;
+        long basse = (SOUS_COMPARTIMENTS + sous) << decalage;
+        return basse + (1L << decalage) - 1;
+    }
+}
@@ -13,5 +13,19 @@ public final class Ids {
     public static int next() {
         return SEQ.getAndIncrement();
     }
+
+    /**
+     * Prochain id qui sera attribué
+     */
+    public static int courant() {
+        return SEQ.get();
+    }
+
+    /**
+     * Reprend la séquence à une valeur donnée (rejeu déterministe d'une session, voir RejeuSession)
+     */
+    public static void reprendreA(int prochain) {
+        SEQ.set(prochain);
+    }
 }
 
@@ -0,0 +1,103 @@
+package domaine.piece.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index spatial en grille uniforme pour des rectangles alignés sur les axes (meubles, éléments)
+ *
+ * Chaque rectangle est rangé dans les cellules qu'il recouvre ; la recherche des rectangles qui
+ * chevauchent une zone ne regarde que les cellules de cette zone au lieu de tous les rectangles.
+ */
+public final class IndexSpatial {
+
+    public static final int TAILLE_CELLULE_PAR_DEFAUT = 24; // en pouces
+
+    private final int tailleCellule;
+    private final Map<Long, List<Integer>> cellules = new HashMap<>();
+    private final Map<Integer, int[]> rectangles = new HashMap<>(); // id -> {x, y, largeur, longueur}
+
+    public IndexSpatial() {
+        this(TAILLE_CELLULE_PAR_DEFAUT);
+    }
+
+    public IndexSpatial(int tailleCellule) {
+        if (tailleCellule <= 0) {
+            throw new IllegalArgumentException("Taille de cellule invalide: " + tailleCellule);
+        }
+        this.tailleCellule = tailleCellule;
+    }
+
+    /**
+     * Ajoute (ou remplace) le rectangle d'un id
+     */
+    public void inserer(int id, int x, int y, int largeur, int longueur) {
+        retirer(id);
+        rectangles.put(id, new int[] {x, y, largeur, longueur});
+        int cx1 = cellule(x), cy1 = cellule(y);
+        int cx2 = cellule(x + Math.max(largeur, 1) - 1), cy2 = cellule(y + Math.max(longueur, 1) - 1);
+        for (int cx = cx1; cx <= cx2; cx++) {
+            for (int cy = cy1; cy <= cy2; cy++) {
+                cellules.computeIfAbsent(cle(cx, cy), k -> new ArrayList<>(2)).add(id);
+            }
+        }
+    }
+
+    public void retirer(int id) {
+        int[] r = rectangles.remove(id);
+        if (r == null) {
+            return;
+        }
+        int cx1 = cellule(r[0]), cy1 = cellule(r[1]);
+        int cx2 = cellule(r[0] + Math.max(r[2], 1) - 1), cy2 = cellule(r[1] + Math.max(r[3], 1) - 1);
+        for (int cx = cx1; cx <= cx2; cx++) {
+            for (int cy = cy1; cy <= cy2; cy++) {
+                List<Integer> ids = cellules.get(cle(cx, cy));
+                if (ids != null) {
+                    ids.remove(Integer.valueOf(id));
+                    if (ids.isEmpty()) {
+                        cellules.remove(cle(cx, cy));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Retourne l'id d'un rectangle qui chevauche la zone donnée (bords exclus), ou null
+     * @param idExclu Id ignoré (le rectangle lui-même), ou null
+     */
+    public Integer trouverChevauchement(int x, int y, int largeur, int longueur, Integer idExclu) {
+        int cx1 = cellule(x), cy1 = cellule(y);
+        int cx2 = cellule(x + Math.max(largeur, 1) - 1), cy2 = cellule(y + Math.max(longueur, 1) - 1);
+        for (int cx = cx1; cx <= cx2; cx++) {
+            for (int cy = cy1; cy <= cy2; cy++) {
+                List<Integer> ids = cellules.get(cle(cx, cy));
+                if (ids == null) continue;
+                for (int id : ids) {
+                    if (idExclu != null && id == idExclu) continue;
+                    int[] r = rectangles.get(id);
+                    // Même règle que PieceValidator.validerChevauchementMeubles
+                    if (x < r[0] + r[2] && x + largeur > r[0] && y < r[1] + r[3] && y + longueur > r[1]) {
+                        return id;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    public int taille() {
+        return rectangles.size();
+    }
+
+    private int cellule(int coordonnee) {
+        return Math.floorDiv(coordonnee, tailleCellule);
+    }
+
+    private static long cle(int cx, int cy) {
+        return ((long) cx << 32) | (cy & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,353 @@
+package domaine.sauvegarde;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+
+/**
+ * Journal d'autosauvegarde en ajout seul
+ *
+ * Deux fichiers accompagnent le projet :
+ * - base.ckpt : un point de reprise complet (FormatBinaire)
+ * - base.journal : les modifications faites depuis ce point, une entrée par entité modifiée
+ *
+ * Chaque entrée est : type (octet), longueur (int), CRC32 (int), contenu.
+ * Le coût d'une autosauvegarde est donc proportionnel à la modification, et non à la pièce.
+ * Chaque entrée est forcée sur le disque avant que enregistrerXxx ne retourne : après un
+ * plantage du système ou une coupure de courant, la reprise retrouve toutes les entrées
+ * dont l'enregistrement a retourné (au plus une entrée en cours d'écriture est perdue).
+ * Quand le journal dépasse la taille du point de reprise, il est compacté : un nouveau
+ * point de reprise est écrit puis le journal est vidé. Les entrées sont idempotentes
+ * (remplacement ou suppression par id), donc rejouer un journal sur un point de reprise
+ * plus récent (plantage entre les deux étapes) donne le même résultat.
+ */
+public final class JournalAutosauvegarde implements Closeable {
+
+    // Types d'entrées
+    static final byte PIECE = 1;
+    static final byte MEUBLE = 2;
+    static final byte MEUBLE_SUPPRIME = 3;
+    static final byte ELEMENT = 4;
+    static final byte ELEMENT_SUPPRIME = 5;
+    static final byte ZONE_INTERDICTION = 6;
+    static final byte ZONE_INTERDICTION_SUPPRIMEE = 7;
+    static final byte ZONE_TAMPON = 8;
+    static final byte ZONE_TAMPON_SUPPRIMEE = 9;
+    static final byte FIL = 10;
+    static final byte MEMBRANE = 11;
+    static final byte CONTOUR = 12;
+
+    private static final int TAILLE_EN_TETE_ENTREE = 9;
+    private static final long SEUIL_COMPACTION_MIN = 256 * 1024;
+
+    private final Path fichierReprise;
+    private final Path fichierJournal;
+    private final Supplier<EtatPiece> source;
+    private FileChannel journal;
+    private long tailleReprise;
+    private int nombreEntrees;
+
+    private JournalAutosauvegarde(Path base, Supplier<EtatPiece> source) {
+        this.fichierReprise = fichierReprise(base);
+        this.fichierJournal = fichierJournal(base);
+        this.source = source;
+    }
+
+    /**
+     * Démarre un journal : écrit un point de reprise de l'état courant et vide le journal
+     * @param base Chemin de base des fichiers d'autosauvegarde (sans extension)
+     * @param source Fournit l'état complet courant (utilisé pour les compactions)
+     */
+    public static JournalAutosauvegarde demarrer(Path base, Supplier<EtatPiece> source) throws IOException {
+        if (base == null || source == null) {
+            throw new IllegalArgumentException("Paramètres d'autosauvegarde invalides");
+        }
+        JournalAutosauvegarde j = new JournalAutosauvegarde(base, source);
+        j.journal = FileChannel.open(j.fichierJournal, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        j.compacter();
+        return j;
+    }
+
+    /**
+     * Indique si une autosauvegarde récupérable existe (session précédente non terminée proprement)
+     */
+    public static boolean existe(Path base) {
+        return Files.exists(fichierReprise(base));
+    }
+
+    /**
+     * Reconstruit l'état depuis le dernier point de reprise et le journal.
+     * La lecture s'arrête à la première entrée tronquée ou corrompue (écriture interrompue).
+     * @return L'état récupéré, ou null s'il n'y a pas d'autosauvegarde
+     */
+    public static EtatPiece recuperer(Path base) throws IOException {
+        if (!existe(base)) {
+            return null;
+        }
+        EtatPiece etat = FormatBinaire.lire(fichierReprise(base));
+        Path journal = fichierJournal(base);
+        if (!Files.exists(journal)) {
+            return etat;
+        }
+
+        ByteBuffer b = ByteBuffer.wrap(Files.readAllBytes(journal));
+        CRC32 crc = new CRC32();
+        while (b.remaining() >= TAILLE_EN_TETE_ENTREE) {
+            int debut = b.position();
+            byte type = b.get();
+            int longueur = b.getInt();
+            int attendu = b.getInt();
+            if (longueur < 0 || longueur > b.remaining()) {
+                break;
+            }
+            ByteBuffer contenu = b.slice();
+            contenu.limit(longueur);
+            crc.reset();
+            crc.update(type);
+            crc.update(contenu.duplicate());
+            if ((int) crc.getValue() != attendu) {
+                break;
+            }
+            try {
+                etat = appliquer(etat, type, contenu);
+            } catch (RuntimeException e) {
+                throw new IOException("Entrée de journal invalide à la position " + debut, e);
+            }
+            b.position(b.position() + longueur);
+        }
+        return etat;
+    }
+
+    // ==================== ENTRÉES ====================
+
+    public void enregistrerPiece(EtatPiece etat) throws IOException {
+        ajouter(PIECE, FormatBinaire.encoder(etat));
+    }
+
+    public void enregistrerContour(EtatPiece etat) throws IOException {
+        FormatBinaire.Ecrivain e = new FormatBinaire.Ecrivain(64);
+        e.varint(etat.getLargeur());
+        e.varint(etat.getLongueur());
+        e.points(etat.getPoints());
+        ajouter(CONTOUR, e);
+    }
+
+    public void enregistrerMeuble(EtatPiece.EtatMeuble meuble) throws IOException {
+        FormatBinaire.Ecrivain e = new FormatBinaire.Ecrivain(64);
+        e.meuble(meuble);
+        ajouter(MEUBLE, e);
+    }
+
+    public void enregistrerElement(EtatPiece.EtatElementChauffant element) throws IOException {
+        FormatBinaire.Ecrivain e = new FormatBinaire.Ecrivain(64);
+        e.element(element);
+        ajouter(ELEMENT, e);
+    }
+
+    public void enregistrerZoneInterdiction(EtatPiece.EtatZone zone) throws IOException {
+        FormatBinaire.Ecrivain e = new FormatBinaire.Ecrivain(64);
+        e.zone(zone, false);
+        ajouter(ZONE_INTERDICTION, e);
+    }
+
+    public void enregistrerZoneTampon(EtatPiece.EtatZone zone) throws IOException {
+        FormatBinaire.Ecrivain e = new FormatBinaire.Ecrivain(64);
+        e.zone(zone, true);
+        ajouter(ZONE_TAMPON, e);
+    }
+
+    public void enregistrerFil(EtatPiece.EtatFilChauffant fil) throws IOException {
+        FormatBinaire.Ecrivain e = new FormatBinaire.Ecrivain(256);
+        e.fil(fil);
+        ajouter(FIL, e);
+    }
+
+    public void enregistrerMembrane(EtatPiece etat) throws IOException {
+        FormatBinaire.Ecrivain e = new FormatBinaire.Ecrivain(16);
+        e.membrane(etat);
+        ajouter(MEMBRANE, e);
+    }
+
+    public void enregistrerSuppressionMeuble(int id) throws IOException {
+        ajouterId(MEUBLE_SUPPRIME, id);
+    }
+
+    public void enregistrerSuppressionElement(int id) throws IOException {
+        ajouterId(ELEMENT_SUPPRIME, id);
+    }
+
+    public void enregistrerSuppressionZoneInterdiction(int id) throws IOException {
+        ajouterId(ZONE_INTERDICTION_SUPPRIMEE, id);
+    }
+
+    public void enregistrerSuppressionZoneTampon(int id) throws IOException {
+        ajouterId(ZONE_TAMPON_SUPPRIMEE, id);
+    }
+
+    public int getNombreEntrees() {
+        return nombreEntrees;
+    }
+
+    /**
+     * Écrit un nouveau point de reprise complet et vide le journal
+     */
+    public void compacter() throws IOException {
+        Path temporaire = fichierReprise.resolveSibling(fichierReprise.getFileName() + ".tmp");
+        ByteBuffer contenu = FormatBinaire.encoder(source.get());
+        tailleReprise = contenu.remaining();
+        try (FileChannel canal = FileChannel.open(temporaire, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (contenu.hasRemaining()) {
+                canal.write(contenu);
+            }
+            canal.force(true);
+        }
+        Files.move(temporaire, fichierReprise, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        journal.truncate(0);
+        journal.position(0);
+        nombreEntrees = 0;
+    }
+
+    /**
+     * Ferme le journal sans supprimer les fichiers (ils restent récupérables)
+     */
+    @Override
+    public void close() throws IOException {
+        if (journal != null) {
+            journal.close();
+            journal = null;
+        }
+    }
+
+    /**
+     * Ferme le journal et supprime les fichiers d'autosauvegarde (fin de session normale)
+     */
+    public void supprimer() throws IOException {
+        close();
+        Files.deleteIfExists(fichierJournal);
+        Files.deleteIfExists(fichierReprise);
+    }
+
+    // ==================== INTERNE ====================
+
+    private void ajouterId(byte type, int id) throws IOException {
+        FormatBinaire.Ecrivain e = new FormatBinaire.Ecrivain(8);
+        e.varint(id);
+        ajouter(type, e);
+    }
+
+    private void ajouter(byte type, FormatBinaire.Ecrivain e) throws IOException {
+        e.tampon.flip();
+        ajouter(type, e.tampon);
+    }
+
+    private void ajouter(byte type, ByteBuffer contenu) throws IOException {
+        if (journal == null) {
+            throw new IllegalStateException("Journal fermé");
+        }
+        CRC32 crc = new CRC32();
+        crc.update(type);
+        crc.update(contenu.duplicate());
+
+        ByteBuffer entete = ByteBuffer.allocate(TAILLE_EN_TETE_ENTREE);
+        entete.put(type).putInt(contenu.remaining()).putInt((int) crc.getValue()).flip();
+        ByteBuffer[] entree = { entete, contenu };
+        while (entete.hasRemaining() || contenu.hasRemaining()) {
+            journal.write(entree);
+        }
+        journal.force(false); // contenu et taille du fichier, sans les dates
+        nombreEntrees++;
+
+        if (journal.position() > Math.max(SEUIL_COMPACTION_MIN, tailleReprise)) {
+            compacter();
+        }
+    }
+
+    private static EtatPiece appliquer(EtatPiece etat, byte type, ByteBuffer b) throws IOException {
+        switch (type) {
+            case PIECE:
+                return FormatBinaire.decoder(b);
+            case CONTOUR:
+                etat.setLargeur(FormatBinaire.lireVarint(b));
+                etat.setLongueur(FormatBinaire.lireVarint(b));
+                etat.setPoints(FormatBinaire.lirePoints(b));
+                break;
+            case MEUBLE: {
+                EtatPiece.EtatMeuble m = FormatBinaire.lireMeuble(b);
+                remplacer(etat.getMeubles(), m, m.getId(), EtatPiece.EtatMeuble::getId);
+                break;
+            }
+            case ELEMENT: {
+                EtatPiece.EtatElementChauffant el = FormatBinaire.lireElement(b);
+                remplacer(etat.getElementsChauffants(), el, el.getId(), EtatPiece.EtatElementChauffant::getId);
+                break;
+            }
+            case ZONE_INTERDICTION: {
+                EtatPiece.EtatZone z = FormatBinaire.lireZone(b, false, "ZoneInterdiction");
+                remplacer(etat.getZonesInterdiction(), z, z.getId(), EtatPiece.EtatZone::getId);
+                break;
+            }
+            case ZONE_TAMPON: {
+                EtatPiece.EtatZone z = FormatBinaire.lireZone(b, true, "ZoneTampon");
+                remplacer(etat.getZonesTampon(), z, z.getId(), EtatPiece.EtatZone::getId);
+                break;
+            }
+            case MEUBLE_SUPPRIME: {
+                int id = FormatBinaire.lireVarint(b);
+                etat.getMeubles().removeIf(m -> m.getId() == id);
+                break;
+            }
+            case ELEMENT_SUPPRIME: {
+                int id = FormatBinaire.lireVarint(b);
+                etat.getElementsChauffants().removeIf(e -> e.getId() == id);
+                break;
+            }
+            case ZONE_INTERDICTION_SUPPRIMEE: {
+                int id = FormatBinaire.lireVarint(b);
+                etat.getZonesInterdiction().removeIf(z -> z.getId() == id);
+                break;
+            }
+            case ZONE_TAMPON_SUPPRIMEE: {
+                int id = FormatBinaire.lireVarint(b);
+                etat.getZonesTampon().removeIf(z -> z.getId() == id);
+                break;
+            }
+            case FIL:
+                etat.setFilChauffant(FormatBinaire.lireFil(b));
+                break;
+            case MEMBRANE:
+                FormatBinaire.lireMembrane(b, etat);
+                break;
+            default:
+                // Type inconnu (version plus récente) : ignoré
+                break;
+        }
+        return etat;
+    }
+
+    private static <T> void remplacer(List<T> liste, T valeur, int id, java.util.function.ToIntFunction<T> idDe) {
+        for (int i = 0; i < liste.size(); i++) {
+            if (idDe.applyAsInt(liste.get(i)) == id) {
+                liste.set(i, valeur);
+                return;
+            }
+        }
+        liste.add(valeur);
+    }
+
+    private static Path fichierReprise(Path base) {
+        return base.resolveSibling(base.getFileName() + ".ckpt");
+    }
+
+    private static Path fichierJournal(Path base) {
+        return base.resolveSibling(base.getFileName() + ".journal");
+    }
+}
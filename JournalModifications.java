@@ -0,0 +1,187 @@
+package domaine.piece;
+
+import domaine.chauffage.CheminFil;
+import domaine.piece.Piece.Partie;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Journal borné, en mémoire, des modifications d'une pièce
+ *
+ * Chaque modification est notée avec sa version, la partie touchée et, pour les listes d'entités,
+ * l'id de l'entité. Le journal permet de retrouver ce qui a changé depuis une version donnée ;
+ * lorsque cette version est trop ancienne (entrées oubliées) ou qu'une modification globale a eu
+ * lieu depuis, il faut tout relire.
+ */
+public final class JournalModifications {
+
+    public static final int CAPACITE_PAR_DEFAUT = 1024;
+    public static final int AUCUN_ID = -1;
+
+    /**
+     * Nature d'une modification d'entité
+     */
+    public enum TypeModification { AJOUT, MODIFICATION, SUPPRESSION }
+
+    private static final class Entree {
+        private long version;
+        private final Partie partie; // null : toute la pièce
+        private final int id;
+        private TypeModification type;
+        private final CheminFil cheminPrecedent; // pour le fil : le chemin avant la modification
+
+        Entree(long version, Partie partie, int id, TypeModification type, CheminFil cheminPrecedent) {
+            this.version = version;
+            this.partie = partie;
+            this.id = id;
+            this.type = type;
+            this.cheminPrecedent = cheminPrecedent;
+        }
+    }
+
+    /**
+     * Résumé des modifications survenues depuis une version
+     */
+    public static final class Resume {
+        private final Map<Partie, Map<Integer, TypeModification>> entites = new EnumMap<>(Partie.class);
+        private boolean contourModifie;
+        private boolean membraneModifiee;
+        private CheminFil cheminDepart; // non null si le fil a été modifié
+
+        /**
+         * Modifications des entités d'une partie (id → nature), dans l'ordre où elles ont eu lieu
+         */
+        public Map<Integer, TypeModification> getEntites(Partie partie) {
+            Map<Integer, TypeModification> m = entites.get(partie);
+            return m != null ? Collections.unmodifiableMap(m) : Collections.emptyMap();
+        }
+
+        public boolean isContourModifie() {
+            return contourModifie;
+        }
+
+        public boolean isMembraneModifiee() {
+            return membraneModifiee;
+        }
+
+        public boolean isFilModifie() {
+            return cheminDepart != null;
+        }
+
+        /**
+         * Chemin du fil tel qu'il était à la version demandée (null si le fil n'a pas changé)
+         */
+        public CheminFil getCheminDepart() {
+            return cheminDepart;
+        }
+    }
+
+    private final int capacite;
+    private final ArrayDeque<Entree> entrees = new ArrayDeque<>();
+    private long versionOubliee; // version de la plus récente entrée retirée du journal
+
+    public JournalModifications() {
+        this(CAPACITE_PAR_DEFAUT);
+    }
+
+    public JournalModifications(int capacite) {
+        if (capacite < 1) {
+            throw new IllegalArgumentException("Capacité invalide: " + capacite);
+        }
+        this.capacite = capacite;
+    }
+
+    /**
+     * Note une modification
+     * @param partie La partie modifiée, ou null pour une modification de toute la pièce
+     * @param id L'id de l'entité modifiée, ou AUCUN_ID
+     * @param cheminPrecedent Pour le fil, le chemin avant la modification
+     */
+    synchronized void noter(long version, Partie partie, int id, TypeModification type, CheminFil cheminPrecedent) {
+        // Un meuble déplacé plusieurs fois de suite (glisser) ne produit qu'une entrée
+        Entree derniere = entrees.peekLast();
+        if (derniere != null && partie != null && partie != Partie.FIL && derniere.partie == partie
+                && derniere.id == id && (type == TypeModification.MODIFICATION || type == derniere.type)) {
+            derniere.version = version;
+            return;
+        }
+        if (entrees.size() == capacite) {
+            versionOubliee = entrees.pollFirst().version;
+        }
+        entrees.addLast(new Entree(version, partie, id, type, cheminPrecedent));
+    }
+
+    /**
+     * Résume les modifications survenues après une version
+     * @return Le résumé, ou null si le journal ne permet pas de répondre (il faut tout relire)
+     */
+    public synchronized Resume resumerDepuis(long version) {
+        if (version < versionOubliee) {
+            return null;
+        }
+        // Parcourir à rebours jusqu'à la version demandée, puis combiner dans l'ordre
+        ArrayDeque<Entree> recentes = new ArrayDeque<>();
+        Iterator<Entree> it = entrees.descendingIterator();
+        while (it.hasNext()) {
+            Entree e = it.next();
+            if (e.version <= version) {
+                break;
+            }
+            recentes.addFirst(e);
+        }
+        // La création de la pièce est notée comme une modification de toute la pièce :
+        // une version antérieure à la pièce demande donc de tout relire
+        Resume resume = new Resume();
+        for (Entree e : recentes) {
+            if (e.partie == null) {
+                return null; // modification de toute la pièce
+            }
+            switch (e.partie) {
+                case CONTOUR -> resume.contourModifie = true;
+                case MEMBRANE -> resume.membraneModifiee = true;
+                case FIL -> {
+                    if (resume.cheminDepart == null) {
+                        resume.cheminDepart = e.cheminPrecedent != null ? e.cheminPrecedent : CheminFil.VIDE;
+                    }
+                }
+                default -> {
+                    if (e.id == AUCUN_ID) {
+                        return null; // liste modifiée sans savoir quelles entités
+                    }
+                    Map<Integer, TypeModification> m = resume.entites.computeIfAbsent(e.partie, p -> new LinkedHashMap<>());
+                    TypeModification combine = combiner(m.get(e.id), e.type);
+                    if (combine == null) {
+                        m.remove(e.id);
+                    } else {
+                        m.put(e.id, combine);
+                    }
+                }
+            }
+        }
+        return resume;
+    }
+
+    /**
+     * Version la plus ancienne à partir de laquelle le journal peut encore répondre
+     */
+    public synchronized long getVersionMinimale() {
+        return versionOubliee;
+    }
+
+    private static TypeModification combiner(TypeModification avant, TypeModification apres) {
+        if (avant == null) return apres;
+        return switch (avant) {
+            // Ajoutée puis supprimée depuis la version demandée : rien à signaler
+            case AJOUT -> apres == TypeModification.SUPPRESSION ? null : TypeModification.AJOUT;
+            case MODIFICATION -> apres == TypeModification.SUPPRESSION ? TypeModification.SUPPRESSION
+                    : TypeModification.MODIFICATION;
+            case SUPPRESSION -> apres == TypeModification.SUPPRESSION ? TypeModification.SUPPRESSION
+                    : TypeModification.MODIFICATION;
+        };
+    }
+}
@@ -0,0 +1,180 @@
+package domaine.diagnostic;
+
+import domaine.Ids;
+import domaine.chauffage.ElementChauffant;
+import domaine.chauffage.Thermostat;
+import domaine.dto.MeubleDTO;
+import domaine.dto.MeubleMapper;
+import domaine.meuble.Meuble;
+import domaine.piece.LotModifications;
+
+import java.awt.Point;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Journal des modifications d'une session d'édition d'un ControleurObserve (voir RejeuSession)
+ *
+ * Chaque appel qui modifie la pièce, la membrane, le fil ou l'historique est écrit avant d'être
+ * exécuté, une ligne par appel : le nom de l'appel puis ses arguments, séparés par des tabulations.
+ * Un lot (appliquerLot) est écrit opération par opération (lignes lot...), suivies de la ligne
+ * appliquerLot et du prochain id de Ids ; les meubles et éléments ajoutés gardent leur id.
+ * L'en-tête note le prochain id de Ids : le rejeu reprend la séquence au même point, les ids
+ * attribués (et donc ceux du journal) sont les mêmes.
+ */
+public final class JournalSession implements ControleurObserve.Observateur, Closeable {
+
+    public static final String ENTETE = "#glo-session 1";
+    public static final String ENTETE_IDS = "#ids ";
+    static final char SEPARATEUR = '\t';
+    static final char SEPARATEUR_LISTE = ';';
+    static final String NUL = "-";
+
+    private final BufferedWriter journal;
+    private long appels;
+
+    /**
+     * @param fichier Journal de la session (remplacé s'il existe)
+     */
+    public JournalSession(Path fichier) throws IOException {
+        this.journal = Files.newBufferedWriter(fichier, StandardCharsets.UTF_8);
+        journal.write(ENTETE);
+        journal.newLine();
+        journal.write(ENTETE_IDS + Ids.courant());
+        journal.newLine();
+        journal.flush();
+    }
+
+    /**
+     * @return Le nombre d'appels enregistrés
+     */
+    public synchronized long getAppels() {
+        return appels;
+    }
+
+    /**
+     * Ferme le journal ; les appels suivants ne sont plus enregistrés
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        journal.close();
+    }
+
+    @Override
+    public synchronized void avant(ControleurObserve.Appel appel) {
+        if (appel.getNomJournal() == null) {
+            return;
+        }
+        Object[] arguments = appel.getArguments();
+        if (arguments.length == 1 && arguments[0] instanceof LotModifications lot) {
+            enregistrerLot(lot);
+            arguments = new Object[] { Ids.courant() }; // le rejeu crée les objets du lot plus tard
+        }
+        ecrire(appel.getNomJournal(), arguments);
+        appels++;
+    }
+
+    /**
+     * Arguments journalisés d'un meuble (ajouterMeubleDTO, lotAjouterMeuble)
+     */
+    static Object[] argumentsMeuble(MeubleDTO dto) {
+        if (dto == null) {
+            return new Object[] { null };
+        }
+        return new Object[] { dto.getType(), dto.getNom(), dto.getX(), dto.getY(),
+            dto.getLargeur(), dto.getLongueur(), dto.getAngle(), dto.isaDrain(),
+            dto.getDrainX(), dto.getDrainY(), dto.getDiametreDrain() };
+    }
+
+    private void enregistrerLot(LotModifications lot) {
+        lot.parcourir(new LotModifications.Visiteur() {
+            @Override
+            public void ajoutMeuble(Meuble meuble) {
+                Object[] champs = argumentsMeuble(MeubleMapper.toDTO(meuble));
+                Object[] arguments = new Object[champs.length + 1];
+                arguments[0] = meuble.getId();
+                System.arraycopy(champs, 0, arguments, 1, champs.length);
+                ecrire("lotAjouterMeuble", arguments);
+            }
+
+            @Override
+            public void ajoutElement(ElementChauffant element) {
+                ecrire("lotAjouterElement", element.getId(), element.getNom(), element.getX(), element.getY(),
+                    element.getLargeur(), element.getLongueur(), element instanceof Thermostat, element.getAngle());
+            }
+
+            @Override
+            public void deplacement(int id, int x, int y) {
+                ecrire("lotDeplacer", id, x, y);
+            }
+
+            @Override
+            public void redimensionnement(int id, int largeur, int longueur) {
+                ecrire("lotRedimensionner", id, largeur, longueur);
+            }
+
+            @Override
+            public void suppression(int id) {
+                ecrire("lotSupprimer", id);
+            }
+        });
+    }
+
+    private void ecrire(String nom, Object... arguments) {
+        StringBuilder ligne = new StringBuilder(nom);
+        for (Object argument : arguments) {
+            ligne.append(SEPARATEUR);
+            encoder(ligne, argument);
+        }
+        try {
+            journal.write(ligne.toString());
+            journal.newLine();
+            journal.flush(); // le journal reste exploitable si l'application s'arrête
+        } catch (IOException e) {
+            throw new UncheckedIOException("Écriture du journal de session impossible", e);
+        }
+    }
+
+    private static void encoder(StringBuilder ligne, Object argument) {
+        if (argument == null) {
+            ligne.append(NUL);
+        } else if (argument instanceof Point p) {
+            ligne.append(p.x).append(',').append(p.y);
+        } else if (argument instanceof List<?> liste) {
+            for (int i = 0; i < liste.size(); i++) {
+                if (i > 0) {
+                    ligne.append(SEPARATEUR_LISTE);
+                }
+                encoder(ligne, liste.get(i));
+            }
+        } else if (argument instanceof String s) {
+            echapper(ligne, s);
+        } else {
+            ligne.append(argument); // nombres et booléens
+        }
+    }
+
+    private static void echapper(StringBuilder ligne, String s) {
+        if (s.equals(NUL)) {
+            ligne.append('\\').append(NUL);
+            return;
+        }
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '\\' -> ligne.append("\\\\");
+                case '\t' -> ligne.append("\\t");
+                case '\n' -> ligne.append("\\n");
+                case '\r' -> ligne.append("\\r");
+                case SEPARATEUR_LISTE -> ligne.append("\\;");
+                default -> ligne.append(c);
+            }
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package domaine.piece;
+
+import domaine.chauffage.ElementChauffant;
+import domaine.chauffage.Thermostat;
+import domaine.meuble.Meuble;
+import domaine.meuble.MeubleFactory;
+
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Lot de modifications de meubles et d'éléments chauffants appliqué en une seule fois
+ *
+ * Les opérations sont décrites d'abord, puis appliquées par Piece.appliquerLot : l'état final
+ * est validé en une passe (index spatial pour les chevauchements) et, si une opération est
+ * invalide, la pièce n'est pas modifiée. Les validations portent sur l'état final : deux meubles
+ * peuvent donc échanger leurs positions dans un même lot.
+ */
+public final class LotModifications {
+
+    enum TypeOperation { AJOUT_MEUBLE, AJOUT_ELEMENT, DEPLACEMENT, REDIMENSIONNEMENT, SUPPRESSION }
+
+    static final class Operation {
+        final TypeOperation type;
+        final int id;
+        final Meuble meuble;
+        final ElementChauffant element;
+        final int a; // x ou largeur
+        final int b; // y ou longueur
+
+        Operation(TypeOperation type, int id, Meuble meuble, ElementChauffant element, int a, int b) {
+            this.type = type;
+            this.id = id;
+            this.meuble = meuble;
+            this.element = element;
+            this.a = a;
+            this.b = b;
+        }
+    }
+
+    /**
+     * Entités touchées par un lot appliqué
+     */
+    public static final class Resultat {
+        private final List<Integer> idsAjoutes = new ArrayList<>();
+        private final Set<Integer> meublesModifies = new LinkedHashSet<>();
+        private final Set<Integer> elementsModifies = new LinkedHashSet<>();
+
+        /**
+         * Ids des meubles et éléments ajoutés, dans l'ordre du lot
+         */
+        public List<Integer> getIdsAjoutes() {
+            return Collections.unmodifiableList(idsAjoutes);
+        }
+
+        /**
+         * Ids des meubles ajoutés, modifiés ou supprimés
+         */
+        public Set<Integer> getMeublesModifies() {
+            return Collections.unmodifiableSet(meublesModifies);
+        }
+
+        /**
+         * Ids des éléments chauffants ajoutés, modifiés ou supprimés
+         */
+        public Set<Integer> getElementsModifies() {
+            return Collections.unmodifiableSet(elementsModifies);
+        }
+
+        void ajoute(int id) {
+            idsAjoutes.add(id);
+        }
+
+        void meubleModifie(int id) {
+            meublesModifies.add(id);
+        }
+
+        void elementModifie(int id) {
+            elementsModifies.add(id);
+        }
+    }
+
+    private final List<Operation> operations = new ArrayList<>();
+
+    public LotModifications ajouterMeuble(Meuble meuble) {
+        if (meuble == null) {
+            throw new IllegalArgumentException("Meuble invalide");
+        }
+        operations.add(new Operation(TypeOperation.AJOUT_MEUBLE, meuble.getId(), meuble, null, 0, 0));
+        return this;
+    }
+
+    /**
+     * Ajoute un meuble créé par type (voir MeubleFactory.creerDepuisType)
+     * @return L'id du meuble, utilisable dans les opérations suivantes du lot
+     */
+    public int ajouterMeuble(String type, String nom, int x, int y, int largeur, int longueur) {
+        Meuble m = MeubleFactory.creerDepuisType(type, new Point(x, y), largeur, longueur);
+        m.setNom(nom);
+        ajouterMeuble(m);
+        return m.getId();
+    }
+
+    /**
+     * Ajoute un élément chauffant (ou un thermostat)
+     * @return L'id de l'élément, utilisable dans les opérations suivantes du lot
+     */
+    public int ajouterElementChauffant(String nom, int x, int y, int largeur, int longueur, boolean thermostat) {
+        ElementChauffant e = thermostat ? new Thermostat(nom, x, y, largeur, longueur)
+                : new ElementChauffant(nom, x, y, largeur, longueur);
+        ajouterElementChauffant(e);
+        return e.getId();
+    }
+
+    public LotModifications ajouterElementChauffant(ElementChauffant element) {
+        if (element == null) {
+            throw new IllegalArgumentException("Élément chauffant invalide");
+        }
+        operations.add(new Operation(TypeOperation.AJOUT_ELEMENT, element.getId(), null, element, 0, 0));
+        return this;
+    }
+
+    /**
+     * Déplace un meuble ou un élément chauffant (existant ou ajouté plus tôt dans le lot)
+     */
+    public LotModifications deplacer(int id, int x, int y) {
+        operations.add(new Operation(TypeOperation.DEPLACEMENT, id, null, null, x, y));
+        return this;
+    }
+
+    /**
+     * Redimensionne un meuble ou un élément chauffant (existant ou ajouté plus tôt dans le lot)
+     */
+    public LotModifications redimensionner(int id, int largeur, int longueur) {
+        operations.add(new Operation(TypeOperation.REDIMENSIONNEMENT, id, null, null, largeur, longueur));
+        return this;
+    }
+
+    /**
+     * Supprime un meuble ou un élément chauffant
+     */
+    public LotModifications supprimer(int id) {
+        operations.add(new Operation(TypeOperation.SUPPRESSION, id, null, null, 0, 0));
+        return this;
+    }
+
+    public int taille() {
+        return operations.size();
+    }
+
+    public boolean estVide() {
+        return operations.isEmpty();
+    }
+
+    /**
+     * Reçoit les opérations d'un lot (voir parcourir)
+     */
+    public interface Visiteur {
+        void ajoutMeuble(Meuble meuble);
+
+        void ajoutElement(ElementChauffant element);
+
+        void deplacement(int id, int x, int y);
+
+        void redimensionnement(int id, int largeur, int longueur);
+
+        void suppression(int id);
+    }
+
+    /**
+     * Parcourt les opérations du lot dans l'ordre (journal de session, voir JournalSession)
+     * Les meubles et éléments à ajouter sont ceux du lot : le visiteur ne doit pas les modifier.
+     */
+    public void parcourir(Visiteur visiteur) {
+        for (Operation op : operations) {
+            switch (op.type) {
+                case AJOUT_MEUBLE -> visiteur.ajoutMeuble(op.meuble);
+                case AJOUT_ELEMENT -> visiteur.ajoutElement(op.element);
+                case DEPLACEMENT -> visiteur.deplacement(op.id, op.a, op.b);
+                case REDIMENSIONNEMENT -> visiteur.redimensionnement(op.id, op.a, op.b);
+                case SUPPRESSION -> visiteur.suppression(op.id);
+            }
+        }
+    }
+
+    List<Operation> getOperations() {
+        return operations;
+    }
+}
@@ -0,0 +1,74 @@
+package domaine.diagnostic;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Latence des opérations d'un ControleurObserve, dans un HistogrammeLatence par opération
+ *
+ * Les surcharges d'une même opération partagent leur histogramme (voir ControleurObserve.Appel).
+ * Export : exporterTexte (table lisible, opérations au-delà du budget d'une image marquées)
+ * et exporterCsv.
+ */
+public final class MesureLatence implements ControleurObserve.Observateur {
+
+    public static final long BUDGET_IMAGE_NS = 16_666_667; // une image à 60 Hz
+    private static final double[] PERCENTILES = { 50, 90, 99, 99.9 };
+
+    private final Map<String, HistogrammeLatence> histogrammes = new ConcurrentHashMap<>();
+
+    @Override
+    public void apres(ControleurObserve.Appel appel, long dureeNs) {
+        histogrammes.computeIfAbsent(appel.getOperation(), HistogrammeLatence::new).enregistrer(dureeNs);
+    }
+
+    /**
+     * Histogrammes par opération, triés par nom
+     */
+    public Map<String, HistogrammeLatence> getHistogrammes() {
+        return new TreeMap<>(histogrammes);
+    }
+
+    public void reinitialiser() {
+        histogrammes.clear();
+    }
+
+    /**
+     * Table des latences par opération (ms) ; « ! » : le p99 dépasse le budget d'une image
+     */
+    public String exporterTexte() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT, "%-32s %8s %9s %9s %9s %9s %9s %9s%n",
+            "operation", "n", "moy ms", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"));
+        for (HistogrammeLatence h : getHistogrammes().values()) {
+            sb.append(String.format(Locale.ROOT, "%-32s %8d %9.3f", h.getNom(), h.getNombre(), h.getMoyenneNs() / 1e6));
+            for (double p : PERCENTILES) {
+                sb.append(String.format(Locale.ROOT, " %9.3f", h.getPercentileNs(p) / 1e6));
+            }
+            sb.append(String.format(Locale.ROOT, " %9.3f", h.getMaxNs() / 1e6));
+            if (h.getPercentileNs(99) > BUDGET_IMAGE_NS) {
+                sb.append(" !");
+            }
+            sb.append(System.lineSeparator());
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Latences par opération au format CSV (ns), une ligne d'en-tête
+     */
+    public String exporterCsv() {
+        StringBuilder sb = new StringBuilder("operation,nombre,moyenne_ns,p50_ns,p90_ns,p99_ns,p999_ns,max_ns\n");
+        for (HistogrammeLatence h : getHistogrammes().values()) {
+            sb.append(h.getNom()).append(',').append(h.getNombre()).append(',')
+                .append(Math.round(h.getMoyenneNs()));
+            for (double p : PERCENTILES) {
+                sb.append(',').append(h.getPercentileNs(p));
+            }
+            sb.append(',').append(h.getMaxNs()).append('\n');
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,167 @@
+package domaine.chauffage;
+
+import domaine.graphe.Graphe;
+
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Métriques d'un calcul de chemin du fil (voir RegistreMetriquesRoutage)
+ *
+ * Une instance par calcul, remplie par un seul thread puis publiée dans le registre.
+ * L'instance INACTIVES est partagée quand les métriques sont désactivées : ses méthodes
+ * ne font rien, le coût pour les calculateurs se limite à un test.
+ */
+public final class MetriquesRoutage {
+
+    /**
+     * Raison du rejet d'une intersection candidate
+     */
+    public enum MotifRejet {
+        MUR, MEUBLE, DRAIN, ZONE, CROISEMENT, LONGUEUR_SEGMENT,
+        POCHE // mène dans une poche trop petite pour la longueur restante (voir ComposantesGraphe)
+    }
+
+    /**
+     * Phases d'un calcul : génération du graphe, filtrage et choix du départ, puis parcours
+     */
+    public enum Phase {
+        PREPARATION, PARCOURS
+    }
+
+    static final MetriquesRoutage INACTIVES = new MetriquesRoutage(null, false);
+
+    private final String strategie;
+    private final boolean active;
+    private final long debut;
+    private long dureeNs;
+    private long iterations;
+    private long candidats;
+    private long expansionsBfs; // intersections explorées pour changer de ligne (serpentin)
+    private final long[] rejets = new long[MotifRejet.values().length];
+    private final long[] dureesPhases = new long[Phase.values().length];
+    private int points;
+    private double longueur;
+    private double couverture; // points distincts / intersections valides
+
+    MetriquesRoutage(String strategie, boolean active) {
+        this.strategie = strategie;
+        this.active = active;
+        this.debut = active ? System.nanoTime() : 0;
+    }
+
+    public boolean estActive() {
+        return active;
+    }
+
+    void iteration() {
+        if (active) iterations++;
+    }
+
+    void candidat() {
+        if (active) candidats++;
+    }
+
+    void expansionBfs() {
+        if (active) expansionsBfs++;
+    }
+
+    void rejet(MotifRejet motif) {
+        if (active && motif != null) rejets[motif.ordinal()]++;
+    }
+
+    /**
+     * Rejet d'une intersection par les contraintes : le motif n'est recalculé que si les métriques sont actives
+     */
+    void rejet(ContraintesRoutage contraintes, Graphe.Intersection inter) {
+        if (active) rejet(contraintes.motifRejet(inter));
+    }
+
+    /**
+     * @return L'instant courant (ns), 0 si les métriques sont inactives
+     */
+    long marquer() {
+        return active ? System.nanoTime() : 0;
+    }
+
+    void finPhase(Phase phase, long depuis) {
+        if (active) dureesPhases[phase.ordinal()] += System.nanoTime() - depuis;
+    }
+
+    /**
+     * Termine la mesure avec le chemin obtenu et le nombre d'intersections valides du graphe
+     */
+    void terminer(CheminFil chemin, int intersectionsValides) {
+        if (!active) {
+            return;
+        }
+        dureeNs = System.nanoTime() - debut;
+        if (chemin != null) {
+            points = chemin.taille();
+            longueur = chemin.getLongueur();
+            Set<Long> distincts = new HashSet<>();
+            for (int i = 0; i < points; i++) {
+                distincts.add(((long) chemin.getX(i) << 32) | (chemin.getY(i) & 0xffffffffL));
+            }
+            couverture = intersectionsValides > 0 ? (double) distincts.size() / intersectionsValides : 0;
+        }
+    }
+
+    public String getStrategie() {
+        return strategie;
+    }
+
+    public long getDureeNs() {
+        return dureeNs;
+    }
+
+    public long getIterations() {
+        return iterations;
+    }
+
+    public long getCandidats() {
+        return candidats;
+    }
+
+    public long getExpansionsBfs() {
+        return expansionsBfs;
+    }
+
+    public long getRejets(MotifRejet motif) {
+        return rejets[motif.ordinal()];
+    }
+
+    public Map<MotifRejet, Long> getRejets() {
+        Map<MotifRejet, Long> parMotif = new EnumMap<>(MotifRejet.class);
+        for (MotifRejet motif : MotifRejet.values()) {
+            parMotif.put(motif, rejets[motif.ordinal()]);
+        }
+        return parMotif;
+    }
+
+    public long getDureePhaseNs(Phase phase) {
+        return dureesPhases[phase.ordinal()];
+    }
+
+    public int getPoints() {
+        return points;
+    }
+
+    public double getLongueur() {
+        return longueur;
+    }
+
+    public double getCouverture() {
+        return couverture;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s : %.2f ms (préparation %.2f, parcours %.2f), %d itérations, %d candidats, "
+                + "%d expansions, rejets %s, %d points, longueur %.0f\", couverture %.1f %%",
+            strategie, dureeNs / 1e6, dureesPhases[0] / 1e6, dureesPhases[1] / 1e6, iterations, candidats,
+            expansionsBfs, getRejets(), points, longueur, couverture * 100);
+    }
+}
@@ -2,6 +2,10 @@ package domaine.dto;
 
 import java.awt.Point;
 
+/**
+ * DTO pour la communication des données de meuble
+ * Les DTO retournés par le contrôleur (PieceMapper) sont en lecture seule : voir estFige.
+ */
 public class MeubleDTO {
 
     private int id;
@@ -25,6 +29,7 @@ public class MeubleDTO {
     private int drainY;
     private int diametreDrain = 4;
     private Point positionDrain; // pour le mapper
+    private boolean fige; // partagé en lecture seule (voir figer)
 
     // ----- GETTERS / SETTERS de base -----
 
@@ -33,6 +38,7 @@ public class MeubleDTO {
     }
 
     public void setId(int id) {
+        verifierModifiable();
         this.id = id;
     }
 
@@ -41,6 +47,7 @@ public class MeubleDTO {
     }
 
     public void setNom(String nom) {
+        verifierModifiable();
         this.nom = nom;
     }
 
@@ -49,6 +56,7 @@ public class MeubleDTO {
     }
 
     public void setX(int x) {
+        verifierModifiable();
         this.x = x;
     }
 
@@ -57,6 +65,7 @@ public class MeubleDTO {
     }
 
     public void setY(int y) {
+        verifierModifiable();
         this.y = y;
     }
 
@@ -65,6 +74,7 @@ public class MeubleDTO {
     }
 
     public void setLargeur(int largeur) {
+        verifierModifiable();
         this.largeur = largeur;
     }
 
@@ -73,6 +83,7 @@ public class MeubleDTO {
     }
 
     public void setLongueur(int longueur) {
+        verifierModifiable();
         this.longueur = longueur;
     }
 
@@ -81,6 +92,7 @@ public class MeubleDTO {
     }
 
     public void setType(String type) {
+        verifierModifiable();
         this.type = type;
     }
 
@@ -89,6 +101,7 @@ public class MeubleDTO {
     }
 
     public void setSelectionne(boolean selectionne) {
+        verifierModifiable();
         this.selectionne = selectionne;
     }
 
@@ -97,6 +110,7 @@ public class MeubleDTO {
     }
 
     public void setAngle(double angle) {
+        verifierModifiable();
         this.angle = angle;
     }
 
@@ -107,6 +121,7 @@ public class MeubleDTO {
     }
 
     public void setaDrain(boolean aDrain) {
+        verifierModifiable();
         this.aDrain = aDrain;
     }
 
@@ -115,6 +130,7 @@ public class MeubleDTO {
     }
 
     public void setDrainX(int drainX) {
+        verifierModifiable();
         this.drainX = drainX;
         this.positionDrain = new Point(drainX, this.drainY);
     }
@@ -124,6 +140,7 @@ public class MeubleDTO {
     }
 
     public void setDrainY(int drainY) {
+        verifierModifiable();
         this.drainY = drainY;
         this.positionDrain = new Point(this.drainX, drainY);
     }
@@ -133,10 +150,14 @@ public class MeubleDTO {
     }
 
     public void setDiametreDrain(int diametreDrain) {
+        verifierModifiable();
         this.diametreDrain = diametreDrain;
     }
 
     public Point getPositionDrain() {
+        if (fige) {
+            return new Point(drainX, drainY);
+        }
         if (positionDrain == null) {
             positionDrain = new Point(drainX, drainY);
         }
@@ -144,10 +165,32 @@ public class MeubleDTO {
     }
 
     public void setPositionDrain(Point p) {
+        verifierModifiable();
         if (p != null) {
             this.positionDrain = p;
             this.drainX = p.x;
             this.drainY = p.y;
         }
     }
+
+    /**
+     * Rend le DTO non modifiable (DTO partagé par le cache de PieceMapper)
+     */
+    MeubleDTO figer() {
+        fige = true;
+        return this;
+    }
+
+    /**
+     * Indique si le DTO est partagé en lecture seule : ses setters lèvent IllegalStateException
+     */
+    public boolean estFige() {
+        return fige;
+    }
+
+    private void verifierModifiable() {
+        if (fige) {
+            throw new IllegalStateException("DTO partagé en lecture seule");
+        }
+    }
 }
@@ -0,0 +1,175 @@
+package domaine.dto;
+
+import domaine.chauffage.CheminFil;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DTO des modifications d'une pièce depuis une version donnée (flux de modifications)
+ *
+ * Le client garde la version courante reçue et la redonne à l'appel suivant. Si resynchronisation
+ * est vrai, le journal ne couvre pas la version demandée (version trop ancienne, pièce remplacée
+ * par un undo ou un chargement, ...) : il faut tout relire depuis getPiece().
+ */
+public class ModificationsDTO {
+    private long versionDepart;
+    private long versionCourante;
+    private boolean resynchronisation;
+    private PieceDTO piece; // état courant complet (mis en cache, peu coûteux)
+
+    private final EntitesModifiees<MeubleDTO> meubles = new EntitesModifiees<>();
+    private final EntitesModifiees<ElementChauffantDTO> elementsChauffants = new EntitesModifiees<>();
+    private final EntitesModifiees<ZoneInterdictionDTO> zonesInterdiction = new EntitesModifiees<>();
+    private final EntitesModifiees<ZoneTamponDTO> zonesTampon = new EntitesModifiees<>();
+
+    private boolean contourModifie; // relire points, largeur et longueur dans getPiece()
+    private boolean membraneModifiee; // relire la configuration de la membrane dans getPiece()
+    private FliChauffantDTO fil; // non null si le fil a été modifié
+    private PlageChemin plageChemin; // partie du chemin du fil à remplacer, non null si le chemin a changé
+
+    /**
+     * Entités d'un type ajoutées, modifiées (avec leur nouveau DTO) ou supprimées (id)
+     */
+    public static class EntitesModifiees<D> {
+        private final Map<Integer, D> ajoutees = new LinkedHashMap<>();
+        private final Map<Integer, D> modifiees = new LinkedHashMap<>();
+        private final List<Integer> supprimees = new ArrayList<>();
+
+        public Map<Integer, D> getAjoutees() {
+            return ajoutees;
+        }
+
+        public Map<Integer, D> getModifiees() {
+            return modifiees;
+        }
+
+        public List<Integer> getSupprimees() {
+            return supprimees;
+        }
+
+        public boolean estVide() {
+            return ajoutees.isEmpty() && modifiees.isEmpty() && supprimees.isEmpty();
+        }
+    }
+
+    /**
+     * Remplacement d'une plage du chemin du fil : les sommets [debut, debut + nombreRemplaces[
+     * de l'ancien chemin sont remplacés par les sommets donnés
+     */
+    public static class PlageChemin {
+        private final int debut;
+        private final int nombreRemplaces;
+        private final CheminFil sommets;
+
+        public PlageChemin(int debut, int nombreRemplaces, CheminFil sommets) {
+            this.debut = debut;
+            this.nombreRemplaces = nombreRemplaces;
+            this.sommets = sommets;
+        }
+
+        public int getDebut() {
+            return debut;
+        }
+
+        public int getNombreRemplaces() {
+            return nombreRemplaces;
+        }
+
+        public CheminFil getSommets() {
+            return sommets;
+        }
+    }
+
+    // === Getters et Setters ===
+    public long getVersionDepart() {
+        return versionDepart;
+    }
+
+    public void setVersionDepart(long versionDepart) {
+        this.versionDepart = versionDepart;
+    }
+
+    public long getVersionCourante() {
+        return versionCourante;
+    }
+
+    public void setVersionCourante(long versionCourante) {
+        this.versionCourante = versionCourante;
+    }
+
+    public boolean isResynchronisation() {
+        return resynchronisation;
+    }
+
+    public void setResynchronisation(boolean resynchronisation) {
+        this.resynchronisation = resynchronisation;
+    }
+
+    public PieceDTO getPiece() {
+        return piece;
+    }
+
+    public void setPiece(PieceDTO piece) {
+        this.piece = piece;
+    }
+
+    public EntitesModifiees<MeubleDTO> getMeubles() {
+        return meubles;
+    }
+
+    public EntitesModifiees<ElementChauffantDTO> getElementsChauffants() {
+        return elementsChauffants;
+    }
+
+    public EntitesModifiees<ZoneInterdictionDTO> getZonesInterdiction() {
+        return zonesInterdiction;
+    }
+
+    public EntitesModifiees<ZoneTamponDTO> getZonesTampon() {
+        return zonesTampon;
+    }
+
+    public boolean isContourModifie() {
+        return contourModifie;
+    }
+
+    public void setContourModifie(boolean contourModifie) {
+        this.contourModifie = contourModifie;
+    }
+
+    public boolean isMembraneModifiee() {
+        return membraneModifiee;
+    }
+
+    public void setMembraneModifiee(boolean membraneModifiee) {
+        this.membraneModifiee = membraneModifiee;
+    }
+
+    public FliChauffantDTO getFil() {
+        return fil;
+    }
+
+    public void setFil(FliChauffantDTO fil) {
+        this.fil = fil;
+    }
+
+    public PlageChemin getPlageChemin() {
+        return plageChemin;
+    }
+
+    public void setPlageChemin(PlageChemin plageChemin) {
+        this.plageChemin = plageChemin;
+    }
+
+    /**
+     * Indique qu'il n'y a rien à mettre à jour
+     */
+    public boolean estVide() {
+        return !resynchronisation && meubles.estVide() && elementsChauffants.estVide()
+                && zonesInterdiction.estVide() && zonesTampon.estVide()
+                && !contourModifie && !membraneModifiee && fil == null;
+    }
+}
@@ -0,0 +1,101 @@
+package domaine.dto;
+
+import domaine.chauffage.CheminFil;
+import domaine.piece.JournalModifications;
+import domaine.piece.JournalModifications.TypeModification;
+import domaine.piece.Piece;
+import domaine.piece.Piece.Partie;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+/**
+ * Mapper pour construire le ModificationsDTO d'une pièce depuis une version
+ */
+public final class ModificationsMapper {
+    private ModificationsMapper() {}
+
+    public static ModificationsDTO toDTO(Piece p, long versionDepart) {
+        if (p == null) {
+            return null;
+        }
+
+        ModificationsDTO dto = new ModificationsDTO();
+        dto.setVersionDepart(versionDepart);
+        // Lire la version avant le journal : une modification concurrente sera renvoyée au prochain appel
+        dto.setVersionCourante(p.getVersion());
+        dto.setPiece(PieceMapper.toDTO(p));
+
+        JournalModifications.Resume resume = p.getModificationsDepuis(versionDepart);
+        if (resume == null) {
+            dto.setResynchronisation(true);
+            return dto;
+        }
+
+        remplir(dto.getMeubles(), resume.getEntites(Partie.MEUBLES),
+                id -> p.trouverMeuble(id), MeubleMapper::toDTO);
+        remplir(dto.getElementsChauffants(), resume.getEntites(Partie.ELEMENTS_CHAUFFANTS),
+                id -> p.trouverElementChauffant(id), ElementChauffantMapper::toDTO);
+        remplir(dto.getZonesInterdiction(), resume.getEntites(Partie.ZONES_INTERDICTION),
+                id -> p.trouverZoneInterdiction(id), PieceMapper::toDTO);
+        remplir(dto.getZonesTampon(), resume.getEntites(Partie.ZONES_TAMPON),
+                id -> p.trouverZoneTampon(id), PieceMapper::toDTO);
+
+        dto.setContourModifie(resume.isContourModifie());
+        dto.setMembraneModifiee(resume.isMembraneModifiee());
+
+        if (resume.isFilModifie() && p.getFilChauffant() != null) {
+            dto.setFil(dto.getPiece().getFliChauffant());
+            ModificationsDTO.PlageChemin plage = comparer(resume.getCheminDepart(), p.getFilChauffant().getCheminCompact());
+            dto.setPlageChemin(plage);
+        }
+        return dto;
+    }
+
+    /**
+     * Classe chaque entité selon son état actuel : une entité notée modifiée mais absente
+     * a été supprimée entre-temps, et inversement
+     */
+    private static <E, D> void remplir(ModificationsDTO.EntitesModifiees<D> cible,
+                                       Map<Integer, TypeModification> modifications,
+                                       IntFunction<Optional<E>> trouver, Function<E, D> versDTO) {
+        for (Map.Entry<Integer, TypeModification> m : modifications.entrySet()) {
+            int id = m.getKey();
+            Optional<E> entite = trouver.apply(id);
+            if (entite.isEmpty()) {
+                if (m.getValue() != TypeModification.AJOUT) {
+                    cible.getSupprimees().add(id);
+                }
+            } else if (m.getValue() == TypeModification.AJOUT) {
+                cible.getAjoutees().put(id, versDTO.apply(entite.get()));
+            } else {
+                cible.getModifiees().put(id, versDTO.apply(entite.get()));
+            }
+        }
+    }
+
+    /**
+     * Plus petite plage à remplacer pour passer de l'ancien chemin au nouveau
+     * (préfixe et suffixe communs exclus), ou null si les chemins sont identiques
+     */
+    private static ModificationsDTO.PlageChemin comparer(CheminFil ancien, CheminFil nouveau) {
+        if (ancien == nouveau || ancien.equals(nouveau)) {
+            return null;
+        }
+        int min = Math.min(ancien.taille(), nouveau.taille());
+        int debut = 0;
+        while (debut < min && ancien.getX(debut) == nouveau.getX(debut) && ancien.getY(debut) == nouveau.getY(debut)) {
+            debut++;
+        }
+        int fin = 0; // sommets communs à la fin
+        while (fin < min - debut
+                && ancien.getX(ancien.taille() - 1 - fin) == nouveau.getX(nouveau.taille() - 1 - fin)
+                && ancien.getY(ancien.taille() - 1 - fin) == nouveau.getY(nouveau.taille() - 1 - fin)) {
+            fin++;
+        }
+        return new ModificationsDTO.PlageChemin(debut, ancien.taille() - fin - debut,
+                nouveau.sousChemin(debut, nouveau.taille() - fin));
+    }
+}
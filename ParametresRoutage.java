@@ -0,0 +1,56 @@
+package domaine.chauffage;
+
+import domaine.graphe.Graphe;
+
+/**
+ * Paramètres d'un calcul de chemin du fil chauffant
+ *
+ * Sans intersection de départ, la stratégie part de l'intersection valide la plus proche
+ * du thermostat. Avec une intersection de départ, le chemin partiel (qui se termine à cette
+ * intersection) est conservé et prolongé.
+ */
+public final class ParametresRoutage {
+
+    private final int distanceEntreFils; // en pouces
+    private final int longueurSouhaitee; // en pouces
+    private final Graphe.Intersection intersectionDepart;
+    private final CheminFil cheminPartiel;
+
+    public ParametresRoutage(int distanceEntreFils, int longueurSouhaitee) {
+        this(distanceEntreFils, longueurSouhaitee, null, null);
+    }
+
+    public ParametresRoutage(int distanceEntreFils, int longueurSouhaitee,
+                             Graphe.Intersection intersectionDepart, CheminFil cheminPartiel) {
+        this.distanceEntreFils = distanceEntreFils;
+        this.longueurSouhaitee = longueurSouhaitee;
+        this.intersectionDepart = intersectionDepart;
+        this.cheminPartiel = cheminPartiel != null ? cheminPartiel : CheminFil.VIDE;
+    }
+
+    public int getDistanceEntreFils() {
+        return distanceEntreFils;
+    }
+
+    public int getLongueurSouhaitee() {
+        return longueurSouhaitee;
+    }
+
+    /**
+     * Intersection de départ, ou null pour partir du thermostat
+     */
+    public Graphe.Intersection getIntersectionDepart() {
+        return intersectionDepart;
+    }
+
+    public CheminFil getCheminPartiel() {
+        return cheminPartiel;
+    }
+
+    /**
+     * Distance minimale aux murs : au moins égale à la distance entre les fils
+     */
+    public int getDistanceMinMur() {
+        return Math.max(ContraintesRoutage.DISTANCE_MIN_MUR, distanceEntreFils);
+    }
+}
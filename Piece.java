@@ -2,10 +2,15 @@ package domaine.piece;
 
 import domaine.meuble.Meuble;
 import domaine.chauffage.ElementChauffant;
+import domaine.chauffage.CheminFil;
 import domaine.chauffage.FilChauffant;
 import domaine.graphe.Graphe;
 //import domaine.piece.util.Segment;
+import domaine.piece.JournalModifications.TypeModification;
+import domaine.piece.util.IndexSpatial;
 import domaine.piece.util.MurProcheInfo;
+import domaine.sauvegarde.EtatPiece;
+import domaine.sauvegarde.EtatPieceMapper;
 import domaine.validation.PieceValidator;
 import domaine.zone.ZoneInterdiction;
 import domaine.zone.ZoneTampon;
@@ -13,13 +18,18 @@ import domaine.zone.ZoneTampon;
 import java.awt.Point;
 import java.awt.geom.Path2D;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
 import domaine.SelectionService;
 import domaine.meuble.MeubleAvecDrain;
 
@@ -29,8 +39,42 @@ import domaine.meuble.MeubleAvecDrain;
  * Une pièce a au minimum 3 côtés formés de 3 points non alignés.
  * Une pièce rectangulaire est formée de 4 points.
  * Contient des meubles, des éléments chauffants et un graphe.
+ *
+ * Concurrence : la pièce est modifiée par un seul fil (l'interface), toujours sous le verrou
+ * d'écriture. Un autre fil (rendu, validation, routage en arrière-plan) lit soit avec lire(...),
+ * soit, pour un traitement long, dans getInstantane() : une copie figée qui ne change plus.
  */
 public class Piece {
+
+    /**
+     * Parties de la pièce dont les modifications sont suivies séparément
+     */
+    public enum Partie { CONTOUR, MEUBLES, ELEMENTS_CHAUFFANTS, ZONES_INTERDICTION, ZONES_TAMPON, FIL, MEMBRANE }
+
+    // Compteur commun à toutes les pièces : une pièce reconstruite (undo, chargement)
+    // a toujours des versions plus récentes que celle qu'elle remplace
+    private static final AtomicLong COMPTEUR_VERSIONS = new AtomicLong();
+
+    private final long[] versions = new long[Partie.values().length]; // version de chaque partie
+    private volatile long version; // version de la dernière modification, toutes parties confondues
+    private final JournalModifications modifications = new JournalModifications();
+    private CheminFil cheminJournalise = CheminFil.VIDE; // chemin du fil à la dernière modification notée
+
+    private final ReentrantReadWriteLock verrou = new ReentrantReadWriteLock();
+    private volatile boolean figee; // instantané : toute modification est refusée
+    private volatile Instantane instantane; // dernier instantané publié
+    private final Object verrouInstantane = new Object();
+
+    private static final class Instantane {
+        private final long version;
+        private final Piece piece;
+
+        Instantane(long version, Piece piece) {
+            this.version = version;
+            this.piece = piece;
+        }
+    }
+
     private int largeur; // en pouces
     private int longueur; // en pouces
     private List<Point> points; // Points définissant le contour de la pièce (minimum 3)
@@ -55,6 +99,7 @@ public class Piece {
         initialiserContourRectangulaire();
         // Initialiser le fil chauffant
         this.filChauffant = new FilChauffant("Fil principal", largeur, longueur, 6);
+        marquerToutModifie();
     }
 
     /**
@@ -75,13 +120,182 @@ public class Piece {
         this.graphe = new Graphe(largeur, longueur);
         // Initialiser le fil chauffant
         this.filChauffant = new FilChauffant("Fil principal", largeur, longueur, 6);
+        marquerToutModifie();
     }
 
     /**
      * Initialise le fil chauffant (utilisé par PieceFactory)
      */
     public void initialiserFilChauffant(int largeur, int longueur) {
-        this.filChauffant = new FilChauffant("Fil principal", largeur, longueur, 6);
+        verrouillerEcriture();
+        try {
+            this.filChauffant = new FilChauffant("Fil principal", largeur, longueur, 6);
+            marquerModifie(Partie.FIL);
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
+    // === Versions ===
+
+    /**
+     * Version de la dernière modification de la pièce (croît à chaque modification)
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Version de la dernière modification d'une partie de la pièce
+     */
+    public long getVersion(Partie partie) {
+        return versions[partie.ordinal()];
+    }
+
+    /**
+     * Signale la modification d'une partie de la pièce
+     * Les méthodes de Piece le font elles-mêmes ; à appeler après une modification
+     * faite directement sur le fil ou le graphe. Pour une entité, préférer la variante avec id.
+     */
+    public void marquerModifie(Partie partie) {
+        marquerModifie(partie, JournalModifications.AUCUN_ID, TypeModification.MODIFICATION);
+    }
+
+    /**
+     * Signale la modification d'une entité (meuble, élément chauffant ou zone)
+     * À appeler après une modification faite directement sur l'entité.
+     */
+    public void marquerModifie(Partie partie, int id, TypeModification type) {
+        verrouillerEcriture();
+        try {
+            long v = COMPTEUR_VERSIONS.incrementAndGet();
+            versions[partie.ordinal()] = v;
+            version = v;
+            CheminFil precedent = null;
+            if (partie == Partie.FIL) {
+                precedent = cheminJournalise;
+                cheminJournalise = cheminCourant();
+            }
+            modifications.noter(v, partie, id, type, precedent);
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Signale la modification de toutes les parties de la pièce
+     */
+    public void marquerToutModifie() {
+        verrouillerEcriture();
+        try {
+            long v = COMPTEUR_VERSIONS.incrementAndGet();
+            Arrays.fill(versions, v);
+            version = v;
+            cheminJournalise = cheminCourant();
+            modifications.noter(v, null, JournalModifications.AUCUN_ID, TypeModification.MODIFICATION, null);
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Résume les modifications survenues après une version (voir JournalModifications)
+     * @return Le résumé, ou null s'il faut relire toute la pièce
+     */
+    public JournalModifications.Resume getModificationsDepuis(long version) {
+        return modifications.resumerDepuis(version);
+    }
+
+    // === Concurrence ===
+
+    /**
+     * Lit la pièce sous le verrou de lecture (aucune modification ne peut avoir lieu pendant la lecture)
+     * Les collections retournées par les getters ne doivent pas sortir du lecteur.
+     */
+    public <T> T lire(Supplier<T> lecteur) {
+        verrou.readLock().lock();
+        try {
+            return lecteur.get();
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    /**
+     * Modifie la pièce sous le verrou d'écriture
+     * À utiliser pour les modifications faites directement sur une entité, le fil ou le graphe.
+     */
+    public void modifier(Runnable modification) {
+        verrouillerEcriture();
+        try {
+            modification.run();
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Retourne une copie figée de la pièce, partagée tant que la pièce ne change pas
+     * La copie (et son graphe) ne change plus : elle peut être lue par plusieurs fils à la fois
+     * pendant que l'utilisateur continue de modifier la pièce.
+     */
+    public Piece getInstantane() {
+        if (figee) {
+            return this;
+        }
+        Instantane courant = instantane;
+        if (courant != null && courant.version == version) {
+            return courant.piece;
+        }
+        // Un seul fil construit l'instantané d'une version ; les autres attendent et le réutilisent
+        synchronized (verrouInstantane) {
+            courant = instantane;
+            if (courant != null && courant.version == version) {
+                return courant.piece;
+            }
+            long v;
+            EtatPiece etat;
+            Graphe copieGraphe;
+            verrou.readLock().lock();
+            try {
+                v = version;
+                etat = EtatPieceMapper.versEtat(this);
+                copieGraphe = graphe != null ? graphe.copier() : null;
+            } finally {
+                verrou.readLock().unlock();
+            }
+            // Le graphe est copié tel quel : inutile de le régénérer dans versPiece
+            etat.setMembraneGeneree(false);
+            Piece copie = EtatPieceMapper.versPiece(etat);
+            if (copieGraphe != null) {
+                if (!copieGraphe.estGenere()) {
+                    // Les calculateurs exigent un graphe généré : le générer avant de figer la copie
+                    copieGraphe.genererGraphe();
+                }
+                copie.setGraphe(copieGraphe);
+            }
+            copie.figee = true;
+            instantane = new Instantane(v, copie);
+            return copie;
+        }
+    }
+
+    /**
+     * Indique si la pièce est un instantané en lecture seule
+     */
+    public boolean estFigee() {
+        return figee;
+    }
+
+    private void verrouillerEcriture() {
+        if (figee) {
+            throw new IllegalStateException("Instantané de pièce en lecture seule");
+        }
+        verrou.writeLock().lock();
+    }
+
+    private CheminFil cheminCourant() {
+        return filChauffant != null ? filChauffant.getCheminCompact() : CheminFil.VIDE;
     }
 
     public FilChauffant getFilChauffant() {
@@ -93,25 +307,31 @@ public class Piece {
      * Méthode publique pour permettre la mise à jour après modification des points
      */
     public void calculerDimensionsDepuisPoints() {
-        if (points.isEmpty()) {
-            this.largeur = 0;
-            this.longueur = 0;
-            return;
-        }
-        int minX = points.get(0).x;
-        int maxX = points.get(0).x;
-        int minY = points.get(0).y;
-        int maxY = points.get(0).y;
+        verrouillerEcriture();
+        try {
+            if (points.isEmpty()) {
+                this.largeur = 0;
+                this.longueur = 0;
+                return;
+            }
+            int minX = points.get(0).x;
+            int maxX = points.get(0).x;
+            int minY = points.get(0).y;
+            int maxY = points.get(0).y;
+
+            for (Point p : points) {
+                if (p.x < minX) minX = p.x;
+                if (p.x > maxX) maxX = p.x;
+                if (p.y < minY) minY = p.y;
+                if (p.y > maxY) maxY = p.y;
+            }
 
-        for (Point p : points) {
-            if (p.x < minX) minX = p.x;
-            if (p.x > maxX) maxX = p.x;
-            if (p.y < minY) minY = p.y;
-            if (p.y > maxY) maxY = p.y;
+            this.largeur = maxX - minX;
+            this.longueur = maxY - minY;
+            marquerModifie(Partie.CONTOUR);
+        } finally {
+            verrou.writeLock().unlock();
         }
-
-        this.largeur = maxX - minX;
-        this.longueur = maxY - minY;
     }
 
     /**
@@ -141,6 +361,7 @@ public class Piece {
             }
             contour.closePath();
         }
+        marquerModifie(Partie.CONTOUR);
     }
 
     // === Getters ===
@@ -166,45 +387,53 @@ public class Piece {
      * Valide les dimensions avant modification
      */
     public void modifierDimensions(int largeur, int longueur) {
-        // Valider les dimensions avant modification
-        String erreur = PieceValidator.validerDimensionsPiece(largeur, longueur);
-        if (erreur != null) {
-            throw new IllegalArgumentException(erreur);
-        }
+        verrouillerEcriture();
+        try {
+            // Valider les dimensions avant modification
+            String erreur = PieceValidator.validerDimensionsPiece(largeur, longueur);
+            if (erreur != null) {
+                throw new IllegalArgumentException(erreur);
+            }
 
-        this.largeur = largeur;
-        this.longueur = longueur;
+            this.largeur = largeur;
+            this.longueur = longueur;
 
-        // Recalculer le contour rectangulaire avec les nouvelles dimensions
-        initialiserContourRectangulaire();
+            // Recalculer le contour rectangulaire avec les nouvelles dimensions
+            initialiserContourRectangulaire();
 
-        // Mettre à jour le fil chauffant
-        if (filChauffant != null) {
-            filChauffant.mettreAJourDimensions(largeur, longueur);
-        }
-        
-        // Mettre à jour le graphe (membrane) avec les nouvelles dimensions
-        if (graphe != null) {
-            graphe.mettreAJourDimensions(largeur, longueur);
-        }
-        
-        for (Meuble m : meubles.values()) {
-            int newX = m.getX();
-            int newY = m.getY();
+            // Mettre à jour le fil chauffant
+            if (filChauffant != null) {
+                filChauffant.mettreAJourDimensions(largeur, longueur);
+            }
 
-            if (m.getX() + m.getLargeur() > largeur) {
-                newX = Math.max(0, largeur - m.getLargeur());
+            // Mettre à jour le graphe (membrane) avec les nouvelles dimensions
+            if (graphe != null) {
+                graphe.mettreAJourDimensions(largeur, longueur);
             }
-            if (m.getY() + m.getLongueur() > longueur) {
-                newY = Math.max(0, longueur - m.getLongueur());
+
+            for (Meuble m : meubles.values()) {
+                int newX = m.getX();
+                int newY = m.getY();
+
+                if (m.getX() + m.getLargeur() > largeur) {
+                    newX = Math.max(0, largeur - m.getLargeur());
+                }
+                if (m.getY() + m.getLongueur() > longueur) {
+                    newY = Math.max(0, longueur - m.getLongueur());
+                }
+
+                // utilise bien le hook onPositionChanged()
+                m.setPosition(newX, newY);
             }
 
-            // utilise bien le hook onPositionChanged()
-            m.setPosition(newX, newY);
-        }
 
+            // TODO: Mettre à jour les zones tampons si nécessaire (L4)
 
-        // TODO: Mettre à jour les zones tampons si nécessaire (L4)
+            // Contour, fil, membrane et meubles peuvent tous avoir changé
+            marquerToutModifie();
+        } finally {
+            verrou.writeLock().unlock();
+        }
     }
 
     public List<Point> getPoints() {
@@ -221,12 +450,18 @@ public class Piece {
 
     // === Méthodes de gestion des meubles par ID ===
     public void modifierDrain(int id, int drainX, int drainY, int diametre) {
-        Meuble m = requireMeuble(id);
-        if (m instanceof MeubleAvecDrain d) {
-            d.setDiametreDrain(diametre);
-            d.setDrainPosition(drainX, drainY);  // le clamp + flag modifié
-        } else {
-            throw new IllegalArgumentException("Ce meuble n'a pas de drain");
+        verrouillerEcriture();
+        try {
+            Meuble m = requireMeuble(id);
+            if (m instanceof MeubleAvecDrain d) {
+                d.setDiametreDrain(diametre);
+                d.setDrainPosition(drainX, drainY);  // le clamp + flag modifié
+                marquerModifie(Partie.MEUBLES, id, TypeModification.MODIFICATION);
+            } else {
+                throw new IllegalArgumentException("Ce meuble n'a pas de drain");
+            }
+        } finally {
+            verrou.writeLock().unlock();
         }
     }
 
@@ -234,12 +469,18 @@ public class Piece {
      * Modifie le drain avec des coordonnées relatives au meuble
      */
     public void modifierDrainRelatif(int id, int drainXRelatif, int drainYRelatif, int diametre) {
-        Meuble m = requireMeuble(id);
-        if (m instanceof MeubleAvecDrain d) {
-            d.setDiametreDrain(diametre);
-            d.setDrainPositionRelative(drainXRelatif, drainYRelatif);
-        } else {
-            throw new IllegalArgumentException("Ce meuble n'a pas de drain");
+        verrouillerEcriture();
+        try {
+            Meuble m = requireMeuble(id);
+            if (m instanceof MeubleAvecDrain d) {
+                d.setDiametreDrain(diametre);
+                d.setDrainPositionRelative(drainXRelatif, drainYRelatif);
+                marquerModifie(Partie.MEUBLES, id, TypeModification.MODIFICATION);
+            } else {
+                throw new IllegalArgumentException("Ce meuble n'a pas de drain");
+            }
+        } finally {
+            verrou.writeLock().unlock();
         }
     }
 
@@ -251,19 +492,25 @@ public class Piece {
      * @throws IllegalArgumentException si la position est invalide
      */
     public int ajouterMeuble(Meuble m) {
-        if (m == null) {
-            throw new IllegalArgumentException("Meuble invalide");
-        }
+        verrouillerEcriture();
+        try {
+            if (m == null) {
+                throw new IllegalArgumentException("Meuble invalide");
+            }
 
-        // Valider la position via PieceValidator
-        String erreur = PieceValidator.validerPositionMeuble(
-                this, m.getX(), m.getY(), m.getLargeur(), m.getLongueur(), null);
-        if (erreur != null) {
-            throw new IllegalArgumentException(erreur);
-        }
+            // Valider la position via PieceValidator
+            String erreur = PieceValidator.validerPositionMeuble(
+                    this, m.getX(), m.getY(), m.getLargeur(), m.getLongueur(), null);
+            if (erreur != null) {
+                throw new IllegalArgumentException(erreur);
+            }
 
-        meubles.put(m.getId(), m);
-        return m.getId();
+            meubles.put(m.getId(), m);
+            marquerModifie(Partie.MEUBLES, m.getId(), TypeModification.AJOUT);
+            return m.getId();
+        } finally {
+            verrou.writeLock().unlock();
+        }
     }
 
     /**
@@ -279,17 +526,22 @@ public class Piece {
      * @throws IllegalArgumentException si la position est invalide
      */
     public void deplacerMeuble(int id, Point nouvellePos) {
-        Meuble m = requireMeuble(id);
-
-        // Valider la nouvelle position via PieceValidator
-        String erreur = PieceValidator.validerPositionMeuble(
-                this, nouvellePos.x, nouvellePos.y, m.getLargeur(), m.getLongueur(), id);
-        if (erreur != null) {
-            throw new IllegalArgumentException(erreur);
-        }
+        verrouillerEcriture();
+        try {
+            Meuble m = requireMeuble(id);
 
-        m.setPosition(nouvellePos.x, nouvellePos.y);
+            // Valider la nouvelle position via PieceValidator
+            String erreur = PieceValidator.validerPositionMeuble(
+                    this, nouvellePos.x, nouvellePos.y, m.getLargeur(), m.getLongueur(), id);
+            if (erreur != null) {
+                throw new IllegalArgumentException(erreur);
+            }
 
+            m.setPosition(nouvellePos.x, nouvellePos.y);
+            marquerModifie(Partie.MEUBLES, id, TypeModification.MODIFICATION);
+        } finally {
+            verrou.writeLock().unlock();
+        }
     }
 
     /**
@@ -298,30 +550,43 @@ public class Piece {
      * @throws IllegalArgumentException si les dimensions ou la position sont invalides
      */
     public void redimensionnerMeuble(int id, int largeur, int longueur) {
-        Meuble m = requireMeuble(id);
+        verrouillerEcriture();
+        try {
+            Meuble m = requireMeuble(id);
+
+            // Valider les dimensions via PieceValidator
+            String erreurDimensions = PieceValidator.validerDimensions(largeur, longueur);
+            if (erreurDimensions != null) {
+                throw new IllegalArgumentException(erreurDimensions);
+            }
 
-        // Valider les dimensions via PieceValidator
-        String erreurDimensions = PieceValidator.validerDimensions(largeur, longueur);
-        if (erreurDimensions != null) {
-            throw new IllegalArgumentException(erreurDimensions);
-        }
+            // Valider que la nouvelle taille respecte toujours les contraintes de position
+            String erreurPosition = PieceValidator.validerPositionMeuble(
+                    this, m.getX(), m.getY(), largeur, longueur, id);
+            if (erreurPosition != null) {
+                throw new IllegalArgumentException(erreurPosition);
+            }
 
-        // Valider que la nouvelle taille respecte toujours les contraintes de position
-        String erreurPosition = PieceValidator.validerPositionMeuble(
-                this, m.getX(), m.getY(), largeur, longueur, id);
-        if (erreurPosition != null) {
-            throw new IllegalArgumentException(erreurPosition);
+            m.setLargeur(largeur);
+            m.setLongueur(longueur);
+            marquerModifie(Partie.MEUBLES, id, TypeModification.MODIFICATION);
+        } finally {
+            verrou.writeLock().unlock();
         }
-
-        m.setLargeur(largeur);
-        m.setLongueur(longueur);
     }
 
     /**
      * Supprime un meuble par son ID
      */
     public void supprimerMeuble(int id) {
-        meubles.remove(id);
+        verrouillerEcriture();
+        try {
+            if (meubles.remove(id) != null) {
+                marquerModifie(Partie.MEUBLES, id, TypeModification.SUPPRESSION);
+            }
+        } finally {
+            verrou.writeLock().unlock();
+        }
     }
 
     /**
@@ -511,28 +776,34 @@ public class Piece {
      * @throws IllegalArgumentException si la position ou les contraintes sont invalides
      */
     public int ajouterElementChauffant(ElementChauffant element) {
-        if (element == null) {
-            throw new IllegalArgumentException("Élément chauffant invalide");
-        }
+        verrouillerEcriture();
+        try {
+            if (element == null) {
+                throw new IllegalArgumentException("Élément chauffant invalide");
+            }
 
-        // Vérifier la contrainte : un seul thermostat par pièce (délègue à PieceValidator)
-        if (element instanceof domaine.chauffage.Thermostat) {
-            String erreur = PieceValidator.validerAjoutThermostat(this);
-            if (erreur != null) {
-                throw new IllegalArgumentException(erreur);
+            // Vérifier la contrainte : un seul thermostat par pièce (délègue à PieceValidator)
+            if (element instanceof domaine.chauffage.Thermostat) {
+                String erreur = PieceValidator.validerAjoutThermostat(this);
+                if (erreur != null) {
+                    throw new IllegalArgumentException(erreur);
+                }
             }
-        }
 
-        // Valider la position via PieceValidator (vérifie aussi que l'élément est collé au mur)
-        // Utiliser la version avec taille pour vérifier que l'élément ne dépasse pas de la pièce
-        String erreurPosition = PieceValidator.validerPositionElementChauffant(
-                this, element.getX(), element.getY(), element.getLargeur(), element.getLongueur());
-        if (erreurPosition != null) {
-            throw new IllegalArgumentException(erreurPosition);
-        }
+            // Valider la position via PieceValidator (vérifie aussi que l'élément est collé au mur)
+            // Utiliser la version avec taille pour vérifier que l'élément ne dépasse pas de la pièce
+            String erreurPosition = PieceValidator.validerPositionElementChauffant(
+                    this, element.getX(), element.getY(), element.getLargeur(), element.getLongueur());
+            if (erreurPosition != null) {
+                throw new IllegalArgumentException(erreurPosition);
+            }
 
-        elementsChauffants.put(element.getId(), element);
-        return element.getId();
+            elementsChauffants.put(element.getId(), element);
+            marquerModifie(Partie.ELEMENTS_CHAUFFANTS, element.getId(), TypeModification.AJOUT);
+            return element.getId();
+        } finally {
+            verrou.writeLock().unlock();
+        }
     }
 
     /**
@@ -548,16 +819,22 @@ public class Piece {
      * @throws IllegalArgumentException si la position est invalide
      */
     public void deplacerElementChauffant(int id, Point nouvellePos) {
-        ElementChauffant element = requireElementChauffant(id);
+        verrouillerEcriture();
+        try {
+            ElementChauffant element = requireElementChauffant(id);
 
-        // Valider la nouvelle position via PieceValidator en tenant compte de la taille
-        String erreur = PieceValidator.validerPositionElementChauffant(
-                this, nouvellePos.x, nouvellePos.y, element.getLargeur(), element.getLongueur());
-        if (erreur != null) {
-            throw new IllegalArgumentException(erreur);
-        }
+            // Valider la nouvelle position via PieceValidator en tenant compte de la taille
+            String erreur = PieceValidator.validerPositionElementChauffant(
+                    this, nouvellePos.x, nouvellePos.y, element.getLargeur(), element.getLongueur());
+            if (erreur != null) {
+                throw new IllegalArgumentException(erreur);
+            }
 
-        element.setPosition(nouvellePos);
+            element.setPosition(nouvellePos);
+            marquerModifie(Partie.ELEMENTS_CHAUFFANTS, id, TypeModification.MODIFICATION);
+        } finally {
+            verrou.writeLock().unlock();
+        }
     }
 
     /**
@@ -566,31 +843,44 @@ public class Piece {
      * @throws IllegalArgumentException si les dimensions ou la position sont invalides
      */
     public void redimensionnerElementChauffant(int id, int largeur, int longueur) {
-        ElementChauffant element = requireElementChauffant(id);
+        verrouillerEcriture();
+        try {
+            ElementChauffant element = requireElementChauffant(id);
+
+            // Valider les dimensions via PieceValidator
+            String erreurDimensions = PieceValidator.validerDimensions(largeur, longueur);
+            if (erreurDimensions != null) {
+                throw new IllegalArgumentException(erreurDimensions);
+            }
 
-        // Valider les dimensions via PieceValidator
-        String erreurDimensions = PieceValidator.validerDimensions(largeur, longueur);
-        if (erreurDimensions != null) {
-            throw new IllegalArgumentException(erreurDimensions);
-        }
+            // Valider que la nouvelle taille respecte toujours les contraintes de position
+            // (doit être collé au mur et ne pas dépasser de la pièce)
+            String erreurPosition = PieceValidator.validerPositionElementChauffant(
+                    this, element.getX(), element.getY(), largeur, longueur);
+            if (erreurPosition != null) {
+                throw new IllegalArgumentException(erreurPosition);
+            }
 
-        // Valider que la nouvelle taille respecte toujours les contraintes de position
-        // (doit être collé au mur et ne pas dépasser de la pièce)
-        String erreurPosition = PieceValidator.validerPositionElementChauffant(
-                this, element.getX(), element.getY(), largeur, longueur);
-        if (erreurPosition != null) {
-            throw new IllegalArgumentException(erreurPosition);
+            element.setLargeur(largeur);
+            element.setLongueur(longueur);
+            marquerModifie(Partie.ELEMENTS_CHAUFFANTS, id, TypeModification.MODIFICATION);
+        } finally {
+            verrou.writeLock().unlock();
         }
-
-        element.setLargeur(largeur);
-        element.setLongueur(longueur);
     }
 
     /**
      * Supprime un élément chauffant par son ID
      */
     public void supprimerElementChauffant(int id) {
-        elementsChauffants.remove(id);
+        verrouillerEcriture();
+        try {
+            if (elementsChauffants.remove(id) != null) {
+                marquerModifie(Partie.ELEMENTS_CHAUFFANTS, id, TypeModification.SUPPRESSION);
+            }
+        } finally {
+            verrou.writeLock().unlock();
+        }
     }
 
     /**
@@ -606,12 +896,35 @@ public class Piece {
         return graphe;
     }
 
+    /**
+     * Remplace le graphe de la pièce
+     * Utilisé pour réutiliser un graphe déjà généré lorsque la géométrie est identique (undo/redo)
+     */
+    public void setGraphe(Graphe graphe) {
+        verrouillerEcriture();
+        try {
+            if (graphe == null) {
+                throw new IllegalArgumentException("Graphe invalide");
+            }
+            this.graphe = graphe;
+            marquerModifie(Partie.MEMBRANE);
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
     /**
      * Génère le graphe de la pièce (façade pour le contrôleur)
      */
     public void genererGraphe() {
-        if (graphe != null) {
-            graphe.genererGraphe();
+        verrouillerEcriture();
+        try {
+            if (graphe != null) {
+                graphe.genererGraphe();
+                marquerModifie(Partie.MEMBRANE);
+            }
+        } finally {
+            verrou.writeLock().unlock();
         }
     }
 
@@ -619,8 +932,14 @@ public class Piece {
      * Active une intersection du graphe (façade pour le contrôleur)
      */
     public void activerIntersection(int x, int y) {
-        if (graphe != null) {
-            graphe.activerIntersection(x, y);
+        verrouillerEcriture();
+        try {
+            if (graphe != null) {
+                graphe.activerIntersection(x, y);
+                marquerModifie(Partie.MEMBRANE);
+            }
+        } finally {
+            verrou.writeLock().unlock();
         }
     }
 
@@ -628,8 +947,14 @@ public class Piece {
      * Désactive toutes les intersections du graphe (façade pour le contrôleur)
      */
     public void desactiverToutesIntersections() {
-        if (graphe != null) {
-            graphe.desactiverToutesIntersections();
+        verrouillerEcriture();
+        try {
+            if (graphe != null) {
+                graphe.desactiverToutesIntersections();
+                marquerModifie(Partie.MEMBRANE);
+            }
+        } finally {
+            verrou.writeLock().unlock();
         }
     }
 
@@ -639,16 +964,26 @@ public class Piece {
      * Ajoute un point au contour de la pièce
      */
     public void ajouterPoint(int x, int y) {
-        points.add(new Point(x, y));
-        recalculerContour();
+        verrouillerEcriture();
+        try {
+            points.add(new Point(x, y));
+            recalculerContour();
+        } finally {
+            verrou.writeLock().unlock();
+        }
     }
 
     /**
      * Ajoute un point au contour de la pièce
      */
     public void ajouterPoint(Point point) {
-        points.add(new Point(point));
-        recalculerContour();
+        verrouillerEcriture();
+        try {
+            points.add(new Point(point));
+            recalculerContour();
+        } finally {
+            verrou.writeLock().unlock();
+        }
     }
 
     /**
@@ -656,24 +991,34 @@ public class Piece {
      * Vérifie qu'il reste au moins 3 points
      */
     public boolean supprimerPoint(int index) {
-        if (points.size() > 3 && index >= 0 && index < points.size()) {
-            points.remove(index);
-            recalculerContour();
-            return true;
+        verrouillerEcriture();
+        try {
+            if (points.size() > 3 && index >= 0 && index < points.size()) {
+                points.remove(index);
+                recalculerContour();
+                return true;
+            }
+            return false; // Ne peut pas supprimer si moins de 4 points
+        } finally {
+            verrou.writeLock().unlock();
         }
-        return false; // Ne peut pas supprimer si moins de 4 points
     }
 
     /**
      * Modifie un point existant
      */
     public boolean modifierPoint(int index, int x, int y) {
-        if (index >= 0 && index < points.size()) {
-            points.set(index, new Point(x, y));
-            recalculerContour();
-            return true;
+        verrouillerEcriture();
+        try {
+            if (index >= 0 && index < points.size()) {
+                points.set(index, new Point(x, y));
+                recalculerContour();
+                return true;
+            }
+            return false;
+        } finally {
+            verrou.writeLock().unlock();
         }
-        return false;
     }
 
     /**
@@ -682,62 +1027,71 @@ public class Piece {
      * @param nouvelleLongueur Nouvelle longueur du rectangle englobant
      */
     public void redimensionnerPieceIrreguliere(int nouvelleLargeur, int nouvelleLongueur) {
-        if (points.isEmpty()) {
-            this.largeur = nouvelleLargeur;
-            this.longueur = nouvelleLongueur;
-            return;
-        }
+        verrouillerEcriture();
+        try {
+            if (points.isEmpty()) {
+                this.largeur = nouvelleLargeur;
+                this.longueur = nouvelleLongueur;
+                marquerModifie(Partie.CONTOUR);
+                return;
+            }
 
-        // Calculer le rectangle englobant actuel
-        int minX = points.get(0).x;
-        int maxX = points.get(0).x;
-        int minY = points.get(0).y;
-        int maxY = points.get(0).y;
-        
-        for (Point p : points) {
-            if (p.x < minX) minX = p.x;
-            if (p.x > maxX) maxX = p.x;
-            if (p.y < minY) minY = p.y;
-            if (p.y > maxY) maxY = p.y;
-        }
-        
-        int largeurActuelle = maxX - minX;
-        int longueurActuelle = maxY - minY;
-        
-        if (largeurActuelle == 0 || longueurActuelle == 0) {
-            // Si la largeur ou longueur actuelle est 0, on ne peut pas redimensionner
-            this.largeur = nouvelleLargeur;
-            this.longueur = nouvelleLongueur;
-            return;
-        }
+            // Calculer le rectangle englobant actuel
+            int minX = points.get(0).x;
+            int maxX = points.get(0).x;
+            int minY = points.get(0).y;
+            int maxY = points.get(0).y;
+
+            for (Point p : points) {
+                if (p.x < minX) minX = p.x;
+                if (p.x > maxX) maxX = p.x;
+                if (p.y < minY) minY = p.y;
+                if (p.y > maxY) maxY = p.y;
+            }
 
-        // Calculer les facteurs d'échelle
-        double scaleX = (double) nouvelleLargeur / largeurActuelle;
-        double scaleY = (double) nouvelleLongueur / longueurActuelle;
+            int largeurActuelle = maxX - minX;
+            int longueurActuelle = maxY - minY;
 
-        // Mettre à l'échelle tous les points par rapport au coin inférieur gauche (minX, minY)
-        for (int i = 0; i < points.size(); i++) {
-            Point p = points.get(i);
-            int nouveauX = minX + (int) Math.round((p.x - minX) * scaleX);
-            int nouveauY = minY + (int) Math.round((p.y - minY) * scaleY);
-            points.set(i, new Point(nouveauX, nouveauY));
-        }
+            if (largeurActuelle == 0 || longueurActuelle == 0) {
+                // Si la largeur ou longueur actuelle est 0, on ne peut pas redimensionner
+                this.largeur = nouvelleLargeur;
+                this.longueur = nouvelleLongueur;
+                marquerModifie(Partie.CONTOUR);
+                return;
+            }
 
-        // Mettre à jour les dimensions
-        this.largeur = nouvelleLargeur;
-        this.longueur = nouvelleLongueur;
+            // Calculer les facteurs d'échelle
+            double scaleX = (double) nouvelleLargeur / largeurActuelle;
+            double scaleY = (double) nouvelleLongueur / longueurActuelle;
 
-        // Recalculer le contour
-        recalculerContour();
+            // Mettre à l'échelle tous les points par rapport au coin inférieur gauche (minX, minY)
+            for (int i = 0; i < points.size(); i++) {
+                Point p = points.get(i);
+                int nouveauX = minX + (int) Math.round((p.x - minX) * scaleX);
+                int nouveauY = minY + (int) Math.round((p.y - minY) * scaleY);
+                points.set(i, new Point(nouveauX, nouveauY));
+            }
 
-        // Mettre à jour le graphe (membrane) avec les nouvelles dimensions
-        if (graphe != null) {
-            graphe.mettreAJourDimensions(nouvelleLargeur, nouvelleLongueur);
-        }
+            // Mettre à jour les dimensions
+            this.largeur = nouvelleLargeur;
+            this.longueur = nouvelleLongueur;
+
+            // Recalculer le contour
+            recalculerContour();
 
-        // Mettre à jour le fil chauffant
-        if (filChauffant != null) {
-            filChauffant.mettreAJourDimensions(nouvelleLargeur, nouvelleLongueur);
+            // Mettre à jour le graphe (membrane) avec les nouvelles dimensions
+            if (graphe != null) {
+                graphe.mettreAJourDimensions(nouvelleLargeur, nouvelleLongueur);
+            }
+
+            // Mettre à jour le fil chauffant
+            if (filChauffant != null) {
+                filChauffant.mettreAJourDimensions(nouvelleLargeur, nouvelleLongueur);
+            }
+            marquerModifie(Partie.FIL);
+            marquerModifie(Partie.MEMBRANE);
+        } finally {
+            verrou.writeLock().unlock();
         }
     }
 
@@ -746,20 +1100,26 @@ public class Piece {
      * Au minimum 3 intersections non voisines sont requises
      */
     public void creerPieceAvecIntersections(List<String> idsIntersections) {
-        if (idsIntersections.size() < 3) {
-            throw new IllegalArgumentException("Une pièce doit avoir au minimum 3 intersections");
-        }
+        verrouillerEcriture();
+        try {
+            if (idsIntersections.size() < 3) {
+                throw new IllegalArgumentException("Une pièce doit avoir au minimum 3 intersections");
+            }
 
-        // Générer le graphe s'il n'est pas encore généré
-        if (!graphe.estGenere()) {
-            graphe.genererGraphe();
-        }
+            // Générer le graphe s'il n'est pas encore généré
+            if (!graphe.estGenere()) {
+                graphe.genererGraphe();
+            }
 
-        // Créer la pièce avec les intersections
-        graphe.creerPieceAvecIntersections(idsIntersections);
+            // Créer la pièce avec les intersections
+            graphe.creerPieceAvecIntersections(idsIntersections);
 
-        // Mettre à jour les points du contour basés sur les intersections actives
-        mettreAJourPointsDepuisIntersections();
+            // Mettre à jour les points du contour basés sur les intersections actives
+            mettreAJourPointsDepuisIntersections();
+            marquerModifie(Partie.MEMBRANE);
+        } finally {
+            verrou.writeLock().unlock();
+        }
     }
 
     /**
@@ -834,7 +1194,7 @@ public class Piece {
     @Deprecated
     public void supprimerElementChauffant(ElementChauffant chauffage) {
         if (chauffage != null) {
-            elementsChauffants.remove(chauffage.getId());
+            supprimerElementChauffant(chauffage.getId());
         }
     }
 
@@ -842,11 +1202,242 @@ public class Piece {
      * Supprime un élément chauffant par nom et position (pour éviter les boucles dans le contrôleur)
      */
     public void supprimerElementChauffantParNomEtPosition(String nom, int x, int y) {
-        elementsChauffants.values().removeIf(element ->
-                element.getNom().equals(nom) &&
-                        element.getX() == x &&
-                        element.getY() == y
-        );
+        verrouillerEcriture();
+        try {
+            List<Integer> ids = new ArrayList<>();
+            for (ElementChauffant element : elementsChauffants.values()) {
+                if (element.getNom().equals(nom) && element.getX() == x && element.getY() == y) {
+                    ids.add(element.getId());
+                }
+            }
+            for (int id : ids) {
+                supprimerElementChauffant(id);
+            }
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
+    // ==================== LOTS DE MODIFICATIONS ====================
+
+    /**
+     * Applique un lot de modifications de meubles et d'éléments chauffants (voir LotModifications)
+     * L'état final est validé en une passe, avec un index spatial pour les chevauchements de meubles.
+     * Si une opération est invalide, la pièce n'est pas modifiée.
+     * @return Les entités ajoutées et modifiées
+     * @throws IllegalArgumentException si une opération est invalide ("Opération n : cause")
+     */
+    public LotModifications.Resultat appliquerLot(LotModifications lot) {
+        if (lot == null) {
+            throw new IllegalArgumentException("Lot de modifications invalide");
+        }
+        verrouillerEcriture();
+        try {
+            // 1. Simuler le lot sur les rectangles {x, y, largeur, longueur}
+            Map<Integer, int[]> rectMeubles = new LinkedHashMap<>();
+            for (Meuble m : meubles.values()) {
+                rectMeubles.put(m.getId(), new int[] {m.getX(), m.getY(), m.getLargeur(), m.getLongueur()});
+            }
+            Map<Integer, int[]> rectElements = new LinkedHashMap<>();
+            for (ElementChauffant e : elementsChauffants.values()) {
+                rectElements.put(e.getId(), new int[] {e.getX(), e.getY(), e.getLargeur(), e.getLongueur()});
+            }
+            Map<Integer, Meuble> meublesAjoutes = new HashMap<>();
+            Map<Integer, ElementChauffant> elementsAjoutes = new HashMap<>();
+            Map<Integer, Integer> derniereOperation = new LinkedHashMap<>(); // id -> numéro, pour les messages
+
+            int numero = 0;
+            for (LotModifications.Operation op : lot.getOperations()) {
+                numero++;
+                switch (op.type) {
+                    case AJOUT_MEUBLE -> {
+                        verifierIdLibre(rectMeubles, rectElements, op.id, numero);
+                        Meuble m = op.meuble;
+                        rectMeubles.put(op.id, new int[] {m.getX(), m.getY(), m.getLargeur(), m.getLongueur()});
+                        meublesAjoutes.put(op.id, m);
+                    }
+                    case AJOUT_ELEMENT -> {
+                        verifierIdLibre(rectMeubles, rectElements, op.id, numero);
+                        ElementChauffant e = op.element;
+                        rectElements.put(op.id, new int[] {e.getX(), e.getY(), e.getLargeur(), e.getLongueur()});
+                        elementsAjoutes.put(op.id, e);
+                    }
+                    case DEPLACEMENT -> {
+                        int[] r = rectangleLot(rectMeubles, rectElements, op.id, numero);
+                        r[0] = op.a;
+                        r[1] = op.b;
+                    }
+                    case REDIMENSIONNEMENT -> {
+                        int[] r = rectangleLot(rectMeubles, rectElements, op.id, numero);
+                        r[2] = op.a;
+                        r[3] = op.b;
+                    }
+                    case SUPPRESSION -> {
+                        if (rectMeubles.remove(op.id) == null && rectElements.remove(op.id) == null) {
+                            throw erreurLot(numero, "élément absent: " + op.id);
+                        }
+                    }
+                }
+                derniereOperation.remove(op.id);
+                derniereOperation.put(op.id, numero);
+            }
+
+            // 2. Valider l'état final en une passe
+            IndexSpatial index = new IndexSpatial();
+            rectMeubles.forEach((id, r) -> index.inserer(id, r[0], r[1], r[2], r[3]));
+            int thermostats = 0;
+            for (int id : rectElements.keySet()) {
+                ElementChauffant e = elementsAjoutes.containsKey(id) ? elementsAjoutes.get(id) : elementsChauffants.get(id);
+                if (e instanceof domaine.chauffage.Thermostat) {
+                    thermostats++;
+                }
+            }
+            for (Map.Entry<Integer, Integer> touche : derniereOperation.entrySet()) {
+                int id = touche.getKey();
+                String erreur = null;
+                int[] r = rectMeubles.get(id);
+                if (r != null) {
+                    erreur = PieceValidator.validerDimensions(r[2], r[3]);
+                    if (erreur == null) {
+                        erreur = PieceValidator.validerDansPiece(this, r[0], r[1], r[2], r[3]);
+                    }
+                    if (erreur == null) {
+                        Integer autre = index.trouverChevauchement(r[0], r[1], r[2], r[3], id);
+                        if (autre != null) {
+                            Meuble m = meublesAjoutes.containsKey(autre) ? meublesAjoutes.get(autre) : meubles.get(autre);
+                            erreur = "Position occupée par: " + m.getNom();
+                        }
+                    }
+                } else if ((r = rectElements.get(id)) != null) {
+                    erreur = PieceValidator.validerPositionElementChauffant(this, r[0], r[1], r[2], r[3]);
+                    if (erreur == null && thermostats > 1 && elementsAjoutes.get(id) instanceof domaine.chauffage.Thermostat) {
+                        erreur = "Il ne peut y avoir qu'un seul thermostat par pièce";
+                    }
+                }
+                if (erreur != null) {
+                    throw erreurLot(touche.getValue(), erreur);
+                }
+            }
+
+            // 3. Appliquer ; en cas d'erreur imprévue, tout est remis en place
+            Map<Integer, Meuble> meublesAvant = new LinkedHashMap<>(meubles);
+            Map<Integer, ElementChauffant> elementsAvant = new LinkedHashMap<>(elementsChauffants);
+            Map<Integer, int[]> rectAvant = new HashMap<>();
+            for (int id : derniereOperation.keySet()) {
+                Meuble m = meubles.get(id);
+                ElementChauffant e = elementsChauffants.get(id);
+                if (m != null) {
+                    rectAvant.put(id, new int[] {m.getX(), m.getY(), m.getLargeur(), m.getLongueur()});
+                } else if (e != null) {
+                    rectAvant.put(id, new int[] {e.getX(), e.getY(), e.getLargeur(), e.getLongueur()});
+                }
+            }
+            LotModifications.Resultat resultat = new LotModifications.Resultat();
+            try {
+                for (LotModifications.Operation op : lot.getOperations()) {
+                    appliquerOperation(op, resultat);
+                }
+            } catch (RuntimeException e) {
+                meubles.clear();
+                meubles.putAll(meublesAvant);
+                elementsChauffants.clear();
+                elementsChauffants.putAll(elementsAvant);
+                rectAvant.forEach((id, r) -> {
+                    Meuble m = meubles.get(id);
+                    if (m != null) {
+                        m.setPosition(r[0], r[1]);
+                        m.setLargeur(r[2]);
+                        m.setLongueur(r[3]);
+                    } else {
+                        ElementChauffant el = elementsChauffants.get(id);
+                        el.setPosition(r[0], r[1]);
+                        el.setLargeur(r[2]);
+                        el.setLongueur(r[3]);
+                    }
+                });
+                throw e;
+            }
+
+            // 4. Noter les modifications (une entrée par entité touchée)
+            for (int id : derniereOperation.keySet()) {
+                boolean ajoute = meublesAjoutes.containsKey(id) || elementsAjoutes.containsKey(id);
+                boolean estMeuble = meubles.containsKey(id) || meublesAvant.containsKey(id) || meublesAjoutes.containsKey(id);
+                boolean present = meubles.containsKey(id) || elementsChauffants.containsKey(id);
+                if (ajoute && !present) {
+                    continue; // ajouté puis supprimé dans le même lot
+                }
+                TypeModification type = !present ? TypeModification.SUPPRESSION
+                        : ajoute ? TypeModification.AJOUT : TypeModification.MODIFICATION;
+                marquerModifie(estMeuble ? Partie.MEUBLES : Partie.ELEMENTS_CHAUFFANTS, id, type);
+            }
+            return resultat;
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
+    private void appliquerOperation(LotModifications.Operation op, LotModifications.Resultat resultat) {
+        switch (op.type) {
+            case AJOUT_MEUBLE -> {
+                meubles.put(op.id, op.meuble);
+                resultat.ajoute(op.id);
+                resultat.meubleModifie(op.id);
+            }
+            case AJOUT_ELEMENT -> {
+                elementsChauffants.put(op.id, op.element);
+                resultat.ajoute(op.id);
+                resultat.elementModifie(op.id);
+            }
+            case DEPLACEMENT, REDIMENSIONNEMENT -> {
+                Meuble m = meubles.get(op.id);
+                if (m != null) {
+                    if (op.type == LotModifications.TypeOperation.DEPLACEMENT) {
+                        m.setPosition(op.a, op.b);
+                    } else {
+                        m.setLargeur(op.a);
+                        m.setLongueur(op.b);
+                    }
+                    resultat.meubleModifie(op.id);
+                } else {
+                    ElementChauffant e = requireElementChauffant(op.id);
+                    if (op.type == LotModifications.TypeOperation.DEPLACEMENT) {
+                        e.setPosition(op.a, op.b);
+                    } else {
+                        e.setLargeur(op.a);
+                        e.setLongueur(op.b);
+                    }
+                    resultat.elementModifie(op.id);
+                }
+            }
+            case SUPPRESSION -> {
+                if (meubles.remove(op.id) != null) {
+                    resultat.meubleModifie(op.id);
+                } else if (elementsChauffants.remove(op.id) != null) {
+                    resultat.elementModifie(op.id);
+                }
+            }
+        }
+    }
+
+    private static void verifierIdLibre(Map<Integer, int[]> rectMeubles, Map<Integer, int[]> rectElements, int id, int numero) {
+        if (rectMeubles.containsKey(id) || rectElements.containsKey(id)) {
+            throw erreurLot(numero, "id déjà utilisé: " + id);
+        }
+    }
+
+    private static int[] rectangleLot(Map<Integer, int[]> rectMeubles, Map<Integer, int[]> rectElements, int id, int numero) {
+        int[] r = rectMeubles.get(id);
+        if (r == null) {
+            r = rectElements.get(id);
+        }
+        if (r == null) {
+            throw erreurLot(numero, "élément absent: " + id);
+        }
+        return r;
+    }
+
+    private static IllegalArgumentException erreurLot(int numero, String cause) {
+        return new IllegalArgumentException("Opération " + numero + " : " + cause);
     }
 
     // ==================== ZONES D'INTERDICTION ====================
@@ -856,15 +1447,28 @@ public class Piece {
     }
 
     public int ajouterZoneInterdiction(ZoneInterdiction zone) {
-        if (zone == null) {
-            throw new IllegalArgumentException("Zone d'interdiction invalide");
+        verrouillerEcriture();
+        try {
+            if (zone == null) {
+                throw new IllegalArgumentException("Zone d'interdiction invalide");
+            }
+            zonesInterdiction.put(zone.getId(), zone);
+            marquerModifie(Partie.ZONES_INTERDICTION, zone.getId(), TypeModification.AJOUT);
+            return zone.getId();
+        } finally {
+            verrou.writeLock().unlock();
         }
-        zonesInterdiction.put(zone.getId(), zone);
-        return zone.getId();
     }
 
     public void supprimerZoneInterdiction(int id) {
-        zonesInterdiction.remove(id);
+        verrouillerEcriture();
+        try {
+            if (zonesInterdiction.remove(id) != null) {
+                marquerModifie(Partie.ZONES_INTERDICTION, id, TypeModification.SUPPRESSION);
+            }
+        } finally {
+            verrou.writeLock().unlock();
+        }
     }
 
     public Optional<ZoneInterdiction> trouverZoneInterdiction(int id) {
@@ -875,23 +1479,35 @@ public class Piece {
      * Déplace une zone d'interdiction par son ID
      */
     public void deplacerZoneInterdiction(int id, Point nouvellePos) {
-        ZoneInterdiction zone = zonesInterdiction.get(id);
-        if (zone == null) {
-            throw new IllegalArgumentException("Zone d'interdiction introuvable: " + id);
+        verrouillerEcriture();
+        try {
+            ZoneInterdiction zone = zonesInterdiction.get(id);
+            if (zone == null) {
+                throw new IllegalArgumentException("Zone d'interdiction introuvable: " + id);
+            }
+            zone.setPosition(nouvellePos);
+            marquerModifie(Partie.ZONES_INTERDICTION, id, TypeModification.MODIFICATION);
+        } finally {
+            verrou.writeLock().unlock();
         }
-        zone.setPosition(nouvellePos);
     }
 
     /**
      * Redimensionne une zone d'interdiction par son ID
      */
     public void redimensionnerZoneInterdiction(int id, int largeur, int longueur) {
-        ZoneInterdiction zone = zonesInterdiction.get(id);
-        if (zone == null) {
-            throw new IllegalArgumentException("Zone d'interdiction introuvable: " + id);
+        verrouillerEcriture();
+        try {
+            ZoneInterdiction zone = zonesInterdiction.get(id);
+            if (zone == null) {
+                throw new IllegalArgumentException("Zone d'interdiction introuvable: " + id);
+            }
+            zone.setLargeur(largeur);
+            zone.setLongueur(longueur);
+            marquerModifie(Partie.ZONES_INTERDICTION, id, TypeModification.MODIFICATION);
+        } finally {
+            verrou.writeLock().unlock();
         }
-        zone.setLargeur(largeur);
-        zone.setLongueur(longueur);
     }
 
     /**
@@ -969,15 +1585,28 @@ public class Piece {
     }
 
     public int ajouterZoneTampon(ZoneTampon zone) {
-        if (zone == null) {
-            throw new IllegalArgumentException("Zone tampon invalide");
+        verrouillerEcriture();
+        try {
+            if (zone == null) {
+                throw new IllegalArgumentException("Zone tampon invalide");
+            }
+            zonesTampon.put(zone.getId(), zone);
+            marquerModifie(Partie.ZONES_TAMPON, zone.getId(), TypeModification.AJOUT);
+            return zone.getId();
+        } finally {
+            verrou.writeLock().unlock();
         }
-        zonesTampon.put(zone.getId(), zone);
-        return zone.getId();
     }
 
     public void supprimerZoneTampon(int id) {
-        zonesTampon.remove(id);
+        verrouillerEcriture();
+        try {
+            if (zonesTampon.remove(id) != null) {
+                marquerModifie(Partie.ZONES_TAMPON, id, TypeModification.SUPPRESSION);
+            }
+        } finally {
+            verrou.writeLock().unlock();
+        }
     }
 
     public Optional<ZoneTampon> trouverZoneTampon(int id) {
@@ -988,23 +1617,35 @@ public class Piece {
      * Déplace une zone tampon par son ID
      */
     public void deplacerZoneTampon(int id, Point nouvellePos) {
-        ZoneTampon zone = zonesTampon.get(id);
-        if (zone == null) {
-            throw new IllegalArgumentException("Zone tampon introuvable: " + id);
+        verrouillerEcriture();
+        try {
+            ZoneTampon zone = zonesTampon.get(id);
+            if (zone == null) {
+                throw new IllegalArgumentException("Zone tampon introuvable: " + id);
+            }
+            zone.setPosition(nouvellePos);
+            marquerModifie(Partie.ZONES_TAMPON, id, TypeModification.MODIFICATION);
+        } finally {
+            verrou.writeLock().unlock();
         }
-        zone.setPosition(nouvellePos);
     }
 
     /**
      * Redimensionne une zone tampon par son ID
      */
     public void redimensionnerZoneTampon(int id, int largeur, int longueur) {
-        ZoneTampon zone = zonesTampon.get(id);
-        if (zone == null) {
-            throw new IllegalArgumentException("Zone tampon introuvable: " + id);
+        verrouillerEcriture();
+        try {
+            ZoneTampon zone = zonesTampon.get(id);
+            if (zone == null) {
+                throw new IllegalArgumentException("Zone tampon introuvable: " + id);
+            }
+            zone.setLargeur(largeur);
+            zone.setLongueur(longueur);
+            marquerModifie(Partie.ZONES_TAMPON, id, TypeModification.MODIFICATION);
+        } finally {
+            verrou.writeLock().unlock();
         }
-        zone.setLargeur(largeur);
-        zone.setLongueur(longueur);
     }
 
     /**
@@ -1,9 +1,13 @@
 package domaine.dto;
 
+import domaine.chauffage.CheminFil;
+
 import java.util.List;
 
 /**
  * DTO pour la communication des données de pièce
+ * Un DTO retourné par PieceMapper est figé (ainsi que ses meubles, éléments, zones et fil) :
+ * il est partagé entre les appelants et l'historique, ses setters lèvent IllegalStateException.
  */
 public class PieceDTO {
     private int largeur;
@@ -14,6 +18,15 @@ public class PieceDTO {
     private List<ZoneInterdictionDTO> zonesInterdiction;
     private FliChauffantDTO fliChauffant;
     private List<java.awt.Point> points; // Points définissant le contour de la pièce
+    private CheminFil contour; // contour compact et immuable (remplace points, voir getContourCompact)
+
+    // Configuration de la membrane (graphe des intersections)
+    private int espacementMembrane; // en 32èmes de pouce
+    private int translationXMembrane; // en 32èmes de pouce
+    private int translationYMembrane; // en 32èmes de pouce
+    private boolean membraneConfirmee;
+    private boolean membraneGeneree;
+    private boolean fige; // partagé en lecture seule (voir figer)
 
     public PieceDTO() {
     }
@@ -29,6 +42,7 @@ public class PieceDTO {
     }
 
     public void setLargeur(int largeur) {
+        verifierModifiable();
         this.largeur = largeur;
     }
 
@@ -37,6 +51,7 @@ public class PieceDTO {
     }
 
     public void setLongueur(int longueur) {
+        verifierModifiable();
         this.longueur = longueur;
     }
 
@@ -45,6 +60,7 @@ public class PieceDTO {
     }
 
     public void setMeubles(List<MeubleDTO> meubles) {
+        verifierModifiable();
         this.meubles = meubles;
     }
 
@@ -53,6 +69,7 @@ public class PieceDTO {
     }
 
     public void setElementsChauffants(List<ElementChauffantDTO> elementsChauffants) {
+        verifierModifiable();
         this.elementsChauffants = elementsChauffants;
     }
 
@@ -61,6 +78,7 @@ public class PieceDTO {
     }
 
     public void setZonesTampon(List<ZoneTamponDTO> zonesTampon) {
+        verifierModifiable();
         this.zonesTampon = zonesTampon;
     }
 
@@ -69,6 +87,7 @@ public class PieceDTO {
     }
 
     public void setZonesInterdiction(List<ZoneInterdictionDTO> zonesInterdiction) {
+        verifierModifiable();
         this.zonesInterdiction = zonesInterdiction;
     }
 
@@ -77,14 +96,109 @@ public class PieceDTO {
     }
 
     public void setFliChauffant(FliChauffantDTO fliChauffant) {
+        verifierModifiable();
         this.fliChauffant = fliChauffant;
     }
 
+    /**
+     * Points du contour ; copies si le contour est compact (DTO figé ou instantané d'historique)
+     */
     public List<java.awt.Point> getPoints() {
+        if (contour != null) {
+            return contour.versPoints();
+        }
         return points;
     }
 
     public void setPoints(List<java.awt.Point> points) {
+        verifierModifiable();
         this.points = points;
+        this.contour = null;
+    }
+
+    /**
+     * Contour sous forme compacte et immuable, partageable sans copie (null si aucun contour)
+     */
+    public CheminFil getContourCompact() {
+        if (contour == null && points != null) {
+            return CheminFil.depuisPoints(points);
+        }
+        return contour;
+    }
+
+    public void setContourCompact(CheminFil contour) {
+        verifierModifiable();
+        this.contour = contour;
+        this.points = null;
+    }
+
+    public int getEspacementMembrane() {
+        return espacementMembrane;
+    }
+
+    public void setEspacementMembrane(int espacementMembrane) {
+        verifierModifiable();
+        this.espacementMembrane = espacementMembrane;
+    }
+
+    public int getTranslationXMembrane() {
+        return translationXMembrane;
+    }
+
+    public void setTranslationXMembrane(int translationXMembrane) {
+        verifierModifiable();
+        this.translationXMembrane = translationXMembrane;
+    }
+
+    public int getTranslationYMembrane() {
+        return translationYMembrane;
+    }
+
+    public void setTranslationYMembrane(int translationYMembrane) {
+        verifierModifiable();
+        this.translationYMembrane = translationYMembrane;
+    }
+
+    public boolean isMembraneConfirmee() {
+        return membraneConfirmee;
+    }
+
+    public void setMembraneConfirmee(boolean membraneConfirmee) {
+        verifierModifiable();
+        this.membraneConfirmee = membraneConfirmee;
+    }
+
+    public boolean isMembraneGeneree() {
+        return membraneGeneree;
+    }
+
+    public void setMembraneGeneree(boolean membraneGeneree) {
+        verifierModifiable();
+        this.membraneGeneree = membraneGeneree;
+    }
+
+    /**
+     * Rend le DTO non modifiable (DTO partagé par le cache de PieceMapper)
+     */
+    PieceDTO figer() {
+        if (points != null) {
+            contour = CheminFil.depuisPoints(points);
+            points = null;
+        }
+        fige = true;
+        return this;
+    }
+
+    /**
+     * Indique si le DTO est partagé en lecture seule : ses setters lèvent IllegalStateException
+     */
+    public boolean estFige() {
+        return fige;
+    }
+
+    private void verifierModifiable() {
+        if (fige) {
+            throw new IllegalStateException("DTO partagé en lecture seule");
+        }
     }
 }
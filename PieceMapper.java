@@ -1,89 +1,212 @@
 package domaine.dto;
 
+import domaine.chauffage.CheminFil;
+import domaine.chauffage.FilChauffant;
+import domaine.graphe.Graphe;
 import domaine.piece.Piece;
+import domaine.piece.Piece.Partie;
+import domaine.zone.ZoneInterdiction;
+import domaine.zone.ZoneTampon;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
 import java.util.stream.Collectors;
 
 /**
  * Mapper pour convertir Piece en PieceDTO
+ *
+ * Le dernier DTO de chaque pièce est conservé avec les versions qu'il reflète : tant que la pièce
+ * n'est pas modifiée, le même DTO est retourné, et après une modification seules les listes des
+ * parties modifiées sont reconstruites. La configuration de la membrane, qui peut être modifiée
+ * directement sur le graphe sans changer la version de la pièce, fait aussi partie de la clé.
+ * Les DTO retournés sont donc partagés (appelants, historique undo/redo) : ils sont en lecture
+ * seule, avec leurs meubles, éléments, zones et fil (setters : IllegalStateException, listes non
+ * modifiables), et ne partagent aucun Point avec le modèle. Un appelant qui modifiait un DTO
+ * retourné doit construire son propre DTO.
  */
 public final class PieceMapper {
     private PieceMapper() {}
 
+    // Clé faible : le cache disparaît avec la pièce (pièce remplacée par un undo, projet fermé, ...)
+    private static final Map<Piece, Cache> CACHES = Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * DTO construit pour une pièce, avec la version de chaque partie au moment de la construction
+     */
+    private static final class Cache {
+        private final long version;
+        private final long[] versions;
+        private final int[] membrane;
+        private final PieceDTO dto;
+
+        Cache(long version, long[] versions, int[] membrane, PieceDTO dto) {
+            this.version = version;
+            this.versions = versions;
+            this.membrane = membrane;
+            this.dto = dto;
+        }
+
+        boolean aJour(Partie partie, long[] versionsActuelles) {
+            return versions[partie.ordinal()] == versionsActuelles[partie.ordinal()];
+        }
+    }
+
     public static PieceDTO toDTO(Piece p) {
         if (p == null) {
             return null;
         }
 
+        // Lire les versions avant la conversion : une modification concurrente forcera une reconstruction
+        long version = p.getVersion();
+        int[] membrane = membrane(p);
+        Cache cache = CACHES.get(p);
+        if (cache != null && cache.version == version && Arrays.equals(cache.membrane, membrane)) {
+            return cache.dto;
+        }
+        long[] versions = new long[Partie.values().length];
+        for (Partie partie : Partie.values()) {
+            versions[partie.ordinal()] = p.getVersion(partie);
+        }
+        PieceDTO precedent = cache != null ? cache.dto : null;
+
         PieceDTO dto = new PieceDTO();
         dto.setLargeur(p.getLargeur());
         dto.setLongueur(p.getLongueur());
 
         // Convertir les points du contour
-        dto.setPoints(p.getPoints());
+        if (precedent != null && cache.aJour(Partie.CONTOUR, versions)) {
+            dto.setContourCompact(precedent.getContourCompact());
+        } else {
+            dto.setContourCompact(CheminFil.depuisPoints(p.getPoints()));
+        }
 
         // Convertir les meubles en DTOs
-        List<MeubleDTO> meubles = p.getMeubles().stream()
-                .map(MeubleMapper::toDTO)
-                .collect(Collectors.toList());
-        dto.setMeubles(meubles);
+        if (precedent != null && cache.aJour(Partie.MEUBLES, versions)) {
+            dto.setMeubles(precedent.getMeubles());
+        } else {
+            List<MeubleDTO> meubles = p.getMeubles().stream()
+                    .map(MeubleMapper::toDTO)
+                    .map(MeubleDTO::figer)
+                    .collect(Collectors.toUnmodifiableList());
+            dto.setMeubles(meubles);
+        }
 
         // Convertir les éléments chauffants en DTOs
-        List<ElementChauffantDTO> elementsChauffants = p.getElementsChauffants().stream()
-                .map(ElementChauffantMapper::toDTO)
-                .collect(Collectors.toList());
-        dto.setElementsChauffants(elementsChauffants);
+        if (precedent != null && cache.aJour(Partie.ELEMENTS_CHAUFFANTS, versions)) {
+            dto.setElementsChauffants(precedent.getElementsChauffants());
+        } else {
+            List<ElementChauffantDTO> elementsChauffants = p.getElementsChauffants().stream()
+                    .map(ElementChauffantMapper::toDTO)
+                    .map(ElementChauffantDTO::figer)
+                    .collect(Collectors.toUnmodifiableList());
+            dto.setElementsChauffants(elementsChauffants);
+        }
 
         // Convertir le fil chauffant
-        FliChauffantDTO filChauffantDTO = null;
-        if (p.getFilChauffant() != null) {
-            filChauffantDTO = new FliChauffantDTO();
-            filChauffantDTO.setNom(p.getFilChauffant().getNom());
-            // Utiliser la longueur souhaitée si disponible, sinon la longueur de la pièce
-            int longueur = p.getFilChauffant().getLongueurSouhaitee();
-            if (longueur == 0) {
-                longueur = p.getFilChauffant().getLongueur();
-            }
-            filChauffantDTO.setLongueur(longueur);
-            filChauffantDTO.setDistanceEnroulement(p.getFilChauffant().getDistanceFil());
-            filChauffantDTO.setActif(p.getFilChauffant().estActif());
-            filChauffantDTO.setChemin(p.getFilChauffant().getChemin());
-        }
-        dto.setFliChauffant(filChauffantDTO);
+        if (precedent != null && cache.aJour(Partie.FIL, versions)) {
+            dto.setFliChauffant(precedent.getFliChauffant());
+        } else {
+            FliChauffantDTO fil = toDTO(p.getFilChauffant());
+            dto.setFliChauffant(fil != null ? fil.figer() : null);
+        }
 
         // Convertir les zones d'interdiction
-        List<ZoneInterdictionDTO> zonesInterdiction = p.getZonesInterdiction().stream()
-                .map(z -> {
-                    ZoneInterdictionDTO zdto = new ZoneInterdictionDTO();
-                    zdto.setId(z.getId());
-                    // ZoneInterdiction hérite de Zone qui a getPosition()
-                    java.awt.Point pos = z.getPosition();
-                    zdto.setPosition(new java.awt.Point(pos.x, pos.y));
-                    zdto.setLargeur(z.getLargeur());
-                    zdto.setLongueur(z.getLongueur());
-                    zdto.setNom(z.getNom());
-                    return zdto;
-                })
-                .collect(Collectors.toList());
-        dto.setZonesInterdiction(zonesInterdiction);
+        if (precedent != null && cache.aJour(Partie.ZONES_INTERDICTION, versions)) {
+            dto.setZonesInterdiction(precedent.getZonesInterdiction());
+        } else {
+            dto.setZonesInterdiction(p.getZonesInterdiction().stream()
+                    .map(PieceMapper::toDTO)
+                    .map(ZoneInterdictionDTO::figer)
+                    .collect(Collectors.toUnmodifiableList()));
+        }
 
         // Convertir les zones tampon
-        List<ZoneTamponDTO> zonesTampon = p.getZonesTampon().stream()
-                .map(z -> {
-                    ZoneTamponDTO zdto = new ZoneTamponDTO();
-                    zdto.setId(z.getId());
-                    java.awt.Point pos = z.getPosition();
-                    zdto.setPosition(new java.awt.Point(pos.x, pos.y));
-                    zdto.setLargeur(z.getLargeur());
-                    zdto.setLongueur(z.getLongueur());
-                    zdto.setDistance(z.getDistance());
-                    zdto.setNom(z.getNom());
-                    return zdto;
-                })
-                .collect(Collectors.toList());
-        dto.setZonesTampon(zonesTampon);
+        if (precedent != null && cache.aJour(Partie.ZONES_TAMPON, versions)) {
+            dto.setZonesTampon(precedent.getZonesTampon());
+        } else {
+            dto.setZonesTampon(p.getZonesTampon().stream()
+                    .map(PieceMapper::toDTO)
+                    .map(ZoneTamponDTO::figer)
+                    .collect(Collectors.toUnmodifiableList()));
+        }
+
+        // Configuration de la membrane (lue avant la conversion, comme les versions)
+        if (membrane != null) {
+            dto.setEspacementMembrane(membrane[0]);
+            dto.setTranslationXMembrane(membrane[1]);
+            dto.setTranslationYMembrane(membrane[2]);
+            dto.setMembraneConfirmee(membrane[3] != 0);
+            dto.setMembraneGeneree(membrane[4] != 0);
+        }
 
+        dto.figer();
+        CACHES.put(p, new Cache(version, versions, membrane, dto));
         return dto;
     }
-}
 
+    /**
+     * Configuration de la membrane : espacement, translations, confirmée, générée (null sans graphe)
+     */
+    private static int[] membrane(Piece p) {
+        Graphe graphe = p.getGraphe();
+        if (graphe == null) {
+            return null;
+        }
+        return new int[] { graphe.getEspacement(), graphe.getTranslationX(), graphe.getTranslationY(),
+            graphe.estConfirmee() ? 1 : 0, graphe.estGenere() ? 1 : 0 };
+    }
+
+    /**
+     * DTO actuellement en cache, un par pièce encore référencée (pour l'estimation de la mémoire)
+     */
+    public static List<PieceDTO> getDTOEnCache() {
+        synchronized (CACHES) {
+            return CACHES.values().stream().map(c -> c.dto).collect(Collectors.toList());
+        }
+    }
+
+    public static FliChauffantDTO toDTO(FilChauffant fil) {
+        if (fil == null) {
+            return null;
+        }
+        FliChauffantDTO filChauffantDTO = new FliChauffantDTO();
+        filChauffantDTO.setNom(fil.getNom());
+        // Utiliser la longueur souhaitée si disponible, sinon la longueur de la pièce
+        int longueur = fil.getLongueurSouhaitee();
+        if (longueur == 0) {
+            longueur = fil.getLongueur();
+        }
+        filChauffantDTO.setLongueur(longueur);
+        filChauffantDTO.setLongueurSouhaitee(fil.getLongueurSouhaitee());
+        filChauffantDTO.setDistanceEnroulement(fil.getDistanceFil());
+        filChauffantDTO.setActif(fil.estActif());
+        filChauffantDTO.setCheminCompact(fil.getCheminCompact());
+        return filChauffantDTO;
+    }
+
+    public static ZoneInterdictionDTO toDTO(ZoneInterdiction z) {
+        ZoneInterdictionDTO zdto = new ZoneInterdictionDTO();
+        zdto.setId(z.getId());
+        // ZoneInterdiction hérite de Zone qui a getPosition()
+        java.awt.Point pos = z.getPosition();
+        zdto.setPosition(new java.awt.Point(pos.x, pos.y));
+        zdto.setLargeur(z.getLargeur());
+        zdto.setLongueur(z.getLongueur());
+        zdto.setNom(z.getNom());
+        return zdto;
+    }
+
+    public static ZoneTamponDTO toDTO(ZoneTampon z) {
+        ZoneTamponDTO zdto = new ZoneTamponDTO();
+        zdto.setId(z.getId());
+        java.awt.Point pos = z.getPosition();
+        zdto.setPosition(new java.awt.Point(pos.x, pos.y));
+        zdto.setLargeur(z.getLargeur());
+        zdto.setLongueur(z.getLongueur());
+        zdto.setDistance(z.getDistance());
+        zdto.setNom(z.getNom());
+        return zdto;
+    }
+}
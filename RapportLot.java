@@ -0,0 +1,86 @@
+package domaine.lot;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Rapport d'un traitement par lot : un résultat par pièce et un résumé
+ */
+public final class RapportLot {
+
+    private final List<ResultatPiece> resultats;
+    private final int nombreFils;
+    private final long dureeTotaleMs;
+
+    RapportLot(List<ResultatPiece> resultats, int nombreFils, long dureeTotaleMs) {
+        this.resultats = Collections.unmodifiableList(resultats);
+        this.nombreFils = nombreFils;
+        this.dureeTotaleMs = dureeTotaleMs;
+    }
+
+    public List<ResultatPiece> getResultats() {
+        return resultats;
+    }
+
+    public int getNombreFils() {
+        return nombreFils;
+    }
+
+    public long getDureeTotaleMs() {
+        return dureeTotaleMs;
+    }
+
+    /**
+     * Nombre de pièces ayant le statut donné
+     */
+    public int compter(ResultatPiece.Statut statut) {
+        int n = 0;
+        for (ResultatPiece r : resultats) {
+            if (r.getStatut() == statut) n++;
+        }
+        return n;
+    }
+
+    /**
+     * Indique si toutes les pièces ont été routées avec un chemin valide
+     */
+    public boolean estReussi() {
+        return compter(ResultatPiece.Statut.REUSSI) == resultats.size();
+    }
+
+    /**
+     * Résumé sur une ligne (nombre de pièces par statut et durée)
+     */
+    public String resume() {
+        Map<ResultatPiece.Statut, Integer> parStatut = new EnumMap<>(ResultatPiece.Statut.class);
+        for (ResultatPiece.Statut s : ResultatPiece.Statut.values()) {
+            parStatut.put(s, compter(s));
+        }
+        return String.format("%d pièces en %d ms sur %d fils - %s",
+            resultats.size(), dureeTotaleMs, nombreFils, parStatut);
+    }
+
+    /**
+     * Écrit le rapport (texte, une ligne par pièce, colonnes séparées par des tabulations)
+     */
+    public void ecrire(Path fichier) throws IOException {
+        try (Writer w = Files.newBufferedWriter(fichier, StandardCharsets.UTF_8)) {
+            w.write("# " + resume() + "\n");
+            w.write("source\tpiece\tstatut\tlongueur\tsommets\tduree_ms\tmessages\n");
+            for (ResultatPiece r : resultats) {
+                w.write(String.format(Locale.ROOT, "%s\t%s\t%s\t%.1f\t%d\t%d\t%s\n",
+                    r.getSource().getFileName(), r.getNom(), r.getStatut(), r.getLongueur(),
+                    r.getNombreSommets(), r.getDureeMs(),
+                    String.join(" | ", r.getMessages()).replace('\t', ' ').replace('\n', ' ')));
+            }
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package domaine.chauffage;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Registre des métriques des derniers calculs de chemin du fil
+ *
+ * Désactivé par défaut : les calculateurs reçoivent alors MetriquesRoutage.INACTIVES
+ * et ne mesurent rien. Activé, il garde les métriques des CAPACITE derniers calculs,
+ * toutes stratégies confondues (lecture depuis Controleur.getMetriquesRoutage).
+ */
+public final class RegistreMetriquesRoutage {
+
+    public static final int CAPACITE = 32;
+
+    private static volatile boolean actif = false;
+    private static final Deque<MetriquesRoutage> dernieres = new ArrayDeque<>();
+
+    private RegistreMetriquesRoutage() {}
+
+    public static void setActif(boolean valeur) {
+        actif = valeur;
+    }
+
+    public static boolean estActif() {
+        return actif;
+    }
+
+    /**
+     * Métriques d'un nouveau calcul (INACTIVES si le registre est désactivé)
+     */
+    static MetriquesRoutage demarrer(String strategie) {
+        return actif ? new MetriquesRoutage(strategie, true) : MetriquesRoutage.INACTIVES;
+    }
+
+    /**
+     * Publie les métriques d'un calcul terminé
+     */
+    static void publier(MetriquesRoutage metriques) {
+        if (!metriques.estActive()) {
+            return;
+        }
+        synchronized (dernieres) {
+            if (dernieres.size() == CAPACITE) {
+                dernieres.removeFirst();
+            }
+            dernieres.addLast(metriques);
+        }
+    }
+
+    /**
+     * Métriques des derniers calculs, du plus ancien au plus récent
+     */
+    public static List<MetriquesRoutage> getDernieres() {
+        synchronized (dernieres) {
+            return new ArrayList<>(dernieres);
+        }
+    }
+
+    /**
+     * Métriques du dernier calcul, ou null
+     */
+    public static MetriquesRoutage getDerniere() {
+        synchronized (dernieres) {
+            return dernieres.peekLast();
+        }
+    }
+
+    public static void vider() {
+        synchronized (dernieres) {
+            dernieres.clear();
+        }
+    }
+}
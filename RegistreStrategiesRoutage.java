@@ -0,0 +1,92 @@
+package domaine.chauffage;
+
+import domaine.graphe.Graphe;
+import domaine.piece.Piece;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Registre des stratégies de routage du fil, par nom
+ * Les stratégies "serpentin" (CalculateurCheminFil) et "dijkstra" (CalculateurCheminDijkstra)
+ * sont enregistrées par défaut.
+ */
+public final class RegistreStrategiesRoutage {
+
+    public static final String SERPENTIN = "serpentin";
+    public static final String DIJKSTRA = "dijkstra";
+
+    private static final Map<String, StrategieRoutage> strategies = new LinkedHashMap<>();
+
+    static {
+        enregistrer(new StrategieSerpentin());
+        enregistrer(new StrategieDijkstra());
+    }
+
+    private RegistreStrategiesRoutage() {}
+
+    /**
+     * Enregistre une stratégie ; remplace celle qui porte le même nom
+     */
+    public static synchronized void enregistrer(StrategieRoutage strategie) {
+        if (strategie == null || strategie.getNom() == null || strategie.getNom().isBlank()) {
+            throw new IllegalArgumentException("Stratégie de routage invalide");
+        }
+        strategies.put(strategie.getNom(), strategie);
+    }
+
+    /**
+     * @throws IllegalArgumentException si aucune stratégie ne porte ce nom
+     */
+    public static synchronized StrategieRoutage get(String nom) {
+        StrategieRoutage strategie = strategies.get(nom);
+        if (strategie == null) {
+            throw new IllegalArgumentException("Stratégie de routage inconnue : " + nom);
+        }
+        return strategie;
+    }
+
+    public static synchronized boolean estEnregistree(String nom) {
+        return strategies.containsKey(nom);
+    }
+
+    /**
+     * Noms des stratégies, dans l'ordre d'enregistrement
+     */
+    public static synchronized List<String> getNoms() {
+        return new ArrayList<>(strategies.keySet());
+    }
+
+    /**
+     * Stratégie serpentin : lignes parallèles espacées de la distance entre les fils
+     */
+    private static final class StrategieSerpentin implements StrategieRoutage {
+        @Override
+        public String getNom() {
+            return SERPENTIN;
+        }
+
+        @Override
+        public CheminFil router(Piece piece, Graphe graphe, ParametresRoutage parametres) {
+            return CalculateurCheminFil.calculerCheminCompact(piece, graphe, parametres);
+        }
+    }
+
+    /**
+     * Stratégie gloutonne favorisant la couverture (CalculateurCheminDijkstra)
+     * Sans intersection de départ, part de l'intersection valide la plus proche du thermostat.
+     */
+    private static final class StrategieDijkstra implements StrategieRoutage {
+        @Override
+        public String getNom() {
+            return DIJKSTRA;
+        }
+
+        @Override
+        public CheminFil router(Piece piece, Graphe graphe, ParametresRoutage parametres) {
+            return CalculateurCheminDijkstra.recalculerCheminCompact(piece, graphe, parametres);
+        }
+    }
+}
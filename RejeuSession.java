@@ -0,0 +1,403 @@
+package domaine.diagnostic;
+
+import domaine.Ids;
+import domaine.chauffage.ElementChauffant;
+import domaine.chauffage.Thermostat;
+import domaine.dto.ElementChauffantDTO;
+import domaine.dto.MeubleDTO;
+import domaine.graphe.Graphe;
+import domaine.meuble.Meuble;
+import domaine.meuble.MeubleFactory;
+import domaine.piece.LotModifications;
+
+import java.awt.Point;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Rejeu sans interface d'une session enregistrée par ControleurEnregistre
+ *
+ * Réexécute chaque appel du journal sur un ControleurInstrumente, dans l'ordre, et mesure
+ * la durée de chaque étape. La séquence de Ids reprend à la valeur de l'en-tête : les ids du
+ * journal désignent les mêmes objets qu'à l'enregistrement. Les lignes lot... reconstruisent le
+ * lot (mêmes ids) de l'appliquerLot qui les suit et ne sont pas des étapes. Une étape qui échoue (exception)
+ * est comptée et le rejeu continue. Les sauvegardes sont redirigées vers un fichier
+ * temporaire, et un chargement d'un fichier sauvegardé pendant la session lit ce fichier.
+ *
+ * Usage : RejeuSession journal [etapes.tsv]
+ * Affiche le résumé et les latences par opération ; etapes.tsv reçoit la durée de chaque étape.
+ */
+public final class RejeuSession {
+
+    private final ControleurInstrumente controleur = new ControleurInstrumente();
+    private final Map<String, File> sauvegardes = new HashMap<>(); // chemin du journal -> fichier temporaire
+    private final List<String> operations = new ArrayList<>();
+    private final List<Long> durees = new ArrayList<>();
+    private final List<String> erreurs = new ArrayList<>();
+    private LotModifications lot; // lot en cours de lecture (lignes lot...)
+
+    private RejeuSession() {}
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage : RejeuSession journal [etapes.tsv]");
+            System.exit(2);
+        }
+        RejeuSession rejeu = new RejeuSession();
+        long total = rejeu.rejouer(Paths.get(args[0]));
+
+        System.out.printf(Locale.ROOT, "%d étapes, %d échecs, %.3f ms%n",
+            rejeu.durees.size(), rejeu.erreurs.size(), total / 1e6);
+        for (String erreur : rejeu.erreurs) {
+            System.out.println("  " + erreur);
+        }
+        System.out.print(rejeu.controleur.exporterTexte());
+
+        if (args.length > 1) {
+            try (BufferedWriter sortie = Files.newBufferedWriter(Paths.get(args[1]), StandardCharsets.UTF_8)) {
+                sortie.write("etape\toperation\tns");
+                sortie.newLine();
+                for (int i = 0; i < rejeu.durees.size(); i++) {
+                    sortie.write((i + 1) + "\t" + rejeu.operations.get(i) + "\t" + rejeu.durees.get(i));
+                    sortie.newLine();
+                }
+            }
+        }
+    }
+
+    /**
+     * @return La durée totale des étapes (ns)
+     */
+    private long rejouer(Path fichier) throws IOException {
+        List<String> lignes = Files.readAllLines(fichier, StandardCharsets.UTF_8);
+        if (lignes.isEmpty() || !lignes.get(0).equals(JournalSession.ENTETE)) {
+            throw new IllegalArgumentException("Journal de session invalide : " + fichier);
+        }
+        long total = 0;
+        for (String ligne : lignes.subList(1, lignes.size())) {
+            if (ligne.startsWith(JournalSession.ENTETE_IDS)) {
+                Ids.reprendreA(Integer.parseInt(ligne.substring(JournalSession.ENTETE_IDS.length()).trim()));
+                continue;
+            }
+            if (ligne.isBlank() || ligne.startsWith("#")) {
+                continue;
+            }
+            String[] champs = ligne.split(String.valueOf(JournalSession.SEPARATEUR), -1);
+            if (champs[0].startsWith("lot")) {
+                try {
+                    preparerLot(champs[0], champs);
+                } catch (RuntimeException e) {
+                    erreurs.add(String.format("étape %d (%s) : %s", durees.size() + 1, champs[0], e));
+                }
+                continue; // construit le lot de l'appliquerLot suivant, pas une étape
+            }
+            long debut = System.nanoTime();
+            try {
+                executer(champs[0], champs);
+            } catch (IOException | ClassNotFoundException | RuntimeException e) {
+                erreurs.add(String.format("étape %d (%s) : %s", durees.size() + 1, champs[0], e));
+            }
+            long duree = System.nanoTime() - debut;
+            operations.add(champs[0]);
+            durees.add(duree);
+            total += duree;
+        }
+        return total;
+    }
+
+    private void executer(String operation, String[] a) throws IOException, ClassNotFoundException {
+        int n = a.length - 1; // nombre d'arguments
+        switch (operation) {
+            // Pièce
+            case "creerNouvellePiece" -> controleur.creerNouvellePiece(i(a[1]), i(a[2]));
+            case "creerPieceRectangulaire" -> controleur.creerPieceRectangulaire(i(a[1]), i(a[2]));
+            case "creerPieceIrreguliereDimensions" -> controleur.creerPieceIrreguliere(i(a[1]), i(a[2]));
+            case "creerPieceIrreguliere" -> controleur.creerPieceIrreguliere(points(a[1]));
+            case "modifierPieceCourante" -> controleur.modifierPieceCourante(i(a[1]), i(a[2]));
+            case "modifierPointPieceIrreguliere" -> controleur.modifierPointPieceIrreguliere(i(a[1]), i(a[2]), i(a[3]), b(a[4]));
+            case "redimensionnerPieceIrreguliere" -> controleur.redimensionnerPieceIrreguliere(i(a[1]), i(a[2]), b(a[3]));
+            case "gererClicSouris" -> controleur.gererClicSouris(i(a[1]), i(a[2]));
+            case "setSelectionId" -> controleur.setSelectionId(entier(a[1]));
+
+            // Meubles
+            case "ajouterMeuble" -> controleur.ajouterMeuble(point(a[1]), i(a[2]), i(a[3]), s(a[4]));
+            case "ajouterMeubleDTO" -> controleur.ajouterMeuble(n == 1 ? null : meuble(a, 1));
+            case "ajouterDouche" -> {
+                if (n == 6) controleur.ajouterDouche(s(a[1]), i(a[2]), i(a[3]), i(a[4]), i(a[5]), i(a[6]));
+                else controleur.ajouterDouche(s(a[1]), i(a[2]), i(a[3]), i(a[4]), i(a[5]), i(a[6]), i(a[7]), i(a[8]));
+            }
+            case "ajouterBain" -> {
+                if (n == 6) controleur.ajouterBain(s(a[1]), i(a[2]), i(a[3]), i(a[4]), i(a[5]), i(a[6]));
+                else controleur.ajouterBain(s(a[1]), i(a[2]), i(a[3]), i(a[4]), i(a[5]), i(a[6]), i(a[7]), i(a[8]));
+            }
+            case "ajouterToilette" -> {
+                if (n == 6) controleur.ajouterToilette(s(a[1]), i(a[2]), i(a[3]), i(a[4]), i(a[5]), i(a[6]));
+                else controleur.ajouterToilette(s(a[1]), i(a[2]), i(a[3]), i(a[4]), i(a[5]), i(a[6]), i(a[7]), i(a[8]));
+            }
+            case "ajouterVanite" -> controleur.ajouterVanite(s(a[1]), i(a[2]), i(a[3]), i(a[4]), i(a[5]), i(a[6]), i(a[7]), i(a[8]));
+            case "ajouterPlacard" -> controleur.ajouterPlacard(s(a[1]), i(a[2]), i(a[3]), i(a[4]), i(a[5]));
+            case "ajouterArmoire" -> controleur.ajouterArmoire(s(a[1]), i(a[2]), i(a[3]), i(a[4]), i(a[5]));
+            case "deplacerMeuble" -> controleur.deplacerMeuble(i(a[1]), point(a[2]));
+            case "deplacerMeubleDTO" -> controleur.deplacerMeuble(meuble(a[1]), i(a[2]), i(a[3]), b(a[4]));
+            case "deplacerMeubleSelectionne" -> controleur.deplacerMeubleSelectionne(i(a[1]), i(a[2]));
+            case "redimensionnerMeuble" -> controleur.redimensionnerMeuble(i(a[1]), i(a[2]), i(a[3]));
+            case "redimensionnerMeubleDTO" -> controleur.redimensionnerMeuble(meuble(a[1]), i(a[2]), i(a[3]));
+            case "modifierMeubleSelectionne" -> controleur.modifierMeubleSelectionne(i(a[1]), i(a[2]));
+            case "modifierAngleMeuble" -> controleur.modifierAngleMeuble(i(a[1]), d(a[2]));
+            case "modifierDrainDTO" -> controleur.modifierDrain(meuble(a[1]), i(a[2]), i(a[3]), i(a[4]));
+            case "modifierDrain" -> controleur.modifierDrain(i(a[1]), i(a[2]), i(a[3]));
+            case "supprimerMeuble" -> controleur.supprimerMeuble(i(a[1]));
+            case "supprimerMeubleDTO" -> controleur.supprimerMeuble(meuble(a[1]));
+            case "supprimerMeubleSelectionne" -> controleur.supprimerMeubleSelectionne();
+
+            // Éléments chauffants
+            case "ajouterElementChauffant" -> {
+                if (n == 3) controleur.ajouterElementChauffant(s(a[1]), i(a[2]), i(a[3]));
+                else controleur.ajouterElementChauffant(s(a[1]), i(a[2]), i(a[3]), i(a[4]), i(a[5]));
+            }
+            case "ajouterThermostat" -> {
+                if (n == 3) controleur.ajouterThermostat(s(a[1]), i(a[2]), i(a[3]));
+                else controleur.ajouterThermostat(s(a[1]), i(a[2]), i(a[3]), i(a[4]), i(a[5]));
+            }
+            case "ajouterElementMagnetise" -> controleur.ajouterElementMagnetise(s(a[1]), s(a[2]), i(a[3]), i(a[4]), i(a[5]), i(a[6]));
+            case "deplacerElementChauffant" -> controleur.deplacerElementChauffant(i(a[1]), i(a[2]), i(a[3]), b(a[4]));
+            case "redimensionnerElementChauffant" -> controleur.redimensionnerElementChauffant(i(a[1]), i(a[2]), i(a[3]));
+            case "modifierAngleElementChauffant" -> controleur.modifierAngleElementChauffant(i(a[1]), d(a[2]));
+            case "supprimerElementChauffant" -> controleur.supprimerElementChauffant(i(a[1]));
+            case "supprimerElementChauffantDTO" -> controleur.supprimerElementChauffant(element(a[1]));
+            case "supprimerElementSelectionne" -> controleur.supprimerElementSelectionne();
+
+            // Zones
+            case "ajouterZoneInterdiction" -> controleur.ajouterZoneInterdiction(s(a[1]), i(a[2]), i(a[3]), i(a[4]), i(a[5]));
+            case "ajouterZoneTampon" -> controleur.ajouterZoneTampon(s(a[1]), i(a[2]), i(a[3]), i(a[4]), i(a[5]), d(a[6]));
+            case "deplacerZoneInterdiction" -> controleur.deplacerZoneInterdiction(i(a[1]), i(a[2]), i(a[3]));
+            case "deplacerZoneTampon" -> controleur.deplacerZoneTampon(i(a[1]), i(a[2]), i(a[3]));
+            case "deplacerZoneSelectionnee" -> controleur.deplacerZoneSelectionnee(i(a[1]), i(a[2]));
+            case "redimensionnerZoneInterdiction" -> controleur.redimensionnerZoneInterdiction(i(a[1]), i(a[2]), i(a[3]));
+            case "redimensionnerZoneTampon" -> controleur.redimensionnerZoneTampon(i(a[1]), i(a[2]), i(a[3]));
+            case "redimensionnerZoneSelectionnee" -> controleur.redimensionnerZoneSelectionnee(i(a[1]), i(a[2]));
+            case "supprimerZoneInterdiction" -> controleur.supprimerZoneInterdiction(i(a[1]));
+            case "supprimerZoneTampon" -> controleur.supprimerZoneTampon(i(a[1]));
+            case "supprimerZoneSelectionnee" -> controleur.supprimerZoneSelectionnee();
+
+            // Lots (opérations lues par preparerLot)
+            case "appliquerLot" -> {
+                LotModifications applique = lot != null ? lot : new LotModifications();
+                lot = null;
+                Ids.reprendreA(i(a[1]));
+                controleur.appliquerLot(applique);
+            }
+
+            // Membrane et fil
+            case "genererGraphe" -> controleur.genererGraphe();
+            case "configurerMembrane" -> controleur.configurerMembrane(i(a[1]), i(a[2]), i(a[3]));
+            case "confirmerMembrane" -> controleur.confirmerMembrane(i(a[1]), i(a[2]), i(a[3]));
+            case "activerIntersection" -> controleur.activerIntersection(i(a[1]), i(a[2]));
+            case "desactiverToutesIntersections" -> controleur.desactiverToutesIntersections();
+            case "creerPieceAvecIntersections" -> controleur.creerPieceAvecIntersections(chaines(a[1]));
+            case "activerFilChauffant" -> controleur.activerFilChauffant();
+            case "desactiverFilChauffant" -> controleur.desactiverFilChauffant();
+            case "mettreAJourDistanceFil" -> controleur.mettreAJourDistanceFil(i(a[1]));
+            case "calculerCheminFil" -> controleur.calculerCheminFil(s(a[1]), i(a[2]), i(a[3]));
+            case "mettreAJourCheminFil" -> controleur.mettreAJourCheminFil(points(a[1]));
+            case "recalculerCheminAvecDijkstra" ->
+                controleur.recalculerCheminAvecDijkstra(intersection(a[1]), points(a[2]), i(a[3]));
+
+            // Historique et fichiers
+            case "enregistrerEtatPourUndo" -> controleur.enregistrerEtatPourUndo();
+            case "undo" -> controleur.Undo();
+            case "redo" -> controleur.Redo();
+            case "sauvegarder" -> controleur.sauvegarder(sauvegarde(s(a[1])));
+            case "charger" -> controleur.charger(sauvegardes.getOrDefault(s(a[1]), new File(s(a[1]))));
+            default -> throw new IllegalArgumentException("Opération inconnue : " + operation);
+        }
+    }
+
+    private File sauvegarde(String chemin) throws IOException {
+        File fichier = sauvegardes.get(chemin);
+        if (fichier == null) {
+            fichier = Files.createTempFile("rejeu-session", ".glo").toFile();
+            fichier.deleteOnExit();
+            sauvegardes.put(chemin, fichier);
+        }
+        return fichier;
+    }
+
+    private MeubleDTO meuble(String id) {
+        Integer valeur = entier(id);
+        return valeur == null ? null : controleur.GetMeubleDTO(valeur);
+    }
+
+    private ElementChauffantDTO element(String id) {
+        Integer valeur = entier(id);
+        return valeur == null ? null : controleur.GetElementChauffantDTO(valeur);
+    }
+
+    /**
+     * Intersection du graphe courant aux coordonnées journalisées
+     */
+    private Graphe.Intersection intersection(String champ) {
+        Point p = point(champ);
+        Graphe graphe = controleur.getGraphePiece();
+        if (p == null || graphe == null) {
+            return null;
+        }
+        for (Graphe.Intersection inter : graphe.getIntersections()) {
+            if (inter.getX() == p.x && inter.getY() == p.y) {
+                return inter;
+            }
+        }
+        throw new IllegalStateException("Intersection absente du graphe : " + champ);
+    }
+
+    /**
+     * Meuble journalisé à partir du champ debut (voir JournalSession.argumentsMeuble)
+     */
+    private static MeubleDTO meuble(String[] a, int debut) {
+        MeubleDTO dto = new MeubleDTO();
+        dto.setType(s(a[debut]));
+        dto.setNom(s(a[debut + 1]));
+        dto.setX(i(a[debut + 2]));
+        dto.setY(i(a[debut + 3]));
+        dto.setLargeur(i(a[debut + 4]));
+        dto.setLongueur(i(a[debut + 5]));
+        dto.setAngle(d(a[debut + 6]));
+        dto.setaDrain(b(a[debut + 7]));
+        dto.setDrainX(i(a[debut + 8]));
+        dto.setDrainY(i(a[debut + 9]));
+        dto.setDiametreDrain(i(a[debut + 10]));
+        return dto;
+    }
+
+    /**
+     * Ajoute une opération journalisée au lot de l'appliquerLot suivant
+     */
+    private void preparerLot(String operation, String[] a) {
+        if (lot == null) {
+            lot = new LotModifications();
+        }
+        switch (operation) {
+            case "lotAjouterMeuble" -> {
+                MeubleDTO dto = meuble(a, 2);
+                Meuble meuble = MeubleFactory.creerDepuisDTO(dto);
+                meuble.setDiametreDrain(dto.getDiametreDrain());
+                meuble.setId(i(a[1]));
+                lot.ajouterMeuble(meuble);
+            }
+            case "lotAjouterElement" -> {
+                ElementChauffant element = b(a[7])
+                    ? new Thermostat(s(a[2]), i(a[3]), i(a[4]), i(a[5]), i(a[6]))
+                    : new ElementChauffant(s(a[2]), i(a[3]), i(a[4]), i(a[5]), i(a[6]));
+                element.setId(i(a[1]));
+                element.setAngle(d(a[8]));
+                lot.ajouterElementChauffant(element);
+            }
+            case "lotDeplacer" -> lot.deplacer(i(a[1]), i(a[2]), i(a[3]));
+            case "lotRedimensionner" -> lot.redimensionner(i(a[1]), i(a[2]), i(a[3]));
+            case "lotSupprimer" -> lot.supprimer(i(a[1]));
+            default -> throw new IllegalArgumentException("Opération de lot inconnue : " + operation);
+        }
+    }
+
+    // ==================== DÉCODAGE DES CHAMPS ====================
+
+    private static Integer entier(String champ) {
+        return champ.equals(JournalSession.NUL) ? null : Integer.valueOf(champ);
+    }
+
+    private static int i(String champ) {
+        return Integer.parseInt(champ);
+    }
+
+    private static double d(String champ) {
+        return Double.parseDouble(champ);
+    }
+
+    private static boolean b(String champ) {
+        return Boolean.parseBoolean(champ);
+    }
+
+    private static Point point(String champ) {
+        if (champ.equals(JournalSession.NUL)) {
+            return null;
+        }
+        int virgule = champ.indexOf(',');
+        return new Point(i(champ.substring(0, virgule)), i(champ.substring(virgule + 1)));
+    }
+
+    private static List<Point> points(String champ) {
+        if (champ.equals(JournalSession.NUL)) {
+            return null;
+        }
+        List<Point> points = new ArrayList<>();
+        for (String element : decouper(champ)) {
+            points.add(point(element));
+        }
+        return points;
+    }
+
+    private static List<String> chaines(String champ) {
+        if (champ.equals(JournalSession.NUL)) {
+            return null;
+        }
+        List<String> chaines = new ArrayList<>();
+        for (String element : decouper(champ)) {
+            chaines.add(s(element));
+        }
+        return chaines;
+    }
+
+    /**
+     * Éléments d'une liste, séparés par un SEPARATEUR_LISTE non échappé (vide : liste vide)
+     */
+    private static List<String> decouper(String champ) {
+        List<String> elements = new ArrayList<>();
+        if (champ.isEmpty()) {
+            return elements;
+        }
+        int debut = 0;
+        for (int k = 0; k < champ.length(); k++) {
+            char c = champ.charAt(k);
+            if (c == '\\') {
+                k++;
+            } else if (c == JournalSession.SEPARATEUR_LISTE) {
+                elements.add(champ.substring(debut, k));
+                debut = k + 1;
+            }
+        }
+        elements.add(champ.substring(debut));
+        return elements;
+    }
+
+    private static String s(String champ) {
+        if (champ.equals(JournalSession.NUL)) {
+            return null;
+        }
+        StringBuilder sb = new StringBuilder(champ.length());
+        for (int k = 0; k < champ.length(); k++) {
+            char c = champ.charAt(k);
+            if (c == '\\' && k + 1 < champ.length()) {
+                char suivant = champ.charAt(++k);
+                switch (suivant) {
+                    case 't' -> sb.append('\t');
+                    case 'n' -> sb.append('\n');
+                    case 'r' -> sb.append('\r');
+                    default -> sb.append(suivant); // \\, \; et \-
+                }
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+}
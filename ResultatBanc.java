@@ -0,0 +1,104 @@
+package domaine.banc;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Résultat d'une mesure de HarnaisBanc
+ */
+public final class ResultatBanc {
+
+    private final String banc;
+    private final String parametres;
+    private final long operations;
+    private final long dureeNs; // durée de la phase de mesure
+    private final long octetsParOperation; // -1 si la mesure des allocations n'est pas disponible
+    private final long collections; // nombre de collections du GC pendant la mesure
+    private final long tempsGcMs;
+    private final long p50Ns; // percentiles de latence par opération
+    private final long p90Ns;
+    private final long p99Ns;
+    private final long maxNs;
+    private final Map<String, Double> metriques = new LinkedHashMap<>(); // propres au banc
+
+    ResultatBanc(String banc, String parametres, long operations, long dureeNs,
+                 long octetsParOperation, long collections, long tempsGcMs,
+                 long p50Ns, long p90Ns, long p99Ns, long maxNs) {
+        this.banc = banc;
+        this.parametres = parametres;
+        this.operations = operations;
+        this.dureeNs = dureeNs;
+        this.octetsParOperation = octetsParOperation;
+        this.collections = collections;
+        this.tempsGcMs = tempsGcMs;
+        this.p50Ns = p50Ns;
+        this.p90Ns = p90Ns;
+        this.p99Ns = p99Ns;
+        this.maxNs = maxNs;
+    }
+
+    public String getBanc() {
+        return banc;
+    }
+
+    public String getParametres() {
+        return parametres;
+    }
+
+    public long getOperations() {
+        return operations;
+    }
+
+    public long getDureeNs() {
+        return dureeNs;
+    }
+
+    public double getNsParOperation() {
+        return (double) dureeNs / operations;
+    }
+
+    public double getOperationsParSeconde() {
+        return operations * 1e9 / dureeNs;
+    }
+
+    public long getOctetsParOperation() {
+        return octetsParOperation;
+    }
+
+    public long getCollections() {
+        return collections;
+    }
+
+    public long getTempsGcMs() {
+        return tempsGcMs;
+    }
+
+    public long getP50Ns() {
+        return p50Ns;
+    }
+
+    public long getP90Ns() {
+        return p90Ns;
+    }
+
+    public long getP99Ns() {
+        return p99Ns;
+    }
+
+    public long getMaxNs() {
+        return maxNs;
+    }
+
+    /**
+     * Ajoute une métrique propre au banc (par exemple le nombre d'intersections générées)
+     */
+    public ResultatBanc ajouterMetrique(String nom, double valeur) {
+        metriques.put(nom, valeur);
+        return this;
+    }
+
+    public Map<String, Double> getMetriques() {
+        return Collections.unmodifiableMap(metriques);
+    }
+}
@@ -0,0 +1,80 @@
+package domaine.lot;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Résultat du routage d'une pièce dans un traitement par lot
+ */
+public final class ResultatPiece {
+
+    /**
+     * Issue du traitement d'une pièce
+     */
+    public enum Statut {
+        REUSSI,       // chemin trouvé et valide
+        INVALIDE,     // chemin trouvé mais refusé par FilValidator
+        SANS_CHEMIN,  // aucun chemin trouvé
+        EXPIRE,       // délai par pièce dépassé
+        ERREUR        // fichier illisible, pièce invalide, ...
+    }
+
+    private final Path source;
+    private final String nom; // nom de la pièce dans un projet, sinon nom du fichier
+    private final Statut statut;
+    private final double longueur; // longueur du chemin (en pouces)
+    private final int nombreSommets;
+    private final List<String> messages; // erreurs de validation ou cause de l'échec
+    private final long dureeMs;
+
+    ResultatPiece(Path source, String nom, Statut statut, double longueur, int nombreSommets,
+                  List<String> messages, long dureeMs) {
+        this.source = source;
+        this.nom = nom;
+        this.statut = statut;
+        this.longueur = longueur;
+        this.nombreSommets = nombreSommets;
+        this.messages = messages != null ? Collections.unmodifiableList(messages) : Collections.emptyList();
+        this.dureeMs = dureeMs;
+    }
+
+    static ResultatPiece echec(Path source, String nom, Statut statut, String message, long dureeMs) {
+        return new ResultatPiece(source, nom, statut, 0, 0,
+            message != null ? List.of(message) : null, dureeMs);
+    }
+
+    public Path getSource() {
+        return source;
+    }
+
+    public String getNom() {
+        return nom;
+    }
+
+    public Statut getStatut() {
+        return statut;
+    }
+
+    public double getLongueur() {
+        return longueur;
+    }
+
+    public int getNombreSommets() {
+        return nombreSommets;
+    }
+
+    public List<String> getMessages() {
+        return messages;
+    }
+
+    public long getDureeMs() {
+        return dureeMs;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s [%s] %s - %.1f\", %d sommets, %d ms",
+            source.getFileName(), nom, statut, longueur, nombreSommets, dureeMs);
+    }
+}
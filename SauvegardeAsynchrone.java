@@ -0,0 +1,97 @@
+package domaine.sauvegarde;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Sauvegarde en arrière-plan à partir d'un instantané de la pièce
+ *
+ * L'appelant fournit un EtatPiece déjà copié (instantané cohérent, peu coûteux) ; l'encodage,
+ * la compression, l'écriture et la synchronisation disque se font sur un fil dédié pendant que
+ * l'utilisateur continue d'éditer. Les sauvegardes passent par un seul fil, donc dans l'ordre
+ * où elles ont été demandées. Le fichier est écrit à côté puis déplacé : il n'est jamais à moitié écrit.
+ */
+public final class SauvegardeAsynchrone {
+
+    private static final int TAILLE_BLOC_ECRITURE = 256 * 1024;
+
+    private static final ExecutorService EXECUTEUR = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "sauvegarde-arriere-plan");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private SauvegardeAsynchrone() {}
+
+    /**
+     * Lance la sauvegarde d'un instantané
+     * @param etat L'instantané à sauvegarder (ne doit plus être modifié par l'appelant)
+     * @param fichier Le fichier de destination
+     * @param compresser Si true, les sections sont compressées (Deflate)
+     * @return Le suivi de la sauvegarde
+     */
+    public static SauvegardeEnCours lancer(EtatPiece etat, Path fichier, boolean compresser) {
+        if (etat == null || fichier == null) {
+            throw new IllegalArgumentException("Paramètres de sauvegarde invalides");
+        }
+        SauvegardeEnCours suivi = new SauvegardeEnCours(fichier);
+        EXECUTEUR.execute(() -> {
+            try {
+                ecrire(etat, fichier, compresser, suivi);
+                suivi.avancer(SauvegardeEnCours.Etape.TERMINEE, 1.0);
+                suivi.getResultat().complete(fichier);
+            } catch (Throwable e) {
+                suivi.getResultat().completeExceptionally(e);
+            }
+        });
+        return suivi;
+    }
+
+    private static void ecrire(EtatPiece etat, Path fichier, boolean compresser, SauvegardeEnCours suivi) throws Exception {
+        verifierAnnulation(suivi);
+        suivi.avancer(SauvegardeEnCours.Etape.ENCODAGE, 0.0);
+        ByteBuffer contenu = FormatBinaire.encoder(etat);
+
+        if (compresser) {
+            verifierAnnulation(suivi);
+            suivi.avancer(SauvegardeEnCours.Etape.COMPRESSION, 0.2);
+            contenu = FormatBinaire.compresser(contenu,
+                f -> suivi.avancer(SauvegardeEnCours.Etape.COMPRESSION, 0.2 + 0.4 * f));
+        }
+
+        verifierAnnulation(suivi);
+        Path temporaire = fichier.resolveSibling(fichier.getFileName() + ".tmp");
+        try {
+            try (FileChannel canal = FileChannel.open(temporaire, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                int total = contenu.remaining();
+                while (contenu.hasRemaining()) {
+                    ByteBuffer bloc = contenu.duplicate();
+                    bloc.limit(Math.min(contenu.limit(), contenu.position() + TAILLE_BLOC_ECRITURE));
+                    contenu.position(contenu.position() + canal.write(bloc));
+                    double fait = total == 0 ? 1.0 : 1.0 - contenu.remaining() / (double) total;
+                    suivi.avancer(SauvegardeEnCours.Etape.ECRITURE, 0.6 + 0.3 * fait);
+                }
+                suivi.avancer(SauvegardeEnCours.Etape.SYNCHRONISATION, 0.9);
+                canal.force(true);
+            }
+            verifierAnnulation(suivi);
+            Files.move(temporaire, fichier, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporaire);
+        }
+    }
+
+    private static void verifierAnnulation(SauvegardeEnCours suivi) {
+        if (suivi.getResultat().isCancelled()) {
+            throw new CancellationException("Sauvegarde annulée");
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package domaine.sauvegarde;
+
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Suivi d'une sauvegarde lancée en arrière-plan
+ * La fin (succès ou échec) est signalée par le future, l'avancement par getProgression().
+ */
+public final class SauvegardeEnCours {
+
+    /**
+     * Étapes d'une sauvegarde, dans l'ordre
+     */
+    public enum Etape { EN_ATTENTE, ENCODAGE, COMPRESSION, ECRITURE, SYNCHRONISATION, TERMINEE }
+
+    private final Path fichier;
+    private final CompletableFuture<Path> resultat = new CompletableFuture<>();
+    private volatile Etape etape = Etape.EN_ATTENTE;
+    private volatile double progression;
+
+    SauvegardeEnCours(Path fichier) {
+        this.fichier = fichier;
+    }
+
+    public Path getFichier() {
+        return fichier;
+    }
+
+    /**
+     * Future complété avec le fichier écrit, ou exceptionnellement en cas d'erreur
+     */
+    public CompletableFuture<Path> getResultat() {
+        return resultat;
+    }
+
+    public Etape getEtape() {
+        return etape;
+    }
+
+    /**
+     * Avancement global entre 0 et 1
+     */
+    public double getProgression() {
+        return progression;
+    }
+
+    public boolean estTerminee() {
+        return resultat.isDone();
+    }
+
+    /**
+     * Annule la sauvegarde si elle n'a pas encore remplacé le fichier
+     */
+    public boolean annuler() {
+        return resultat.cancel(false);
+    }
+
+    void avancer(Etape etape, double progression) {
+        this.etape = etape;
+        this.progression = progression;
+    }
+}
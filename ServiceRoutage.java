@@ -0,0 +1,99 @@
+package domaine.chauffage;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Exécute les calculs de chemin du fil en arrière-plan
+ *
+ * Les demandes sont regroupées par clé (par exemple "chemin" ou "dijkstra") : une demande qui
+ * n'a pas encore commencé est remplacée par la suivante de même clé, dont le future est annulé.
+ * Lors d'un réglage rapide (glisser un curseur), seuls les derniers paramètres sont donc calculés.
+ * Les calculs passent par un seul fil ; chaque calcul travaille sur sa propre copie de la pièce.
+ */
+public final class ServiceRoutage implements AutoCloseable {
+
+    private final ExecutorService executeur = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "routage-fil");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final Map<String, Demande<?>> enAttente = new LinkedHashMap<>(); // protégé par this
+
+    private static final class Demande<T> {
+        private final Callable<T> calcul;
+        private final CompletableFuture<T> resultat = new CompletableFuture<>();
+
+        Demande(Callable<T> calcul) {
+            this.calcul = calcul;
+        }
+
+        void executer() {
+            if (resultat.isDone()) {
+                return; // annulée par l'appelant
+            }
+            try {
+                resultat.complete(calcul.call());
+            } catch (Throwable e) {
+                resultat.completeExceptionally(e);
+            }
+        }
+    }
+
+    /**
+     * Soumet un calcul ; remplace la demande de même clé encore en attente
+     * @param cle La clé de regroupement
+     * @param calcul Le calcul (ne lit pas la pièce de l'interface, seulement un instantané : Piece.getInstantane())
+     * @return Le future du résultat, annulé si la demande est remplacée avant d'avoir commencé
+     */
+    public <T> CompletableFuture<T> soumettre(String cle, Callable<T> calcul) {
+        if (cle == null || calcul == null) {
+            throw new IllegalArgumentException("Demande de routage invalide");
+        }
+        Demande<T> demande = new Demande<>(calcul);
+        Demande<?> remplacee;
+        synchronized (this) {
+            remplacee = enAttente.put(cle, demande);
+        }
+        if (remplacee != null) {
+            remplacee.resultat.cancel(false);
+        } else {
+            // Une seule tâche par clé en attente : elle exécutera la dernière demande reçue
+            executeur.execute(() -> executerDerniere(cle));
+        }
+        return demande.resultat;
+    }
+
+    /**
+     * Indique si des demandes attendent d'être calculées
+     */
+    public synchronized boolean aDesDemandesEnAttente() {
+        return !enAttente.isEmpty();
+    }
+
+    private void executerDerniere(String cle) {
+        Demande<?> demande;
+        synchronized (this) {
+            demande = enAttente.remove(cle);
+        }
+        if (demande != null) {
+            demande.executer();
+        }
+    }
+
+    @Override
+    public void close() {
+        synchronized (this) {
+            for (Demande<?> d : enAttente.values()) {
+                d.resultat.cancel(false);
+            }
+            enAttente.clear();
+        }
+        executeur.shutdownNow();
+    }
+}
@@ -0,0 +1,29 @@
+package domaine.chauffage;
+
+import domaine.graphe.Graphe;
+import domaine.piece.Piece;
+
+/**
+ * Stratégie de calcul du chemin du fil chauffant (voir RegistreStrategiesRoutage)
+ *
+ * Une stratégie ne modifie ni la pièce ni son graphe, qui doit déjà être généré. Elle lit la pièce
+ * sans verrou : hors du fil de l'interface, l'appeler sur un instantané (Piece.getInstantane),
+ * ce qui permet aussi de comparer plusieurs stratégies sur la même entrée.
+ */
+public interface StrategieRoutage {
+
+    /**
+     * Nom sous lequel la stratégie est enregistrée
+     */
+    String getNom();
+
+    /**
+     * Calcule le chemin du fil
+     * @param piece La pièce (de préférence un instantané, voir Piece.getInstantane)
+     * @param graphe Le graphe des intersections de la pièce, déjà généré
+     * @param parametres Distance entre les fils, longueur et départ éventuel
+     * @return Le chemin calculé, ou null si aucun chemin valide n'est trouvé
+     * @throws IllegalStateException si le graphe n'est pas généré
+     */
+    CheminFil router(Piece piece, Graphe graphe, ParametresRoutage parametres);
+}
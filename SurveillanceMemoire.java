@@ -0,0 +1,116 @@
+package domaine.diagnostic;
+
+import domaine.diagnostic.EmpreinteMemoire.Poste;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Journalisation périodique de l'EmpreinteMemoire et contrôle des budgets par poste
+ *
+ * Un fil commun déclenche les mesures ; chaque mesure est exécutée sur l'exécuteur fourni
+ * (celui qui modifie le modèle), pour ne jamais parcourir la pièce pendant qu'elle change.
+ * Chaque mesure est écrite sur la sortie, suivie d'une ligne par poste au-delà de son budget.
+ */
+public final class SurveillanceMemoire {
+
+    private static final ScheduledExecutorService MINUTERIE = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "surveillance-memoire");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final Supplier<EmpreinteMemoire> mesure;
+    private final Executor executeur;
+    private final Consumer<String> sortie;
+    private final Map<Poste, Long> budgets = new EnumMap<>(Poste.class);
+    private ScheduledFuture<?> tache;
+    private volatile EmpreinteMemoire derniere;
+
+    /**
+     * @param mesure Mesure de l'empreinte, appelée sur l'exécuteur
+     * @param executeur Exécuteur du modèle
+     * @param sortie Destination du journal (par exemple System.err::println)
+     */
+    public SurveillanceMemoire(Supplier<EmpreinteMemoire> mesure, Executor executeur, Consumer<String> sortie) {
+        if (mesure == null || executeur == null || sortie == null) {
+            throw new IllegalArgumentException("Paramètres de surveillance invalides");
+        }
+        this.mesure = mesure;
+        this.executeur = executeur;
+        this.sortie = sortie;
+    }
+
+    /**
+     * Démarre (ou redémarre) la journalisation périodique
+     * @param periodeMs Période entre deux mesures, en millisecondes
+     */
+    public synchronized void demarrer(long periodeMs) {
+        if (periodeMs <= 0) {
+            throw new IllegalArgumentException("Période invalide : " + periodeMs);
+        }
+        arreter();
+        tache = MINUTERIE.scheduleAtFixedRate(() -> executeur.execute(this::verifier),
+            periodeMs, periodeMs, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void arreter() {
+        if (tache != null) {
+            tache.cancel(false);
+            tache = null;
+        }
+    }
+
+    public synchronized boolean estDemarree() {
+        return tache != null;
+    }
+
+    /**
+     * Fixe le budget d'un poste
+     * @param octets Budget en octets ; 0 ou moins retire le budget
+     */
+    public synchronized void setBudget(Poste poste, long octets) {
+        if (octets > 0) {
+            budgets.put(poste, octets);
+        } else {
+            budgets.remove(poste);
+        }
+    }
+
+    public synchronized Map<Poste, Long> getBudgets() {
+        return new EnumMap<>(budgets);
+    }
+
+    /**
+     * @return La dernière mesure journalisée (null avant la première)
+     */
+    public EmpreinteMemoire getDerniere() {
+        return derniere;
+    }
+
+    /**
+     * Mesure, journalise et contrôle les budgets (à appeler sur l'exécuteur du modèle)
+     * @return Les postes au-delà de leur budget
+     */
+    public List<Poste> verifier() {
+        EmpreinteMemoire empreinte = mesure.get();
+        derniere = empreinte;
+        sortie.accept(empreinte.toString());
+        Map<Poste, Long> limites = getBudgets();
+        List<Poste> depassements = empreinte.depassements(limites);
+        for (Poste poste : depassements) {
+            sortie.accept(String.format(Locale.ROOT, "Budget mémoire dépassé : %s %.1f Ko (budget %.1f Ko)",
+                poste.name().toLowerCase(Locale.ROOT), empreinte.getOctets(poste) / 1024.0, limites.get(poste) / 1024.0));
+        }
+        return depassements;
+    }
+}
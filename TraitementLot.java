@@ -0,0 +1,360 @@
+package domaine.lot;
+
+import domaine.chauffage.CalculateurCheminFil;
+import domaine.chauffage.CheminFil;
+import domaine.chauffage.FilChauffant;
+import domaine.graphe.Graphe;
+import domaine.piece.Piece;
+import domaine.sauvegarde.EtatPiece;
+import domaine.sauvegarde.EtatPieceMapper;
+import domaine.sauvegarde.FichierProjet;
+import domaine.sauvegarde.FormatBinaire;
+import domaine.validation.FilValidator;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Routage du fil chauffant par lot, sans interface
+ *
+ * Charge des fichiers de pièce (FormatBinaire) ou de projet (FichierProjet), régénère le graphe
+ * de chaque pièce, calcule le chemin du fil avec CalculateurCheminFil, le valide avec FilValidator,
+ * écrit les pièces routées dans le dossier de sortie ainsi qu'un rapport (rapport-lot.txt).
+ *
+ * Chaque pièce est une tâche indépendante : les pièces d'un même projet sont routées en parallèle.
+ * Les tâches passent par un nombre fixe de fils (par défaut un par cœur) ; une pièce qui dépasse
+ * son délai est interrompue et notée EXPIRE sans bloquer les autres.
+ */
+public final class TraitementLot implements AutoCloseable {
+
+    public static final long DELAI_PAR_DEFAUT_MS = 60_000;
+    public static final String NOM_RAPPORT = "rapport-lot.txt";
+
+    // Mêmes valeurs par défaut que le contrôleur lorsque le fil n'est pas configuré
+    private static final int DISTANCE_PAR_DEFAUT = 6;
+    private static final int LONGUEUR_PAR_DEFAUT = 1000;
+
+    private final int nombreFils;
+    private final long delaiParPieceMs;
+    private final ExecutorService executeur;
+    private final ScheduledExecutorService delais;
+
+    /**
+     * Un projet ouvert pendant le traitement, réécrit à la fin avec ses pièces routées
+     */
+    private static final class Projet {
+        private final Path source;
+        private final FichierProjet fichier;
+        private final Map<Integer, Piece> routees = new HashMap<>(); // remplie par le fil qui attend les tâches
+
+        Projet(Path source, FichierProjet fichier) {
+            this.source = source;
+            this.fichier = fichier;
+        }
+    }
+
+    /**
+     * Écriture d'une pièce routée dans la sortie
+     */
+    private interface Enregistrement {
+        void enregistrer(Piece piece) throws IOException;
+    }
+
+    /**
+     * Routage d'une pièce ; le délai court à partir du début de l'exécution, pas de la soumission
+     * La pièce routée n'est enregistrée qu'une fois la tâche terminée dans son délai : une tâche
+     * annulée peut encore finir son calcul, mais son résultat est ignoré.
+     */
+    private final class Tache extends FutureTask<ResultatPiece> {
+        private final Path source;
+        private final String nom;
+        private final Piece[] routee;
+        private final Enregistrement enregistrement;
+
+        private Tache(Path source, String nom, Piece[] routee, Callable<ResultatPiece> calcul,
+                      Enregistrement enregistrement) {
+            super(calcul);
+            this.source = source;
+            this.nom = nom;
+            this.routee = routee;
+            this.enregistrement = enregistrement;
+        }
+
+        @Override
+        public void run() {
+            ScheduledFuture<?> alarme = delais.schedule(() -> cancel(true), delaiParPieceMs, TimeUnit.MILLISECONDS);
+            try {
+                super.run();
+            } finally {
+                alarme.cancel(false);
+            }
+        }
+
+        ResultatPiece resultat() throws InterruptedException {
+            try {
+                ResultatPiece resultat = get();
+                if (routee[0] != null) {
+                    enregistrement.enregistrer(routee[0]);
+                }
+                return resultat;
+            } catch (IOException e) {
+                return ResultatPiece.echec(source, nom, ResultatPiece.Statut.ERREUR,
+                    e.getClass().getSimpleName() + ": " + e.getMessage(), 0);
+            } catch (CancellationException e) {
+                return ResultatPiece.echec(source, nom, ResultatPiece.Statut.EXPIRE,
+                    "Délai dépassé (" + delaiParPieceMs + " ms)", delaiParPieceMs);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                return ResultatPiece.echec(source, nom, ResultatPiece.Statut.ERREUR,
+                    cause.getClass().getSimpleName() + ": " + cause.getMessage(), 0);
+            }
+        }
+    }
+
+    /**
+     * Traitement avec un fil par cœur et le délai par défaut
+     */
+    public TraitementLot() {
+        this(Runtime.getRuntime().availableProcessors(), DELAI_PAR_DEFAUT_MS);
+    }
+
+    /**
+     * @param nombreFils Nombre de pièces routées en même temps
+     * @param delaiParPieceMs Délai maximal de routage d'une pièce (en millisecondes)
+     */
+    public TraitementLot(int nombreFils, long delaiParPieceMs) {
+        if (nombreFils < 1) {
+            throw new IllegalArgumentException("Nombre de fils invalide: " + nombreFils);
+        }
+        if (delaiParPieceMs <= 0) {
+            throw new IllegalArgumentException("Délai invalide: " + delaiParPieceMs);
+        }
+        this.nombreFils = nombreFils;
+        this.delaiParPieceMs = delaiParPieceMs;
+        this.executeur = Executors.newFixedThreadPool(nombreFils, fabrique("lot-routage"));
+        this.delais = Executors.newSingleThreadScheduledExecutor(fabrique("lot-delais"));
+    }
+
+    private static ThreadFactory fabrique(String prefixe) {
+        AtomicInteger numero = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, prefixe + "-" + numero.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    /**
+     * Traite tous les fichiers d'un dossier (sauf le rapport et les fichiers cachés ou temporaires)
+     * @param dossier Le dossier contenant les pièces et projets
+     * @param sortie Le dossier où écrire les résultats et le rapport (créé au besoin)
+     */
+    public RapportLot traiterDossier(Path dossier, Path sortie) throws IOException {
+        if (!Files.isDirectory(dossier)) {
+            throw new IllegalArgumentException("Dossier introuvable: " + dossier);
+        }
+        List<Path> fichiers;
+        try (Stream<Path> contenu = Files.list(dossier)) {
+            fichiers = contenu.filter(Files::isRegularFile)
+                .filter(f -> {
+                    String nom = f.getFileName().toString();
+                    return !nom.startsWith(".") && !nom.endsWith(".tmp") && !nom.equals(NOM_RAPPORT);
+                })
+                .sorted()
+                .toList();
+        }
+        return traiter(fichiers, sortie);
+    }
+
+    /**
+     * Traite une liste de fichiers de pièce ou de projet
+     * @param fichiers Les fichiers à traiter
+     * @param sortie Le dossier où écrire les résultats et le rapport (créé au besoin)
+     * @return Le rapport, également écrit dans sortie/rapport-lot.txt
+     */
+    public RapportLot traiter(List<Path> fichiers, Path sortie) throws IOException {
+        if (fichiers == null || sortie == null) {
+            throw new IllegalArgumentException("Paramètres de traitement invalides");
+        }
+        Files.createDirectories(sortie);
+        long debut = System.nanoTime();
+
+        List<Projet> projets = new ArrayList<>();
+        List<Tache> taches = new ArrayList<>();
+        try {
+            // Soumettre toutes les pièces d'abord : les fils restent occupés jusqu'à la dernière
+            for (Path fichier : fichiers) {
+                if (estProjet(fichier)) {
+                    Projet projet = new Projet(fichier, FichierProjet.ouvrir(fichier));
+                    projets.add(projet);
+                    for (int i = 0; i < projet.fichier.getNombrePieces(); i++) {
+                        taches.add(soumettre(projet, i));
+                    }
+                } else {
+                    taches.add(soumettre(fichier, sortie));
+                }
+            }
+
+            List<ResultatPiece> resultats = new ArrayList<>(taches.size());
+            for (Tache t : taches) {
+                resultats.add(t.resultat());
+            }
+
+            // Réécrire chaque projet avec ses pièces routées (les autres sont recopiées telles quelles)
+            for (Projet projet : projets) {
+                if (!projet.routees.isEmpty()) {
+                    projet.routees.forEach(projet.fichier::remplacerPiece);
+                    projet.fichier.sauvegarder(sortie.resolve(projet.source.getFileName()));
+                }
+            }
+
+            long duree = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - debut);
+            RapportLot rapport = new RapportLot(resultats, nombreFils, duree);
+            rapport.ecrire(sortie.resolve(NOM_RAPPORT));
+            return rapport;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            taches.forEach(t -> t.cancel(true));
+            throw new IOException("Traitement par lot interrompu", e);
+        } finally {
+            for (Projet projet : projets) {
+                try {
+                    projet.fichier.close();
+                } catch (IOException e) {
+                    System.err.println("Erreur lors de la fermeture du projet " + projet.source + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private static boolean estProjet(Path fichier) {
+        try {
+            return FichierProjet.estFichierProjet(fichier);
+        } catch (IOException e) {
+            return false; // l'erreur sera rapportée par la tâche de la pièce
+        }
+    }
+
+    private Tache soumettre(Path fichier, Path sortie) {
+        String nom = fichier.getFileName().toString();
+        Piece[] routee = new Piece[1];
+        Tache tache = new Tache(fichier, nom, routee, () -> {
+            long debut = System.nanoTime();
+            EtatPiece etat = FormatBinaire.lire(fichier);
+            return router(fichier, nom, etat, debut, p -> routee[0] = p);
+        }, p -> FormatBinaire.ecrire(EtatPieceMapper.versEtat(p), sortie.resolve(nom)));
+        executeur.execute(tache);
+        return tache;
+    }
+
+    private Tache soumettre(Projet projet, int index) {
+        String nom = projet.fichier.getNom(index);
+        Piece[] routee = new Piece[1];
+        Tache tache = new Tache(projet.source, nom, routee, () -> {
+            long debut = System.nanoTime();
+            EtatPiece etat;
+            synchronized (projet.fichier) { // FichierProjet n'est pas prévu pour plusieurs fils
+                etat = projet.fichier.getEtat(index);
+            }
+            return router(projet.source, nom, etat, debut, p -> routee[0] = p);
+        }, p -> projet.routees.put(index, p));
+        executeur.execute(tache);
+        return tache;
+    }
+
+    /**
+     * Reconstruit la pièce, régénère son graphe, calcule et valide le chemin du fil
+     * Chaque étape peut être interrompue par le délai : la tâche est alors annulée et son résultat ignoré.
+     * @param routee Reçoit la pièce si un chemin a été trouvé
+     */
+    private static ResultatPiece router(Path source, String nom, EtatPiece etat, long debut,
+                                        Consumer<Piece> routee) throws InterruptedException {
+        // versPiece régénère une membrane déjà générée (avec validation si elle est confirmée)
+        Piece piece = EtatPieceMapper.versPiece(etat);
+        Graphe graphe = piece.getGraphe();
+        if (graphe != null && !graphe.estGenere()) {
+            if (graphe.estConfirmee()) {
+                graphe.genererGrapheAvecValidation(piece);
+            } else {
+                graphe.genererGraphe();
+            }
+        }
+
+        FilChauffant fil = piece.getFilChauffant();
+        if (fil == null) {
+            return ResultatPiece.echec(source, nom, ResultatPiece.Statut.ERREUR, "Pièce sans fil chauffant", duree(debut));
+        }
+        int distance = fil.getDistanceFil() > 0 ? fil.getDistanceFil() : DISTANCE_PAR_DEFAUT;
+        int longueur = fil.getLongueurSouhaitee() > 0 ? fil.getLongueurSouhaitee() : LONGUEUR_PAR_DEFAUT;
+
+        CheminFil chemin = CalculateurCheminFil.calculerCheminCompact(piece, fil, distance, longueur);
+        if (Thread.interrupted()) {
+            throw new InterruptedException("Délai dépassé"); // le résultat est ignoré (tâche annulée)
+        }
+        if (chemin == null || chemin.estVide()) {
+            return ResultatPiece.echec(source, nom, ResultatPiece.Statut.SANS_CHEMIN, null, duree(debut));
+        }
+
+        fil.setDistanceFil(distance);
+        fil.setLongueurSouhaitee(longueur);
+        fil.setChemin(chemin);
+        List<String> erreurs = FilValidator.validerFil(piece, fil);
+        routee.accept(piece);
+        ResultatPiece.Statut statut = erreurs.isEmpty() ? ResultatPiece.Statut.REUSSI : ResultatPiece.Statut.INVALIDE;
+        return new ResultatPiece(source, nom, statut, chemin.getLongueur(), chemin.taille(), erreurs, duree(debut));
+    }
+
+    private static long duree(long debut) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - debut);
+    }
+
+    @Override
+    public void close() {
+        executeur.shutdownNow();
+        delais.shutdownNow();
+    }
+
+    /**
+     * Point d'entrée sans interface (par exemple pour une tâche de nuit)
+     * Usage : TraitementLot dossierEntree dossierSortie [delaiParPieceSecondes] [nombreFils]
+     * Code de sortie : 0 si toutes les pièces sont routées avec un chemin valide, 1 sinon, 2 en cas d'erreur.
+     */
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Usage : TraitementLot dossierEntree dossierSortie [delaiParPieceSecondes] [nombreFils]");
+            System.exit(2);
+        }
+        int code;
+        try {
+            long delai = args.length > 2 ? Long.parseLong(args[2]) * 1000 : DELAI_PAR_DEFAUT_MS;
+            int fils = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+            try (TraitementLot lot = new TraitementLot(fils, delai)) {
+                RapportLot rapport = lot.traiterDossier(Path.of(args[0]), Path.of(args[1]));
+                System.out.println(rapport.resume());
+                code = rapport.estReussi() ? 0 : 1;
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Erreur du traitement par lot : " + e.getMessage());
+            code = 2;
+        }
+        System.exit(code);
+    }
+}
@@ -1,5 +1,7 @@
 package domaine;
 
+import domaine.chauffage.CheminFil;
+import domaine.diagnostic.EvenementInstantane;
 import domaine.dto.PieceDTO;
 import java.util.Stack;
 
@@ -25,6 +27,8 @@ public class UndoRedo {
         if (etat == null) return;
         
         // Créer une copie profonde de l'état pour éviter les références partagées
+        EvenementInstantane evenement = new EvenementInstantane();
+        evenement.begin();
         PieceDTO copie = copierEtat(etat);
         
         // Ajouter à la pile undo
@@ -39,6 +43,7 @@ public class UndoRedo {
             }
             pileUndo = nouvellePile;
         }
+        terminer(evenement, "undo", copie, pileUndo.size());
         
         // Vider la pile redo quand on fait une nouvelle action
         pileRedo.clear();
@@ -53,6 +58,8 @@ public class UndoRedo {
         if (etat == null) return;
         
         // Créer une copie profonde de l'état pour éviter les références partagées
+        EvenementInstantane evenement = new EvenementInstantane();
+        evenement.begin();
         PieceDTO copie = copierEtat(etat);
         
         // Ajouter à la pile undo
@@ -67,6 +74,7 @@ public class UndoRedo {
             }
             pileUndo = nouvellePile;
         }
+        terminer(evenement, "undo", copie, pileUndo.size());
         
         // NE PAS vider la pile redo ici (contrairement à enregistrerEtat)
     }
@@ -80,8 +88,8 @@ public class UndoRedo {
             return null;
         }
         
-        PieceDTO etatPrecedent = pileUndo.pop();
-        return copierEtat(etatPrecedent);
+        // L'état retiré de la pile n'est plus partagé : pas besoin d'une nouvelle copie
+        return pileUndo.pop();
     }
 
     /**
@@ -93,8 +101,8 @@ public class UndoRedo {
             return null;
         }
         
-        PieceDTO etatSuivant = pileRedo.pop();
-        return copierEtat(etatSuivant);
+        // L'état retiré de la pile n'est plus partagé : pas besoin d'une nouvelle copie
+        return pileRedo.pop();
     }
 
     /**
@@ -102,6 +110,8 @@ public class UndoRedo {
      */
     public void enregistrerPourRedo(PieceDTO etat) {
         if (etat == null) return;
+        EvenementInstantane evenement = new EvenementInstantane();
+        evenement.begin();
         PieceDTO copie = copierEtat(etat);
         pileRedo.push(copie);
         
@@ -113,10 +123,30 @@ public class UndoRedo {
             }
             pileRedo = nouvellePile;
         }
+        terminer(evenement, "redo", copie, pileRedo.size());
+    }
+
+    /**
+     * Enregistre l'événement JFR d'un instantané (seulement si un enregistrement le demande)
+     */
+    private static void terminer(EvenementInstantane evenement, String pile, PieceDTO etat, int profondeur) {
+        evenement.end();
+        if (evenement.shouldCommit()) {
+            evenement.pile = pile;
+            evenement.largeurPiece = etat.getLargeur();
+            evenement.longueurPiece = etat.getLongueur();
+            evenement.meubles = etat.getMeubles() != null ? etat.getMeubles().size() : 0;
+            CheminFil chemin = etat.getFliChauffant() != null ? etat.getFliChauffant().getCheminCompact() : null;
+            evenement.points = chemin != null ? chemin.taille() : 0;
+            evenement.profondeur = profondeur;
+            evenement.commit();
+        }
     }
 
     /**
      * Crée une copie profonde d'un PieceDTO pour éviter les références partagées
+     * Conserve le contour, les zones, le chemin du fil et la configuration de la membrane
+     * afin que la restauration n'ait pas à recalculer le chemin ni le graphe
      */
     private PieceDTO copierEtat(PieceDTO original) {
         if (original == null) return null;
@@ -124,10 +154,19 @@ public class UndoRedo {
         PieceDTO copie = new PieceDTO();
         copie.setLargeur(original.getLargeur());
         copie.setLongueur(original.getLongueur());
+        // Le contour compact est immuable : il est partagé sans copie, comme le chemin du fil
+        copie.setContourCompact(original.getContourCompact());
+        
+        // Configuration de la membrane
+        copie.setEspacementMembrane(original.getEspacementMembrane());
+        copie.setTranslationXMembrane(original.getTranslationXMembrane());
+        copie.setTranslationYMembrane(original.getTranslationYMembrane());
+        copie.setMembraneConfirmee(original.isMembraneConfirmee());
+        copie.setMembraneGeneree(original.isMembraneGeneree());
         
         // Copier les meubles (copie profonde)
         if (original.getMeubles() != null) {
-            java.util.List<domaine.dto.MeubleDTO> meublesCopies = new java.util.ArrayList<>();
+            java.util.List<domaine.dto.MeubleDTO> meublesCopies = new java.util.ArrayList<>(original.getMeubles().size());
             for (domaine.dto.MeubleDTO m : original.getMeubles()) {
                 if (m != null) {
                     meublesCopies.add(copierMeubleDTO(m));
@@ -138,7 +177,7 @@ public class UndoRedo {
         
         // Copier les éléments chauffants (copie profonde)
         if (original.getElementsChauffants() != null) {
-            java.util.List<domaine.dto.ElementChauffantDTO> elementsCopies = new java.util.ArrayList<>();
+            java.util.List<domaine.dto.ElementChauffantDTO> elementsCopies = new java.util.ArrayList<>(original.getElementsChauffants().size());
             for (domaine.dto.ElementChauffantDTO e : original.getElementsChauffants()) {
                 if (e != null) {
                     elementsCopies.add(copierElementChauffantDTO(e));
@@ -147,13 +186,51 @@ public class UndoRedo {
             copie.setElementsChauffants(elementsCopies);
         }
         
-        // Copier le fil chauffant (si nécessaire, créer une copie)
+        // Copier les zones d'interdiction
+        if (original.getZonesInterdiction() != null) {
+            java.util.List<domaine.dto.ZoneInterdictionDTO> zonesCopies = new java.util.ArrayList<>(original.getZonesInterdiction().size());
+            for (domaine.dto.ZoneInterdictionDTO z : original.getZonesInterdiction()) {
+                if (z != null) {
+                    domaine.dto.ZoneInterdictionDTO zc = new domaine.dto.ZoneInterdictionDTO();
+                    zc.setId(z.getId());
+                    zc.setNom(z.getNom());
+                    zc.setPosition(z.getPosition() != null ? new java.awt.Point(z.getPosition()) : null);
+                    zc.setLargeur(z.getLargeur());
+                    zc.setLongueur(z.getLongueur());
+                    zonesCopies.add(zc);
+                }
+            }
+            copie.setZonesInterdiction(zonesCopies);
+        }
+        
+        // Copier les zones tampon
+        if (original.getZonesTampon() != null) {
+            java.util.List<domaine.dto.ZoneTamponDTO> zonesCopies = new java.util.ArrayList<>(original.getZonesTampon().size());
+            for (domaine.dto.ZoneTamponDTO z : original.getZonesTampon()) {
+                if (z != null) {
+                    domaine.dto.ZoneTamponDTO zc = new domaine.dto.ZoneTamponDTO();
+                    zc.setId(z.getId());
+                    zc.setNom(z.getNom());
+                    zc.setPosition(z.getPosition() != null ? new java.awt.Point(z.getPosition()) : null);
+                    zc.setLargeur(z.getLargeur());
+                    zc.setLongueur(z.getLongueur());
+                    zc.setDistance(z.getDistance());
+                    zonesCopies.add(zc);
+                }
+            }
+            copie.setZonesTampon(zonesCopies);
+        }
+        
+        // Copier le fil chauffant, y compris son chemin calculé
         if (original.getFliChauffant() != null) {
             domaine.dto.FliChauffantDTO filCopie = new domaine.dto.FliChauffantDTO();
             filCopie.setNom(original.getFliChauffant().getNom());
             filCopie.setLongueur(original.getFliChauffant().getLongueur());
+            filCopie.setLongueurSouhaitee(original.getFliChauffant().getLongueurSouhaitee());
             filCopie.setDistanceEnroulement(original.getFliChauffant().getDistanceEnroulement());
             filCopie.setActif(original.getFliChauffant().isActif());
+            // Le chemin compact est immuable : il est partagé sans copie
+            filCopie.setCheminCompact(original.getFliChauffant().getCheminCompact());
             copie.setFliChauffant(filCopie);
         }
         
@@ -174,6 +251,7 @@ public class UndoRedo {
         copie.setLargeur(original.getLargeur());
         copie.setLongueur(original.getLongueur());
         copie.setType(original.getType());
+        copie.setAngle(original.getAngle());
         copie.setaDrain(original.isaDrain());
         copie.setDiametreDrain(original.getDiametreDrain());
         
@@ -198,6 +276,7 @@ public class UndoRedo {
         copie.setLargeur(original.getLargeur());
         copie.setLongueur(original.getLongueur());
         copie.setType(original.getType());
+        copie.setAngle(original.getAngle());
         copie.setActif(original.isActif());
         
         if (original.getPosition() != null) {
@@ -221,6 +300,16 @@ public class UndoRedo {
         return !pileRedo.isEmpty();
     }
 
+    /**
+     * Instantanés des deux piles, undo puis redo (pour l'estimation de la mémoire)
+     */
+    java.util.List<PieceDTO> getEtats() {
+        java.util.List<PieceDTO> etats = new java.util.ArrayList<>(pileUndo.size() + pileRedo.size());
+        etats.addAll(pileUndo);
+        etats.addAll(pileRedo);
+        return etats;
+    }
+
     /**
      * Vide toutes les piles (utile lors de la création d'une nouvelle pièce)
      */
@@ -34,6 +34,10 @@ public abstract class Zone implements Identifiable {
         return id;
     }
 
+    public void setId(int id) {
+        this.id = id;
+    }
+
     // === Getters et Setters ===
     public Point getPosition() {
         return position;
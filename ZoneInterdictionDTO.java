@@ -4,6 +4,7 @@ import java.awt.Point;
 
 /**
  * DTO pour la communication des données de zone d'interdiction
+ * Les DTO retournés par le contrôleur (PieceMapper) sont en lecture seule : voir estFige.
  */
 public class ZoneInterdictionDTO {
     private int id;
@@ -11,6 +12,7 @@ public class ZoneInterdictionDTO {
     private int largeur;
     private int longueur;
     private String nom;
+    private boolean fige; // partagé en lecture seule (voir figer)
 
     public ZoneInterdictionDTO() {
     }
@@ -29,14 +31,16 @@ public class ZoneInterdictionDTO {
     }
 
     public void setId(int id) {
+        verifierModifiable();
         this.id = id;
     }
 
     public Point getPosition() {
-        return position;
+        return fige && position != null ? new Point(position) : position;
     }
 
     public void setPosition(Point position) {
+        verifierModifiable();
         this.position = position;
     }
 
@@ -45,6 +49,7 @@ public class ZoneInterdictionDTO {
     }
 
     public void setLargeur(int largeur) {
+        verifierModifiable();
         this.largeur = largeur;
     }
 
@@ -53,6 +58,7 @@ public class ZoneInterdictionDTO {
     }
 
     public void setLongueur(int longueur) {
+        verifierModifiable();
         this.longueur = longueur;
     }
 
@@ -61,7 +67,29 @@ public class ZoneInterdictionDTO {
     }
 
     public void setNom(String nom) {
+        verifierModifiable();
         this.nom = nom;
     }
+
+    /**
+     * Rend le DTO non modifiable (DTO partagé par le cache de PieceMapper)
+     */
+    ZoneInterdictionDTO figer() {
+        fige = true;
+        return this;
+    }
+
+    /**
+     * Indique si le DTO est partagé en lecture seule : ses setters lèvent IllegalStateException
+     */
+    public boolean estFige() {
+        return fige;
+    }
+
+    private void verifierModifiable() {
+        if (fige) {
+            throw new IllegalStateException("DTO partagé en lecture seule");
+        }
+    }
 }
 
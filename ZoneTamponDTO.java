@@ -4,6 +4,7 @@ import java.awt.Point;
 
 /**
  * DTO pour la communication des données de zone tampon
+ * Les DTO retournés par le contrôleur (PieceMapper) sont en lecture seule : voir estFige.
  */
 public class ZoneTamponDTO {
     private int id;
@@ -12,6 +13,7 @@ public class ZoneTamponDTO {
     private int longueur;
     private double distance;
     private String nom;
+    private boolean fige; // partagé en lecture seule (voir figer)
 
     public ZoneTamponDTO() {
     }
@@ -26,10 +28,11 @@ public class ZoneTamponDTO {
 
     // === Getters et Setters ===
     public Point getPosition() {
-        return position;
+        return fige && position != null ? new Point(position) : position;
     }
 
     public void setPosition(Point position) {
+        verifierModifiable();
         this.position = position;
     }
 
@@ -38,6 +41,7 @@ public class ZoneTamponDTO {
     }
 
     public void setLargeur(int largeur) {
+        verifierModifiable();
         this.largeur = largeur;
     }
 
@@ -46,6 +50,7 @@ public class ZoneTamponDTO {
     }
 
     public void setLongueur(int longueur) {
+        verifierModifiable();
         this.longueur = longueur;
     }
 
@@ -54,6 +59,7 @@ public class ZoneTamponDTO {
     }
 
     public void setDistance(double distance) {
+        verifierModifiable();
         this.distance = distance;
     }
 
@@ -62,6 +68,7 @@ public class ZoneTamponDTO {
     }
 
     public void setNom(String nom) {
+        verifierModifiable();
         this.nom = nom;
     }
 
@@ -70,6 +77,28 @@ public class ZoneTamponDTO {
     }
 
     public void setId(int id) {
+        verifierModifiable();
         this.id = id;
     }
+
+    /**
+     * Rend le DTO non modifiable (DTO partagé par le cache de PieceMapper)
+     */
+    ZoneTamponDTO figer() {
+        fige = true;
+        return this;
+    }
+
+    /**
+     * Indique si le DTO est partagé en lecture seule : ses setters lèvent IllegalStateException
+     */
+    public boolean estFige() {
+        return fige;
+    }
+
+    private void verifierModifiable() {
+        if (fige) {
+            throw new IllegalStateException("DTO partagé en lecture seule");
+        }
+    }
 }